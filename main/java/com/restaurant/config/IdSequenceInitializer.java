@@ -0,0 +1,59 @@
+package com.restaurant.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+// Таблицы orders, order_items, payments и stock_movements раньше заполнялись через IDENTITY.
+// Поднимаем счётчики последовательностей выше уже выданных id, чтобы не получить дубликаты ключей.
+// Только для MySQL: там Hibernate хранит последовательность в таблице *_seq с одной строкой next_val.
+// На базах с настоящими последовательностями (H2, PostgreSQL) выравнивание пропускается.
+@Component
+@DependsOn("entityManagerFactory")
+public class IdSequenceInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdSequenceInitializer.class);
+
+    // Должен совпадать с allocationSize в @SequenceGenerator
+    private static final int ALLOCATION_SIZE = 50;
+
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "orders_seq", "orders",
+            "order_items_seq", "order_items",
+            "payments_seq", "payments",
+            "stock_movements_seq", "stock_movements"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Dialect dialect;
+
+    public IdSequenceInitializer(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+    }
+
+    @PostConstruct
+    public void alignSequences() {
+        if (dialect.getSequenceSupport().supportsSequences()) {
+            logger.info("Dialect {} has native sequences, id sequences are not aligned", dialect.getClass().getSimpleName());
+            return;
+        }
+        SEQUENCES.forEach((sequence, table) -> {
+            try {
+                jdbcTemplate.update("UPDATE " + sequence + " SET next_val = GREATEST(next_val, " +
+                        "(SELECT COALESCE(MAX(id), 0) + " + (ALLOCATION_SIZE + 1) + " FROM " + table + "))");
+            } catch (DataAccessException e) {
+                logger.warn("Could not align sequence {} with table {}: {}", sequence, table, e.getMessage());
+            }
+        });
+    }
+}
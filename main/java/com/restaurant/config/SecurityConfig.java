@@ -59,6 +59,9 @@ public class SecurityConfig {
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/api/menu/dishes/active").permitAll()
                         .requestMatchers("/api/menu/categories").permitAll()
+                        .requestMatchers("/api/menu/tree").permitAll()
+                        .requestMatchers("/api/menu/dishes/filter").permitAll()
+                        .requestMatchers("/api/menu/allergens").permitAll()
                         .requestMatchers("/api/tables/active").permitAll()
                         .requestMatchers("/api/tables/available").permitAll()
                         .requestMatchers("/api/public/**").permitAll()
@@ -0,0 +1,87 @@
+package com.restaurant.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+
+// Условные GET для справочных данных: ETag и Last-Modified от версии данных.
+// Проверка выполняется до обращения к сервису - на 304 запрос к БД за данными не делается.
+final class HttpCaching {
+
+    // Ответ хранится, но перед использованием сверяется с сервером.
+    // Cache-Control задаётся явно, иначе Spring Security допишет no-store.
+    static final CacheControl PUBLIC = CacheControl.noCache().cachePublic();
+    static final CacheControl PRIVATE = CacheControl.noCache().cachePrivate();
+
+    private HttpCaching() {}
+
+    // 304 с теми же заголовками кэша, если копия клиента актуальна; иначе null
+    static <T> ResponseEntity<T> checkNotModified(WebRequest request, String etag, LocalDateTime lastModified,
+                                                  CacheControl cacheControl) {
+        if (!isNotModified(request, etag, lastModified)) {
+            return null;
+        }
+        return notModified(etag, lastModified, cacheControl).build();
+    }
+
+    static boolean isNotModified(WebRequest request, String etag, LocalDateTime lastModified) {
+        return isNotModified(request.getHeader(HttpHeaders.IF_NONE_MATCH),
+                request.getHeader(HttpHeaders.IF_MODIFIED_SINCE), etag, lastModified);
+    }
+
+    static ResponseEntity.BodyBuilder notModified(String etag, LocalDateTime lastModified, CacheControl cacheControl) {
+        return headers(ResponseEntity.status(HttpStatus.NOT_MODIFIED), etag, lastModified, cacheControl);
+    }
+
+    static ResponseEntity.BodyBuilder ok(String etag, LocalDateTime lastModified, CacheControl cacheControl) {
+        return headers(ResponseEntity.ok(), etag, lastModified, cacheControl);
+    }
+
+    // If-None-Match важнее If-Modified-Since (RFC 9110, 13.2.2); для GET метки сравниваются слабо
+    static boolean isNotModified(String ifNoneMatch, String ifModifiedSince, String etag, LocalDateTime lastModified) {
+        if (ifNoneMatch != null) {
+            for (String tag : ifNoneMatch.split(",")) {
+                String candidate = tag.trim();
+                if (candidate.startsWith("W/")) {
+                    candidate = candidate.substring(2);
+                }
+                if (candidate.equals("*") || candidate.equals(etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (ifModifiedSince == null || lastModified == null) {
+            return false;
+        }
+        try {
+            ZonedDateTime since = ZonedDateTime.parse(ifModifiedSince.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+            return !toHttpTime(lastModified).isAfter(since);
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    private static ResponseEntity.BodyBuilder headers(ResponseEntity.BodyBuilder builder, String etag,
+                                                      LocalDateTime lastModified, CacheControl cacheControl) {
+        builder.eTag(etag).cacheControl(cacheControl);
+        if (lastModified != null) {
+            builder.lastModified(toHttpTime(lastModified));
+        }
+        return builder;
+    }
+
+    // Время в БД хранится в часовом поясе сервера
+    private static ZonedDateTime toHttpTime(LocalDateTime time) {
+        return time.truncatedTo(ChronoUnit.SECONDS).atZone(ZoneId.systemDefault());
+    }
+}
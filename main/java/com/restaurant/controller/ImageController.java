@@ -0,0 +1,89 @@
+package com.restaurant.controller;
+
+import com.restaurant.service.DishImageService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Варианты фото блюд. Тело не проходит через heap: Tomcat отдаёт файл через sendfile
+// уже после выхода из обработчика, поток запроса сразу освобождается.
+// Без поддержки sendfile (другой контейнер, TLS без APR) - FileChannel.transferTo в поток ответа.
+@RestController
+@RequestMapping(DishImageService.IMAGES_PATH)
+public class ImageController {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // Имя файла - хэш содержимого: по одному URL всегда одни и те же байты
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+
+    private final DishImageService dishImageService;
+
+    public ImageController(DishImageService dishImageService) {
+        this.dishImageService = dishImageService;
+    }
+
+    @GetMapping("/{fileName:.+}")
+    public void getImage(@PathVariable String fileName,
+                         HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+        boolean acceptsWebp = dishImageService.isWebpSupported() && acceptsWebp(request.getHeader(HttpHeaders.ACCEPT));
+        Path file = dishImageService.resolveVariant(fileName, acceptsWebp);
+        if (file == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        boolean webp = file.getFileName().toString().endsWith(".webp");
+        String etag = "\"" + file.getFileName() + "\"";
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, IMMUTABLE);
+        response.setHeader(HttpHeaders.ETAG, etag);
+        if (dishImageService.isWebpSupported()) {
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+        if (HttpCaching.isNotModified(request.getHeader(HttpHeaders.IF_NONE_MATCH), null, etag, null)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long size = Files.size(file);
+        response.setContentType(webp ? "image/webp" : MediaType.IMAGE_JPEG_VALUE);
+        response.setContentLengthLong(size);
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, size);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, out);
+            }
+        }
+    }
+
+    private static boolean acceptsWebp(String accept) {
+        return accept != null && accept.contains("image/webp");
+    }
+}
@@ -3,6 +3,7 @@ package com.restaurant.controller;
 import com.restaurant.dto.CommonDTO;
 import com.restaurant.dto.InventoryDTO;
 import com.restaurant.service.InventoryService;
+import com.restaurant.service.SuggestService;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -18,9 +19,22 @@ import java.util.stream.Collectors;
 public class InventoryController {
 
     private final InventoryService inventoryService;
+    private final SuggestService suggestService;
 
-    public InventoryController(InventoryService inventoryService) {
+    public InventoryController(InventoryService inventoryService, SuggestService suggestService) {
         this.inventoryService = inventoryService;
+        this.suggestService = suggestService;
+    }
+
+    // Подсказки при наборе названия ингредиента
+    @GetMapping("/ingredients/suggest")
+    @PreAuthorize("hasRole('STOREKEEPER') or hasRole('MANAGER') or hasRole('ADMIN') or hasRole('CHEF')")
+    public ResponseEntity<CommonDTO.ApiResponse<List<CommonDTO.Suggestion>>> suggestIngredients(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        List<CommonDTO.Suggestion> suggestions =
+                suggestService.suggestIngredients(prefix, Math.min(Math.max(limit, 1), 50));
+        return ResponseEntity.ok(CommonDTO.ApiResponse.success(suggestions));
     }
 
     @GetMapping("/low-stock")
@@ -0,0 +1,105 @@
+package com.restaurant.controller;
+
+import com.restaurant.dto.CommonDTO;
+import com.restaurant.dto.KitchenDTO;
+import com.restaurant.service.KitchenScheduler;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/kitchen")
+public class KitchenController {
+
+    private final KitchenScheduler kitchenScheduler;
+
+    public KitchenController(KitchenScheduler kitchenScheduler) {
+        this.kitchenScheduler = kitchenScheduler;
+    }
+
+    @GetMapping("/stations")
+    @PreAuthorize("hasRole('CHEF') or hasRole('MANAGER') or hasRole('ADMIN')")
+    public ResponseEntity<CommonDTO.ApiResponse<List<KitchenDTO.StationSummary>>> getStations() {
+        return ResponseEntity.ok(CommonDTO.ApiResponse.success(kitchenScheduler.getStations()));
+    }
+
+    @GetMapping("/stations/{station}/queue")
+    @PreAuthorize("hasRole('CHEF') or hasRole('MANAGER') or hasRole('ADMIN')")
+    public ResponseEntity<CommonDTO.ApiResponse<List<KitchenDTO.TaskResponse>>> getQueue(
+            @PathVariable String station,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            List<KitchenDTO.TaskResponse> queue = kitchenScheduler.getQueue(station, Math.min(Math.max(limit, 1), 200));
+            return ResponseEntity.ok(CommonDTO.ApiResponse.success(queue));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(CommonDTO.ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    // Повар берёт следующую по приоритету задачу своей станции
+    @PostMapping("/stations/{station}/next")
+    @PreAuthorize("hasRole('CHEF')")
+    public ResponseEntity<CommonDTO.ApiResponse<KitchenDTO.TaskResponse>> takeNext(
+            @PathVariable String station,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        try {
+            KitchenDTO.TaskResponse task = kitchenScheduler.takeNext(station, userDetails.getUsername());
+            if (task == null) {
+                return ResponseEntity.noContent().build();
+            }
+            return ResponseEntity.ok(CommonDTO.ApiResponse.success(task));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(CommonDTO.ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @PostMapping("/tasks/{taskId}/complete")
+    @PreAuthorize("hasRole('CHEF')")
+    public ResponseEntity<CommonDTO.ApiResponse<KitchenDTO.TaskResponse>> complete(
+            @PathVariable Long taskId,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        try {
+            KitchenDTO.TaskResponse task = kitchenScheduler.complete(taskId, userDetails.getUsername());
+            return ResponseEntity.ok(CommonDTO.ApiResponse.success("Task completed", task));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(CommonDTO.ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    // Сводка по блюдам во всех открытых заказах, больше всего порций - первыми
+    @GetMapping("/dishes")
+    @PreAuthorize("hasRole('CHEF') or hasRole('MANAGER') or hasRole('ADMIN')")
+    public ResponseEntity<CommonDTO.ApiResponse<List<KitchenDTO.DishBatch>>> getDishes(
+            @RequestParam(required = false) String station) {
+        return ResponseEntity.ok(CommonDTO.ApiResponse.success(kitchenScheduler.getDishes(station)));
+    }
+
+    @GetMapping("/dishes/{dishId}")
+    @PreAuthorize("hasRole('CHEF') or hasRole('MANAGER') or hasRole('ADMIN')")
+    public ResponseEntity<CommonDTO.ApiResponse<KitchenDTO.DishBatch>> getDish(@PathVariable Long dishId) {
+        try {
+            return ResponseEntity.ok(CommonDTO.ApiResponse.success(kitchenScheduler.getDish(dishId)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(CommonDTO.ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    // Партия блюда готова: порции распределяются по заказам в порядке очереди
+    @PostMapping("/dishes/{dishId}/complete")
+    @PreAuthorize("hasRole('CHEF')")
+    public ResponseEntity<CommonDTO.ApiResponse<KitchenDTO.BatchResult>> completePortions(
+            @PathVariable Long dishId,
+            @RequestParam int portions,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        try {
+            KitchenDTO.BatchResult result = kitchenScheduler.completePortions(dishId, portions, userDetails.getUsername());
+            return ResponseEntity.ok(CommonDTO.ApiResponse.success("Portions allocated", result));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(CommonDTO.ApiResponse.error(e.getMessage()));
+        }
+    }
+}
@@ -2,15 +2,29 @@ package com.restaurant.controller;
 
 import com.restaurant.dto.CommonDTO;
 import com.restaurant.dto.MenuDTO;
-import com.restaurant.entity.MenuCategory;
-import com.restaurant.repository.MenuCategoryRepository;
+import com.restaurant.entity.Allergen;
+import com.restaurant.service.DishImageService;
+import com.restaurant.service.MenuImportService;
 import com.restaurant.service.MenuService;
+import com.restaurant.service.MenuSnapshot;
+import com.restaurant.service.MenuSnapshotService;
+import com.restaurant.service.SuggestService;
 import jakarta.validation.Valid;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.List;
 
 @RestController
@@ -19,11 +33,19 @@ import java.util.List;
 public class MenuController {
 
     private final MenuService menuService;
-    private final MenuCategoryRepository categoryRepository;
+    private final MenuSnapshotService menuSnapshotService;
+    private final SuggestService suggestService;
+    private final DishImageService dishImageService;
+    private final MenuImportService menuImportService;
 
-    public MenuController(MenuService menuService, MenuCategoryRepository categoryRepository) {
+    public MenuController(MenuService menuService, MenuSnapshotService menuSnapshotService,
+                          SuggestService suggestService, DishImageService dishImageService,
+                          MenuImportService menuImportService) {
         this.menuService = menuService;
-        this.categoryRepository = categoryRepository;
+        this.menuSnapshotService = menuSnapshotService;
+        this.suggestService = suggestService;
+        this.dishImageService = dishImageService;
+        this.menuImportService = menuImportService;
     }
 
     @PostMapping("/dishes")
@@ -39,24 +61,41 @@ public class MenuController {
         }
     }
 
+    // Чтения меню отдают ETag и Last-Modified снимка. Снимок берётся до запроса к сервису:
+    // данные из БД бывают только новее его версии, поэтому устаревший ответ под новым ETag не закэшируется.
     @GetMapping("/dishes")
-    public ResponseEntity<CommonDTO.ApiResponse<List<MenuDTO.DishResponse>>> getAllDishes() {
+    public ResponseEntity<CommonDTO.ApiResponse<List<MenuDTO.DishResponse>>> getAllDishes(WebRequest request) {
+        MenuSnapshot snapshot = menuSnapshotService.current();
+        ResponseEntity<CommonDTO.ApiResponse<List<MenuDTO.DishResponse>>> notModified =
+                notModified(request, snapshot, HttpCaching.PRIVATE);
+        if (notModified != null) {
+            return notModified;
+        }
         List<MenuDTO.DishResponse> dishes = menuService.getAllDishes();
-        return ResponseEntity.ok(CommonDTO.ApiResponse.success(dishes));
+        return ok(snapshot, HttpCaching.PRIVATE).body(CommonDTO.ApiResponse.success(dishes));
     }
 
+    // Публичный QR-меню: готовые байты из снимка, без сериализации на каждый запрос
     @GetMapping("/dishes/active")
-    public ResponseEntity<CommonDTO.ApiResponse<List<MenuDTO.DishResponse>>> getActiveDishes() {
-        List<MenuDTO.DishResponse> dishes = menuService.getActiveDishes();
-        return ResponseEntity.ok(CommonDTO.ApiResponse.success(dishes));
+    public ResponseEntity<byte[]> getActiveDishes(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest request) {
+        MenuSnapshot snapshot = menuSnapshotService.current();
+        return snapshotResponse(snapshot, snapshot.getActiveDishesBody(), acceptEncoding, request);
     }
 
     @GetMapping("/dishes/category/{categoryId}")
     public ResponseEntity<CommonDTO.ApiResponse<List<MenuDTO.DishResponse>>> getDishesByCategory(
-            @PathVariable Long categoryId) {
+            @PathVariable Long categoryId, WebRequest request) {
+        MenuSnapshot snapshot = menuSnapshotService.current();
+        ResponseEntity<CommonDTO.ApiResponse<List<MenuDTO.DishResponse>>> notModified =
+                notModified(request, snapshot, HttpCaching.PRIVATE);
+        if (notModified != null) {
+            return notModified;
+        }
         try {
             List<MenuDTO.DishResponse> dishes = menuService.getDishesByCategory(categoryId);
-            return ResponseEntity.ok(CommonDTO.ApiResponse.success(dishes));
+            return ok(snapshot, HttpCaching.PRIVATE).body(CommonDTO.ApiResponse.success(dishes));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest()
                     .body(CommonDTO.ApiResponse.error(e.getMessage()));
@@ -64,16 +103,29 @@ public class MenuController {
     }
 
     @GetMapping("/dishes/promotional")
-    public ResponseEntity<CommonDTO.ApiResponse<List<MenuDTO.DishResponse>>> getPromotionalDishes() {
+    public ResponseEntity<CommonDTO.ApiResponse<List<MenuDTO.DishResponse>>> getPromotionalDishes(WebRequest request) {
+        MenuSnapshot snapshot = menuSnapshotService.current();
+        ResponseEntity<CommonDTO.ApiResponse<List<MenuDTO.DishResponse>>> notModified =
+                notModified(request, snapshot, HttpCaching.PRIVATE);
+        if (notModified != null) {
+            return notModified;
+        }
         List<MenuDTO.DishResponse> dishes = menuService.getPromotionalDishes();
-        return ResponseEntity.ok(CommonDTO.ApiResponse.success(dishes));
+        return ok(snapshot, HttpCaching.PRIVATE).body(CommonDTO.ApiResponse.success(dishes));
     }
 
     @GetMapping("/dishes/{id}")
-    public ResponseEntity<CommonDTO.ApiResponse<MenuDTO.DishResponse>> getDishById(@PathVariable Long id) {
+    public ResponseEntity<CommonDTO.ApiResponse<MenuDTO.DishResponse>> getDishById(@PathVariable Long id,
+                                                                                WebRequest request) {
+        MenuSnapshot snapshot = menuSnapshotService.current();
+        ResponseEntity<CommonDTO.ApiResponse<MenuDTO.DishResponse>> notModified =
+                notModified(request, snapshot, HttpCaching.PRIVATE);
+        if (notModified != null) {
+            return notModified;
+        }
         try {
             MenuDTO.DishResponse dish = menuService.getDishById(id);
-            return ResponseEntity.ok(CommonDTO.ApiResponse.success(dish));
+            return ok(snapshot, HttpCaching.PRIVATE).body(CommonDTO.ApiResponse.success(dish));
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -81,9 +133,57 @@ public class MenuController {
 
     @GetMapping("/dishes/search")
     public ResponseEntity<CommonDTO.ApiResponse<List<MenuDTO.DishResponse>>> searchDishes(
-            @RequestParam String query) {
-        List<MenuDTO.DishResponse> dishes = menuService.searchDishes(query);
-        return ResponseEntity.ok(CommonDTO.ApiResponse.success(dishes));
+            @RequestParam String query,
+            @RequestParam(defaultValue = "50") int limit,
+            WebRequest request) {
+        MenuSnapshot snapshot = menuSnapshotService.current();
+        ResponseEntity<CommonDTO.ApiResponse<List<MenuDTO.DishResponse>>> notModified =
+                notModified(request, snapshot, HttpCaching.PRIVATE);
+        if (notModified != null) {
+            return notModified;
+        }
+        List<MenuDTO.DishResponse> dishes = menuService.searchDishes(query, Math.min(Math.max(limit, 1), 200));
+        return ok(snapshot, HttpCaching.PRIVATE).body(CommonDTO.ApiResponse.success(dishes));
+    }
+
+    // Меню с фильтрами: exclude=NUTS,GLUTEN - без орехов и глютена, include=FISH - только с рыбой
+    @GetMapping("/dishes/filter")
+    public ResponseEntity<CommonDTO.ApiResponse<List<MenuDTO.DishResponse>>> filterDishes(
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Boolean promotional,
+            @RequestParam(required = false) List<String> include,
+            @RequestParam(required = false) List<String> exclude,
+            WebRequest request) {
+        MenuSnapshot snapshot = menuSnapshotService.current();
+        ResponseEntity<CommonDTO.ApiResponse<List<MenuDTO.DishResponse>>> notModified =
+                notModified(request, snapshot, HttpCaching.PUBLIC);
+        if (notModified != null) {
+            return notModified;
+        }
+        try {
+            List<MenuDTO.DishResponse> dishes = menuService.filterDishes(categoryId, promotional, include, exclude);
+            return ok(snapshot, HttpCaching.PUBLIC).body(CommonDTO.ApiResponse.success(dishes));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                    .body(CommonDTO.ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/allergens")
+    public ResponseEntity<CommonDTO.ApiResponse<List<MenuDTO.AllergenResponse>>> getAllergens() {
+        List<MenuDTO.AllergenResponse> allergens = Arrays.stream(Allergen.values())
+                .map(MenuDTO.AllergenResponse::new)
+                .toList();
+        return ResponseEntity.ok(CommonDTO.ApiResponse.success(allergens));
+    }
+
+    // Подсказки при наборе названия: активные блюда, популярные первыми
+    @GetMapping("/dishes/suggest")
+    public ResponseEntity<CommonDTO.ApiResponse<List<CommonDTO.Suggestion>>> suggestDishes(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        List<CommonDTO.Suggestion> suggestions = suggestService.suggestDishes(prefix, Math.min(Math.max(limit, 1), 50));
+        return ResponseEntity.ok(CommonDTO.ApiResponse.success(suggestions));
     }
 
     @PutMapping("/dishes/{id}")
@@ -100,6 +200,59 @@ public class MenuController {
         }
     }
 
+    // Фото блюда: оригинал сохраняется сразу, уменьшенные варианты готовятся в фоне
+    @PostMapping(value = "/dishes/{id}/image", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    public ResponseEntity<CommonDTO.ApiResponse<MenuDTO.ImageUploadResponse>> uploadDishImage(
+            @PathVariable Long id,
+            @RequestParam("file") MultipartFile file) {
+        try {
+            MenuDTO.ImageUploadResponse upload = dishImageService.upload(id, file);
+            return ResponseEntity.accepted().body(CommonDTO.ApiResponse.success("Image accepted", upload));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                    .body(CommonDTO.ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    // Массовая загрузка: CSV с заголовком или JSON-массив, тело читается потоком.
+    // Строки с ошибками попадают в отчёт, остальные сохраняются.
+    @PostMapping("/dishes/import")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    public ResponseEntity<CommonDTO.ApiResponse<MenuDTO.ImportResult>> importDishes(
+            @RequestParam(required = false) String format,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            InputStream body) {
+        try {
+            MenuDTO.ImportResult result = menuImportService.importDishes(body,
+                    MenuImportService.resolveFormat(format, contentType));
+            return ResponseEntity.ok(CommonDTO.ApiResponse.success("Import finished", result));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                    .body(CommonDTO.ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    // Выгрузка в формате импорта; строки пишутся в ответ по мере чтения из БД
+    @GetMapping("/dishes/export")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    public ResponseEntity<StreamingResponseBody> exportDishes(@RequestParam(defaultValue = "csv") String format) {
+        String resolved;
+        try {
+            resolved = MenuImportService.resolveFormat(format, null);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        MediaType contentType = MenuImportService.JSON.equals(resolved)
+                ? MediaType.APPLICATION_JSON
+                : new MediaType("text", "csv", StandardCharsets.UTF_8);
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename("menu." + resolved).build().toString())
+                .body(out -> menuImportService.exportDishes(out, resolved));
+    }
+
     @PostMapping("/dishes/{id}/activate")
     @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
     public ResponseEntity<CommonDTO.ApiResponse<Void>> activateDish(@PathVariable Long id) {
@@ -125,8 +278,69 @@ public class MenuController {
     }
 
     @GetMapping("/categories")
-    public ResponseEntity<CommonDTO.ApiResponse<List<MenuCategory>>> getAllCategories() {
-        List<MenuCategory> categories = categoryRepository.findAllByOrderByDisplayOrderAsc();
-        return ResponseEntity.ok(CommonDTO.ApiResponse.success(categories));
+    public ResponseEntity<byte[]> getAllCategories(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest request) {
+        MenuSnapshot snapshot = menuSnapshotService.current();
+        return snapshotResponse(snapshot, snapshot.getCategoriesBody(), acceptEncoding, request);
+    }
+
+    // Экран меню гостя одним запросом: категории по displayOrder с активными блюдами, готовые байты из снимка
+    @GetMapping("/tree")
+    public ResponseEntity<byte[]> getMenuTree(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest request) {
+        MenuSnapshot snapshot = menuSnapshotService.current();
+        return snapshotResponse(snapshot, snapshot.getMenuTreeBody(), acceptEncoding, request);
+    }
+
+    private static ResponseEntity<byte[]> snapshotResponse(MenuSnapshot snapshot, MenuSnapshot.Body body,
+                                                           String acceptEncoding, WebRequest request) {
+        boolean gzip = acceptsGzip(acceptEncoding);
+        String etag = snapshot.getEtag(gzip);
+        if (HttpCaching.isNotModified(request, etag, snapshot.getLastModified())) {
+            return HttpCaching.notModified(etag, snapshot.getLastModified(), HttpCaching.PUBLIC)
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+        ResponseEntity.BodyBuilder response = HttpCaching.ok(etag, snapshot.getLastModified(), HttpCaching.PUBLIC)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(body.getGzip());
+        }
+        return response.body(body.getJson());
+    }
+
+    private static <T> ResponseEntity<T> notModified(WebRequest request, MenuSnapshot snapshot,
+                                                     CacheControl cacheControl) {
+        return HttpCaching.checkNotModified(request, snapshot.getEtag(), snapshot.getLastModified(), cacheControl);
+    }
+
+    private static ResponseEntity.BodyBuilder ok(MenuSnapshot snapshot, CacheControl cacheControl) {
+        return HttpCaching.ok(snapshot.getEtag(), snapshot.getLastModified(), cacheControl);
+    }
+
+    // gzip принимается, если он указан в Accept-Encoding и не запрещён через q=0
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            String name = parts[0].trim();
+            if (!name.equalsIgnoreCase("gzip") && !name.equals("*")) {
+                continue;
+            }
+            boolean refused = false;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim().replace(" ", "");
+                if (param.startsWith("q=") && param.substring(2).matches("0(\\.0{0,3})?")) {
+                    refused = true;
+                }
+            }
+            return !refused;
+        }
+        return false;
     }
 }
\ No newline at end of file
@@ -2,13 +2,19 @@ package com.restaurant.controller;
 
 import com.restaurant.dto.CommonDTO;
 import com.restaurant.dto.OrderDTO;
+import com.restaurant.entity.OrderStatus;
+import com.restaurant.exception.ConflictException;
+import com.restaurant.service.KitchenTicketStream;
 import com.restaurant.service.OrderService;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import jakarta.validation.Valid;
 import java.time.LocalDateTime;
@@ -20,19 +26,24 @@ import java.util.Map;
 public class OrderController {
 
     private final OrderService orderService;
+    private final KitchenTicketStream kitchenTicketStream;
 
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, KitchenTicketStream kitchenTicketStream) {
         this.orderService = orderService;
+        this.kitchenTicketStream = kitchenTicketStream;
     }
 
     @PostMapping
     @PreAuthorize("hasRole('WAITER') or hasRole('MANAGER') or hasRole('ADMIN')")
     public ResponseEntity<CommonDTO.ApiResponse<OrderDTO.OrderResponse>> createOrder(
             @Valid @RequestBody OrderDTO.CreateOrderRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @AuthenticationPrincipal UserDetails userDetails) {
         try {
-            OrderDTO.OrderResponse response = orderService.createOrder(request, userDetails.getUsername());
+            OrderDTO.OrderResponse response = orderService.createOrder(request, userDetails.getUsername(), idempotencyKey);
             return ResponseEntity.ok(CommonDTO.ApiResponse.success("Order created successfully", response));
+        } catch (ConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(CommonDTO.ApiResponse.error(e.getMessage()));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(CommonDTO.ApiResponse.error(e.getMessage()));
         }
@@ -49,6 +60,14 @@ public class OrderController {
         }
     }
 
+    @GetMapping("/{id}/status-history")
+    @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN') or hasRole('CHEF')")
+    public ResponseEntity<CommonDTO.ApiResponse<List<OrderDTO.StatusTransitionResponse>>> getStatusHistory(
+            @PathVariable Long id) {
+        List<OrderDTO.StatusTransitionResponse> history = orderService.getStatusHistory(id);
+        return ResponseEntity.ok(CommonDTO.ApiResponse.success(history));
+    }
+
     @GetMapping("/number/{orderNumber}")
     @PreAuthorize("hasRole('WAITER') or hasRole('MANAGER') or hasRole('ADMIN') or hasRole('CHEF')")
     public ResponseEntity<CommonDTO.ApiResponse<OrderDTO.OrderResponse>> getOrderByNumber(
@@ -63,26 +82,44 @@ public class OrderController {
 
     @GetMapping("/status/{status}")
     @PreAuthorize("hasRole('WAITER') or hasRole('MANAGER') or hasRole('ADMIN') or hasRole('CHEF')")
-    public ResponseEntity<CommonDTO.ApiResponse<List<OrderDTO.OrderResponse>>> getOrdersByStatus(
-            @PathVariable String status) {
-        List<OrderDTO.OrderResponse> orders = orderService.getOrdersByStatus(status);
-        return ResponseEntity.ok(CommonDTO.ApiResponse.success(orders));
+    public ResponseEntity<CommonDTO.ApiResponse<CommonDTO.CursorPageResponse<OrderDTO.OrderResponse>>> getOrdersByStatus(
+            @PathVariable String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            CommonDTO.CursorPageResponse<OrderDTO.OrderResponse> orders = orderService.getOrdersByStatus(status, cursor, size);
+            return ResponseEntity.ok(CommonDTO.ApiResponse.success(orders));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(CommonDTO.ApiResponse.error(e.getMessage()));
+        }
     }
 
     @GetMapping("/table/{tableNumber}")
     @PreAuthorize("hasRole('WAITER') or hasRole('MANAGER') or hasRole('ADMIN') or hasRole('CHEF')")
-    public ResponseEntity<CommonDTO.ApiResponse<List<OrderDTO.OrderResponse>>> getOrdersByTable(
-            @PathVariable String tableNumber) {
-        List<OrderDTO.OrderResponse> orders = orderService.getOrdersByTable(tableNumber);
-        return ResponseEntity.ok(CommonDTO.ApiResponse.success(orders));
+    public ResponseEntity<CommonDTO.ApiResponse<CommonDTO.CursorPageResponse<OrderDTO.OrderResponse>>> getOrdersByTable(
+            @PathVariable String tableNumber,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            CommonDTO.CursorPageResponse<OrderDTO.OrderResponse> orders = orderService.getOrdersByTable(tableNumber, cursor, size);
+            return ResponseEntity.ok(CommonDTO.ApiResponse.success(orders));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(CommonDTO.ApiResponse.error(e.getMessage()));
+        }
     }
 
     @GetMapping("/waiter/{waiterUsername}")
     @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN')")
-    public ResponseEntity<CommonDTO.ApiResponse<List<OrderDTO.OrderResponse>>> getOrdersByWaiter(
-            @PathVariable String waiterUsername) {
-        List<OrderDTO.OrderResponse> orders = orderService.getOrdersByWaiter(waiterUsername);
-        return ResponseEntity.ok(CommonDTO.ApiResponse.success(orders));
+    public ResponseEntity<CommonDTO.ApiResponse<CommonDTO.CursorPageResponse<OrderDTO.OrderResponse>>> getOrdersByWaiter(
+            @PathVariable String waiterUsername,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            CommonDTO.CursorPageResponse<OrderDTO.OrderResponse> orders = orderService.getOrdersByWaiter(waiterUsername, cursor, size);
+            return ResponseEntity.ok(CommonDTO.ApiResponse.success(orders));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(CommonDTO.ApiResponse.error(e.getMessage()));
+        }
     }
 
     @PutMapping("/{id}/status/{status}")
@@ -93,6 +130,8 @@ public class OrderController {
         try {
             OrderDTO.OrderResponse response = orderService.updateOrderStatus(id, status);
             return ResponseEntity.ok(CommonDTO.ApiResponse.success("Order status updated", response));
+        } catch (ConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(CommonDTO.ApiResponse.error(e.getMessage()));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(CommonDTO.ApiResponse.error(e.getMessage()));
         }
@@ -106,6 +145,23 @@ public class OrderController {
         try {
             OrderDTO.OrderResponse response = orderService.addOrderItem(id, itemRequest);
             return ResponseEntity.ok(CommonDTO.ApiResponse.success("Item added to order", response));
+        } catch (ConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(CommonDTO.ApiResponse.error(e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(CommonDTO.ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @PatchMapping("/{id}/items")
+    @PreAuthorize("hasRole('WAITER') or hasRole('MANAGER') or hasRole('ADMIN')")
+    public ResponseEntity<CommonDTO.ApiResponse<OrderDTO.OrderResponse>> updateOrderItems(
+            @PathVariable Long id,
+            @Valid @RequestBody OrderDTO.UpdateOrderItemsRequest request) {
+        try {
+            OrderDTO.OrderResponse response = orderService.updateOrderItems(id, request);
+            return ResponseEntity.ok(CommonDTO.ApiResponse.success("Order items updated", response));
+        } catch (ConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(CommonDTO.ApiResponse.error(e.getMessage()));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(CommonDTO.ApiResponse.error(e.getMessage()));
         }
@@ -128,16 +184,32 @@ public class OrderController {
     @GetMapping("/kitchen")
     @PreAuthorize("hasRole('CHEF') or hasRole('MANAGER') or hasRole('ADMIN')")
     public ResponseEntity<CommonDTO.ApiResponse<List<OrderDTO.OrderResponse>>> getKitchenOrders() {
-        List<OrderDTO.OrderResponse> orders = orderService.getOrdersByStatus("готовится");
+        List<OrderDTO.OrderResponse> orders = orderService.getOrdersByStatus(OrderStatus.COOKING);
         return ResponseEntity.ok(CommonDTO.ApiResponse.success(orders));
     }
 
+    // Для кухонного экрана - снимок заказов и далее только изменения (SSE).
+    // После переподключения браузер присылает Last-Event-ID и получает пропущенные изменения.
+    @GetMapping(value = "/kitchen/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('CHEF') or hasRole('MANAGER') or hasRole('ADMIN')")
+    public SseEmitter streamKitchenOrders(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return kitchenTicketStream.subscribe(lastEventId);
+    }
+
     // Для официанта - получить свои заказы
     @GetMapping("/my-orders")
     @PreAuthorize("hasRole('WAITER')")
-    public ResponseEntity<CommonDTO.ApiResponse<List<OrderDTO.OrderResponse>>> getMyOrders(
-            @AuthenticationPrincipal UserDetails userDetails) {
-        List<OrderDTO.OrderResponse> orders = orderService.getOrdersByWaiter(userDetails.getUsername());
-        return ResponseEntity.ok(CommonDTO.ApiResponse.success(orders));
+    public ResponseEntity<CommonDTO.ApiResponse<CommonDTO.CursorPageResponse<OrderDTO.OrderResponse>>> getMyOrders(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            CommonDTO.CursorPageResponse<OrderDTO.OrderResponse> orders =
+                    orderService.getOrdersByWaiter(userDetails.getUsername(), cursor, size);
+            return ResponseEntity.ok(CommonDTO.ApiResponse.success(orders));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(CommonDTO.ApiResponse.error(e.getMessage()));
+        }
     }
 }
\ No newline at end of file
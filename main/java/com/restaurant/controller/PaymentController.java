@@ -2,10 +2,15 @@ package com.restaurant.controller;
 
 import com.restaurant.dto.CommonDTO;
 import com.restaurant.dto.PaymentDTO;
+import com.restaurant.entity.Payment;
+import com.restaurant.exception.ConflictException;
 import com.restaurant.service.PaymentService;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
@@ -25,10 +30,15 @@ public class PaymentController {
     @PostMapping
     @PreAuthorize("hasRole('WAITER') or hasRole('MANAGER') or hasRole('ADMIN')")
     public ResponseEntity<CommonDTO.ApiResponse<PaymentDTO.PaymentResponse>> createPayment(
-            @Valid @RequestBody PaymentDTO.CreatePaymentRequest request) {
+            @Valid @RequestBody PaymentDTO.CreatePaymentRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @AuthenticationPrincipal UserDetails userDetails) {
         try {
-            PaymentDTO.PaymentResponse response = paymentService.createPayment(request);
+            PaymentDTO.PaymentResponse response = paymentService.createPayment(request, userDetails.getUsername(),
+                    idempotencyKey);
             return ResponseEntity.ok(CommonDTO.ApiResponse.success("Payment created successfully", response));
+        } catch (ConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(CommonDTO.ApiResponse.error(e.getMessage()));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(CommonDTO.ApiResponse.error(e.getMessage()));
         }
@@ -42,14 +52,49 @@ public class PaymentController {
         return ResponseEntity.ok(CommonDTO.ApiResponse.success(payments));
     }
 
+    @GetMapping("/status/{status}")
+    @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN')")
+    public ResponseEntity<CommonDTO.ApiResponse<CommonDTO.CursorPageResponse<PaymentDTO.PaymentResponse>>> getPaymentsByStatus(
+            @PathVariable Payment.PaymentStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            CommonDTO.CursorPageResponse<PaymentDTO.PaymentResponse> payments =
+                    paymentService.getPaymentsByStatus(status, cursor, size);
+            return ResponseEntity.ok(CommonDTO.ApiResponse.success(payments));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(CommonDTO.ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/method/{method}")
+    @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN')")
+    public ResponseEntity<CommonDTO.ApiResponse<CommonDTO.CursorPageResponse<PaymentDTO.PaymentResponse>>> getPaymentsByMethod(
+            @PathVariable Payment.PaymentMethod method,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            CommonDTO.CursorPageResponse<PaymentDTO.PaymentResponse> payments =
+                    paymentService.getPaymentsByMethod(method, cursor, size);
+            return ResponseEntity.ok(CommonDTO.ApiResponse.success(payments));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(CommonDTO.ApiResponse.error(e.getMessage()));
+        }
+    }
+
     @PostMapping("/{id}/process")
     @PreAuthorize("hasRole('WAITER') or hasRole('MANAGER') or hasRole('ADMIN')")
     public ResponseEntity<CommonDTO.ApiResponse<PaymentDTO.PaymentResponse>> processPayment(
             @PathVariable Long id,
-            @RequestParam String transactionId) {
+            @RequestParam String transactionId,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @AuthenticationPrincipal UserDetails userDetails) {
         try {
-            PaymentDTO.PaymentResponse response = paymentService.processPayment(id, transactionId);
+            PaymentDTO.PaymentResponse response = paymentService.processPayment(id, transactionId,
+                    userDetails.getUsername(), idempotencyKey);
             return ResponseEntity.ok(CommonDTO.ApiResponse.success("Payment processed successfully", response));
+        } catch (ConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(CommonDTO.ApiResponse.error(e.getMessage()));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(CommonDTO.ApiResponse.error(e.getMessage()));
         }
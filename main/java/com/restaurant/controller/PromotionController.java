@@ -0,0 +1,100 @@
+package com.restaurant.controller;
+
+import com.restaurant.dto.CommonDTO;
+import com.restaurant.dto.MenuDTO;
+import com.restaurant.service.PriceHistoryService;
+import com.restaurant.service.PromotionService;
+import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Акции по расписанию и история цен блюд
+@RestController
+@RequestMapping("/api/menu")
+@Validated
+public class PromotionController {
+
+    private final PromotionService promotionService;
+    private final PriceHistoryService priceHistoryService;
+
+    public PromotionController(PromotionService promotionService, PriceHistoryService priceHistoryService) {
+        this.promotionService = promotionService;
+        this.priceHistoryService = priceHistoryService;
+    }
+
+    @GetMapping("/dishes/{dishId}/promotions")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    public ResponseEntity<CommonDTO.ApiResponse<List<MenuDTO.PromotionResponse>>> getPromotions(
+            @PathVariable Long dishId) {
+        List<MenuDTO.PromotionResponse> promotions = promotionService.getPromotions(dishId);
+        return ResponseEntity.ok(CommonDTO.ApiResponse.success(promotions));
+    }
+
+    @PostMapping("/dishes/{dishId}/promotions")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    public ResponseEntity<CommonDTO.ApiResponse<MenuDTO.PromotionResponse>> createPromotion(
+            @PathVariable Long dishId,
+            @Valid @RequestBody MenuDTO.PromotionRequest request) {
+        try {
+            MenuDTO.PromotionResponse promotion = promotionService.createPromotion(dishId, request);
+            return ResponseEntity.ok(CommonDTO.ApiResponse.success("Promotion created successfully", promotion));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                    .body(CommonDTO.ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @PutMapping("/promotions/{id}")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    public ResponseEntity<CommonDTO.ApiResponse<MenuDTO.PromotionResponse>> updatePromotion(
+            @PathVariable Long id,
+            @Valid @RequestBody MenuDTO.PromotionRequest request) {
+        try {
+            MenuDTO.PromotionResponse promotion = promotionService.updatePromotion(id, request);
+            return ResponseEntity.ok(CommonDTO.ApiResponse.success("Promotion updated successfully", promotion));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                    .body(CommonDTO.ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/promotions/{id}")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    public ResponseEntity<CommonDTO.ApiResponse<Void>> disablePromotion(@PathVariable Long id) {
+        try {
+            promotionService.disablePromotion(id);
+            return ResponseEntity.ok(CommonDTO.ApiResponse.success("Promotion disabled successfully", null));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                    .body(CommonDTO.ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/dishes/{dishId}/price-history")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    public ResponseEntity<CommonDTO.ApiResponse<List<MenuDTO.PriceHistoryResponse>>> getPriceHistory(
+            @PathVariable Long dishId) {
+        List<MenuDTO.PriceHistoryResponse> history = priceHistoryService.getHistory(dishId);
+        return ResponseEntity.ok(CommonDTO.ApiResponse.success(history));
+    }
+
+    // Цена блюда, действовавшая в указанный момент
+    @GetMapping("/dishes/{dishId}/price-at")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    public ResponseEntity<CommonDTO.ApiResponse<MenuDTO.PriceHistoryResponse>> getPriceAt(
+            @PathVariable Long dishId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        MenuDTO.PriceHistoryResponse price = priceHistoryService.getPriceAt(dishId, at);
+        if (price == null) {
+            return ResponseEntity.badRequest()
+                    .body(CommonDTO.ApiResponse.error("No price recorded for dish " + dishId + " at " + at));
+        }
+        return ResponseEntity.ok(CommonDTO.ApiResponse.success(price));
+    }
+}
@@ -1,6 +1,8 @@
 package com.restaurant.controller;
 
 import com.restaurant.dto.CommonDTO;
+import com.restaurant.dto.OrderDTO;
+import com.restaurant.service.OrderStatusTimingService;
 import com.restaurant.service.ReportService;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
@@ -9,6 +11,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -16,9 +19,26 @@ import java.util.Map;
 public class ReportController {
 
     private final ReportService reportService;
+    private final OrderStatusTimingService orderStatusTimingService;
 
-    public ReportController(ReportService reportService) {
+    public ReportController(ReportService reportService, OrderStatusTimingService orderStatusTimingService) {
         this.reportService = reportService;
+        this.orderStatusTimingService = orderStatusTimingService;
+    }
+
+    // Перцентили времени в статусах; groupBy: status, category, waiter или hour
+    @GetMapping("/status-times")
+    @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN')")
+    public ResponseEntity<CommonDTO.ApiResponse<List<OrderDTO.StatusTimeStats>>> getStatusTimes(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "status") String groupBy) {
+        try {
+            List<OrderDTO.StatusTimeStats> stats = orderStatusTimingService.getStatusTimes(startDate, endDate, groupBy);
+            return ResponseEntity.ok(CommonDTO.ApiResponse.success(stats));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(CommonDTO.ApiResponse.error(e.getMessage()));
+        }
     }
 
     @GetMapping("/revenue/daily")
@@ -59,6 +79,20 @@ public class ReportController {
         }
     }
 
+    @GetMapping("/dishes/{dishId}/price-periods")
+    @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN')")
+    public ResponseEntity<CommonDTO.ApiResponse<Map<String, Object>>> getDishPricePeriodsReport(
+            @PathVariable Long dishId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        try {
+            Map<String, Object> report = reportService.getDishPricePeriodsReport(dishId, startDate, endDate);
+            return ResponseEntity.ok(CommonDTO.ApiResponse.success(report));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(CommonDTO.ApiResponse.error(e.getMessage()));
+        }
+    }
+
     @GetMapping("/table-occupancy")
     @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN')")
     public ResponseEntity<CommonDTO.ApiResponse<Map<String, Object>>> getTableOccupancyReport(
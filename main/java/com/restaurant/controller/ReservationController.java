@@ -4,8 +4,10 @@ import com.restaurant.dto.CommonDTO;
 import com.restaurant.dto.ReservationDTO;
 import com.restaurant.entity.Reservation;
 import com.restaurant.entity.RestaurantTable;
+import com.restaurant.exception.ConflictException;
 import com.restaurant.service.ReservationService;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -44,18 +46,32 @@ public class ReservationController {
 
     @GetMapping("/date/{date}")
     @PreAuthorize("hasRole('MANAGER') or hasRole('WAITER') or hasRole('ADMIN')")
-    public ResponseEntity<CommonDTO.ApiResponse<List<ReservationDTO.ReservationResponse>>> getReservationsByDate(
-            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
-        List<ReservationDTO.ReservationResponse> reservations = reservationService.getReservationsByDate(date);
-        return ResponseEntity.ok(CommonDTO.ApiResponse.success(reservations));
+    public ResponseEntity<CommonDTO.ApiResponse<CommonDTO.CursorPageResponse<ReservationDTO.ReservationResponse>>> getReservationsByDate(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            CommonDTO.CursorPageResponse<ReservationDTO.ReservationResponse> reservations =
+                    reservationService.getReservationsByDate(date, cursor, size);
+            return ResponseEntity.ok(CommonDTO.ApiResponse.success(reservations));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(CommonDTO.ApiResponse.error(e.getMessage()));
+        }
     }
 
     @GetMapping("/status/{status}")
     @PreAuthorize("hasRole('MANAGER') or hasRole('WAITER') or hasRole('ADMIN')")
-    public ResponseEntity<CommonDTO.ApiResponse<List<ReservationDTO.ReservationResponse>>> getReservationsByStatus(
-            @PathVariable Reservation.ReservationStatus status) {
-        List<ReservationDTO.ReservationResponse> reservations = reservationService.getReservationsByStatus(status);
-        return ResponseEntity.ok(CommonDTO.ApiResponse.success(reservations));
+    public ResponseEntity<CommonDTO.ApiResponse<CommonDTO.CursorPageResponse<ReservationDTO.ReservationResponse>>> getReservationsByStatus(
+            @PathVariable Reservation.ReservationStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            CommonDTO.CursorPageResponse<ReservationDTO.ReservationResponse> reservations =
+                    reservationService.getReservationsByStatus(status, cursor, size);
+            return ResponseEntity.ok(CommonDTO.ApiResponse.success(reservations));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(CommonDTO.ApiResponse.error(e.getMessage()));
+        }
     }
 
     @PostMapping("/{id}/confirm")
@@ -65,6 +81,8 @@ public class ReservationController {
         try {
             ReservationDTO.ReservationResponse response = reservationService.confirmReservation(id);
             return ResponseEntity.ok(CommonDTO.ApiResponse.success("Reservation confirmed", response));
+        } catch (ConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(CommonDTO.ApiResponse.error(e.getMessage()));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(CommonDTO.ApiResponse.error(e.getMessage()));
         }
@@ -77,6 +95,8 @@ public class ReservationController {
         try {
             ReservationDTO.ReservationResponse response = reservationService.cancelReservation(id);
             return ResponseEntity.ok(CommonDTO.ApiResponse.success("Reservation cancelled", response));
+        } catch (ConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(CommonDTO.ApiResponse.error(e.getMessage()));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(CommonDTO.ApiResponse.error(e.getMessage()));
         }
@@ -113,9 +133,31 @@ public class ReservationController {
     // ДОПОЛНИТЕЛЬНЫЕ МЕТОДЫ
     @GetMapping("/guest/{phone}")
     @PreAuthorize("hasRole('MANAGER') or hasRole('WAITER') or hasRole('ADMIN')")
-    public ResponseEntity<CommonDTO.ApiResponse<List<ReservationDTO.ReservationResponse>>> getReservationsByGuestPhone(
-            @PathVariable String phone) {
-        List<ReservationDTO.ReservationResponse> reservations = reservationService.getReservationsByGuestPhone(phone);
-        return ResponseEntity.ok(CommonDTO.ApiResponse.success(reservations));
+    public ResponseEntity<CommonDTO.ApiResponse<CommonDTO.CursorPageResponse<ReservationDTO.ReservationResponse>>> getReservationsByGuestPhone(
+            @PathVariable String phone,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            CommonDTO.CursorPageResponse<ReservationDTO.ReservationResponse> reservations =
+                    reservationService.getReservationsByGuestPhone(phone, cursor, size);
+            return ResponseEntity.ok(CommonDTO.ApiResponse.success(reservations));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(CommonDTO.ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/search")
+    @PreAuthorize("hasRole('MANAGER') or hasRole('WAITER') or hasRole('ADMIN')")
+    public ResponseEntity<CommonDTO.ApiResponse<CommonDTO.CursorPageResponse<ReservationDTO.ReservationResponse>>> getReservationsByGuestName(
+            @RequestParam String guestName,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            CommonDTO.CursorPageResponse<ReservationDTO.ReservationResponse> reservations =
+                    reservationService.getReservationsByGuestName(guestName, cursor, size);
+            return ResponseEntity.ok(CommonDTO.ApiResponse.success(reservations));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(CommonDTO.ApiResponse.error(e.getMessage()));
+        }
     }
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.restaurant.controller;
 
 import com.restaurant.dto.CommonDTO;
 import com.restaurant.entity.RestaurantTable;
+import com.restaurant.service.DataVersionService;
 import com.restaurant.service.TableService;
 import jakarta.validation.Valid;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -9,6 +10,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -20,9 +22,11 @@ import java.util.Map;
 public class TableController {
 
     private final TableService tableService;
+    private final DataVersionService dataVersionService;
 
-    public TableController(TableService tableService) {
+    public TableController(TableService tableService, DataVersionService dataVersionService) {
         this.tableService = tableService;
+        this.dataVersionService = dataVersionService;
     }
 
     @PostMapping
@@ -38,16 +42,33 @@ public class TableController {
         }
     }
 
+    // Версия читается до списка столов: данные бывают только новее неё, а не наоборот
     @GetMapping
-    public ResponseEntity<CommonDTO.ApiResponse<List<RestaurantTable>>> getAllTables() {
+    public ResponseEntity<CommonDTO.ApiResponse<List<RestaurantTable>>> getAllTables(WebRequest request) {
+        DataVersionService.Version version = dataVersionService.current(DataVersionService.TABLES);
+        String etag = version.etag(DataVersionService.TABLES);
+        ResponseEntity<CommonDTO.ApiResponse<List<RestaurantTable>>> notModified =
+                HttpCaching.checkNotModified(request, etag, version.getUpdatedAt(), HttpCaching.PRIVATE);
+        if (notModified != null) {
+            return notModified;
+        }
         List<RestaurantTable> tables = tableService.getAllTables();
-        return ResponseEntity.ok(CommonDTO.ApiResponse.success(tables));
+        return HttpCaching.ok(etag, version.getUpdatedAt(), HttpCaching.PRIVATE)
+                .body(CommonDTO.ApiResponse.success(tables));
     }
 
     @GetMapping("/active")
-    public ResponseEntity<CommonDTO.ApiResponse<List<RestaurantTable>>> getActiveTables() {
+    public ResponseEntity<CommonDTO.ApiResponse<List<RestaurantTable>>> getActiveTables(WebRequest request) {
+        DataVersionService.Version version = dataVersionService.current(DataVersionService.TABLES);
+        String etag = version.etag(DataVersionService.TABLES + "-active");
+        ResponseEntity<CommonDTO.ApiResponse<List<RestaurantTable>>> notModified =
+                HttpCaching.checkNotModified(request, etag, version.getUpdatedAt(), HttpCaching.PUBLIC);
+        if (notModified != null) {
+            return notModified;
+        }
         List<RestaurantTable> tables = tableService.getActiveTables();
-        return ResponseEntity.ok(CommonDTO.ApiResponse.success(tables));
+        return HttpCaching.ok(etag, version.getUpdatedAt(), HttpCaching.PUBLIC)
+                .body(CommonDTO.ApiResponse.success(tables));
     }
 
     @GetMapping("/available")
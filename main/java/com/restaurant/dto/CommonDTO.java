@@ -87,4 +87,54 @@ public class CommonDTO {
         public long getTotalElements() { return totalElements; }
         public void setTotalElements(long totalElements) { this.totalElements = totalElements; }
     }
-}
\ No newline at end of file
+
+    // Страница для постраничной выборки по курсору: nextCursor передаётся в следующий запрос
+    public static class CursorPageResponse<T> {
+        private List<T> content;
+        private String nextCursor;
+        private boolean hasNext;
+        private int size;
+
+        public CursorPageResponse() {}
+
+        public CursorPageResponse(List<T> content, String nextCursor, boolean hasNext, int size) {
+            this.content = content;
+            this.nextCursor = nextCursor;
+            this.hasNext = hasNext;
+            this.size = size;
+        }
+
+        // Геттеры и сеттеры
+        public List<T> getContent() { return content; }
+        public void setContent(List<T> content) { this.content = content; }
+        public String getNextCursor() { return nextCursor; }
+        public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+        public boolean isHasNext() { return hasNext; }
+        public void setHasNext(boolean hasNext) { this.hasNext = hasNext; }
+        public int getSize() { return size; }
+        public void setSize(int size) { this.size = size; }
+    }
+
+    // Подсказка автодополнения: блюдо или ингредиент с недавней популярностью
+    public static class Suggestion {
+        private Long id;
+        private String name;
+        private long popularity;
+
+        public Suggestion() {}
+
+        public Suggestion(Long id, String name, long popularity) {
+            this.id = id;
+            this.name = name;
+            this.popularity = popularity;
+        }
+
+        // Геттеры и сеттеры
+        public Long getId() { return id; }
+        public void setId(Long id) { this.id = id; }
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+        public long getPopularity() { return popularity; }
+        public void setPopularity(long popularity) { this.popularity = popularity; }
+    }
+}
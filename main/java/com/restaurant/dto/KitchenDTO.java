@@ -0,0 +1,272 @@
+package com.restaurant.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class KitchenDTO {
+
+    // Полный снимок заказов на кухне, отправляется при подключении экрана
+    public static class Snapshot {
+        private String streamId;
+        private long sequence;
+        private List<OrderDTO.OrderResponse> orders;
+
+        public Snapshot(String streamId, long sequence, List<OrderDTO.OrderResponse> orders) {
+            this.streamId = streamId;
+            this.sequence = sequence;
+            this.orders = orders;
+        }
+
+        // Геттеры и сеттеры
+        public String getStreamId() { return streamId; }
+        public void setStreamId(String streamId) { this.streamId = streamId; }
+        public long getSequence() { return sequence; }
+        public void setSequence(long sequence) { this.sequence = sequence; }
+        public List<OrderDTO.OrderResponse> getOrders() { return orders; }
+        public void setOrders(List<OrderDTO.OrderResponse> orders) { this.orders = orders; }
+    }
+
+    // Инкрементальное изменение после снимка
+    public static class Delta {
+        public enum Type {
+            ORDER_ADDED, ITEMS_CHANGED, STATUS_CHANGED
+        }
+
+        private long sequence;
+        private Type type;
+        private Long orderId;
+        private String status;
+        private OrderDTO.OrderResponse order;
+
+        public Delta(long sequence, Type type, Long orderId, String status, OrderDTO.OrderResponse order) {
+            this.sequence = sequence;
+            this.type = type;
+            this.orderId = orderId;
+            this.status = status;
+            this.order = order;
+        }
+
+        // Геттеры и сеттеры
+        public long getSequence() { return sequence; }
+        public void setSequence(long sequence) { this.sequence = sequence; }
+        public Type getType() { return type; }
+        public void setType(Type type) { this.type = type; }
+        public Long getOrderId() { return orderId; }
+        public void setOrderId(Long orderId) { this.orderId = orderId; }
+        public String getStatus() { return status; }
+        public void setStatus(String status) { this.status = status; }
+        public OrderDTO.OrderResponse getOrder() { return order; }
+        public void setOrder(OrderDTO.OrderResponse order) { this.order = order; }
+    }
+
+    // Задача кухни: одна позиция заказа на одной станции
+    public static class TaskResponse {
+        private Long taskId;
+        private Long orderId;
+        private String orderNumber;
+        private String tableNumber;
+        private String station;
+        private String dishName;
+        private Integer quantity;
+        private Integer doneQuantity;
+        private String notes;
+        private Integer prepMinutes;
+        private LocalDateTime promisedAt;
+        private String state;
+        private String chef;
+        private LocalDateTime startedAt;
+
+        public TaskResponse(Long taskId, Long orderId, String orderNumber, String tableNumber, String station,
+                            String dishName, Integer quantity, Integer doneQuantity, String notes, Integer prepMinutes,
+                            LocalDateTime promisedAt, String state, String chef, LocalDateTime startedAt) {
+            this.taskId = taskId;
+            this.orderId = orderId;
+            this.orderNumber = orderNumber;
+            this.tableNumber = tableNumber;
+            this.station = station;
+            this.dishName = dishName;
+            this.quantity = quantity;
+            this.doneQuantity = doneQuantity;
+            this.notes = notes;
+            this.prepMinutes = prepMinutes;
+            this.promisedAt = promisedAt;
+            this.state = state;
+            this.chef = chef;
+            this.startedAt = startedAt;
+        }
+
+        // Геттеры и сеттеры
+        public Long getTaskId() { return taskId; }
+        public void setTaskId(Long taskId) { this.taskId = taskId; }
+        public Long getOrderId() { return orderId; }
+        public void setOrderId(Long orderId) { this.orderId = orderId; }
+        public String getOrderNumber() { return orderNumber; }
+        public void setOrderNumber(String orderNumber) { this.orderNumber = orderNumber; }
+        public String getTableNumber() { return tableNumber; }
+        public void setTableNumber(String tableNumber) { this.tableNumber = tableNumber; }
+        public String getStation() { return station; }
+        public void setStation(String station) { this.station = station; }
+        public String getDishName() { return dishName; }
+        public void setDishName(String dishName) { this.dishName = dishName; }
+        public Integer getQuantity() { return quantity; }
+        public void setQuantity(Integer quantity) { this.quantity = quantity; }
+        public Integer getDoneQuantity() { return doneQuantity; }
+        public void setDoneQuantity(Integer doneQuantity) { this.doneQuantity = doneQuantity; }
+        public String getNotes() { return notes; }
+        public void setNotes(String notes) { this.notes = notes; }
+        public Integer getPrepMinutes() { return prepMinutes; }
+        public void setPrepMinutes(Integer prepMinutes) { this.prepMinutes = prepMinutes; }
+        public LocalDateTime getPromisedAt() { return promisedAt; }
+        public void setPromisedAt(LocalDateTime promisedAt) { this.promisedAt = promisedAt; }
+        public String getState() { return state; }
+        public void setState(String state) { this.state = state; }
+        public String getChef() { return chef; }
+        public void setChef(String chef) { this.chef = chef; }
+        public LocalDateTime getStartedAt() { return startedAt; }
+        public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+    }
+
+    // Загрузка станции
+    public static class StationSummary {
+        private String station;
+        private int queued;
+        private int inProgress;
+        private LocalDateTime nextPromisedAt;
+
+        public StationSummary(String station, int queued, int inProgress, LocalDateTime nextPromisedAt) {
+            this.station = station;
+            this.queued = queued;
+            this.inProgress = inProgress;
+            this.nextPromisedAt = nextPromisedAt;
+        }
+
+        // Геттеры и сеттеры
+        public String getStation() { return station; }
+        public void setStation(String station) { this.station = station; }
+        public int getQueued() { return queued; }
+        public void setQueued(int queued) { this.queued = queued; }
+        public int getInProgress() { return inProgress; }
+        public void setInProgress(int inProgress) { this.inProgress = inProgress; }
+        public LocalDateTime getNextPromisedAt() { return nextPromisedAt; }
+        public void setNextPromisedAt(LocalDateTime nextPromisedAt) { this.nextPromisedAt = nextPromisedAt; }
+    }
+
+    // Сводка по блюду во всех открытых заказах: сколько порций ещё готовить и для каких позиций
+    public static class DishBatch {
+        private Long dishId;
+        private String dishName;
+        private String station;
+        private int outstanding;
+        private List<BatchItem> items;
+
+        public DishBatch(Long dishId, String dishName, String station, int outstanding, List<BatchItem> items) {
+            this.dishId = dishId;
+            this.dishName = dishName;
+            this.station = station;
+            this.outstanding = outstanding;
+            this.items = items;
+        }
+
+        // Геттеры и сеттеры
+        public Long getDishId() { return dishId; }
+        public void setDishId(Long dishId) { this.dishId = dishId; }
+        public String getDishName() { return dishName; }
+        public void setDishName(String dishName) { this.dishName = dishName; }
+        public String getStation() { return station; }
+        public void setStation(String station) { this.station = station; }
+        public int getOutstanding() { return outstanding; }
+        public void setOutstanding(int outstanding) { this.outstanding = outstanding; }
+        public List<BatchItem> getItems() { return items; }
+        public void setItems(List<BatchItem> items) { this.items = items; }
+    }
+
+    // Позиция заказа в сводке по блюду
+    public static class BatchItem {
+        private Long taskId;
+        private Long orderId;
+        private String orderNumber;
+        private String tableNumber;
+        private int remaining;
+        private String state;
+
+        public BatchItem(Long taskId, Long orderId, String orderNumber, String tableNumber, int remaining, String state) {
+            this.taskId = taskId;
+            this.orderId = orderId;
+            this.orderNumber = orderNumber;
+            this.tableNumber = tableNumber;
+            this.remaining = remaining;
+            this.state = state;
+        }
+
+        // Геттеры и сеттеры
+        public Long getTaskId() { return taskId; }
+        public void setTaskId(Long taskId) { this.taskId = taskId; }
+        public Long getOrderId() { return orderId; }
+        public void setOrderId(Long orderId) { this.orderId = orderId; }
+        public String getOrderNumber() { return orderNumber; }
+        public void setOrderNumber(String orderNumber) { this.orderNumber = orderNumber; }
+        public String getTableNumber() { return tableNumber; }
+        public void setTableNumber(String tableNumber) { this.tableNumber = tableNumber; }
+        public int getRemaining() { return remaining; }
+        public void setRemaining(int remaining) { this.remaining = remaining; }
+        public String getState() { return state; }
+        public void setState(String state) { this.state = state; }
+    }
+
+    // Результат отметки партии: куда ушли приготовленные порции
+    public static class BatchResult {
+        private Long dishId;
+        private String dishName;
+        private int requested;
+        private int allocated;
+        private List<Allocation> allocations;
+
+        public BatchResult(Long dishId, String dishName, int requested, int allocated, List<Allocation> allocations) {
+            this.dishId = dishId;
+            this.dishName = dishName;
+            this.requested = requested;
+            this.allocated = allocated;
+            this.allocations = allocations;
+        }
+
+        // Геттеры и сеттеры
+        public Long getDishId() { return dishId; }
+        public void setDishId(Long dishId) { this.dishId = dishId; }
+        public String getDishName() { return dishName; }
+        public void setDishName(String dishName) { this.dishName = dishName; }
+        public int getRequested() { return requested; }
+        public void setRequested(int requested) { this.requested = requested; }
+        public int getAllocated() { return allocated; }
+        public void setAllocated(int allocated) { this.allocated = allocated; }
+        public List<Allocation> getAllocations() { return allocations; }
+        public void setAllocations(List<Allocation> allocations) { this.allocations = allocations; }
+    }
+
+    public static class Allocation {
+        private Long taskId;
+        private Long orderId;
+        private String orderNumber;
+        private int portions;
+        private boolean itemDone;
+
+        public Allocation(Long taskId, Long orderId, String orderNumber, int portions, boolean itemDone) {
+            this.taskId = taskId;
+            this.orderId = orderId;
+            this.orderNumber = orderNumber;
+            this.portions = portions;
+            this.itemDone = itemDone;
+        }
+
+        // Геттеры и сеттеры
+        public Long getTaskId() { return taskId; }
+        public void setTaskId(Long taskId) { this.taskId = taskId; }
+        public Long getOrderId() { return orderId; }
+        public void setOrderId(Long orderId) { this.orderId = orderId; }
+        public String getOrderNumber() { return orderNumber; }
+        public void setOrderNumber(String orderNumber) { this.orderNumber = orderNumber; }
+        public int getPortions() { return portions; }
+        public void setPortions(int portions) { this.portions = portions; }
+        public boolean isItemDone() { return itemDone; }
+        public void setItemDone(boolean itemDone) { this.itemDone = itemDone; }
+    }
+}
@@ -1,12 +1,21 @@
 package com.restaurant.dto;
 
+import com.restaurant.entity.Allergen;
 import com.restaurant.entity.Dish;
+import com.restaurant.entity.DishPriceHistory;
+import com.restaurant.entity.MenuCategory;
+import com.restaurant.entity.Promotion;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
 import java.math.BigDecimal;
+import java.time.DayOfWeek;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 
 public class MenuDTO {
 
@@ -63,6 +72,8 @@ public class MenuDTO {
         private BigDecimal price;
         private Integer weightGrams;
         private String imageUrl;
+        private String thumbnailUrl;
+        private Long categoryId;
         private String categoryName;
         private Boolean isActive;
         private Boolean isOnPromotion;
@@ -70,6 +81,8 @@ public class MenuDTO {
         private BigDecimal currentPrice;
         private String composition;
         private String allergens;
+        // Аллергены, сведённые к словарю Allergen
+        private List<String> allergenCodes;
         private LocalDateTime createdAt;
 
         public DishResponse(Dish dish) {
@@ -79,6 +92,8 @@ public class MenuDTO {
             this.price = dish.getPrice();
             this.weightGrams = dish.getWeightGrams();
             this.imageUrl = dish.getImageUrl();
+            this.thumbnailUrl = dish.getThumbnailUrl();
+            this.categoryId = dish.getCategory().getId();
             this.categoryName = dish.getCategory().getCategoryName();
             this.isActive = dish.getIsActive();
             this.isOnPromotion = dish.getIsOnPromotion();
@@ -86,6 +101,7 @@ public class MenuDTO {
             this.currentPrice = dish.getCurrentPrice();
             this.composition = dish.getComposition();
             this.allergens = dish.getAllergens();
+            this.allergenCodes = Allergen.codesOf(Allergen.parseMask(dish.getAllergens()));
             this.createdAt = dish.getCreatedAt();
         }
 
@@ -102,6 +118,10 @@ public class MenuDTO {
         public void setWeightGrams(Integer weightGrams) { this.weightGrams = weightGrams; }
         public String getImageUrl() { return imageUrl; }
         public void setImageUrl(String imageUrl) { this.imageUrl = imageUrl; }
+        public String getThumbnailUrl() { return thumbnailUrl; }
+        public void setThumbnailUrl(String thumbnailUrl) { this.thumbnailUrl = thumbnailUrl; }
+        public Long getCategoryId() { return categoryId; }
+        public void setCategoryId(Long categoryId) { this.categoryId = categoryId; }
         public String getCategoryName() { return categoryName; }
         public void setCategoryName(String categoryName) { this.categoryName = categoryName; }
         public Boolean getIsActive() { return isActive; }
@@ -116,7 +136,289 @@ public class MenuDTO {
         public void setComposition(String composition) { this.composition = composition; }
         public String getAllergens() { return allergens; }
         public void setAllergens(String allergens) { this.allergens = allergens; }
+        public List<String> getAllergenCodes() { return allergenCodes; }
+        public void setAllergenCodes(List<String> allergenCodes) { this.allergenCodes = allergenCodes; }
         public LocalDateTime getCreatedAt() { return createdAt; }
         public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
     }
-}
\ No newline at end of file
+
+    // Узел дерева меню: категория и её активные блюда
+    public static class CategoryTreeResponse {
+        private Long id;
+        private String categoryName;
+        private String description;
+        private Integer displayOrder;
+        private List<DishResponse> dishes;
+
+        public CategoryTreeResponse() {}
+
+        public CategoryTreeResponse(MenuCategory category, List<DishResponse> dishes) {
+            this.id = category.getId();
+            this.categoryName = category.getCategoryName();
+            this.description = category.getDescription();
+            this.displayOrder = category.getDisplayOrder();
+            this.dishes = dishes;
+        }
+
+        // Геттеры и сеттеры
+        public Long getId() { return id; }
+        public void setId(Long id) { this.id = id; }
+        public String getCategoryName() { return categoryName; }
+        public void setCategoryName(String categoryName) { this.categoryName = categoryName; }
+        public String getDescription() { return description; }
+        public void setDescription(String description) { this.description = description; }
+        public Integer getDisplayOrder() { return displayOrder; }
+        public void setDisplayOrder(Integer displayOrder) { this.displayOrder = displayOrder; }
+        public List<DishResponse> getDishes() { return dishes; }
+        public void setDishes(List<DishResponse> dishes) { this.dishes = dishes; }
+    }
+
+    // Результат загрузки фото: варианты готовятся в фоне, ссылки начнут работать после READY
+    public static class ImageUploadResponse {
+        private Long dishId;
+        private String hash;
+        private String status;
+        private String imageUrl;
+        private String thumbnailUrl;
+
+        public ImageUploadResponse(Long dishId, String hash, String status, String imageUrl, String thumbnailUrl) {
+            this.dishId = dishId;
+            this.hash = hash;
+            this.status = status;
+            this.imageUrl = imageUrl;
+            this.thumbnailUrl = thumbnailUrl;
+        }
+
+        // Геттеры и сеттеры
+        public Long getDishId() { return dishId; }
+        public void setDishId(Long dishId) { this.dishId = dishId; }
+        public String getHash() { return hash; }
+        public void setHash(String hash) { this.hash = hash; }
+        public String getStatus() { return status; }
+        public void setStatus(String status) { this.status = status; }
+        public String getImageUrl() { return imageUrl; }
+        public void setImageUrl(String imageUrl) { this.imageUrl = imageUrl; }
+        public String getThumbnailUrl() { return thumbnailUrl; }
+        public void setThumbnailUrl(String thumbnailUrl) { this.thumbnailUrl = thumbnailUrl; }
+    }
+
+    // Строка массового импорта и экспорта меню. Категория - по названию (или id);
+    // id задан - обновление этого блюда, иначе поиск по названию в категории, не нашлось - новое блюдо
+    public static class DishRow {
+        private Long id;
+        private String dishName;
+        private String category;
+        private BigDecimal price;
+        private String description;
+        private Integer weightGrams;
+        private String imageUrl;
+        private String composition;
+        private String allergens;
+        private Boolean isOnPromotion;
+        private BigDecimal promotionPrice;
+        private Boolean isActive;
+        private Integer prepMinutes;
+
+        // Геттеры и сеттеры
+        public Long getId() { return id; }
+        public void setId(Long id) { this.id = id; }
+        public String getDishName() { return dishName; }
+        public void setDishName(String dishName) { this.dishName = dishName; }
+        public String getCategory() { return category; }
+        public void setCategory(String category) { this.category = category; }
+        public BigDecimal getPrice() { return price; }
+        public void setPrice(BigDecimal price) { this.price = price; }
+        public String getDescription() { return description; }
+        public void setDescription(String description) { this.description = description; }
+        public Integer getWeightGrams() { return weightGrams; }
+        public void setWeightGrams(Integer weightGrams) { this.weightGrams = weightGrams; }
+        public String getImageUrl() { return imageUrl; }
+        public void setImageUrl(String imageUrl) { this.imageUrl = imageUrl; }
+        public String getComposition() { return composition; }
+        public void setComposition(String composition) { this.composition = composition; }
+        public String getAllergens() { return allergens; }
+        public void setAllergens(String allergens) { this.allergens = allergens; }
+        public Boolean getIsOnPromotion() { return isOnPromotion; }
+        public void setIsOnPromotion(Boolean isOnPromotion) { this.isOnPromotion = isOnPromotion; }
+        public BigDecimal getPromotionPrice() { return promotionPrice; }
+        public void setPromotionPrice(BigDecimal promotionPrice) { this.promotionPrice = promotionPrice; }
+        public Boolean getIsActive() { return isActive; }
+        public void setIsActive(Boolean isActive) { this.isActive = isActive; }
+        public Integer getPrepMinutes() { return prepMinutes; }
+        public void setPrepMinutes(Integer prepMinutes) { this.prepMinutes = prepMinutes; }
+    }
+
+    // Итог импорта: ошибочные строки пропускаются, остальные сохраняются
+    public static class ImportResult {
+        private int total;
+        private int inserted;
+        private int updated;
+        private int failed;
+        private List<RowError> errors = new ArrayList<>();
+
+        // Геттеры и сеттеры
+        public int getTotal() { return total; }
+        public void setTotal(int total) { this.total = total; }
+        public int getInserted() { return inserted; }
+        public void setInserted(int inserted) { this.inserted = inserted; }
+        public int getUpdated() { return updated; }
+        public void setUpdated(int updated) { this.updated = updated; }
+        public int getFailed() { return failed; }
+        public void setFailed(int failed) { this.failed = failed; }
+        public List<RowError> getErrors() { return errors; }
+        public void setErrors(List<RowError> errors) { this.errors = errors; }
+    }
+
+    // Номер строки считается от первой записи данных (без заголовка CSV), с единицы
+    public static class RowError {
+        private int row;
+        private String message;
+
+        public RowError(int row, String message) {
+            this.row = row;
+            this.message = message;
+        }
+
+        // Геттеры и сеттеры
+        public int getRow() { return row; }
+        public void setRow(int row) { this.row = row; }
+        public String getMessage() { return message; }
+        public void setMessage(String message) { this.message = message; }
+    }
+
+    // Акция по расписанию. Без дат - бессрочно, без дней недели - каждый день, без часов - весь день
+    public static class PromotionRequest {
+        private String promotionName;
+
+        @NotNull(message = "Promotion price is required")
+        @DecimalMin(value = "0.0", inclusive = false, message = "Promotion price must be greater than 0")
+        private BigDecimal promotionPrice;
+
+        private LocalDateTime startsAt;
+        private LocalDateTime endsAt;
+        private Set<DayOfWeek> daysOfWeek;
+        private LocalTime startTime;
+        private LocalTime endTime;
+        private Boolean isEnabled = true;
+
+        // Геттеры и сеттеры
+        public String getPromotionName() { return promotionName; }
+        public void setPromotionName(String promotionName) { this.promotionName = promotionName; }
+        public BigDecimal getPromotionPrice() { return promotionPrice; }
+        public void setPromotionPrice(BigDecimal promotionPrice) { this.promotionPrice = promotionPrice; }
+        public LocalDateTime getStartsAt() { return startsAt; }
+        public void setStartsAt(LocalDateTime startsAt) { this.startsAt = startsAt; }
+        public LocalDateTime getEndsAt() { return endsAt; }
+        public void setEndsAt(LocalDateTime endsAt) { this.endsAt = endsAt; }
+        public Set<DayOfWeek> getDaysOfWeek() { return daysOfWeek; }
+        public void setDaysOfWeek(Set<DayOfWeek> daysOfWeek) { this.daysOfWeek = daysOfWeek; }
+        public LocalTime getStartTime() { return startTime; }
+        public void setStartTime(LocalTime startTime) { this.startTime = startTime; }
+        public LocalTime getEndTime() { return endTime; }
+        public void setEndTime(LocalTime endTime) { this.endTime = endTime; }
+        public Boolean getIsEnabled() { return isEnabled; }
+        public void setIsEnabled(Boolean isEnabled) { this.isEnabled = isEnabled; }
+    }
+
+    public static class PromotionResponse {
+        private Long id;
+        private Long dishId;
+        private String promotionName;
+        private BigDecimal promotionPrice;
+        private LocalDateTime startsAt;
+        private LocalDateTime endsAt;
+        private Set<DayOfWeek> daysOfWeek;
+        private LocalTime startTime;
+        private LocalTime endTime;
+        private Boolean isEnabled;
+        private Boolean activeNow;
+
+        public PromotionResponse() {}
+
+        public PromotionResponse(Promotion promotion, Set<DayOfWeek> daysOfWeek, boolean activeNow) {
+            this.id = promotion.getId();
+            this.dishId = promotion.getDish().getId();
+            this.promotionName = promotion.getPromotionName();
+            this.promotionPrice = promotion.getPromotionPrice();
+            this.startsAt = promotion.getStartsAt();
+            this.endsAt = promotion.getEndsAt();
+            this.daysOfWeek = daysOfWeek;
+            this.startTime = promotion.getStartTime();
+            this.endTime = promotion.getEndTime();
+            this.isEnabled = promotion.getIsEnabled();
+            this.activeNow = activeNow;
+        }
+
+        // Геттеры и сеттеры
+        public Long getId() { return id; }
+        public void setId(Long id) { this.id = id; }
+        public Long getDishId() { return dishId; }
+        public void setDishId(Long dishId) { this.dishId = dishId; }
+        public String getPromotionName() { return promotionName; }
+        public void setPromotionName(String promotionName) { this.promotionName = promotionName; }
+        public BigDecimal getPromotionPrice() { return promotionPrice; }
+        public void setPromotionPrice(BigDecimal promotionPrice) { this.promotionPrice = promotionPrice; }
+        public LocalDateTime getStartsAt() { return startsAt; }
+        public void setStartsAt(LocalDateTime startsAt) { this.startsAt = startsAt; }
+        public LocalDateTime getEndsAt() { return endsAt; }
+        public void setEndsAt(LocalDateTime endsAt) { this.endsAt = endsAt; }
+        public Set<DayOfWeek> getDaysOfWeek() { return daysOfWeek; }
+        public void setDaysOfWeek(Set<DayOfWeek> daysOfWeek) { this.daysOfWeek = daysOfWeek; }
+        public LocalTime getStartTime() { return startTime; }
+        public void setStartTime(LocalTime startTime) { this.startTime = startTime; }
+        public LocalTime getEndTime() { return endTime; }
+        public void setEndTime(LocalTime endTime) { this.endTime = endTime; }
+        public Boolean getIsEnabled() { return isEnabled; }
+        public void setIsEnabled(Boolean isEnabled) { this.isEnabled = isEnabled; }
+        public Boolean getActiveNow() { return activeNow; }
+        public void setActiveNow(Boolean activeNow) { this.activeNow = activeNow; }
+    }
+
+    // Запись истории цен: действует с validFrom до следующей записи
+    public static class PriceHistoryResponse {
+        private LocalDateTime validFrom;
+        private BigDecimal price;
+        private BigDecimal effectivePrice;
+        private Long promotionId;
+        private String reason;
+
+        public PriceHistoryResponse() {}
+
+        public PriceHistoryResponse(DishPriceHistory history) {
+            this.validFrom = history.getValidFrom();
+            this.price = history.getPrice();
+            this.effectivePrice = history.getEffectivePrice();
+            this.promotionId = history.getPromotionId();
+            this.reason = history.getReason().name();
+        }
+
+        // Геттеры и сеттеры
+        public LocalDateTime getValidFrom() { return validFrom; }
+        public void setValidFrom(LocalDateTime validFrom) { this.validFrom = validFrom; }
+        public BigDecimal getPrice() { return price; }
+        public void setPrice(BigDecimal price) { this.price = price; }
+        public BigDecimal getEffectivePrice() { return effectivePrice; }
+        public void setEffectivePrice(BigDecimal effectivePrice) { this.effectivePrice = effectivePrice; }
+        public Long getPromotionId() { return promotionId; }
+        public void setPromotionId(Long promotionId) { this.promotionId = promotionId; }
+        public String getReason() { return reason; }
+        public void setReason(String reason) { this.reason = reason; }
+    }
+
+    // Элемент словаря аллергенов
+    public static class AllergenResponse {
+        private String code;
+        private String name;
+
+        public AllergenResponse(Allergen allergen) {
+            this.code = allergen.name();
+            this.name = allergen.getDisplayName();
+        }
+
+        // Геттеры и сеттеры
+        public String getCode() { return code; }
+        public void setCode(String code) { this.code = code; }
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+    }
+}
@@ -1,7 +1,10 @@
 package com.restaurant.dto;
 
+import com.restaurant.entity.ArchivedOrder;
+import com.restaurant.entity.ArchivedOrderItem;
 import com.restaurant.entity.Order;
 import com.restaurant.entity.OrderItem;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
@@ -33,6 +36,41 @@ public class OrderDTO {
         public void setNotes(String notes) { this.notes = notes; }
     }
 
+    // DTO для изменения количества в существующей позиции
+    public static class OrderItemQuantityRequest {
+        @NotNull(message = "Order item ID is required")
+        private Long orderItemId;
+
+        @NotNull(message = "Quantity is required")
+        @Min(value = 1, message = "Quantity must be at least 1")
+        private Integer quantity;
+
+        // Геттеры и сеттеры
+        public Long getOrderItemId() { return orderItemId; }
+        public void setOrderItemId(Long orderItemId) { this.orderItemId = orderItemId; }
+        public Integer getQuantity() { return quantity; }
+        public void setQuantity(Integer quantity) { this.quantity = quantity; }
+    }
+
+    // Request DTO для пакетного изменения позиций заказа в одной транзакции
+    public static class UpdateOrderItemsRequest {
+        @Valid
+        private List<OrderItemRequest> add;
+
+        @Valid
+        private List<OrderItemQuantityRequest> change;
+
+        private List<Long> remove;
+
+        // Геттеры и сеттеры
+        public List<OrderItemRequest> getAdd() { return add; }
+        public void setAdd(List<OrderItemRequest> add) { this.add = add; }
+        public List<OrderItemQuantityRequest> getChange() { return change; }
+        public void setChange(List<OrderItemQuantityRequest> change) { this.change = change; }
+        public List<Long> getRemove() { return remove; }
+        public void setRemove(List<Long> remove) { this.remove = remove; }
+    }
+
     // Request DTO для создания заказа
     public static class CreateOrderRequest {
         private Long reservationId;
@@ -74,6 +112,15 @@ public class OrderDTO {
             this.notes = orderItem.getNotes();
         }
 
+        public OrderItemResponse(ArchivedOrderItem orderItem) {
+            this.id = orderItem.getId();
+            this.dishName = orderItem.getDish().getDishName();
+            this.unitPrice = orderItem.getUnitPrice();
+            this.quantity = orderItem.getQuantity();
+            this.itemTotal = orderItem.getItemTotal();
+            this.notes = orderItem.getNotes();
+        }
+
         // Геттеры и сеттеры
         public Long getId() { return id; }
         public void setId(Long id) { this.id = id; }
@@ -92,6 +139,8 @@ public class OrderDTO {
     // Response DTO для заказа
     public static class OrderResponse {
         private Long id;
+        // Версия строки заказа: по ней получатели событий отбрасывают устаревшие снимки
+        private Long version;
         private String orderNumber;
         private String tableNumber;
         private String waiterName;
@@ -104,6 +153,23 @@ public class OrderDTO {
 
         public OrderResponse(Order order) {
             this.id = order.getId();
+            this.version = order.getVersion();
+            this.orderNumber = order.getOrderNumber();
+            this.tableNumber = order.getTable().getTableNumber();
+            this.waiterName = order.getWaiter() != null ? order.getWaiter().getFullName() : null;
+            this.status = order.getStatus().getStatusName();
+            this.totalAmount = order.getTotalAmount();
+            this.notes = order.getNotes();
+            this.orderItems = order.getOrderItems().stream()
+                    .map(OrderItemResponse::new)
+                    .collect(Collectors.toList());
+            this.createdAt = order.getCreatedAt();
+            this.updatedAt = order.getUpdatedAt();
+        }
+
+        public OrderResponse(ArchivedOrder order) {
+            this.id = order.getId();
+            this.version = order.getVersion();
             this.orderNumber = order.getOrderNumber();
             this.tableNumber = order.getTable().getTableNumber();
             this.waiterName = order.getWaiter() != null ? order.getWaiter().getFullName() : null;
@@ -120,6 +186,8 @@ public class OrderDTO {
         // Геттеры и сеттеры
         public Long getId() { return id; }
         public void setId(Long id) { this.id = id; }
+        public Long getVersion() { return version; }
+        public void setVersion(Long version) { this.version = version; }
         public String getOrderNumber() { return orderNumber; }
         public void setOrderNumber(String orderNumber) { this.orderNumber = orderNumber; }
         public String getTableNumber() { return tableNumber; }
@@ -139,4 +207,71 @@ public class OrderDTO {
         public LocalDateTime getUpdatedAt() { return updatedAt; }
         public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
     }
-}
\ No newline at end of file
+
+    // Запись журнала смен статуса
+    public static class StatusTransitionResponse {
+        private String fromStatus;
+        private String toStatus;
+        private LocalDateTime changedAt;
+        private Long durationMs;
+
+        public StatusTransitionResponse(String fromStatus, String toStatus, LocalDateTime changedAt, Long durationMs) {
+            this.fromStatus = fromStatus;
+            this.toStatus = toStatus;
+            this.changedAt = changedAt;
+            this.durationMs = durationMs;
+        }
+
+        // Геттеры и сеттеры
+        public String getFromStatus() { return fromStatus; }
+        public void setFromStatus(String fromStatus) { this.fromStatus = fromStatus; }
+        public String getToStatus() { return toStatus; }
+        public void setToStatus(String toStatus) { this.toStatus = toStatus; }
+        public LocalDateTime getChangedAt() { return changedAt; }
+        public void setChangedAt(LocalDateTime changedAt) { this.changedAt = changedAt; }
+        public Long getDurationMs() { return durationMs; }
+        public void setDurationMs(Long durationMs) { this.durationMs = durationMs; }
+    }
+
+    // Перцентили времени в статусе для одного разреза
+    public static class StatusTimeStats {
+        private String status;
+        private String groupBy;
+        private String group;
+        private long count;
+        private long p50Ms;
+        private long p95Ms;
+        private long p99Ms;
+        private long maxMs;
+
+        public StatusTimeStats(String status, String groupBy, String group, long count,
+                               long p50Ms, long p95Ms, long p99Ms, long maxMs) {
+            this.status = status;
+            this.groupBy = groupBy;
+            this.group = group;
+            this.count = count;
+            this.p50Ms = p50Ms;
+            this.p95Ms = p95Ms;
+            this.p99Ms = p99Ms;
+            this.maxMs = maxMs;
+        }
+
+        // Геттеры и сеттеры
+        public String getStatus() { return status; }
+        public void setStatus(String status) { this.status = status; }
+        public String getGroupBy() { return groupBy; }
+        public void setGroupBy(String groupBy) { this.groupBy = groupBy; }
+        public String getGroup() { return group; }
+        public void setGroup(String group) { this.group = group; }
+        public long getCount() { return count; }
+        public void setCount(long count) { this.count = count; }
+        public long getP50Ms() { return p50Ms; }
+        public void setP50Ms(long p50Ms) { this.p50Ms = p50Ms; }
+        public long getP95Ms() { return p95Ms; }
+        public void setP95Ms(long p95Ms) { this.p95Ms = p95Ms; }
+        public long getP99Ms() { return p99Ms; }
+        public void setP99Ms(long p99Ms) { this.p99Ms = p99Ms; }
+        public long getMaxMs() { return maxMs; }
+        public void setMaxMs(long maxMs) { this.maxMs = maxMs; }
+    }
+}
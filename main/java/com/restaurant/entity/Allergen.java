@@ -0,0 +1,146 @@
+package com.restaurant.entity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Фиксированный словарь аллергенов (14 аллергенов из маркировки ЕС). Номер бита в маске - ordinal,
+// поэтому новые значения добавляются только в конец.
+// Текст Dish.allergens сводится к словарю по словам: "орехи", "миндаль", "nuts" -> NUTS.
+// Английские ключи - целые слова (допускается окончание множественного числа): "egg" не находит "eggplant",
+// "nut" - "nutmeg". Русские ключи - основы, к ним подходит любое окончание; совпавшие по основе
+// посторонние слова ("сырой" у "сыр") отсекает список NOT_ALLERGENS.
+public enum Allergen {
+    GLUTEN("Глютен", "глютен", "пшени", "ржан", "ячмен", "овс", "злак", "gluten", "wheat", "rye", "barley", "oat", "oatmeal"),
+    CRUSTACEANS("Ракообразные", "ракообразн", "кревет", "краб", "лобстер", "crustacean", "shrimp", "prawn", "crab", "lobster"),
+    EGGS("Яйца", "яйц", "яичн", "egg"),
+    FISH("Рыба", "рыб", "лосос", "семг", "тунц", "тунец", "треск", "анчоус", "fish", "salmon", "tuna", "anchovy", "anchovies"),
+    PEANUTS("Арахис", "арахис", "peanut"),
+    SOY("Соя", "соя", "соев", "soy", "soja"),
+    MILK("Молоко", "молок", "молоч", "лактоз", "сливк", "сливоч", "сыр", "milk", "lactose", "dairy", "cream", "cheese"),
+    NUTS("Орехи", "орех", "орешк", "миндал", "фундук", "кешью", "фисташ", "грецк", "пекан",
+            "nut", "almond", "hazelnut", "cashew", "pistachio", "walnut", "pecan"),
+    CELERY("Сельдерей", "сельдере", "celery"),
+    MUSTARD("Горчица", "горчиц", "горчичн", "mustard"),
+    SESAME("Кунжут", "кунжут", "сезам", "sesame"),
+    SULPHITES("Сульфиты", "сульфит", "sulphite", "sulfite"),
+    LUPIN("Люпин", "люпин", "lupin"),
+    MOLLUSCS("Моллюски", "моллюск", "мид", "кальмар", "осьминог", "устриц", "mollusc", "mollusk", "mussel", "squid",
+            "octopus", "oyster");
+
+    // Слова, которые начинаются с русской основы аллергена, но аллергеном не являются
+    private static final String[] NOT_ALLERGENS = {
+            "сырой", "сырая", "сырое", "сырые", "сырого", "сырую", "сырых", "сырым", "сырыми",
+            "сырье", "сырья", "сырьем", "сыровял", "сырокопч", "сыроед", "сыроеж", "сырец"
+    };
+
+    private static final String[] PLURAL_ENDINGS = {"", "s", "es"};
+
+    private final String displayName;
+    private final String[] keywords;
+
+    Allergen(String displayName, String... keywords) {
+        this.displayName = displayName;
+        this.keywords = keywords;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public long bit() {
+        return 1L << ordinal();
+    }
+
+    // Маска аллергенов из свободного текста. Отрицание действует на следующее слово и на перечисление через "и":
+    // "без орехов и глютена" - ни одного аллергена.
+    public static long parseMask(String text) {
+        if (text == null || text.isBlank()) {
+            return 0L;
+        }
+        long mask = 0L;
+        boolean negated = false;
+        boolean previousNegated = false;
+        for (String word : text.toLowerCase(Locale.ROOT).replace('ё', 'е').split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            switch (word) {
+                case "без", "no", "without" -> negated = true;
+                case "и", "или", "and", "or" -> negated = previousNegated;
+                default -> {
+                    if (!negated) {
+                        mask |= maskOfWord(word);
+                    }
+                    previousNegated = negated;
+                    negated = false;
+                }
+            }
+        }
+        return mask;
+    }
+
+    // Коды из запроса ("NUTS", "gluten") в маску; неизвестный код - ошибка
+    public static long maskOfCodes(List<String> codes) {
+        long mask = 0L;
+        if (codes == null) {
+            return mask;
+        }
+        for (String code : codes) {
+            if (code == null || code.isBlank()) {
+                continue;
+            }
+            try {
+                mask |= valueOf(code.trim().toUpperCase(Locale.ROOT)).bit();
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException("Unknown allergen: " + code);
+            }
+        }
+        return mask;
+    }
+
+    public static List<String> codesOf(long mask) {
+        List<String> codes = new ArrayList<>(Long.bitCount(mask));
+        for (Allergen allergen : values()) {
+            if ((mask & allergen.bit()) != 0) {
+                codes.add(allergen.name());
+            }
+        }
+        return codes;
+    }
+
+    private static long maskOfWord(String word) {
+        for (String excluded : NOT_ALLERGENS) {
+            if (word.startsWith(excluded)) {
+                return 0L;
+            }
+        }
+        long mask = 0L;
+        for (Allergen allergen : values()) {
+            for (String keyword : allergen.keywords) {
+                if (matches(word, keyword)) {
+                    mask |= allergen.bit();
+                    break;
+                }
+            }
+        }
+        return mask;
+    }
+
+    private static boolean matches(String word, String keyword) {
+        if (!word.startsWith(keyword)) {
+            return false;
+        }
+        if (keyword.charAt(0) > 'z') {
+            // Русская основа: подходит любое окончание
+            return true;
+        }
+        String ending = word.substring(keyword.length());
+        for (String plural : PLURAL_ENDINGS) {
+            if (ending.equals(plural)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,123 @@
+package com.restaurant.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+@Entity
+@Immutable
+@Table(name = "order_items_archive")
+public class ArchivedOrderItem {
+
+    @Id
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "order_id", nullable = false)
+    private ArchivedOrder order;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "dish_id", nullable = false)
+    private Dish dish;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(name = "unit_price", nullable = false, precision = 10, scale = 2)
+    private BigDecimal unitPrice;
+
+    @Column(length = 500)
+    private String notes;
+
+    // Кухонные отметки и версия - как были в order_items на момент переноса
+    @Enumerated(EnumType.STRING)
+    @Column(name = "kitchen_status", length = 20)
+    private OrderItem.KitchenStatus kitchenStatus;
+
+    @Column(name = "kitchen_chef", length = 50)
+    private String kitchenChef;
+
+    @Column(name = "kitchen_started_at")
+    private LocalDateTime kitchenStartedAt;
+
+    @Column(name = "kitchen_completed_at")
+    private LocalDateTime kitchenCompletedAt;
+
+    @Column(name = "kitchen_done_quantity")
+    private Integer kitchenDoneQuantity;
+
+    @Column(nullable = false, columnDefinition = "bigint not null default 0")
+    private Long version;
+
+    // Конструкторы
+    public ArchivedOrderItem() {}
+
+    // Геттеры
+    public Long getId() {
+        return id;
+    }
+
+    public ArchivedOrder getOrder() {
+        return order;
+    }
+
+    public Dish getDish() {
+        return dish;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public BigDecimal getUnitPrice() {
+        return unitPrice;
+    }
+
+    public String getNotes() {
+        return notes;
+    }
+
+    public OrderItem.KitchenStatus getKitchenStatus() {
+        return kitchenStatus;
+    }
+
+    public String getKitchenChef() {
+        return kitchenChef;
+    }
+
+    public LocalDateTime getKitchenStartedAt() {
+        return kitchenStartedAt;
+    }
+
+    public LocalDateTime getKitchenCompletedAt() {
+        return kitchenCompletedAt;
+    }
+
+    public Integer getKitchenDoneQuantity() {
+        return kitchenDoneQuantity;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public BigDecimal getItemTotal() {
+        return unitPrice.multiply(BigDecimal.valueOf(quantity));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ArchivedOrderItem that = (ArchivedOrderItem) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+}
@@ -0,0 +1,100 @@
+package com.restaurant.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+// Платёж архивного заказа; переносится вместе с заказом
+@Entity
+@Immutable
+@Table(name = "payments_archive", indexes = {
+        @Index(name = "idx_payments_archive_order", columnList = "order_id"),
+        @Index(name = "idx_payments_archive_status_created", columnList = "payment_status, created_at")
+})
+public class ArchivedPayment {
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false, columnDefinition = "bigint not null default 0")
+    private Long version;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_method", nullable = false, length = 20)
+    private Payment.PaymentMethod paymentMethod;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_status", length = 20)
+    private Payment.PaymentStatus paymentStatus;
+
+    @Column(name = "transaction_id", length = 255)
+    private String transactionId;
+
+    @Column(name = "paid_at")
+    private LocalDateTime paidAt;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    // Конструкторы
+    public ArchivedPayment() {}
+
+    // Геттеры
+    public Long getId() {
+        return id;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public Payment.PaymentMethod getPaymentMethod() {
+        return paymentMethod;
+    }
+
+    public Payment.PaymentStatus getPaymentStatus() {
+        return paymentStatus;
+    }
+
+    public String getTransactionId() {
+        return transactionId;
+    }
+
+    public LocalDateTime getPaidAt() {
+        return paidAt;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ArchivedPayment that = (ArchivedPayment) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+}
@@ -0,0 +1,78 @@
+package com.restaurant.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+// Счётчик изменений справочных данных (меню, столы): растёт в той же транзакции, что и сами данные
+@Entity
+@Table(name = "data_versions")
+public class DataVersion {
+
+    @Id
+    @Column(name = "data_name", length = 50)
+    private String dataName;
+
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Конструкторы
+    public DataVersion() {}
+
+    public DataVersion(String dataName, Long version, LocalDateTime updatedAt) {
+        this.dataName = dataName;
+        this.version = version;
+        this.updatedAt = updatedAt;
+    }
+
+    // Геттеры и сеттеры
+    public String getDataName() {
+        return dataName;
+    }
+
+    public void setDataName(String dataName) {
+        this.dataName = dataName;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DataVersion)) return false;
+        DataVersion that = (DataVersion) o;
+        return Objects.equals(dataName, that.dataName);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(dataName);
+    }
+
+    @Override
+    public String toString() {
+        return "DataVersion{" +
+                "dataName='" + dataName + '\'' +
+                ", version=" + version +
+                ", updatedAt=" + updatedAt +
+                '}';
+    }
+}
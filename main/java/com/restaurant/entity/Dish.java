@@ -31,6 +31,15 @@ public class Dish {
     @Column(name = "image_url", length = 500)
     private String imageUrl;
 
+    // Маленький вариант загруженного фото; у ссылок, заданных вручную, его нет
+    @Column(name = "thumbnail_url", length = 500)
+    private String thumbnailUrl;
+
+    // Хэш последнего загруженного фото: ссылки переключаются только на его варианты.
+    // Пишется условными UPDATE, сохранение блюда целиком его не трогает
+    @Column(name = "image_hash", length = 64, updatable = false)
+    private String imageHash;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id", nullable = false)
     private MenuCategory category;
@@ -44,12 +53,20 @@ public class Dish {
     @Column(name = "promotion_price", precision = 10, scale = 2)
     private BigDecimal promotionPrice;
 
+    // Акция по расписанию, выставившая isOnPromotion/promotionPrice; null - цена задана вручную
+    @Column(name = "applied_promotion_id")
+    private Long appliedPromotionId;
+
     @Column(length = 1000)
     private String composition;
 
     @Column(length = 500)
     private String allergens;
 
+    // Оценка времени приготовления для очереди кухни
+    @Column(name = "prep_minutes")
+    private Integer prepMinutes;
+
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
@@ -116,6 +133,22 @@ public class Dish {
         this.imageUrl = imageUrl;
     }
 
+    public String getImageHash() {
+        return imageHash;
+    }
+
+    public void setImageHash(String imageHash) {
+        this.imageHash = imageHash;
+    }
+
+    public String getThumbnailUrl() {
+        return thumbnailUrl;
+    }
+
+    public void setThumbnailUrl(String thumbnailUrl) {
+        this.thumbnailUrl = thumbnailUrl;
+    }
+
     public MenuCategory getCategory() {
         return category;
     }
@@ -148,6 +181,14 @@ public class Dish {
         this.promotionPrice = promotionPrice;
     }
 
+    public Long getAppliedPromotionId() {
+        return appliedPromotionId;
+    }
+
+    public void setAppliedPromotionId(Long appliedPromotionId) {
+        this.appliedPromotionId = appliedPromotionId;
+    }
+
     public String getComposition() {
         return composition;
     }
@@ -164,6 +205,14 @@ public class Dish {
         this.allergens = allergens;
     }
 
+    public Integer getPrepMinutes() {
+        return prepMinutes;
+    }
+
+    public void setPrepMinutes(Integer prepMinutes) {
+        this.prepMinutes = prepMinutes;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
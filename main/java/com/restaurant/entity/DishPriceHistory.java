@@ -0,0 +1,94 @@
+package com.restaurant.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+// История цен блюда, только добавление. Строка действует с validFrom до validFrom следующей строки того же блюда.
+// Цена на момент t - последняя строка с validFrom <= t (индекс dish_id, valid_from).
+@Entity
+@Immutable
+@Table(name = "dish_price_history", indexes = {
+        @Index(name = "idx_price_history_dish_from", columnList = "dish_id, valid_from")
+})
+public class DishPriceHistory {
+
+    public enum Reason {
+        INITIAL, MANUAL, IMPORT, PROMOTION_START, PROMOTION_END
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "dish_id", nullable = false)
+    private Long dishId;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal price;
+
+    // Цена для гостя с учётом акции
+    @Column(name = "effective_price", nullable = false, precision = 10, scale = 2)
+    private BigDecimal effectivePrice;
+
+    @Column(name = "promotion_id")
+    private Long promotionId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Reason reason;
+
+    @Column(name = "valid_from", nullable = false)
+    private LocalDateTime validFrom;
+
+    // Конструкторы
+    public DishPriceHistory() {}
+
+    public DishPriceHistory(Dish dish, Reason reason, LocalDateTime validFrom) {
+        this.dishId = dish.getId();
+        this.price = dish.getPrice();
+        this.effectivePrice = dish.getCurrentPrice();
+        this.promotionId = dish.getAppliedPromotionId();
+        this.reason = reason;
+        this.validFrom = validFrom;
+    }
+
+    // Та же цена, что у блюда сейчас
+    public boolean matches(Dish dish) {
+        return price.compareTo(dish.getPrice()) == 0
+                && effectivePrice.compareTo(dish.getCurrentPrice()) == 0
+                && Objects.equals(promotionId, dish.getAppliedPromotionId());
+    }
+
+    // Геттеры
+    public Long getId() {
+        return id;
+    }
+
+    public Long getDishId() {
+        return dishId;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public BigDecimal getEffectivePrice() {
+        return effectivePrice;
+    }
+
+    public Long getPromotionId() {
+        return promotionId;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    public LocalDateTime getValidFrom() {
+        return validFrom;
+    }
+}
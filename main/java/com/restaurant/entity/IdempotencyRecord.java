@@ -0,0 +1,131 @@
+package com.restaurant.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+// Обработанный запрос с заголовком Idempotency-Key и id созданного им ресурса.
+// Уникальность (scope, key) не даёт двум узлам выполнить один запрос дважды.
+// Пользователь и отпечаток запроса не дают повторить ключ для другого пользователя или с другим телом.
+@Entity
+@Table(name = "idempotency_keys",
+        uniqueConstraints = @UniqueConstraint(name = "uk_idempotency_scope_key", columnNames = {"scope", "idempotency_key"}),
+        indexes = @Index(name = "idx_idempotency_created", columnList = "created_at"))
+public class IdempotencyRecord {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 40)
+    private String scope;
+
+    @Column(name = "idempotency_key", nullable = false, length = 100)
+    private String idempotencyKey;
+
+    @Column(name = "resource_id")
+    private Long resourceId;
+
+    @Column(nullable = false, length = 100)
+    private String principal;
+
+    // SHA-256 (hex) запроса, выполненного с этим ключом
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    // Конструкторы
+    public IdempotencyRecord() {}
+
+    public IdempotencyRecord(String scope, String idempotencyKey, String principal, String requestHash) {
+        this.scope = scope;
+        this.idempotencyKey = idempotencyKey;
+        this.principal = principal;
+        this.requestHash = requestHash;
+    }
+
+    // Геттеры и сеттеры
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getScope() {
+        return scope;
+    }
+
+    public void setScope(String scope) {
+        this.scope = scope;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public Long getResourceId() {
+        return resourceId;
+    }
+
+    public void setResourceId(Long resourceId) {
+        this.resourceId = resourceId;
+    }
+
+    public String getPrincipal() {
+        return principal;
+    }
+
+    public void setPrincipal(String principal) {
+        this.principal = principal;
+    }
+
+    public String getRequestHash() {
+        return requestHash;
+    }
+
+    public void setRequestHash(String requestHash) {
+        this.requestHash = requestHash;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof IdempotencyRecord)) return false;
+        IdempotencyRecord that = (IdempotencyRecord) o;
+        return Objects.equals(scope, that.scope) &&
+                Objects.equals(idempotencyKey, that.idempotencyKey);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(scope, idempotencyKey);
+    }
+
+    @Override
+    public String toString() {
+        return "IdempotencyRecord{" +
+                "scope='" + scope + '\'' +
+                ", idempotencyKey='" + idempotencyKey + '\'' +
+                ", resourceId=" + resourceId +
+                '}';
+    }
+}
@@ -13,6 +13,10 @@ public class Ingredient {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint not null default 0")
+    private Long version;
+
     @Column(name = "ingredient_name", unique = true, nullable = false, length = 255)
     private String ingredientName;
 
@@ -53,6 +57,14 @@ public class Ingredient {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getIngredientName() {
         return ingredientName;
     }
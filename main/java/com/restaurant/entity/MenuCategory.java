@@ -21,6 +21,10 @@ public class MenuCategory {
     @Column(name = "display_order")
     private Integer displayOrder = 0;
 
+    // Кухонная станция для блюд категории; если не задана, станцией считается сама категория
+    @Column(name = "kitchen_station", length = 50)
+    private String kitchenStation;
+
     // Конструкторы
     public MenuCategory() {}
 
@@ -67,6 +71,14 @@ public class MenuCategory {
         this.displayOrder = displayOrder;
     }
 
+    public String getKitchenStation() {
+        return kitchenStation;
+    }
+
+    public void setKitchenStation(String kitchenStation) {
+        this.kitchenStation = kitchenStation;
+    }
+
     // equals и hashCode
     @Override
     public boolean equals(Object o) {
@@ -11,13 +11,34 @@ import java.util.List;
 import java.util.Objects;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_status_created", columnList = "status_id, created_at, id"),
+        @Index(name = "idx_orders_table_created", columnList = "table_id, created_at, id"),
+        @Index(name = "idx_orders_waiter_created", columnList = "waiter_id, created_at, id")
+})
+@NamedEntityGraph(name = Order.WITH_DETAILS,
+        attributeNodes = {
+                @NamedAttributeNode("table"),
+                @NamedAttributeNode("waiter"),
+                @NamedAttributeNode("status"),
+                @NamedAttributeNode(value = "orderItems", subgraph = "items")
+        },
+        subgraphs = @NamedSubgraph(name = "items", attributeNodes = @NamedAttributeNode("dish")))
 public class Order {
 
+    // Граф для списков заказов: всё, что читает OrderDTO.OrderResponse, загружается одним запросом
+    public static final String WITH_DETAILS = "Order.withDetails";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
 
+    // Существующие строки получают 0 через default колонки
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint not null default 0")
+    private Long version;
+
     @Column(name = "order_number", unique = true, nullable = false, length = 20)
     private String orderNumber;
 
@@ -51,6 +72,10 @@ public class Order {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Когда заказ перешёл в текущий статус (для журнала переходов)
+    @Column(name = "status_changed_at")
+    private LocalDateTime statusChangedAt;
+
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<OrderItem> orderItems = new ArrayList<>();
 
@@ -81,6 +106,14 @@ public class Order {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getOrderNumber() {
         return orderNumber;
     }
@@ -153,6 +186,14 @@ public class Order {
         this.updatedAt = updatedAt;
     }
 
+    public LocalDateTime getStatusChangedAt() {
+        return statusChangedAt;
+    }
+
+    public void setStatusChangedAt(LocalDateTime statusChangedAt) {
+        this.statusChangedAt = statusChangedAt;
+    }
+
     public List<OrderItem> getOrderItems() {
         return orderItems;
     }
@@ -165,15 +206,22 @@ public class Order {
     public void addOrderItem(OrderItem orderItem) {
         orderItems.add(orderItem);
         orderItem.setOrder(this);
-        recalculateTotalAmount();
+        adjustTotalAmount(orderItem.getItemTotal());
     }
 
     public void removeOrderItem(OrderItem orderItem) {
-        orderItems.remove(orderItem);
-        orderItem.setOrder(null);
-        recalculateTotalAmount();
+        if (orderItems.remove(orderItem)) {
+            orderItem.setOrder(null);
+            adjustTotalAmount(orderItem.getItemTotal().negate());
+        }
+    }
+
+    // Сумма заказа меняется на разницу, без обхода всех позиций
+    void adjustTotalAmount(BigDecimal delta) {
+        this.totalAmount = (totalAmount != null ? totalAmount : BigDecimal.ZERO).add(delta);
     }
 
+    // Полный пересчёт - для сверки и исправления старых данных
     public void recalculateTotalAmount() {
         this.totalAmount = orderItems.stream()
                 .map(OrderItem::getItemTotal)
@@ -181,17 +229,18 @@ public class Order {
     }
 
     public boolean canBeModified() {
-        return !"оплачен".equals(status.getStatusName());
+        return !OrderStatus.PAID.equals(status.getStatusName());
     }
 
     public boolean isPaid() {
-        return "оплачен".equals(status.getStatusName());
+        return OrderStatus.PAID.equals(status.getStatusName());
     }
 
+    // Номер выдаёт OrderNumberGenerator до сохранения заказа
     @PrePersist
-    public void generateOrderNumber() {
+    public void checkOrderNumber() {
         if (this.orderNumber == null) {
-            this.orderNumber = "ORD-" + System.currentTimeMillis();
+            throw new IllegalStateException("Order number must be assigned before persist");
         }
     }
 
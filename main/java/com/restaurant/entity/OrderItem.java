@@ -3,6 +3,7 @@ package com.restaurant.entity;
 import jakarta.persistence.*;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Objects;
 
 @Entity
@@ -10,7 +11,8 @@ import java.util.Objects;
 public class OrderItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_items_seq")
+    @SequenceGenerator(name = "order_items_seq", sequenceName = "order_items_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -30,6 +32,34 @@ public class OrderItem {
     @Column(length = 500)
     private String notes;
 
+    // Состояние на кухне: null - ждёт в очереди станции.
+    // Колонки kitchen_* пишут только условные UPDATE кухни: сохранение позиции официантом их не перезаписывает
+    @Enumerated(EnumType.STRING)
+    @Column(name = "kitchen_status", length = 20, updatable = false)
+    private KitchenStatus kitchenStatus;
+
+    @Column(name = "kitchen_chef", length = 50, updatable = false)
+    private String kitchenChef;
+
+    @Column(name = "kitchen_started_at", updatable = false)
+    private LocalDateTime kitchenStartedAt;
+
+    @Column(name = "kitchen_completed_at", updatable = false)
+    private LocalDateTime kitchenCompletedAt;
+
+    // Порции, уже приготовленные общей партией блюда; null - ни одной
+    @Column(name = "kitchen_done_quantity", updatable = false)
+    private Integer kitchenDoneQuantity;
+
+    // Кухонные UPDATE тоже увеличивают версию: правка позиции по устаревшему состоянию не пройдёт
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint not null default 0")
+    private Long version;
+
+    public enum KitchenStatus {
+        IN_PROGRESS, DONE
+    }
+
     // Конструкторы
     public OrderItem() {}
 
@@ -99,15 +129,69 @@ public class OrderItem {
         this.notes = notes;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    // Повар уже взял позицию или часть её порций готова
+    public boolean isInKitchen() {
+        return kitchenStatus != null || (kitchenDoneQuantity != null && kitchenDoneQuantity > 0);
+    }
+
+    public KitchenStatus getKitchenStatus() {
+        return kitchenStatus;
+    }
+
+    public void setKitchenStatus(KitchenStatus kitchenStatus) {
+        this.kitchenStatus = kitchenStatus;
+    }
+
+    public String getKitchenChef() {
+        return kitchenChef;
+    }
+
+    public void setKitchenChef(String kitchenChef) {
+        this.kitchenChef = kitchenChef;
+    }
+
+    public LocalDateTime getKitchenStartedAt() {
+        return kitchenStartedAt;
+    }
+
+    public void setKitchenStartedAt(LocalDateTime kitchenStartedAt) {
+        this.kitchenStartedAt = kitchenStartedAt;
+    }
+
+    public LocalDateTime getKitchenCompletedAt() {
+        return kitchenCompletedAt;
+    }
+
+    public void setKitchenCompletedAt(LocalDateTime kitchenCompletedAt) {
+        this.kitchenCompletedAt = kitchenCompletedAt;
+    }
+
+    public Integer getKitchenDoneQuantity() {
+        return kitchenDoneQuantity;
+    }
+
+    public void setKitchenDoneQuantity(Integer kitchenDoneQuantity) {
+        this.kitchenDoneQuantity = kitchenDoneQuantity;
+    }
+
     // Бизнес-методы
     public BigDecimal getItemTotal() {
         return unitPrice.multiply(BigDecimal.valueOf(quantity));
     }
 
     public void updateQuantity(Integer newQuantity) {
+        BigDecimal delta = unitPrice.multiply(BigDecimal.valueOf((long) newQuantity - quantity));
         this.quantity = newQuantity;
         if (this.order != null) {
-            this.order.recalculateTotalAmount();
+            this.order.adjustTotalAmount(delta);
         }
     }
 
@@ -0,0 +1,63 @@
+package com.restaurant.entity;
+
+import jakarta.persistence.*;
+
+import java.util.Objects;
+
+@Entity
+@Table(name = "order_number_blocks")
+public class OrderNumberBlock {
+
+    @Id
+    @Column(name = "block_name", length = 50)
+    private String blockName;
+
+    @Column(name = "next_value", nullable = false)
+    private Long nextValue;
+
+    // Конструкторы
+    public OrderNumberBlock() {}
+
+    public OrderNumberBlock(String blockName, Long nextValue) {
+        this.blockName = blockName;
+        this.nextValue = nextValue;
+    }
+
+    // Геттеры и сеттеры
+    public String getBlockName() {
+        return blockName;
+    }
+
+    public void setBlockName(String blockName) {
+        this.blockName = blockName;
+    }
+
+    public Long getNextValue() {
+        return nextValue;
+    }
+
+    public void setNextValue(Long nextValue) {
+        this.nextValue = nextValue;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof OrderNumberBlock)) return false;
+        OrderNumberBlock that = (OrderNumberBlock) o;
+        return Objects.equals(blockName, that.blockName);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(blockName);
+    }
+
+    @Override
+    public String toString() {
+        return "OrderNumberBlock{" +
+                "blockName='" + blockName + '\'' +
+                ", nextValue=" + nextValue +
+                '}';
+    }
+}
@@ -8,6 +8,14 @@ import java.util.Objects;
 @Table(name = "order_statuses")
 public class OrderStatus {
 
+    // Названия статусов заказа из справочника order_statuses
+    public static final String ACCEPTED = "принят";
+    public static final String COOKING = "готовится";
+    public static final String READY = "готов";
+    public static final String SERVED = "подан";
+    public static final String PAID = "оплачен";
+    public static final String CANCELLED = "отменен";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -0,0 +1,111 @@
+package com.restaurant.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+// Журнал смен статуса заказа, только добавление. Пишется в транзакции смены статуса;
+// id из пула последовательности, поэтому вставки уходят пачками вместе с изменением заказа.
+// Ссылки хранятся как id без внешних ключей: журнал переживает архивацию заказов.
+@Entity
+@Immutable
+@Table(name = "order_status_transitions", indexes = {
+        @Index(name = "idx_status_transitions_order", columnList = "order_id, changed_at"),
+        @Index(name = "idx_status_transitions_changed", columnList = "changed_at")
+})
+public class OrderStatusTransition {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_status_transitions_seq")
+    @SequenceGenerator(name = "order_status_transitions_seq", sequenceName = "order_status_transitions_seq",
+            allocationSize = 50)
+    private Long id;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    // null для первой записи (создание заказа)
+    @Column(name = "from_status_id")
+    private Long fromStatusId;
+
+    @Column(name = "to_status_id", nullable = false)
+    private Long toStatusId;
+
+    @Column(name = "waiter_id")
+    private Long waiterId;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+
+    // Сколько заказ пробыл в статусе from_status_id
+    @Column(name = "duration_ms")
+    private Long durationMs;
+
+    // Конструкторы
+    public OrderStatusTransition() {}
+
+    public OrderStatusTransition(Long orderId, Long fromStatusId, Long toStatusId, Long waiterId,
+                                 LocalDateTime changedAt, Long durationMs) {
+        this.orderId = orderId;
+        this.fromStatusId = fromStatusId;
+        this.toStatusId = toStatusId;
+        this.waiterId = waiterId;
+        this.changedAt = changedAt;
+        this.durationMs = durationMs;
+    }
+
+    // Геттеры
+    public Long getId() {
+        return id;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public Long getFromStatusId() {
+        return fromStatusId;
+    }
+
+    public Long getToStatusId() {
+        return toStatusId;
+    }
+
+    public Long getWaiterId() {
+        return waiterId;
+    }
+
+    public LocalDateTime getChangedAt() {
+        return changedAt;
+    }
+
+    public Long getDurationMs() {
+        return durationMs;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        OrderStatusTransition that = (OrderStatusTransition) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+
+    @Override
+    public String toString() {
+        return "OrderStatusTransition{" +
+                "orderId=" + orderId +
+                ", fromStatusId=" + fromStatusId +
+                ", toStatusId=" + toStatusId +
+                ", changedAt=" + changedAt +
+                ", durationMs=" + durationMs +
+                '}';
+    }
+}
@@ -10,13 +10,22 @@ import java.time.LocalTime;
 import java.util.Objects;
 
 @Entity
-@Table(name = "reservations")
+@Table(name = "reservations", indexes = {
+        @Index(name = "idx_reservations_status_created", columnList = "status, created_at, id"),
+        @Index(name = "idx_reservations_date_created", columnList = "reservation_date, created_at, id"),
+        @Index(name = "idx_reservations_phone_created", columnList = "guest_phone, created_at, id"),
+        @Index(name = "idx_reservations_updated", columnList = "updated_at")
+})
 public class Reservation {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint not null default 0")
+    private Long version;
+
     @Column(name = "guest_name", nullable = false, length = 255)
     private String guestName;
 
@@ -85,6 +94,14 @@ public class Reservation {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getGuestName() {
         return guestName;
     }
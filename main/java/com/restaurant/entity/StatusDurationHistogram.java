@@ -0,0 +1,97 @@
+package com.restaurant.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+// Гистограмма времени в статусе за один час по одному разрезу (статус, категория, официант, час суток).
+// Строится из журнала order_status_transitions, после этого час больше не пересчитывается.
+@Entity
+@Table(name = "status_duration_histograms",
+        uniqueConstraints = @UniqueConstraint(name = "uk_status_histogram_period",
+                columnNames = {"period_start", "dimension", "status_id", "dimension_key"}))
+public class StatusDurationHistogram {
+
+    public enum Dimension {
+        STATUS, CATEGORY, WAITER, HOUR
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "period_start", nullable = false)
+    private LocalDateTime periodStart;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Dimension dimension;
+
+    @Column(name = "status_id", nullable = false)
+    private Long statusId;
+
+    @Column(name = "dimension_key", nullable = false, length = 100)
+    private String dimensionKey;
+
+    @Column(name = "total_count", nullable = false)
+    private long totalCount;
+
+    @Column(nullable = false, columnDefinition = "BLOB")
+    private byte[] counts;
+
+    // Конструкторы
+    public StatusDurationHistogram() {}
+
+    public StatusDurationHistogram(LocalDateTime periodStart, Dimension dimension, Long statusId,
+                                   String dimensionKey, long totalCount, byte[] counts) {
+        this.periodStart = periodStart;
+        this.dimension = dimension;
+        this.statusId = statusId;
+        this.dimensionKey = dimensionKey;
+        this.totalCount = totalCount;
+        this.counts = counts;
+    }
+
+    // Геттеры
+    public Long getId() {
+        return id;
+    }
+
+    public LocalDateTime getPeriodStart() {
+        return periodStart;
+    }
+
+    public Dimension getDimension() {
+        return dimension;
+    }
+
+    public Long getStatusId() {
+        return statusId;
+    }
+
+    public String getDimensionKey() {
+        return dimensionKey;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public byte[] getCounts() {
+        return counts;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        StatusDurationHistogram that = (StatusDurationHistogram) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+}
@@ -0,0 +1,20 @@
+package com.restaurant.event;
+
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+
+// Доменное событие шины. Сохраняется в outbox в транзакции изменения,
+// после коммита доставляется обработчикам в отдельном потоке.
+@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "type")
+@JsonSubTypes({
+        @JsonSubTypes.Type(value = OrderCreated.class, name = "OrderCreated"),
+        @JsonSubTypes.Type(value = OrderStatusChanged.class, name = "OrderStatusChanged"),
+        @JsonSubTypes.Type(value = PaymentPaid.class, name = "PaymentPaid"),
+        @JsonSubTypes.Type(value = StockMoved.class, name = "StockMoved")
+})
+public abstract class DomainEvent {
+
+    public String eventType() {
+        return getClass().getSimpleName();
+    }
+}
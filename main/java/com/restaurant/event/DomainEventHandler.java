@@ -0,0 +1,10 @@
+package com.restaurant.event;
+
+// Обработчик доменных событий. Доставка "хотя бы один раз": после сбоя событие
+// может прийти повторно из outbox, поэтому обработка должна быть идемпотентной.
+public interface DomainEventHandler<E extends DomainEvent> {
+
+    Class<E> eventType();
+
+    void handle(E event);
+}
@@ -0,0 +1,64 @@
+package com.restaurant.event;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Ограниченный кольцевой буфер без блокировок: много производителей, один потребитель.
+// Производитель занимает номер ячейки через CAS и публикует в неё элемент;
+// потребитель забирает элементы строго по порядку номеров пачками.
+public class DomainEventRingBuffer<T> {
+
+    private final AtomicReferenceArray<T> slots;
+    private final int mask;
+    private final AtomicLong producerSequence = new AtomicLong();
+    private final AtomicLong consumerSequence = new AtomicLong();
+
+    public DomainEventRingBuffer(int requestedCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    // false - буфер заполнен; вызывающий поток не ждёт
+    public boolean offer(T element) {
+        while (true) {
+            long sequence = producerSequence.get();
+            if (sequence - consumerSequence.get() >= slots.length()) {
+                return false;
+            }
+            if (producerSequence.compareAndSet(sequence, sequence + 1)) {
+                slots.set((int) (sequence & mask), element);
+                return true;
+            }
+        }
+    }
+
+    // Вызывается только из потока-потребителя
+    public int drainTo(List<T> batch, int maxElements) {
+        long sequence = consumerSequence.get();
+        int drained = 0;
+        while (drained < maxElements) {
+            int index = (int) (sequence & mask);
+            T element = slots.get(index);
+            if (element == null) {
+                // Ячейка ещё не опубликована производителем или буфер пуст
+                break;
+            }
+            slots.lazySet(index, null);
+            batch.add(element);
+            sequence++;
+            drained++;
+        }
+        consumerSequence.lazySet(sequence);
+        return drained;
+    }
+
+    public int size() {
+        return (int) (producerSequence.get() - consumerSequence.get());
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+}
@@ -0,0 +1,15 @@
+package com.restaurant.event;
+
+// Событие изменения меню (блюда или категории). Публикуется MenuService внутри транзакции,
+// снимок меню пересобирается после коммита.
+public class MenuEvent {
+
+    private final Long dishId;
+
+    public MenuEvent(Long dishId) {
+        this.dishId = dishId;
+    }
+
+    // Геттеры
+    public Long getDishId() { return dishId; }
+}
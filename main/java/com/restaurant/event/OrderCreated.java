@@ -0,0 +1,26 @@
+package com.restaurant.event;
+
+import java.math.BigDecimal;
+
+public class OrderCreated extends DomainEvent {
+
+    private Long orderId;
+    private String orderNumber;
+    private BigDecimal totalAmount;
+
+    public OrderCreated() {}
+
+    public OrderCreated(Long orderId, String orderNumber, BigDecimal totalAmount) {
+        this.orderId = orderId;
+        this.orderNumber = orderNumber;
+        this.totalAmount = totalAmount;
+    }
+
+    // Геттеры и сеттеры
+    public Long getOrderId() { return orderId; }
+    public void setOrderId(Long orderId) { this.orderId = orderId; }
+    public String getOrderNumber() { return orderNumber; }
+    public void setOrderNumber(String orderNumber) { this.orderNumber = orderNumber; }
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
+}
@@ -0,0 +1,43 @@
+package com.restaurant.event;
+
+import com.restaurant.dto.OrderDTO;
+
+// Событие изменения заказа. Публикуется OrderService внутри транзакции,
+// слушатели получают его после коммита вместе со снимком заказа.
+// Это не замена DomainEventBus: шина доставляет событие одному узлу (relay через SKIP LOCKED) и позже,
+// а экраны кухни и очередь поваров держатся в памяти каждого узла и обновляются сразу после коммита.
+// Для них событие теряется вместе с узлом - после перезапуска состояние заново читается из БД.
+// Побочные действия в других модулях (например, оплата заказа по PaymentPaid) идут только через DomainEventBus.
+public class OrderEvent {
+
+    public enum Type {
+        ORDER_CREATED, ITEMS_CHANGED, STATUS_CHANGED
+    }
+
+    private final Type type;
+    private final OrderDTO.OrderResponse order;
+    private final String previousStatus;
+
+    public OrderEvent(Type type, OrderDTO.OrderResponse order, String previousStatus) {
+        this.type = type;
+        this.order = order;
+        this.previousStatus = previousStatus;
+    }
+
+    public static OrderEvent created(OrderDTO.OrderResponse order) {
+        return new OrderEvent(Type.ORDER_CREATED, order, null);
+    }
+
+    public static OrderEvent itemsChanged(OrderDTO.OrderResponse order) {
+        return new OrderEvent(Type.ITEMS_CHANGED, order, order.getStatus());
+    }
+
+    public static OrderEvent statusChanged(OrderDTO.OrderResponse order, String previousStatus) {
+        return new OrderEvent(Type.STATUS_CHANGED, order, previousStatus);
+    }
+
+    // Геттеры
+    public Type getType() { return type; }
+    public OrderDTO.OrderResponse getOrder() { return order; }
+    public String getPreviousStatus() { return previousStatus; }
+}
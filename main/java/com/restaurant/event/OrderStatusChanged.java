@@ -0,0 +1,24 @@
+package com.restaurant.event;
+
+public class OrderStatusChanged extends DomainEvent {
+
+    private Long orderId;
+    private String previousStatus;
+    private String newStatus;
+
+    public OrderStatusChanged() {}
+
+    public OrderStatusChanged(Long orderId, String previousStatus, String newStatus) {
+        this.orderId = orderId;
+        this.previousStatus = previousStatus;
+        this.newStatus = newStatus;
+    }
+
+    // Геттеры и сеттеры
+    public Long getOrderId() { return orderId; }
+    public void setOrderId(Long orderId) { this.orderId = orderId; }
+    public String getPreviousStatus() { return previousStatus; }
+    public void setPreviousStatus(String previousStatus) { this.previousStatus = previousStatus; }
+    public String getNewStatus() { return newStatus; }
+    public void setNewStatus(String newStatus) { this.newStatus = newStatus; }
+}
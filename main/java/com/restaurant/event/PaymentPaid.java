@@ -0,0 +1,30 @@
+package com.restaurant.event;
+
+import java.math.BigDecimal;
+
+public class PaymentPaid extends DomainEvent {
+
+    private Long paymentId;
+    private Long orderId;
+    private BigDecimal amount;
+    private String paymentMethod;
+
+    public PaymentPaid() {}
+
+    public PaymentPaid(Long paymentId, Long orderId, BigDecimal amount, String paymentMethod) {
+        this.paymentId = paymentId;
+        this.orderId = orderId;
+        this.amount = amount;
+        this.paymentMethod = paymentMethod;
+    }
+
+    // Геттеры и сеттеры
+    public Long getPaymentId() { return paymentId; }
+    public void setPaymentId(Long paymentId) { this.paymentId = paymentId; }
+    public Long getOrderId() { return orderId; }
+    public void setOrderId(Long orderId) { this.orderId = orderId; }
+    public BigDecimal getAmount() { return amount; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
+    public String getPaymentMethod() { return paymentMethod; }
+    public void setPaymentMethod(String paymentMethod) { this.paymentMethod = paymentMethod; }
+}
@@ -0,0 +1,15 @@
+package com.restaurant.event;
+
+// Бронирование создано или изменено (время, столик, статус). Публикуется ReservationService внутри транзакции,
+// индекс занятости столиков перечитывает бронирование после коммита.
+public class ReservationEvent {
+
+    private final Long reservationId;
+
+    public ReservationEvent(Long reservationId) {
+        this.reservationId = reservationId;
+    }
+
+    // Геттеры
+    public Long getReservationId() { return reservationId; }
+}
@@ -0,0 +1,30 @@
+package com.restaurant.event;
+
+import java.math.BigDecimal;
+
+public class StockMoved extends DomainEvent {
+
+    private Long ingredientId;
+    private BigDecimal quantity;
+    private String movementType;
+    private String reason;
+
+    public StockMoved() {}
+
+    public StockMoved(Long ingredientId, BigDecimal quantity, String movementType, String reason) {
+        this.ingredientId = ingredientId;
+        this.quantity = quantity;
+        this.movementType = movementType;
+        this.reason = reason;
+    }
+
+    // Геттеры и сеттеры
+    public Long getIngredientId() { return ingredientId; }
+    public void setIngredientId(Long ingredientId) { this.ingredientId = ingredientId; }
+    public BigDecimal getQuantity() { return quantity; }
+    public void setQuantity(BigDecimal quantity) { this.quantity = quantity; }
+    public String getMovementType() { return movementType; }
+    public void setMovementType(String movementType) { this.movementType = movementType; }
+    public String getReason() { return reason; }
+    public void setReason(String reason) { this.reason = reason; }
+}
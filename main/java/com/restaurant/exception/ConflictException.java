@@ -0,0 +1,15 @@
+package com.restaurant.exception;
+
+// Запись одновременно изменил другой пользователь. Клиенту нужно перечитать данные и повторить (HTTP 409).
+public class ConflictException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ConflictException(String message) {
+        super(message);
+    }
+
+    public ConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,6 +1,7 @@
 package com.restaurant.exception;
 
 import com.restaurant.dto.CommonDTO;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -27,6 +28,21 @@ public class GlobalExceptionHandler {
                 .body(CommonDTO.ApiResponse.error(ex.getMessage()));
     }
 
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<CommonDTO.ApiResponse<String>> handleConflictException(ConflictException ex) {
+        logger.warn("ConflictException: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(CommonDTO.ApiResponse.error(ex.getMessage()));
+    }
+
+    // Конфликт версий, не перехваченный сервисом
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<CommonDTO.ApiResponse<String>> handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+        logger.warn("Optimistic locking failure: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(CommonDTO.ApiResponse.error("Data was modified by another user, please reload and try again"));
+    }
+
     @ExceptionHandler(AccessDeniedException.class)
     public ResponseEntity<CommonDTO.ApiResponse<String>> handleAccessDeniedException(AccessDeniedException ex) {
         logger.warn("AccessDeniedException: {}", ex.getMessage());
@@ -0,0 +1,80 @@
+package com.restaurant.repository;
+
+import com.restaurant.entity.ArchivedOrder;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Long> {
+
+    @Query("SELECT DISTINCT o FROM ArchivedOrder o JOIN FETCH o.table LEFT JOIN FETCH o.waiter JOIN FETCH o.status " +
+            "LEFT JOIN FETCH o.orderItems i LEFT JOIN FETCH i.dish WHERE o.id = :id")
+    Optional<ArchivedOrder> findWithDetailsById(@Param("id") Long id);
+
+    @Query("SELECT DISTINCT o FROM ArchivedOrder o JOIN FETCH o.table LEFT JOIN FETCH o.waiter JOIN FETCH o.status " +
+            "LEFT JOIN FETCH o.orderItems i LEFT JOIN FETCH i.dish WHERE o.orderNumber = :orderNumber")
+    Optional<ArchivedOrder> findWithDetailsByOrderNumber(@Param("orderNumber") String orderNumber);
+
+    // Перенос пачки заказов: строки копируются как есть, затем удаляются из рабочих таблиц.
+    // Порядок вызовов внутри одной транзакции: orders, items, payments, затем удаление в обратном порядке.
+    @Modifying
+    @Query(value = "INSERT INTO orders_archive (id, version, order_number, reservation_id, table_id, waiter_id, status_id, " +
+            "total_amount, notes, created_at, updated_at, status_changed_at, archived_at) " +
+            "SELECT id, version, order_number, reservation_id, table_id, waiter_id, status_id, " +
+            "total_amount, notes, created_at, updated_at, status_changed_at, :archivedAt FROM orders WHERE id IN :ids",
+            nativeQuery = true)
+    int copyOrders(@Param("ids") Collection<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+
+    @Modifying
+    @Query(value = "INSERT INTO order_items_archive (id, order_id, dish_id, quantity, unit_price, notes, " +
+            "kitchen_status, kitchen_chef, kitchen_started_at, kitchen_completed_at, kitchen_done_quantity, version) " +
+            "SELECT id, order_id, dish_id, quantity, unit_price, notes, " +
+            "kitchen_status, kitchen_chef, kitchen_started_at, kitchen_completed_at, kitchen_done_quantity, version " +
+            "FROM order_items WHERE order_id IN :ids",
+            nativeQuery = true)
+    int copyOrderItems(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "INSERT INTO payments_archive (id, version, order_id, amount, payment_method, payment_status, " +
+            "transaction_id, paid_at, created_at) " +
+            "SELECT id, version, order_id, amount, payment_method, payment_status, transaction_id, paid_at, created_at " +
+            "FROM payments WHERE order_id IN :ids",
+            nativeQuery = true)
+    int copyPayments(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "DELETE FROM payments WHERE order_id IN :ids", nativeQuery = true)
+    int deletePayments(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "DELETE FROM order_items WHERE order_id IN :ids", nativeQuery = true)
+    int deleteOrderItems(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "DELETE FROM orders WHERE id IN :ids", nativeQuery = true)
+    int deleteOrders(@Param("ids") Collection<Long> ids);
+
+    // Отчёты: в архиве только оплаченные заказы
+    @Query("SELECT COUNT(o) FROM ArchivedOrder o WHERE o.createdAt BETWEEN :start AND :end")
+    Long countBetween(@Param("start") LocalDateTime start,
+                      @Param("end") LocalDateTime end);
+
+    @Query("SELECT i.dish, SUM(i.quantity) FROM ArchivedOrderItem i " +
+            "WHERE i.order.createdAt BETWEEN :startDate AND :endDate GROUP BY i.dish")
+    List<Object[]> findPopularDishesBetweenDates(@Param("startDate") LocalDateTime startDate,
+                                                 @Param("endDate") LocalDateTime endDate);
+
+    @Query("SELECT COUNT(o), COALESCE(SUM(o.totalAmount), 0) FROM ArchivedOrder o " +
+            "WHERE o.waiter.id = :waiterId AND o.createdAt BETWEEN :start AND :end")
+    List<Object[]> getWaiterTotalsBetween(@Param("waiterId") Long waiterId,
+                                          @Param("start") LocalDateTime start,
+                                          @Param("end") LocalDateTime end);
+}
@@ -0,0 +1,31 @@
+package com.restaurant.repository;
+
+import com.restaurant.entity.ArchivedPayment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ArchivedPaymentRepository extends JpaRepository<ArchivedPayment, Long> {
+
+    List<ArchivedPayment> findByOrderId(Long orderId);
+
+    @Query("SELECT SUM(p.amount) FROM ArchivedPayment p WHERE p.paymentStatus = 'PAID' AND p.createdAt BETWEEN :start AND :end")
+    BigDecimal getTotalRevenueBetween(@Param("start") LocalDateTime start,
+                                      @Param("end") LocalDateTime end);
+
+    @Query("SELECT p.paymentMethod, SUM(p.amount) FROM ArchivedPayment p " +
+            "WHERE p.paymentStatus = 'PAID' AND p.createdAt BETWEEN :start AND :end " +
+            "GROUP BY p.paymentMethod")
+    List<Object[]> getRevenueByPaymentMethodBetween(@Param("start") LocalDateTime start,
+                                                    @Param("end") LocalDateTime end);
+
+    @Query("SELECT COUNT(p) FROM ArchivedPayment p WHERE p.paymentStatus = 'PAID' AND p.createdAt BETWEEN :start AND :end")
+    Long countSuccessfulPaymentsBetween(@Param("start") LocalDateTime start,
+                                       @Param("end") LocalDateTime end);
+}
@@ -0,0 +1,19 @@
+package com.restaurant.repository;
+
+import com.restaurant.entity.DataVersion;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface DataVersionRepository extends JpaRepository<DataVersion, String> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT v FROM DataVersion v WHERE v.dataName = :dataName")
+    Optional<DataVersion> findForUpdate(@Param("dataName") String dataName);
+}
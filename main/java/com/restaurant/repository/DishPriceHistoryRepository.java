@@ -0,0 +1,65 @@
+package com.restaurant.repository;
+
+import com.restaurant.entity.DishPriceHistory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface DishPriceHistoryRepository extends JpaRepository<DishPriceHistory, Long> {
+
+    String EFFECTIVE_PRICE = "CASE WHEN d.is_on_promotion AND d.promotion_price IS NOT NULL " +
+            "THEN d.promotion_price ELSE d.price END";
+
+    // Последняя записанная цена блюда
+    Optional<DishPriceHistory> findFirstByDishIdOrderByIdDesc(Long dishId);
+
+    // Цена, действовавшая в момент at
+    Optional<DishPriceHistory> findFirstByDishIdAndValidFromLessThanEqualOrderByValidFromDescIdDesc(
+            Long dishId, LocalDateTime at);
+
+    List<DishPriceHistory> findByDishIdOrderByValidFromAscIdAsc(Long dishId);
+
+    // Дописывает строку для блюд, изменённых начиная с since, если их цена отличается от последней записанной.
+    // Для массовых записей в обход JPA (импорт меню); повторный вызов ничего не добавляет.
+    @Modifying
+    @Query(value = "INSERT INTO dish_price_history (dish_id, price, effective_price, promotion_id, reason, valid_from) " +
+            "SELECT d.id, d.price, " + EFFECTIVE_PRICE + ", d.applied_promotion_id, :reason, :validFrom " +
+            "FROM dishes d LEFT JOIN dish_price_history h " +
+            "ON h.id = (SELECT MAX(l.id) FROM dish_price_history l WHERE l.dish_id = d.id) " +
+            "WHERE d.updated_at >= :since AND (h.id IS NULL OR h.price <> d.price " +
+            "OR h.effective_price <> " + EFFECTIVE_PRICE + " " +
+            "OR COALESCE(h.promotion_id, 0) <> COALESCE(d.applied_promotion_id, 0))",
+            nativeQuery = true)
+    int appendChangedSince(@Param("since") LocalDateTime since,
+                           @Param("reason") String reason,
+                           @Param("validFrom") LocalDateTime validFrom);
+
+    // Продажи блюда по ценовым периодам: каждая позиция (рабочие и архивные заказы) соединяется
+    // с ценой, действовавшей в момент заказа. Позиции до первой записи истории попадают в период с id = null.
+    // [id записи, valid_from, price, effective_price, promotion_id, порций, выручка]
+    @Query(value = "SELECT h.id, h.valid_from, h.price, h.effective_price, h.promotion_id, " +
+            "SUM(x.quantity), SUM(x.quantity * x.unit_price) FROM (" +
+            "SELECT o.created_at, oi.quantity, oi.unit_price FROM order_items oi " +
+            "JOIN orders o ON o.id = oi.order_id " +
+            "WHERE oi.dish_id = :dishId AND o.created_at BETWEEN :startDate AND :endDate " +
+            "UNION ALL " +
+            "SELECT o.created_at, oi.quantity, oi.unit_price FROM order_items_archive oi " +
+            "JOIN orders_archive o ON o.id = oi.order_id " +
+            "WHERE oi.dish_id = :dishId AND o.created_at BETWEEN :startDate AND :endDate" +
+            ") x LEFT JOIN dish_price_history h ON h.id = (" +
+            "SELECT l.id FROM dish_price_history l WHERE l.dish_id = :dishId AND l.valid_from <= x.created_at " +
+            "ORDER BY l.valid_from DESC, l.id DESC LIMIT 1) " +
+            "GROUP BY h.id, h.valid_from, h.price, h.effective_price, h.promotion_id " +
+            "ORDER BY h.valid_from",
+            nativeQuery = true)
+    List<Object[]> sumSalesByPricePeriod(@Param("dishId") Long dishId,
+                                         @Param("startDate") LocalDateTime startDate,
+                                         @Param("endDate") LocalDateTime endDate);
+}
@@ -29,6 +29,10 @@ public interface DishRecipeRepository extends JpaRepository<DishRecipe, Long> {
             "GROUP BY dr.ingredient")
     List<Object[]> getTotalIngredientsRequiredForDishes(@Param("dishIds") List<Long> dishIds);
 
+    // Пары [id блюда, id ингредиента] всех рецептов
+    @Query("SELECT dr.dish.id, dr.ingredient.id FROM DishRecipe dr")
+    List<Object[]> findDishIngredientIds();
+
     @Query("SELECT dr FROM DishRecipe dr WHERE dr.ingredient.currentStock < dr.quantityRequired")
     List<DishRecipe> findRecipesWithInsufficientIngredients();
 }
\ No newline at end of file
@@ -3,12 +3,15 @@ package com.restaurant.repository;
 import com.restaurant.entity.Dish;
 import com.restaurant.entity.MenuCategory;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.awt.print.Pageable;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,10 +22,69 @@ public interface DishRepository extends JpaRepository<Dish, Long> {
 
     List<Dish> findByCategory(MenuCategory category);
 
+    // Блюда категории вместе с ней самой: DishResponse не подгружает категорию по одной
+    @Query("SELECT d FROM Dish d JOIN FETCH d.category c WHERE c.id = :categoryId ORDER BY d.id")
+    List<Dish> findByCategoryIdWithCategory(@Param("categoryId") Long categoryId);
+
+    @Query("SELECT d FROM Dish d JOIN FETCH d.category WHERE d.id IN :ids")
+    List<Dish> findAllByIdWithCategory(@Param("ids") Collection<Long> ids);
+
     List<Dish> findByIsActiveTrue();
 
+    // Источник снимка меню: активные блюда вместе с категориями, в стабильном порядке
+    @Query("SELECT d FROM Dish d JOIN FETCH d.category WHERE d.isActive = true ORDER BY d.id")
+    List<Dish> findActiveWithCategory();
+
+    // Ключи для массового импорта: id, название, id категории - без загрузки сущностей
+    @Query("SELECT d.id, d.dishName, d.category.id FROM Dish d")
+    List<Object[]> findAllKeys();
+
     List<Dish> findByIsOnPromotionTrueAndIsActiveTrue();
 
+    // Блюда, цену которых сейчас задаёт акция по расписанию
+    @Query("SELECT d.id FROM Dish d WHERE d.appliedPromotionId IS NOT NULL")
+    List<Long> findIdsWithAppliedPromotion();
+
+    // Условные записи планировщика акций: 0 строк - уже применено, в том числе другим узлом
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Dish d SET d.isOnPromotion = true, d.promotionPrice = :price, " +
+            "d.appliedPromotionId = :promotionId, d.updatedAt = :now " +
+            "WHERE d.id = :id AND (d.appliedPromotionId IS NULL OR d.appliedPromotionId <> :promotionId " +
+            "OR d.promotionPrice IS NULL OR d.promotionPrice <> :price " +
+            "OR d.isOnPromotion IS NULL OR d.isOnPromotion = false)")
+    int applyScheduledPromotion(@Param("id") Long id,
+                                @Param("promotionId") Long promotionId,
+                                @Param("price") BigDecimal price,
+                                @Param("now") LocalDateTime now);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Dish d SET d.isOnPromotion = false, d.promotionPrice = null, d.appliedPromotionId = null, " +
+            "d.updatedAt = :now WHERE d.id = :id AND d.appliedPromotionId IS NOT NULL")
+    int clearScheduledPromotion(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    // Загрузка фото: блюдо ждёт варианты этой картинки
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Dish d SET d.imageHash = :hash WHERE d.id = :id")
+    int expectImage(@Param("id") Long id, @Param("hash") String hash);
+
+    // Ссылку на фото задали вручную: ожидаемая загрузка больше не применится.
+    // Без clearAutomatically - блюдо, которое правится в той же транзакции, не отсоединяется
+    @Modifying
+    @Query("UPDATE Dish d SET d.imageHash = NULL WHERE d.id = :id")
+    int forgetExpectedImage(@Param("id") Long id);
+
+    boolean existsByIdAndImageHash(Long id, String imageHash);
+
+    // 0 строк - после этой загрузки была более новая, её ссылки не перезаписываются
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Dish d SET d.imageUrl = :imageUrl, d.thumbnailUrl = :thumbnailUrl, d.updatedAt = :now " +
+            "WHERE d.id = :id AND d.imageHash = :hash")
+    int setImageIfExpected(@Param("id") Long id,
+                           @Param("hash") String hash,
+                           @Param("imageUrl") String imageUrl,
+                           @Param("thumbnailUrl") String thumbnailUrl,
+                           @Param("now") LocalDateTime now);
+
     List<Dish> findByPriceBetween(BigDecimal minPrice, BigDecimal maxPrice);
 
     List<Dish> findByDishNameContainingIgnoreCaseAndIsActiveTrue(String dishName);
@@ -4,11 +4,13 @@ import com.restaurant.entity.Dish;
 import com.restaurant.entity.Order;
 import com.restaurant.entity.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -28,4 +30,67 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
             "ORDER BY totalQuantity DESC")
     List<Object[]> findPopularDishesBetweenDates(@Param("startDate") LocalDateTime startDate,
                                                  @Param("endDate") LocalDateTime endDate);
-}
\ No newline at end of file
+
+    // Пары (id заказа, категория блюда) для разреза времени в статусе по категориям
+    @Query("SELECT DISTINCT oi.order.id, oi.dish.category.categoryName FROM OrderItem oi WHERE oi.order.id IN :orderIds")
+    List<Object[]> findCategoryNamesByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+
+    // Популярность блюд для подсказок: [id блюда, порций]
+    @Query("SELECT oi.dish.id, SUM(oi.quantity) FROM OrderItem oi WHERE oi.order.createdAt >= :since GROUP BY oi.dish.id")
+    List<Object[]> sumQuantityByDishSince(@Param("since") LocalDateTime since);
+
+    // Очередь кухни: позиции заказов в статусе "готовится", которые ещё не приготовлены
+    @Query("SELECT oi FROM OrderItem oi JOIN FETCH oi.order o JOIN FETCH o.table JOIN FETCH oi.dish d JOIN FETCH d.category " +
+            "WHERE o.status.id = :statusId AND (oi.kitchenStatus IS NULL OR oi.kitchenStatus <> :done)")
+    List<OrderItem> findOpenKitchenItems(@Param("statusId") Long statusId,
+                                         @Param("done") OrderItem.KitchenStatus done);
+
+    @Query("SELECT oi FROM OrderItem oi JOIN FETCH oi.order o JOIN FETCH o.table JOIN FETCH oi.dish d JOIN FETCH d.category " +
+            "WHERE o.id = :orderId AND (oi.kitchenStatus IS NULL OR oi.kitchenStatus <> :done)")
+    List<OrderItem> findOpenKitchenItemsByOrderId(@Param("orderId") Long orderId,
+                                                  @Param("done") OrderItem.KitchenStatus done);
+
+    @Query("SELECT COUNT(oi) FROM OrderItem oi WHERE oi.order.id = :orderId " +
+            "AND (oi.kitchenStatus IS NULL OR oi.kitchenStatus <> :done)")
+    long countOpenKitchenItems(@Param("orderId") Long orderId,
+                               @Param("done") OrderItem.KitchenStatus done);
+
+    // Условные переходы: позицию берёт только один повар, завершить можно только взятую.
+    // Версия увеличивается, чтобы параллельная правка позиции официантом получила конфликт
+    @Modifying
+    @Query("UPDATE OrderItem oi SET oi.kitchenStatus = :inProgress, oi.kitchenChef = :chef, oi.kitchenStartedAt = :now, " +
+            "oi.version = oi.version + 1 " +
+            "WHERE oi.id = :id AND oi.kitchenStatus IS NULL")
+    int markKitchenStarted(@Param("id") Long id,
+                           @Param("chef") String chef,
+                           @Param("now") LocalDateTime now,
+                           @Param("inProgress") OrderItem.KitchenStatus inProgress);
+
+    @Modifying
+    @Query("UPDATE OrderItem oi SET oi.kitchenStatus = :done, oi.kitchenCompletedAt = :now, oi.version = oi.version + 1 " +
+            "WHERE oi.id = :id AND oi.kitchenStatus = :inProgress AND oi.kitchenChef = :chef")
+    int markKitchenDone(@Param("id") Long id,
+                        @Param("chef") String chef,
+                        @Param("now") LocalDateTime now,
+                        @Param("inProgress") OrderItem.KitchenStatus inProgress,
+                        @Param("done") OrderItem.KitchenStatus done);
+
+    // Порции общей партии блюда: позиция закрывается, когда приготовлено всё количество.
+    // Статус и время вычисляются до увеличения счётчика (MySQL применяет SET слева направо).
+    @Modifying
+    @Query("UPDATE OrderItem oi SET " +
+            "oi.kitchenStatus = CASE WHEN COALESCE(oi.kitchenDoneQuantity, 0) + :portions >= oi.quantity " +
+            "THEN :done ELSE oi.kitchenStatus END, " +
+            "oi.kitchenCompletedAt = CASE WHEN COALESCE(oi.kitchenDoneQuantity, 0) + :portions >= oi.quantity " +
+            "THEN :now ELSE oi.kitchenCompletedAt END, " +
+            "oi.kitchenChef = COALESCE(oi.kitchenChef, :chef), " +
+            "oi.kitchenDoneQuantity = COALESCE(oi.kitchenDoneQuantity, 0) + :portions, " +
+            "oi.version = oi.version + 1 " +
+            "WHERE oi.id = :id AND (oi.kitchenStatus IS NULL OR oi.kitchenStatus <> :done) " +
+            "AND COALESCE(oi.kitchenDoneQuantity, 0) + :portions <= oi.quantity")
+    int addKitchenPortions(@Param("id") Long id,
+                           @Param("portions") int portions,
+                           @Param("chef") String chef,
+                           @Param("now") LocalDateTime now,
+                           @Param("done") OrderItem.KitchenStatus done);
+}
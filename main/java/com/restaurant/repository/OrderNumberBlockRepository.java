@@ -0,0 +1,19 @@
+package com.restaurant.repository;
+
+import com.restaurant.entity.OrderNumberBlock;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface OrderNumberBlockRepository extends JpaRepository<OrderNumberBlock, String> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM OrderNumberBlock b WHERE b.blockName = :blockName")
+    Optional<OrderNumberBlock> findForUpdate(@Param("blockName") String blockName);
+}
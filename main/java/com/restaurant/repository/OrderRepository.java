@@ -1,22 +1,27 @@
 package com.restaurant.repository;
 
 import com.restaurant.entity.*;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
+    @EntityGraph(Order.WITH_DETAILS)
     Optional<Order> findByOrderNumber(String orderNumber);
 
     List<Order> findByTable(RestaurantTable table);
 
+    @EntityGraph(Order.WITH_DETAILS)
     List<Order> findByWaiter(User waiter);
 
     List<Order> findByStatus(OrderStatus status);
@@ -27,14 +32,17 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findOrdersBetweenDates(@Param("startDate") LocalDateTime startDate,
                                        @Param("endDate") LocalDateTime endDate);
 
-    @Query("SELECT o FROM Order o WHERE o.status.statusName = :statusName")
-    List<Order> findByStatusName(@Param("statusName") String statusName);
+    @EntityGraph(Order.WITH_DETAILS)
+    @Query("SELECT o FROM Order o WHERE o.status.id = :statusId")
+    List<Order> findByStatusId(@Param("statusId") Long statusId);
 
+    @EntityGraph(Order.WITH_DETAILS)
     @Query("SELECT o FROM Order o JOIN o.table t WHERE t.tableNumber = :tableNumber")
     List<Order> findByTableNumber(@Param("tableNumber") String tableNumber);
 
-    @Query("SELECT COUNT(o) FROM Order o WHERE o.status.statusName = 'оплачен' AND o.createdAt BETWEEN :start AND :end")
-    Long countPaidOrdersBetween(@Param("start") LocalDateTime start,
+    @Query("SELECT COUNT(o) FROM Order o WHERE o.status.id = :statusId AND o.createdAt BETWEEN :start AND :end")
+    Long countByStatusIdBetween(@Param("statusId") Long statusId,
+                                @Param("start") LocalDateTime start,
                                 @Param("end") LocalDateTime end);
 
     // ДОБАВЛЯЕМ НЕДОСТАЮЩИЙ МЕТОД
@@ -43,6 +51,46 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
                                       @Param("start") LocalDateTime start,
                                       @Param("end") LocalDateTime end);
 
-    @Query("SELECT o FROM Order o WHERE o.table.id = :tableId AND o.status.statusName != 'оплачен'")
-    List<Order> findActiveOrdersByTable(@Param("tableId") Long tableId);
-}
\ No newline at end of file
+    @Query("SELECT o FROM Order o WHERE o.table.id = :tableId AND o.status.id <> :paidStatusId")
+    List<Order> findActiveOrdersByTable(@Param("tableId") Long tableId,
+                                        @Param("paidStatusId") Long paidStatusId);
+
+    // Постраничная выборка (keyset): сначала только id страницы по индексу,
+    // затем сами заказы одним запросом по графу (fetch коллекции с лимитом Hibernate делает в памяти)
+    @Query("SELECT o.id FROM Order o WHERE o.status.id = :statusId " +
+            "AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)) " +
+            "ORDER BY o.createdAt DESC, o.id DESC")
+    List<Long> findPageIdsByStatusId(@Param("statusId") Long statusId,
+                                     @Param("createdAt") LocalDateTime createdAt,
+                                     @Param("id") Long id,
+                                     Pageable pageable);
+
+    @Query("SELECT o.id FROM Order o WHERE o.table.tableNumber = :tableNumber " +
+            "AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)) " +
+            "ORDER BY o.createdAt DESC, o.id DESC")
+    List<Long> findPageIdsByTableNumber(@Param("tableNumber") String tableNumber,
+                                        @Param("createdAt") LocalDateTime createdAt,
+                                        @Param("id") Long id,
+                                        Pageable pageable);
+
+    @Query("SELECT o.id FROM Order o WHERE o.waiter.username = :username " +
+            "AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)) " +
+            "ORDER BY o.createdAt DESC, o.id DESC")
+    List<Long> findPageIdsByWaiterUsername(@Param("username") String username,
+                                           @Param("createdAt") LocalDateTime createdAt,
+                                           @Param("id") Long id,
+                                           Pageable pageable);
+
+    @EntityGraph(Order.WITH_DETAILS)
+    @Query("SELECT o FROM Order o WHERE o.id IN :ids")
+    List<Order> findAllWithDetailsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Кандидаты на архивацию: оплаченные заказы старше заданного срока (по индексу статуса и даты).
+    // Строки блокируются до конца пачки, чтобы к заказу не добавился платёж между копированием и удалением;
+    // занятые другим узлом или запросом пропускаются.
+    @Query(value = "SELECT id FROM orders WHERE status_id = :paidStatusId AND created_at < :before " +
+            "ORDER BY created_at, id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockArchivableIds(@Param("paidStatusId") Long paidStatusId,
+                                 @Param("before") LocalDateTime before,
+                                 @Param("limit") int limit);
+}
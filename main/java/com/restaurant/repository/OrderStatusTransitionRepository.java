@@ -0,0 +1,25 @@
+package com.restaurant.repository;
+
+import com.restaurant.entity.OrderStatusTransition;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OrderStatusTransitionRepository extends JpaRepository<OrderStatusTransition, Long> {
+
+    List<OrderStatusTransition> findByOrderIdOrderByChangedAtAscIdAsc(Long orderId);
+
+    // Переходы с известной длительностью предыдущего статуса
+    @Query("SELECT t FROM OrderStatusTransition t WHERE t.changedAt >= :start AND t.changedAt < :end " +
+            "AND t.fromStatusId IS NOT NULL AND t.durationMs IS NOT NULL")
+    List<OrderStatusTransition> findTimedBetween(@Param("start") LocalDateTime start,
+                                                 @Param("end") LocalDateTime end);
+
+    @Query("SELECT MIN(t.changedAt) FROM OrderStatusTransition t")
+    LocalDateTime findFirstChangedAt();
+}
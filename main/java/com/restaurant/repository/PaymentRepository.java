@@ -2,6 +2,7 @@ package com.restaurant.repository;
 
 import com.restaurant.entity.Order;
 import com.restaurant.entity.Payment;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -41,4 +42,21 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     @Query("SELECT COUNT(p) FROM Payment p WHERE p.paymentStatus = 'PAID' AND p.createdAt BETWEEN :start AND :end")
     Long countSuccessfulPaymentsBetween(@Param("start") LocalDateTime start,
                                         @Param("end") LocalDateTime end);
+
+    // Постраничная выборка (keyset) по (createdAt, id), заказ загружается тем же запросом
+    @Query("SELECT p FROM Payment p JOIN FETCH p.order WHERE p.paymentStatus = :status " +
+            "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Payment> findPageByPaymentStatus(@Param("status") Payment.PaymentStatus status,
+                                          @Param("createdAt") LocalDateTime createdAt,
+                                          @Param("id") Long id,
+                                          Pageable pageable);
+
+    @Query("SELECT p FROM Payment p JOIN FETCH p.order WHERE p.paymentMethod = :method " +
+            "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Payment> findPageByPaymentMethod(@Param("method") Payment.PaymentMethod method,
+                                          @Param("createdAt") LocalDateTime createdAt,
+                                          @Param("id") Long id,
+                                          Pageable pageable);
 }
\ No newline at end of file
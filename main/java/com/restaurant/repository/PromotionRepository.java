@@ -0,0 +1,20 @@
+package com.restaurant.repository;
+
+import com.restaurant.entity.Promotion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PromotionRepository extends JpaRepository<Promotion, Long> {
+
+    List<Promotion> findByDishIdOrderByIdAsc(Long dishId);
+
+    // Акции, которые ещё могут начаться или закончиться: прошедшие планировщику не нужны
+    @Query("SELECT p FROM Promotion p WHERE p.isEnabled = true AND (p.endsAt IS NULL OR p.endsAt > :now)")
+    List<Promotion> findSchedulable(@Param("now") LocalDateTime now);
+}
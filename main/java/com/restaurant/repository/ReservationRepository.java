@@ -3,6 +3,7 @@ package com.restaurant.repository;
 import com.restaurant.entity.Reservation;
 import com.restaurant.entity.RestaurantTable;
 import com.restaurant.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -34,12 +35,24 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
     // Упрощенная версия без полных путей к enum
     @Query("SELECT r FROM Reservation r WHERE r.table.id = :tableId " +
             "AND (r.status = 'PENDING' OR r.status = 'CONFIRMED') " +
-            "AND ((:startTime < FUNCTION('TIMESTAMP', r.reservationDate, r.reservationTime) + (r.durationMinutes * 60)) " +
-            "AND (:endTime > FUNCTION('TIMESTAMP', r.reservationDate, r.reservationTime)))")
+            "AND ((:startTime < (cast(FUNCTION('TIMESTAMP', r.reservationDate, r.reservationTime) as LocalDateTime) + (r.durationMinutes) minute)) " +
+            "AND (:endTime > cast(FUNCTION('TIMESTAMP', r.reservationDate, r.reservationTime) as LocalDateTime)))")
     List<Reservation> findConflictingReservations(@Param("tableId") Long tableId,
                                                   @Param("startTime") LocalDateTime startTime,
                                                   @Param("endTime") LocalDateTime endTime);
 
+    // Загрузка индекса занятости: активные брони с fromDate, а также более длинные, чем maxMinutes,
+    // которые могли начаться раньше и ещё не закончиться
+    @Query("SELECT r FROM Reservation r JOIN FETCH r.table WHERE r.status IN :statuses " +
+            "AND (r.reservationDate >= :fromDate OR r.durationMinutes > :maxMinutes)")
+    List<Reservation> findActiveForIndex(@Param("statuses") List<Reservation.ReservationStatus> statuses,
+                                         @Param("fromDate") LocalDate fromDate,
+                                         @Param("maxMinutes") Integer maxMinutes);
+
+    // Брони, изменённые с момента since (в том числе отменённые) - для сверки индекса с другими узлами
+    @Query("SELECT r FROM Reservation r JOIN FETCH r.table WHERE r.updatedAt >= :since")
+    List<Reservation> findUpdatedSince(@Param("since") LocalDateTime since);
+
     @Query("SELECT r FROM Reservation r WHERE r.reservationDate = :date " +
             "AND (r.status = 'PENDING' OR r.status = 'CONFIRMED') " +
             "ORDER BY r.reservationTime")
@@ -63,4 +76,39 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
     @Query("SELECT r FROM Reservation r WHERE r.reservationDate = :date AND r.table = :table")
     List<Reservation> findByDateAndTable(@Param("date") LocalDate date,
                                          @Param("table") RestaurantTable table);
+
+    // Постраничная выборка (keyset) по (createdAt, id), столик загружается тем же запросом
+    @Query("SELECT r FROM Reservation r JOIN FETCH r.table WHERE r.status = :status " +
+            "AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)) " +
+            "ORDER BY r.createdAt DESC, r.id DESC")
+    List<Reservation> findPageByStatus(@Param("status") Reservation.ReservationStatus status,
+                                       @Param("createdAt") LocalDateTime createdAt,
+                                       @Param("id") Long id,
+                                       Pageable pageable);
+
+    @Query("SELECT r FROM Reservation r JOIN FETCH r.table WHERE r.reservationDate = :date " +
+            "AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)) " +
+            "ORDER BY r.createdAt DESC, r.id DESC")
+    List<Reservation> findPageByReservationDate(@Param("date") LocalDate date,
+                                                @Param("createdAt") LocalDateTime createdAt,
+                                                @Param("id") Long id,
+                                                Pageable pageable);
+
+    @Query("SELECT r FROM Reservation r JOIN FETCH r.table WHERE r.guestPhone = :guestPhone " +
+            "AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)) " +
+            "ORDER BY r.createdAt DESC, r.id DESC")
+    List<Reservation> findPageByGuestPhone(@Param("guestPhone") String guestPhone,
+                                           @Param("createdAt") LocalDateTime createdAt,
+                                           @Param("id") Long id,
+                                           Pageable pageable);
+
+    // Поиск по части имени гостя индексом не ускоряется; keyset ограничивает объём одной страницы
+    @Query("SELECT r FROM Reservation r JOIN FETCH r.table " +
+            "WHERE LOWER(r.guestName) LIKE LOWER(CONCAT('%', :guestName, '%')) " +
+            "AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)) " +
+            "ORDER BY r.createdAt DESC, r.id DESC")
+    List<Reservation> findPageByGuestName(@Param("guestName") String guestName,
+                                          @Param("createdAt") LocalDateTime createdAt,
+                                          @Param("id") Long id,
+                                          Pageable pageable);
 }
\ No newline at end of file
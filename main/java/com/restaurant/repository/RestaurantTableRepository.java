@@ -30,8 +30,8 @@ public interface RestaurantTableRepository extends JpaRepository<RestaurantTable
             "AND t.id NOT IN (" +
             "    SELECT r.table.id FROM Reservation r " +
             "    WHERE r.status IN ('PENDING', 'CONFIRMED') " +
-            "    AND :requestedTime BETWEEN FUNCTION('TIMESTAMP', r.reservationDate, r.reservationTime) " +
-            "    AND FUNCTION('TIMESTAMP', r.reservationDate, r.reservationTime) + (r.durationMinutes * 60)" +
+            "    AND :requestedTime BETWEEN cast(FUNCTION('TIMESTAMP', r.reservationDate, r.reservationTime) as LocalDateTime) " +
+            "    AND (cast(FUNCTION('TIMESTAMP', r.reservationDate, r.reservationTime) as LocalDateTime) + (r.durationMinutes) minute)" +
             ")")
     List<RestaurantTable> findAvailableTablesAtTime(@Param("requestedTime") LocalDateTime requestedTime);
 
@@ -40,8 +40,8 @@ public interface RestaurantTableRepository extends JpaRepository<RestaurantTable
             "AND t.id NOT IN (" +
             "    SELECT r.table.id FROM Reservation r " +
             "    WHERE r.status IN ('PENDING', 'CONFIRMED') " +
-            "    AND (:startTime < FUNCTION('TIMESTAMP', r.reservationDate, r.reservationTime) + (r.durationMinutes * 60) " +
-            "    AND :endTime > FUNCTION('TIMESTAMP', r.reservationDate, r.reservationTime))" +
+            "    AND (:startTime < (cast(FUNCTION('TIMESTAMP', r.reservationDate, r.reservationTime) as LocalDateTime) + (r.durationMinutes) minute) " +
+            "    AND :endTime > cast(FUNCTION('TIMESTAMP', r.reservationDate, r.reservationTime) as LocalDateTime))" +
             ")")
     List<RestaurantTable> findAvailableTables(@Param("startTime") LocalDateTime startTime,
                                               @Param("endTime") LocalDateTime endTime,
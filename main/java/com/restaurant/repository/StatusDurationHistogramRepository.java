@@ -0,0 +1,23 @@
+package com.restaurant.repository;
+
+import com.restaurant.entity.StatusDurationHistogram;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface StatusDurationHistogramRepository extends JpaRepository<StatusDurationHistogram, Long> {
+
+    @Query("SELECT h FROM StatusDurationHistogram h WHERE h.dimension = :dimension " +
+            "AND h.periodStart >= :start AND h.periodStart < :end")
+    List<StatusDurationHistogram> findByDimensionBetween(@Param("dimension") StatusDurationHistogram.Dimension dimension,
+                                                         @Param("start") LocalDateTime start,
+                                                         @Param("end") LocalDateTime end);
+
+    @Query("SELECT MAX(h.periodStart) FROM StatusDurationHistogram h")
+    LocalDateTime findLastPeriodStart();
+}
@@ -0,0 +1,53 @@
+package com.restaurant.service;
+
+import com.restaurant.entity.Dish;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Сложение агрегатов по рабочим и архивным таблицам для отчётов
+final class ArchiveTotals {
+
+    private ArchiveTotals() {}
+
+    static BigDecimal sum(BigDecimal hot, BigDecimal archived) {
+        BigDecimal total = hot != null ? hot : BigDecimal.ZERO;
+        return archived != null ? total.add(archived) : total;
+    }
+
+    // Строки вида [способ оплаты, сумма]
+    static Map<String, BigDecimal> mergeRevenueByMethod(List<Object[]> hot, List<Object[]> archived) {
+        Map<String, BigDecimal> revenue = new LinkedHashMap<>();
+        for (List<Object[]> rows : List.of(hot, archived)) {
+            for (Object[] row : rows) {
+                revenue.merge(String.valueOf(row[0]), (BigDecimal) row[1], BigDecimal::add);
+            }
+        }
+        return revenue;
+    }
+
+    // Строки вида [блюдо, количество]; результат отсортирован по убыванию количества
+    static List<Object[]> mergeDishQuantities(List<Object[]> hot, List<Object[]> archived) {
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        Map<Long, Object[]> byDish = new LinkedHashMap<>();
+        for (List<Object[]> rows : List.of(hot, archived)) {
+            for (Object[] row : rows) {
+                Long dishId = ((Dish) row[0]).getId();
+                Object[] merged = byDish.get(dishId);
+                if (merged == null) {
+                    byDish.put(dishId, new Object[]{row[0], ((Number) row[1]).longValue()});
+                } else {
+                    merged[1] = (Long) merged[1] + ((Number) row[1]).longValue();
+                }
+            }
+        }
+        List<Object[]> result = new ArrayList<>(byDish.values());
+        result.sort((a, b) -> Long.compare((Long) b[1], (Long) a[1]));
+        return result;
+    }
+}
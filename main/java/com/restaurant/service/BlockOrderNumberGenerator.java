@@ -0,0 +1,147 @@
+package com.restaurant.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Номера вида ORD-000123 из заранее зарезервированных диапазонов.
+// Внутри диапазона выдача без блокировок. Следующий диапазон резервирует фоновый поток,
+// когда текущий израсходован наполовину: резерв идёт в своей транзакции и со своим соединением,
+// а потоки заказов (каждый уже держит соединение своей транзакции) его не ждут.
+@Service
+public class BlockOrderNumberGenerator implements OrderNumberGenerator {
+
+    private static final String PREFIX = "ORD-";
+    private static final long RESERVE_TIMEOUT_SECONDS = 30;
+
+    private final OrderNumberBlockAllocator blockAllocator;
+    private final int blockSize;
+    private final ExecutorService reserver;
+
+    private volatile Block current = new Block(0, 0, 0);
+    // Следующий диапазон: резервируется или уже получен; guarded by this
+    private CompletableFuture<Block> pending;
+
+    public BlockOrderNumberGenerator(OrderNumberBlockAllocator blockAllocator,
+                                     @Value("${app.orders.number-block-size:100}") int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Order number block size must be positive");
+        }
+        this.blockAllocator = blockAllocator;
+        this.blockSize = blockSize;
+        this.reserver = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-number-blocks");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Первый диапазон резервируется заранее, чтобы первый заказ не ждал БД
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        prefetch();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reserver.shutdownNow();
+    }
+
+    @Override
+    public String nextOrderNumber() {
+        return format(nextValue());
+    }
+
+    long nextValue() {
+        while (true) {
+            Block block = current;
+            long value = block.next.getAndIncrement();
+            if (value < block.end) {
+                if (value == block.prefetchAt) {
+                    // Значение выдаётся ровно одному потоку - он и заказывает следующий диапазон
+                    prefetch();
+                }
+                return value;
+            }
+            advance(block);
+        }
+    }
+
+    private synchronized CompletableFuture<Block> prefetch() {
+        if (pending == null) {
+            pending = CompletableFuture.supplyAsync(() -> {
+                long start = blockAllocator.reserve(blockSize);
+                return new Block(start, start + blockSize, start + blockSize / 2);
+            }, reserver);
+        }
+        return pending;
+    }
+
+    // Диапазон исчерпан: переключаемся на заготовленный. Ожидание - вне монитора.
+    private void advance(Block exhausted) {
+        CompletableFuture<Block> next;
+        synchronized (this) {
+            if (current != exhausted) {
+                // Другой поток уже переключил диапазон
+                return;
+            }
+            next = prefetch();
+        }
+
+        Block block;
+        try {
+            block = next.get(RESERVE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while reserving order numbers", e);
+        } catch (ExecutionException | TimeoutException e) {
+            synchronized (this) {
+                // Неудачный резерв не должен остаться в кэше - следующий вызов попробует снова
+                if (pending == next && next.isDone()) {
+                    pending = null;
+                }
+            }
+            throw new RuntimeException("Cannot reserve order numbers", e.getCause() != null ? e.getCause() : e);
+        }
+
+        synchronized (this) {
+            if (current == exhausted) {
+                current = block;
+                pending = null;
+            }
+        }
+    }
+
+    static String format(long value) {
+        String digits = Long.toString(value);
+        StringBuilder sb = new StringBuilder(PREFIX.length() + Math.max(6, digits.length()));
+        sb.append(PREFIX);
+        for (int i = digits.length(); i < 6; i++) {
+            sb.append('0');
+        }
+        return sb.append(digits).toString();
+    }
+
+    private static final class Block {
+        private final AtomicLong next;
+        private final long end;
+        // Значение, на котором заказывается следующий диапазон
+        private final long prefetchAt;
+
+        private Block(long start, long end, long prefetchAt) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+            this.prefetchAt = prefetchAt;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.restaurant.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Фоновый поток для пересборки производных данных. Запросы, пришедшие, пока задача ждёт запуска,
+// сливаются в один; запрос во время выполнения вызывает ровно один повторный запуск.
+// Тот, кто просит пересборку, не ждёт её и не держит блокировок.
+final class CoalescingWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(CoalescingWorker.class);
+
+    private final String name;
+    private final Runnable task;
+    private final ExecutorService executor;
+    private final AtomicBoolean requested = new AtomicBoolean();
+
+    CoalescingWorker(String name, Runnable task) {
+        this.name = name;
+        this.task = task;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    void request() {
+        if (!requested.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(this::run);
+        } catch (RejectedExecutionException e) {
+            requested.set(false);
+            logger.debug("{} is stopped, request ignored", name);
+        }
+    }
+
+    void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private void run() {
+        // Флаг снимается до запуска: изменение, пришедшее во время работы, запланирует ещё один проход
+        requested.set(false);
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            logger.error("{} failed", name, e);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.restaurant.service;
+
+import com.restaurant.entity.DataVersion;
+import com.restaurant.repository.DataVersionRepository;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Версии справочных данных для ETag и Last-Modified.
+// Счётчик хранится в БД и растёт в транзакции записи, поэтому все узлы видят одну и ту же версию.
+// Для проверок If-None-Match версия кэшируется на узле на короткое время (app.http-cache.version-ttl-ms).
+@Service
+public class DataVersionService {
+
+    public static final String MENU = "menu";
+    public static final String TABLES = "tables";
+
+    private final DataVersionRepository versionRepository;
+    private final TransactionTemplate readTemplate;
+    private final TransactionTemplate createTemplate;
+    private final long ttlMs;
+    private final Map<String, Cached> cache = new ConcurrentHashMap<>();
+
+    public DataVersionService(DataVersionRepository versionRepository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.http-cache.version-ttl-ms:1000}") long ttlMs) {
+        this.versionRepository = versionRepository;
+        this.readTemplate = new TransactionTemplate(transactionManager);
+        this.readTemplate.setReadOnly(true);
+        this.createTemplate = new TransactionTemplate(transactionManager);
+        // Строка счётчика создаётся отдельно: конфликт вставки не должен откатывать изменение данных
+        this.createTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.ttlMs = ttlMs;
+    }
+
+    // Вызывается из транзакции, меняющей данные: версия фиксируется и откатывается вместе с ними.
+    // Блокировка строки упорядочивает параллельные записи одного справочника.
+    @Transactional(Transactional.TxType.MANDATORY)
+    public Version bump(String dataName) {
+        DataVersion row = versionRepository.findForUpdate(dataName).orElse(null);
+        if (row == null) {
+            createRow(dataName);
+            row = versionRepository.findForUpdate(dataName)
+                    .orElseThrow(() -> new RuntimeException("Data version row is missing: " + dataName));
+        }
+        row.setVersion(row.getVersion() + 1);
+        // Last-Modified передаётся с точностью до секунды
+        row.setUpdatedAt(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS));
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.remove(dataName);
+            }
+        });
+        return new Version(row.getVersion(), row.getUpdatedAt());
+    }
+
+    // Версия для проверки условного запроса; может отставать от других узлов не больше чем на ttl
+    public Version current(String dataName) {
+        long now = System.currentTimeMillis();
+        Cached cached = cache.get(dataName);
+        if (cached != null && now - cached.loadedAt < ttlMs) {
+            return cached.version;
+        }
+        Version version = readTemplate.execute(status -> read(dataName));
+        cache.put(dataName, new Cached(version, now));
+        return version;
+    }
+
+    // Чтение без кэша в текущей транзакции: снимок меню читает версию вместе с данными
+    public Version read(String dataName) {
+        return versionRepository.findById(dataName)
+                .map(row -> new Version(row.getVersion(), row.getUpdatedAt()))
+                .orElse(Version.INITIAL);
+    }
+
+    private void createRow(String dataName) {
+        try {
+            createTemplate.execute(status -> versionRepository.saveAndFlush(
+                    new DataVersion(dataName, 0L, LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS))));
+        } catch (DataIntegrityViolationException e) {
+            // Строку одновременно создал другой узел
+        }
+    }
+
+    // Версия данных и время её изменения; updatedAt == null - данные ещё не менялись
+    public static final class Version {
+        static final Version INITIAL = new Version(0, null);
+
+        private final long version;
+        private final LocalDateTime updatedAt;
+
+        public Version(long version, LocalDateTime updatedAt) {
+            this.version = version;
+            this.updatedAt = updatedAt;
+        }
+
+        public long getVersion() { return version; }
+        public LocalDateTime getUpdatedAt() { return updatedAt; }
+
+        // Сильный ETag: одна версия - одно и то же тело ответа
+        public String etag(String prefix) {
+            return "\"" + prefix + "-" + version + "\"";
+        }
+    }
+
+    private static final class Cached {
+        private final Version version;
+        private final long loadedAt;
+
+        private Cached(Version version, long loadedAt) {
+            this.version = version;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,356 @@
+package com.restaurant.service;
+
+import com.restaurant.dto.MenuDTO;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+// Фото блюд. Оригинал пишется на диск потоком, под именем = SHA-256 содержимого.
+// Файл декодируется сразу, до ответа: битое или слишком большое фото отклоняется в самом запросе.
+// Уменьшенные варианты (JPEG, и WebP, если в classpath есть его ImageIO-плагин) кодирует фоновый пул;
+// блюдо получает ссылки на них только когда все варианты записаны.
+// Имя файла однозначно задаёт содержимое, поэтому ответы кэшируются навсегда (immutable).
+// Если фото блюда загрузили повторно, варианты прежней загрузки, готовые позже, ссылки не перепишут.
+@Service
+public class DishImageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DishImageService.class);
+
+    // Путь ImageController; в ссылки добавляется ещё server.servlet.context-path
+    public static final String IMAGES_PATH = "/api/public/images";
+
+    private static final Pattern VARIANT_NAME = Pattern.compile("[0-9a-f]{64}-[0-9]{2,4}\\.(jpg|webp)");
+
+    private final MenuService menuService;
+    private final String urlPrefix;
+    private final Path originalsDir;
+    private final Path variantsDir;
+    private final Path tmpDir;
+    private final int[] widths;
+    private final float jpegQuality;
+    private final long maxPixels;
+    private final boolean webpSupported;
+    private final ThreadPoolExecutor executor;
+
+    public DishImageService(MenuService menuService,
+                            @Value("${server.servlet.context-path:}") String contextPath,
+                            @Value("${app.images.dir:./data/images}") String dir,
+                            @Value("${app.images.widths:320,960}") int[] widths,
+                            @Value("${app.images.jpeg-quality:0.82}") float jpegQuality,
+                            @Value("${app.images.max-pixels:40000000}") long maxPixels,
+                            @Value("${app.images.worker-threads:2}") int workerThreads,
+                            @Value("${app.images.queue-capacity:100}") int queueCapacity) {
+        this.menuService = menuService;
+        this.urlPrefix = contextPath + IMAGES_PATH + "/";
+        Path root = Paths.get(dir).toAbsolutePath().normalize();
+        this.originalsDir = root.resolve("originals");
+        this.variantsDir = root.resolve("variants");
+        this.tmpDir = root.resolve("tmp");
+        try {
+            Files.createDirectories(originalsDir);
+            Files.createDirectories(variantsDir);
+            Files.createDirectories(tmpDir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create image directories in " + root, e);
+        }
+        this.widths = Arrays.stream(widths).distinct().sorted().toArray();
+        if (this.widths.length == 0) {
+            throw new IllegalArgumentException("app.images.widths must not be empty");
+        }
+        this.jpegQuality = jpegQuality;
+        this.maxPixels = maxPixels;
+        this.webpSupported = ImageIO.getImageWritersByFormatName("webp").hasNext();
+
+        // Ограниченная очередь: при всплеске загрузок держим в памяти не больше queueCapacity задач
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "dish-image-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        });
+        logger.info("Dish images in {}: widths {}, WebP {}", root, Arrays.toString(this.widths),
+                webpSupported ? "enabled" : "not available");
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    // Сохраняет оригинал и ставит варианты в очередь; ссылки у блюда меняются позже, по готовности
+    public MenuDTO.ImageUploadResponse upload(Long dishId, MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            throw new RuntimeException("Image file is empty");
+        }
+        String contentType = file.getContentType();
+        if (contentType == null || !contentType.startsWith("image/")) {
+            throw new RuntimeException("Unsupported file type: " + contentType);
+        }
+        menuService.getDishById(dishId);
+
+        String hash = storeOriginal(file);
+        boolean ready = variantsExist(hash);
+        // Та же картинка уже обработана и проверена - декодировать заново не нужно
+        BufferedImage largest = ready ? null : decode(hash);
+        menuService.expectDishImage(dishId, hash);
+        if (ready) {
+            menuService.setDishImage(dishId, hash, imageUrl(hash), thumbnailUrl(hash));
+        } else {
+            try {
+                executor.execute(() -> process(dishId, hash, largest));
+            } catch (RejectedExecutionException e) {
+                throw new RuntimeException("Image queue is full, try again later");
+            }
+        }
+        return new MenuDTO.ImageUploadResponse(dishId, hash, ready ? "READY" : "PROCESSING",
+                imageUrl(hash), thumbnailUrl(hash));
+    }
+
+    // Файл варианта по имени из URL; null - имя некорректно или файла нет.
+    // Для jpg-запроса отдаётся WebP, если клиент его принимает и вариант есть.
+    public Path resolveVariant(String fileName, boolean acceptsWebp) {
+        if (fileName == null || !VARIANT_NAME.matcher(fileName).matches()) {
+            return null;
+        }
+        if (acceptsWebp && fileName.endsWith(".jpg")) {
+            Path webp = variantsDir.resolve(fileName.substring(0, fileName.length() - 4) + ".webp");
+            if (Files.isRegularFile(webp)) {
+                return webp;
+            }
+        }
+        Path file = variantsDir.resolve(fileName);
+        return Files.isRegularFile(file) ? file : null;
+    }
+
+    public boolean isWebpSupported() {
+        return webpSupported;
+    }
+
+    void process(Long dishId, String hash, BufferedImage largest) {
+        try {
+            // Пока задача ждала в очереди, фото загрузили заново или задали ссылку вручную - задача отменена
+            if (!menuService.isDishImageExpected(dishId, hash)) {
+                logger.info("Image {} for dish {} is no longer expected, skipped", hash, dishId);
+                return;
+            }
+            writeVariants(hash, largest);
+            if (menuService.setDishImage(dishId, hash, imageUrl(hash), thumbnailUrl(hash))) {
+                logger.info("Image {} for dish {} is ready", hash, dishId);
+            } else {
+                logger.info("Image {} for dish {} is ready but was replaced by a newer upload", hash, dishId);
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to process image {} for dish {}", hash, dishId, e);
+        }
+    }
+
+    private String storeOriginal(MultipartFile file) {
+        Path tmp = null;
+        try {
+            tmp = Files.createTempFile(tmpDir, "upload-", ".part");
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            // Копирование потоком: файл целиком в памяти не держим
+            try (InputStream in = new DigestInputStream(file.getInputStream(), sha);
+                 OutputStream out = Files.newOutputStream(tmp)) {
+                in.transferTo(out);
+            }
+            String hash = HexFormat.of().formatHex(sha.digest());
+            Path original = originalsDir.resolve(hash);
+            if (Files.exists(original)) {
+                Files.delete(tmp);
+            } else {
+                Files.move(tmp, original, StandardCopyOption.ATOMIC_MOVE);
+            }
+            return hash;
+        } catch (IOException e) {
+            deleteQuietly(tmp);
+            throw new RuntimeException("Cannot store image: " + e.getMessage(), e);
+        } catch (NoSuchAlgorithmException e) {
+            deleteQuietly(tmp);
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Проверка в запросе: заголовок, лимит пикселей и декодирование растра. В очередь уходит уже
+    // уменьшенный до самого большого варианта растр - память задачи не зависит от размера оригинала
+    private BufferedImage decode(String hash) {
+        Path original = originalsDir.resolve(hash);
+        try {
+            int largestWidth = widths[widths.length - 1];
+            return scale(readScaledDown(original, largestWidth), largestWidth);
+        } catch (IOException | RuntimeException e) {
+            // Файл с тем же содержимым тоже не декодируется - хранить его незачем
+            deleteQuietly(original);
+            throw new RuntimeException("Invalid image: " + e.getMessage(), e);
+        }
+    }
+
+    private void writeVariants(String hash, BufferedImage largest) throws IOException {
+        for (int width : widths) {
+            BufferedImage scaled = scale(largest, width);
+            writeAtomically(variant(hash, width, "jpg"), scaled, "jpg");
+            if (webpSupported) {
+                writeAtomically(variant(hash, width, "webp"), scaled, "webp");
+            }
+        }
+    }
+
+    // Размеры читаются из заголовка до декодирования. Большие фото декодируются с прореживанием,
+    // сразу близко к нужному размеру - так в памяти не оказывается полноразмерный растр.
+    private BufferedImage readScaledDown(Path original, int targetWidth) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(original.toFile())) {
+            Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new RuntimeException("Unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    throw new RuntimeException("Image is too large: " + width + "x" + height);
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, width / (targetWidth * 2));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Уменьшение по шагам вдвое с билинейной интерполяцией: качество близко к бикубике, без муара
+    static BufferedImage scale(BufferedImage source, int targetWidth) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        if (targetWidth >= width) {
+            return toRgb(source, width, height);
+        }
+        int targetHeight = Math.max(1, (int) Math.round((double) height * targetWidth / width));
+        BufferedImage current = source;
+        int currentWidth = width;
+        int currentHeight = height;
+        do {
+            currentWidth = Math.max(targetWidth, currentWidth / 2);
+            currentHeight = currentWidth == targetWidth ? targetHeight : currentHeight / 2;
+            current = toRgb(current, currentWidth, currentHeight);
+        } while (currentWidth > targetWidth);
+        return current;
+    }
+
+    // JPEG без альфа-канала: прозрачность заливается белым
+    private static BufferedImage toRgb(BufferedImage source, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    private void writeAtomically(Path target, BufferedImage image, String format) throws IOException {
+        if (Files.exists(target)) {
+            return;
+        }
+        Path tmp = Files.createTempFile(tmpDir, "variant-", "." + format);
+        try {
+            ImageWriter writer = ImageIO.getImageWritersByFormatName(format).next();
+            try (ImageOutputStream out = ImageIO.createImageOutputStream(tmp.toFile())) {
+                writer.setOutput(out);
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                if (param.canWriteCompressed()) {
+                    param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                    if (param.getCompressionType() == null && param.getCompressionTypes() != null) {
+                        param.setCompressionType(param.getCompressionTypes()[0]);
+                    }
+                    param.setCompressionQuality(jpegQuality);
+                }
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            deleteQuietly(tmp);
+        }
+    }
+
+    private boolean variantsExist(String hash) {
+        for (int width : widths) {
+            if (!Files.exists(variant(hash, width, "jpg"))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Path variant(String hash, int width, String extension) {
+        return variantsDir.resolve(hash + "-" + width + "." + extension);
+    }
+
+    private String imageUrl(String hash) {
+        return urlPrefix + hash + "-" + widths[widths.length - 1] + ".jpg";
+    }
+
+    private String thumbnailUrl(String hash) {
+        return urlPrefix + hash + "-" + widths[0] + ".jpg";
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Cannot delete temporary file {}: {}", path, e.getMessage());
+        }
+    }
+}
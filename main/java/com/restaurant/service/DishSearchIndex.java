@@ -0,0 +1,217 @@
+package com.restaurant.service;
+
+import com.restaurant.dto.MenuDTO;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Инвертированный индекс активных блюд для поиска по меню.
+// Термин (основа слова) -> блюда с весом: название весит больше категории и состава, состав больше описания.
+// Похожие по триграммам слова словаря тоже засчитываются (с меньшим весом) - так находятся опечатки
+// и формы, которые не свело отсечение окончаний ("грибы" и "грибной").
+// Индекс сверяется с каждой новой версией снимка меню и переиндексирует только изменившиеся блюда.
+@Service
+public class DishSearchIndex {
+
+    static final float NAME_WEIGHT = 4f;
+    static final float CATEGORY_WEIGHT = 2f;
+    static final float COMPOSITION_WEIGHT = 2f;
+    static final float DESCRIPTION_WEIGHT = 1f;
+
+    // Сходство по триграммам (коэффициент Дайса), с которого слово считается похожим
+    private static final double MIN_SIMILARITY = 0.45;
+    // Совпадение с похожим словом весит меньше точного
+    private static final float FUZZY_FACTOR = 0.6f;
+    private static final int MIN_FUZZY_LENGTH = 3;
+
+    private final MenuSnapshotService menuSnapshotService;
+
+    private final Map<String, Map<Long, Float>> postings = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> termsByTrigram = new ConcurrentHashMap<>();
+    private final Map<String, Integer> trigramCounts = new ConcurrentHashMap<>();
+    private final Map<Long, IndexedDish> dishes = new ConcurrentHashMap<>();
+    private volatile long syncedVersion;
+
+    public DishSearchIndex(MenuSnapshotService menuSnapshotService) {
+        this.menuSnapshotService = menuSnapshotService;
+    }
+
+    @EventListener
+    public void onMenuSnapshot(MenuSnapshot snapshot) {
+        sync(snapshot);
+    }
+
+    public List<MenuDTO.DishResponse> search(String query, int limit) {
+        MenuSnapshot snapshot = menuSnapshotService.current();
+        if (snapshot.getVersion() != syncedVersion) {
+            // Событие о новой версии ещё не обработано (или пришло до создания индекса)
+            sync(snapshot);
+        }
+        List<String> terms = query != null ? MenuText.terms(query) : List.of();
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        // [сумма весов, число совпавших слов запроса]
+        Map<Long, float[]> scores = new HashMap<>();
+        for (String term : terms) {
+            Map<Long, Float> matched = new HashMap<>();
+            Map<Long, Float> exact = postings.get(term);
+            if (exact != null) {
+                exact.forEach((id, weight) -> matched.merge(id, weight, Float::sum));
+            }
+            if (term.length() >= MIN_FUZZY_LENGTH) {
+                similarTerms(term).forEach((similar, similarity) -> {
+                    Map<Long, Float> fuzzy = postings.get(similar);
+                    if (fuzzy != null) {
+                        float factor = (float) (similarity * FUZZY_FACTOR);
+                        fuzzy.forEach((id, weight) -> matched.merge(id, weight * factor, Float::sum));
+                    }
+                });
+            }
+            matched.forEach((id, score) -> {
+                float[] total = scores.computeIfAbsent(id, key -> new float[2]);
+                total[0] += score;
+                total[1]++;
+            });
+        }
+
+        List<Map.Entry<Long, float[]>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort(Comparator.comparing((Map.Entry<Long, float[]> e) -> e.getValue()[1], Comparator.reverseOrder())
+                .thenComparing(e -> e.getValue()[0], Comparator.reverseOrder())
+                .thenComparing(Map.Entry::getKey));
+        List<MenuDTO.DishResponse> result = new ArrayList<>(Math.min(limit, ranked.size()));
+        for (Map.Entry<Long, float[]> entry : ranked) {
+            if (result.size() >= limit) {
+                break;
+            }
+            IndexedDish indexed = dishes.get(entry.getKey());
+            if (indexed != null) {
+                result.add(indexed.dish);
+            }
+        }
+        return result;
+    }
+
+    synchronized void sync(MenuSnapshot snapshot) {
+        if (snapshot.getVersion() == syncedVersion) {
+            return;
+        }
+        Set<Long> active = new HashSet<>();
+        for (MenuDTO.DishResponse dish : snapshot.getActiveDishes()) {
+            active.add(dish.getId());
+            IndexedDish existing = dishes.get(dish.getId());
+            String text = indexedText(dish);
+            if (existing != null && existing.text.equals(text)) {
+                // Текст не менялся (например, только цена) - достаточно подменить DTO
+                existing.dish = dish;
+                continue;
+            }
+            if (existing != null) {
+                remove(existing);
+            }
+            add(dish, text);
+        }
+        for (IndexedDish indexed : new ArrayList<>(dishes.values())) {
+            if (!active.contains(indexed.id)) {
+                remove(indexed);
+            }
+        }
+        syncedVersion = snapshot.getVersion();
+    }
+
+    private void add(MenuDTO.DishResponse dish, String text) {
+        Map<String, Float> weights = new HashMap<>();
+        addTerms(weights, dish.getDishName(), NAME_WEIGHT);
+        addTerms(weights, dish.getCategoryName(), CATEGORY_WEIGHT);
+        addTerms(weights, dish.getComposition(), COMPOSITION_WEIGHT);
+        addTerms(weights, dish.getDescription(), DESCRIPTION_WEIGHT);
+
+        weights.forEach((term, weight) -> {
+            postings.computeIfAbsent(term, t -> new ConcurrentHashMap<>()).put(dish.getId(), weight);
+            if (trigramCounts.putIfAbsent(term, 0) == null) {
+                Set<String> grams = MenuText.trigrams(term);
+                grams.forEach(gram -> termsByTrigram.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(term));
+                trigramCounts.put(term, grams.size());
+            }
+        });
+        dishes.put(dish.getId(), new IndexedDish(dish.getId(), text, weights.keySet(), dish));
+    }
+
+    private void remove(IndexedDish indexed) {
+        dishes.remove(indexed.id);
+        for (String term : indexed.terms) {
+            postings.computeIfPresent(term, (t, ids) -> {
+                ids.remove(indexed.id);
+                return ids.isEmpty() ? null : ids;
+            });
+            if (!postings.containsKey(term)) {
+                // Слово больше нигде не встречается - убираем его из словаря триграмм
+                trigramCounts.remove(term);
+                for (String gram : MenuText.trigrams(term)) {
+                    termsByTrigram.computeIfPresent(gram, (g, terms) -> {
+                        terms.remove(term);
+                        return terms.isEmpty() ? null : terms;
+                    });
+                }
+            }
+        }
+    }
+
+    private Map<String, Double> similarTerms(String term) {
+        Set<String> grams = MenuText.trigrams(term);
+        Map<String, Integer> common = new HashMap<>();
+        for (String gram : grams) {
+            Set<String> terms = termsByTrigram.get(gram);
+            if (terms != null) {
+                terms.forEach(candidate -> common.merge(candidate, 1, Integer::sum));
+            }
+        }
+        Map<String, Double> similar = new HashMap<>();
+        common.forEach((candidate, shared) -> {
+            Integer candidateGrams = trigramCounts.get(candidate);
+            if (candidateGrams == null || candidateGrams == 0) {
+                return;
+            }
+            double dice = 2.0 * shared / (grams.size() + candidateGrams);
+            if (dice >= MIN_SIMILARITY && !candidate.equals(term)) {
+                similar.put(candidate, dice);
+            }
+        });
+        return similar;
+    }
+
+    private static void addTerms(Map<String, Float> weights, String text, float weight) {
+        for (String term : MenuText.terms(text)) {
+            weights.merge(term, weight, Float::sum);
+        }
+    }
+
+    private static String indexedText(MenuDTO.DishResponse dish) {
+        return Objects.toString(dish.getDishName(), "") + '\u0001' + Objects.toString(dish.getCategoryName(), "")
+                + '\u0001' + Objects.toString(dish.getComposition(), "") + '\u0001' + Objects.toString(dish.getDescription(), "");
+    }
+
+    private static final class IndexedDish {
+        private final Long id;
+        private final String text;
+        private final Set<String> terms;
+        private volatile MenuDTO.DishResponse dish;
+
+        private IndexedDish(Long id, String text, Set<String> terms, MenuDTO.DishResponse dish) {
+            this.id = id;
+            this.text = text;
+            this.terms = terms;
+            this.dish = dish;
+        }
+    }
+}
@@ -0,0 +1,324 @@
+package com.restaurant.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.restaurant.entity.OutboxEvent;
+import com.restaurant.event.DomainEvent;
+import com.restaurant.event.DomainEventHandler;
+import com.restaurant.event.DomainEventRingBuffer;
+import com.restaurant.repository.OutboxEventRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Шина доменных событий. Событие записывается в outbox_events в транзакции изменения,
+// после коммита попадает в кольцевой буфер; поток запроса на этом заканчивает работу.
+// Один фоновый поток забирает события пачками и вызывает обработчики.
+// Если узел упал между коммитом и доставкой, событие переотправит relay из outbox.
+// Relay узлов забирают строки через FOR UPDATE SKIP LOCKED и занимают их на relay-delay-ms,
+// поэтому одно событие не рассылают одновременно несколько узлов. Доставка - "хотя бы один раз":
+// после сбоя или истечения захвата событие придёт повторно, обработчики должны быть идемпотентны.
+// Память отдельных узлов (экраны кухни) шина не обновляет - для этого есть OrderEvent.
+@Service
+public class DomainEventBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(DomainEventBus.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<DomainEventHandler<?>> handlerProvider;
+    private final TransactionTemplate transactionTemplate;
+    private final DomainEventRingBuffer<Envelope> buffer;
+    private final int batchSize;
+    private final long idleParkNanos;
+    private final long relayDelayMs;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+    private final long maxBackoffMs;
+    private final long retentionHours;
+
+    // id событий, которые сейчас в буфере или обрабатываются: relay их не трогает
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+    private volatile List<DomainEventHandler<?>> handlers = List.of();
+    private volatile boolean running;
+    private volatile Thread dispatcher;
+
+    public DomainEventBus(OutboxEventRepository outboxEventRepository,
+                          ObjectMapper objectMapper,
+                          ObjectProvider<DomainEventHandler<?>> handlerProvider,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${app.events.buffer-capacity:8192}") int bufferCapacity,
+                          @Value("${app.events.batch-size:256}") int batchSize,
+                          @Value("${app.events.idle-park-ms:50}") long idleParkMs,
+                          @Value("${app.events.relay-delay-ms:10000}") long relayDelayMs,
+                          @Value("${app.events.max-attempts:10}") int maxAttempts,
+                          @Value("${app.events.retry-backoff-ms:5000}") long retryBackoffMs,
+                          @Value("${app.events.max-backoff-ms:600000}") long maxBackoffMs,
+                          @Value("${app.events.retention-hours:72}") long retentionHours) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+        this.handlerProvider = handlerProvider;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.buffer = new DomainEventRingBuffer<>(bufferCapacity);
+        this.batchSize = batchSize;
+        this.idleParkNanos = TimeUnit.MILLISECONDS.toNanos(idleParkMs);
+        this.relayDelayMs = relayDelayMs;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMs = retryBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.retentionHours = retentionHours;
+    }
+
+    // Вызывается внутри транзакции изменения: без неё событие нельзя связать с коммитом
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(DomainEvent event) {
+        // Событие занято этим узлом: relay возьмёт его, только если прямая доставка не успела
+        OutboxEvent outboxEvent = outboxEventRepository.save(
+                new OutboxEvent(event.eventType(), toJson(event), after(relayDelayMs)));
+        Envelope envelope = new Envelope(outboxEvent.getId(), event, 0);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                enqueue(envelope);
+            }
+        });
+    }
+
+    // Обработчики ищутся после старта контекста: они сами зависят от сервисов, публикующих события
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        handlers = handlerProvider.orderedStream().toList();
+        running = true;
+        Thread thread = new Thread(this::dispatchLoop, "domain-event-dispatcher");
+        thread.setDaemon(true);
+        dispatcher = thread;
+        thread.start();
+        logger.info("Domain event dispatcher started with {} handlers, buffer capacity {}",
+                handlers.size(), buffer.capacity());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        Thread thread = dispatcher;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    // Переотправка событий, которые не дошли до обработчиков: сбой узла, переполненный буфер, ошибка обработчика
+    @Scheduled(fixedDelayString = "${app.events.relay-interval-ms:5000}",
+            initialDelayString = "${app.events.relay-interval-ms:5000}")
+    public void relayUndispatched() {
+        if (!running) {
+            return;
+        }
+        List<OutboxEvent> claimed = transactionTemplate.execute(status -> claimDue());
+        if (claimed == null) {
+            return;
+        }
+        for (OutboxEvent outboxEvent : claimed) {
+            DomainEvent event;
+            try {
+                event = objectMapper.readValue(outboxEvent.getPayload(), DomainEvent.class);
+            } catch (JsonProcessingException e) {
+                logger.error("Cannot read outbox event {}", outboxEvent.getId(), e);
+                failed(List.of(new Envelope(outboxEvent.getId(), null, outboxEvent.getAttempts())));
+                continue;
+            }
+            // Не поместившиеся в буфер события вернутся к relay по истечении захвата
+            if (!enqueue(new Envelope(outboxEvent.getId(), event, outboxEvent.getAttempts()))) {
+                break;
+            }
+        }
+    }
+
+    // Выборка и захват в одной транзакции: строки заблокированы до коммита, другие узлы их пропускают
+    private List<OutboxEvent> claimDue() {
+        List<OutboxEvent> due = outboxEventRepository.findDueForUpdate(
+                LocalDateTime.now(), maxAttempts, PageRequest.ofSize(batchSize));
+        List<OutboxEvent> claimed = new ArrayList<>(due.size());
+        for (OutboxEvent outboxEvent : due) {
+            if (!pending.contains(outboxEvent.getId())) {
+                claimed.add(outboxEvent);
+            }
+        }
+        if (!claimed.isEmpty()) {
+            outboxEventRepository.lease(claimed.stream().map(OutboxEvent::getId).toList(), after(relayDelayMs));
+        }
+        return claimed;
+    }
+
+    @Scheduled(fixedDelayString = "${app.events.purge-interval-ms:3600000}")
+    public void purgeDispatched() {
+        LocalDateTime before = LocalDateTime.now().minusHours(retentionHours);
+        Integer deleted = transactionTemplate.execute(status -> outboxEventRepository.deleteDispatchedBefore(before));
+        logger.debug("Purged {} dispatched outbox events older than {}", deleted, before);
+
+        // Исчерпавшие попытки события хранятся тот же срок, чтобы их успели разобрать, затем удаляются
+        Long dead = transactionTemplate.execute(status -> outboxEventRepository.countDead(maxAttempts));
+        if (dead != null && dead > 0) {
+            Integer purged = transactionTemplate.execute(status ->
+                    outboxEventRepository.deleteDeadBefore(maxAttempts, before));
+            logger.error("{} outbox events failed {} delivery attempts; {} older than {} purged",
+                    dead, maxAttempts, purged, before);
+        }
+    }
+
+    public long deadEvents() {
+        Long dead = transactionTemplate.execute(status -> outboxEventRepository.countDead(maxAttempts));
+        return dead == null ? 0 : dead;
+    }
+
+    public int queued() {
+        return buffer.size();
+    }
+
+    private boolean enqueue(Envelope envelope) {
+        if (!pending.add(envelope.outboxId)) {
+            return true;
+        }
+        if (!buffer.offer(envelope)) {
+            // Событие уже в outbox: его доставит relay, запрос не ждёт освобождения буфера
+            pending.remove(envelope.outboxId);
+            logger.warn("Domain event buffer is full, event {} left for outbox relay", envelope.outboxId);
+            return false;
+        }
+        Thread thread = dispatcher;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+        return true;
+    }
+
+    private void dispatchLoop() {
+        List<Envelope> batch = new ArrayList<>(batchSize);
+        while (running || buffer.size() > 0) {
+            batch.clear();
+            if (buffer.drainTo(batch, batchSize) == 0) {
+                if (!running) {
+                    break;
+                }
+                LockSupport.parkNanos(this, idleParkNanos);
+                continue;
+            }
+            try {
+                dispatch(batch);
+            } catch (RuntimeException e) {
+                // Отметки в outbox не записаны - relay отправит пачку ещё раз
+                logger.error("Failed to record dispatch of {} domain events", batch.size(), e);
+            } finally {
+                batch.forEach(envelope -> pending.remove(envelope.outboxId));
+            }
+        }
+    }
+
+    private void dispatch(List<Envelope> batch) {
+        List<Long> delivered = new ArrayList<>(batch.size());
+        List<Envelope> failed = new ArrayList<>();
+        for (Envelope envelope : batch) {
+            if (deliver(envelope)) {
+                delivered.add(envelope.outboxId);
+            } else {
+                failed.add(envelope);
+            }
+        }
+        // Вся пачка отмечается одним UPDATE
+        if (!delivered.isEmpty()) {
+            LocalDateTime now = LocalDateTime.now();
+            transactionTemplate.executeWithoutResult(status -> outboxEventRepository.markDispatched(delivered, now));
+        }
+        failed(failed);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private boolean deliver(Envelope envelope) {
+        boolean ok = true;
+        for (DomainEventHandler handler : handlers) {
+            if (!handler.eventType().isInstance(envelope.event)) {
+                continue;
+            }
+            try {
+                handler.handle(envelope.event);
+            } catch (RuntimeException e) {
+                ok = false;
+                logger.warn("Handler {} failed for event {} ({})", handler.getClass().getSimpleName(),
+                        envelope.outboxId, envelope.event.eventType(), e);
+            }
+        }
+        return ok;
+    }
+
+    // Повтор откладывается экспоненциально: retry-backoff-ms, x2 за каждую попытку, не дольше max-backoff-ms
+    private void failed(List<Envelope> envelopes) {
+        if (envelopes.isEmpty()) {
+            return;
+        }
+        Map<Integer, List<Long>> byAttempts = new TreeMap<>();
+        for (Envelope envelope : envelopes) {
+            byAttempts.computeIfAbsent(envelope.attempts, a -> new ArrayList<>()).add(envelope.outboxId);
+        }
+        transactionTemplate.executeWithoutResult(status -> byAttempts.forEach((attempts, ids) ->
+                outboxEventRepository.retryLater(ids, after(backoffMs(attempts + 1)))));
+        byAttempts.forEach((attempts, ids) -> {
+            if (attempts + 1 >= maxAttempts) {
+                logger.error("Outbox events {} gave up after {} delivery attempts", ids, attempts + 1);
+            }
+        });
+    }
+
+    long backoffMs(int attempts) {
+        int shift = Math.min(Math.max(attempts - 1, 0), 30);
+        return Math.min(retryBackoffMs << shift, maxBackoffMs);
+    }
+
+    private static LocalDateTime after(long millis) {
+        return LocalDateTime.now().plusNanos(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    private String toJson(DomainEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Cannot serialize event " + event.eventType(), e);
+        }
+    }
+
+    private static final class Envelope {
+        private final Long outboxId;
+        private final DomainEvent event;
+        // Сколько попыток уже записано в outbox; на прямом пути - 0
+        private final int attempts;
+
+        private Envelope(Long outboxId, DomainEvent event, int attempts) {
+            this.outboxId = outboxId;
+            this.event = event;
+            this.attempts = attempts;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.restaurant.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.restaurant.entity.IdempotencyRecord;
+import com.restaurant.exception.ConflictException;
+import com.restaurant.repository.IdempotencyRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Повтор запроса с тем же Idempotency-Key возвращает уже созданный ресурс, а не создаёт новый.
+// Недавние ключи хранятся в памяти, все ключи - в таблице idempotency_keys (общей для всех узлов).
+// Ключ привязан к пользователю и к отпечатку запроса (SHA-256 его JSON): тот же ключ от другого
+// пользователя или с другим телом не выполняется и не возвращает чужой результат, а получает 409.
+@Service
+public class IdempotencyService {
+
+    public static final String ORDER_CREATE = "order-create";
+    public static final String PAYMENT_CREATE = "payment-create";
+    public static final String PAYMENT_PROCESS = "payment-process";
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private final IdempotencyRecordRepository recordRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final long waitTimeoutMs;
+    private final long retentionHours;
+
+    // Запросы, которые выполняются прямо сейчас: дубликаты ждут их результата
+    private final ConcurrentHashMap<String, CompletableFuture<Stored>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Stored> recent;
+
+    public IdempotencyService(IdempotencyRecordRepository recordRepository,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.idempotency.cache-size:10000}") int cacheSize,
+                              @Value("${app.idempotency.wait-timeout-ms:30000}") long waitTimeoutMs,
+                              @Value("${app.idempotency.retention-hours:24}") long retentionHours) {
+        this.recordRepository = recordRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.waitTimeoutMs = waitTimeoutMs;
+        this.retentionHours = retentionHours;
+        this.recent = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Stored> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    // action выполняется в одной транзакции с записью ключа; replay строит ответ по id уже созданного ресурса.
+    // request - всё, что определяет результат (тело запроса, id из пути); из него считается отпечаток.
+    public <T> T execute(String scope, String key, String principal, Object request, Supplier<T> action,
+                         Function<T, Long> resourceIdOf, Function<Long, T> replay) {
+        if (key == null || key.isBlank()) {
+            return transactionTemplate.execute(status -> action.get());
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new RuntimeException("Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+
+        if (principal == null) {
+            throw new IllegalArgumentException("Idempotent request requires an authenticated user");
+        }
+
+        Stored current = new Stored(null, principal, fingerprint(request));
+        String cacheKey = scope + ":" + key;
+        while (true) {
+            Stored known = recent.get(cacheKey);
+            if (known != null) {
+                return replay(replay, known.matching(current));
+            }
+
+            CompletableFuture<Stored> mine = new CompletableFuture<>();
+            CompletableFuture<Stored> running = inFlight.putIfAbsent(cacheKey, mine);
+            if (running != null) {
+                Stored stored = await(running);
+                if (stored != null) {
+                    return replay(replay, stored.matching(current));
+                }
+                // Первый запрос завершился ошибкой - выполняем сами
+                continue;
+            }
+
+            try {
+                Outcome<T> outcome = executeOnce(scope, key, current, action, resourceIdOf);
+                recent.put(cacheKey, outcome.stored);
+                mine.complete(outcome.stored);
+                return outcome.executed ? outcome.response : replay(replay, outcome.stored.matching(current));
+            } catch (RuntimeException e) {
+                mine.complete(null);
+                throw e;
+            } finally {
+                inFlight.remove(cacheKey, mine);
+            }
+        }
+    }
+
+    private <T> Outcome<T> executeOnce(String scope, String key, Stored current, Supplier<T> action,
+                                       Function<T, Long> resourceIdOf) {
+        try {
+            return transactionTemplate.execute(status -> {
+                Optional<IdempotencyRecord> existing = recordRepository.findByScopeAndIdempotencyKey(scope, key);
+                if (existing.isPresent()) {
+                    return Outcome.replayed(Stored.of(existing.get()));
+                }
+                // Запись ключа до выполнения: уникальный индекс заставит параллельный запрос с другого узла ждать
+                IdempotencyRecord record = recordRepository.saveAndFlush(
+                        new IdempotencyRecord(scope, key, current.principal, current.requestHash));
+                T response = action.get();
+                record.setResourceId(resourceIdOf.apply(response));
+                return Outcome.executed(response, Stored.of(record));
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Тот же ключ только что обработал другой узел - берём его результат
+            Optional<IdempotencyRecord> committed = transactionTemplate.execute(
+                    status -> recordRepository.findByScopeAndIdempotencyKey(scope, key));
+            if (committed == null || committed.isEmpty()) {
+                throw e;
+            }
+            return Outcome.replayed(Stored.of(committed.get()));
+        } catch (OptimisticLockingFailureException e) {
+            throw new ConflictException("Resource was modified by another user, please reload and try again", e);
+        }
+    }
+
+    // Ответ для повтора собирается в транзакции: DTO читает lazy-связи
+    private <T> T replay(Function<Long, T> replay, Long resourceId) {
+        return transactionTemplate.execute(status -> replay.apply(resourceId));
+    }
+
+    private Stored await(CompletableFuture<Stored> running) {
+        try {
+            return running.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new ConflictException("A request with this Idempotency-Key is still being processed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("Interrupted while waiting for the original request");
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        LocalDateTime before = LocalDateTime.now().minusHours(retentionHours);
+        Integer deleted = transactionTemplate.execute(status -> recordRepository.deleteCreatedBefore(before));
+        logger.debug("Purged {} idempotency keys created before {}", deleted, before);
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(request);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot fingerprint idempotent request", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Результат обработанного ключа и то, к чему он привязан
+    private static final class Stored {
+        private final Long resourceId;
+        private final String principal;
+        private final String requestHash;
+
+        private Stored(Long resourceId, String principal, String requestHash) {
+            this.resourceId = resourceId;
+            this.principal = principal;
+            this.requestHash = requestHash;
+        }
+
+        static Stored of(IdempotencyRecord record) {
+            return new Stored(record.getResourceId(), record.getPrincipal(), record.getRequestHash());
+        }
+
+        // id ресурса, только если повтор пришёл от того же пользователя с тем же запросом.
+        // Запись без привязки (сохранённая до её появления) не совпадает ни с чем
+        Long matching(Stored request) {
+            if (principal == null || !principal.equals(request.principal)) {
+                throw new ConflictException("Idempotency-Key is already used by another user");
+            }
+            if (requestHash == null || !requestHash.equals(request.requestHash)) {
+                throw new ConflictException("Idempotency-Key was already used with a different request");
+            }
+            return resourceId;
+        }
+    }
+
+    private static final class Outcome<T> {
+        private final boolean executed;
+        private final T response;
+        private final Stored stored;
+
+        private Outcome(boolean executed, T response, Stored stored) {
+            this.executed = executed;
+            this.response = response;
+            this.stored = stored;
+        }
+
+        static <T> Outcome<T> executed(T response, Stored stored) {
+            return new Outcome<>(true, response, stored);
+        }
+
+        static <T> Outcome<T> replayed(Stored stored) {
+            return new Outcome<>(false, null, stored);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.restaurant.service;
 import com.restaurant.dto.InventoryDTO;
 import com.restaurant.entity.Ingredient;
 import com.restaurant.entity.StockMovement;
+import com.restaurant.event.StockMoved;
 import com.restaurant.repository.IngredientRepository;
 import com.restaurant.repository.StockMovementRepository;
 import org.springframework.stereotype.Service;
@@ -20,11 +21,14 @@ public class InventoryService {
 
     private final IngredientRepository ingredientRepository;
     private final StockMovementRepository stockMovementRepository;
+    private final DomainEventBus domainEventBus;
 
     public InventoryService(IngredientRepository ingredientRepository,
-                            StockMovementRepository stockMovementRepository) {
+                            StockMovementRepository stockMovementRepository,
+                            DomainEventBus domainEventBus) {
         this.ingredientRepository = ingredientRepository;
         this.stockMovementRepository = stockMovementRepository;
+        this.domainEventBus = domainEventBus;
     }
 
     // Изменяем возвращаемый тип на List<Ingredient>
@@ -48,6 +52,8 @@ public class InventoryService {
         movement.setMovementDate(LocalDateTime.now());
 
         stockMovementRepository.save(movement);
+        domainEventBus.publish(new StockMoved(ingredientId, quantity, movementType.name(),
+                reason != null ? reason.name() : null));
     }
 
     public boolean canProduceDish(Long dishId, Integer portions) {
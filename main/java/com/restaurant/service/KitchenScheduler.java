@@ -0,0 +1,596 @@
+package com.restaurant.service;
+
+import com.restaurant.dto.KitchenDTO;
+import com.restaurant.dto.OrderDTO;
+import com.restaurant.entity.MenuCategory;
+import com.restaurant.entity.OrderItem;
+import com.restaurant.entity.OrderStatus;
+import com.restaurant.event.OrderEvent;
+import com.restaurant.repository.OrderItemRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+// Планировщик кухни. Каждая позиция заказа в статусе "готовится" - задача на станции её категории.
+// Очередь станции - конкурентное упорядоченное множество (добавление, удаление и выдача за O(log n)):
+// раньше идёт задача, которую надо начать раньше (обещанное время минус время готовки),
+// затем более старый заказ, затем более долгое блюдо.
+// Состояние задач хранится в order_items, поэтому после перезапуска очереди восстанавливаются из БД.
+// Параллельно ведётся сводка по блюдам (сколько порций ждут во всех заказах), чтобы повар мог готовить партией.
+// Очереди меняются под монитором планировщика, но запросы к БД идут вне его: взятие задачи, партия и сверка
+// не держат соединение под общей блокировкой. Сверка заказов после событий идёт в отдельном потоке.
+@Service
+public class KitchenScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(KitchenScheduler.class);
+
+    private static final Comparator<KitchenTask> PRIORITY = Comparator
+            .comparing(KitchenTask::latestStartAt)
+            .thenComparing(task -> task.orderCreatedAt)
+            .thenComparing(task -> task.prepMinutes, Comparator.reverseOrder())
+            .thenComparing(task -> task.orderItemId);
+
+    // Порции партии раздаются позициям от самого старого заказа
+    private static final Comparator<KitchenTask> FIFO = Comparator
+            .comparing((KitchenTask task) -> task.orderCreatedAt)
+            .thenComparing(task -> task.orderItemId);
+
+    private final OrderItemRepository orderItemRepository;
+    private final OrderStatusRegistry orderStatusRegistry;
+    private final OrderService orderService;
+    private final TransactionTemplate transactionTemplate;
+    private final int defaultPrepMinutes;
+    private final int promiseMinutes;
+    // Статус заказа, в который он переходит, когда кухня приготовила все позиции
+    private final String readyStatus;
+
+    private final Map<String, ConcurrentSkipListSet<KitchenTask>> stations = new ConcurrentHashMap<>();
+    // Все открытые задачи (в очереди и в работе) по id позиции заказа
+    private final Map<Long, KitchenTask> tasks = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> tasksByOrder = new ConcurrentHashMap<>();
+    // Открытые задачи по блюдам; записи не удаляются - их не больше, чем блюд в меню
+    private final Map<Long, DishTotal> dishes = new ConcurrentHashMap<>();
+    // Счётчик изменений задач этого узла: сверка, прочитавшая БД до изменения, перечитывает её
+    private volatile long changes;
+    private final ExecutorService syncExecutor;
+
+    public KitchenScheduler(OrderItemRepository orderItemRepository,
+                            OrderStatusRegistry orderStatusRegistry,
+                            OrderService orderService,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${app.kitchen.default-prep-minutes:10}") int defaultPrepMinutes,
+                            @Value("${app.kitchen.promise-minutes:25}") int promiseMinutes,
+                            @Value("${app.kitchen.ready-status:" + OrderStatus.READY + "}") String readyStatus) {
+        this.orderItemRepository = orderItemRepository;
+        this.orderStatusRegistry = orderStatusRegistry;
+        this.orderService = orderService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Вызывается и из запросов, где может быть открыта своя транзакция
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.defaultPrepMinutes = defaultPrepMinutes;
+        this.promiseMinutes = promiseMinutes;
+        this.readyStatus = readyStatus;
+        this.syncExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "kitchen-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Без статуса готовности кухня работает, но заказы остаются в "готовится" - предупреждаем при старте
+    @PostConstruct
+    public void checkReadyStatus() {
+        if (!readyStatusExists()) {
+            logger.warn("Kitchen ready status '{}' is missing in order_statuses (app.kitchen.ready-status), "
+                    + "cooked orders will not be moved to it", readyStatus);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        syncExecutor.shutdown();
+        syncExecutor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<OrderItem> items = transactionTemplate.execute(status -> orderItemRepository.findOpenKitchenItems(
+                orderStatusRegistry.idOf(OrderStatus.COOKING), OrderItem.KitchenStatus.DONE));
+        List<KitchenTask> restored = items != null ? items.stream().map(this::toTask).toList() : List.of();
+        synchronized (this) {
+            stations.values().forEach(ConcurrentSkipListSet::clear);
+            tasks.clear();
+            tasksByOrder.clear();
+            dishes.clear();
+            restored.forEach(this::add);
+            changes++;
+        }
+        logger.info("Kitchen scheduler restored {} open tasks", restored.size());
+    }
+
+    // Заказ попал на кухню, ушёл с неё или изменился состав - сверка задач заказа с БД.
+    // Поток запроса только ставит сверку в очередь
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderEvent(OrderEvent event) {
+        OrderDTO.OrderResponse order = event.getOrder();
+        boolean cooking = OrderStatus.COOKING.equals(order.getStatus());
+        if (cooking || tasksByOrder.containsKey(order.getId())) {
+            scheduleSync(order.getId(), cooking);
+        }
+    }
+
+    public void syncOrder(Long orderId, boolean cooking) {
+        while (true) {
+            long seen = changes;
+            List<OrderItem> items = cooking
+                    ? transactionTemplate.execute(status ->
+                            orderItemRepository.findOpenKitchenItemsByOrderId(orderId, OrderItem.KitchenStatus.DONE))
+                    : List.of();
+            List<KitchenTask> fresh = items != null ? items.stream().map(this::toTask).toList() : List.of();
+            synchronized (this) {
+                // Пока шло чтение, задачи взяли или закрыли: прочитанное может быть старше памяти
+                if (changes != seen) {
+                    continue;
+                }
+                applySync(orderId, fresh);
+                return;
+            }
+        }
+    }
+
+    private void applySync(Long orderId, List<KitchenTask> fresh) {
+        Set<Long> current = new HashSet<>();
+        for (KitchenTask task : fresh) {
+            current.add(task.orderItemId);
+            KitchenTask existing = tasks.get(task.orderItemId);
+            if (existing != null && existing.inProgress()) {
+                continue;
+            }
+            // Количество или заметки могли измениться - задача в очереди заменяется новой версией
+            if (existing != null) {
+                remove(existing);
+            }
+            add(task);
+        }
+        for (Long itemId : new ArrayList<>(tasksByOrder.getOrDefault(orderId, Set.of()))) {
+            if (!current.contains(itemId)) {
+                KitchenTask task = tasks.get(itemId);
+                if (task != null) {
+                    remove(task);
+                }
+            }
+        }
+        changes++;
+    }
+
+    private void scheduleSync(Long orderId, boolean cooking) {
+        try {
+            syncExecutor.execute(() -> {
+                try {
+                    syncOrder(orderId, cooking);
+                } catch (RuntimeException e) {
+                    logger.warn("Kitchen sync of order {} failed: {}", orderId, e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            logger.debug("Kitchen sync of order {} skipped: scheduler is stopping", orderId);
+        }
+    }
+
+    // Повар берёт следующую задачу станции. Отметка в БД условная: при гонке с другим узлом задача пропускается.
+    // Задача занимается в памяти до записи в БД, поэтому параллельная сверка не вернёт её в очередь.
+    public KitchenDTO.TaskResponse takeNext(String station, String chef) {
+        ConcurrentSkipListSet<KitchenTask> queue = stations.get(station);
+        if (queue == null) {
+            throw new RuntimeException("Unknown kitchen station: " + station);
+        }
+        while (true) {
+            LocalDateTime now = LocalDateTime.now();
+            KitchenTask task;
+            synchronized (this) {
+                task = queue.pollFirst();
+                if (task == null) {
+                    return null;
+                }
+                task.start(chef, now);
+                changes++;
+            }
+            Integer updated;
+            try {
+                updated = transactionTemplate.execute(status -> orderItemRepository.markKitchenStarted(
+                        task.orderItemId, chef, now, OrderItem.KitchenStatus.IN_PROGRESS));
+            } catch (RuntimeException e) {
+                // Отметка не записана - задача возвращается в очередь
+                synchronized (this) {
+                    if (tasks.get(task.orderItemId) == task) {
+                        task.start(null, null);
+                        queue.add(task);
+                    }
+                    changes++;
+                }
+                throw e;
+            }
+            if (updated == null || updated == 0) {
+                synchronized (this) {
+                    forget(task);
+                    changes++;
+                }
+                continue;
+            }
+            return task.toResponse();
+        }
+    }
+
+    // Владение проверяет условный UPDATE (повар + IN_PROGRESS), а не память узла: повар мог взять
+    // задачу через другой узел, и здесь её нет или она ещё не сверена
+    public KitchenDTO.TaskResponse complete(Long taskId, String chef) {
+        KitchenTask local = tasks.get(taskId);
+        LocalDateTime now = LocalDateTime.now();
+        Completed completed = transactionTemplate.execute(status -> {
+            // Позиция читается до UPDATE - в ответе она ещё в работе у повара
+            KitchenTask task = local != null ? local : orderItemRepository.findById(taskId).map(this::toTask).orElse(null);
+            if (task == null || orderItemRepository.markKitchenDone(taskId, chef, now,
+                    OrderItem.KitchenStatus.IN_PROGRESS, OrderItem.KitchenStatus.DONE) == 0) {
+                throw new RuntimeException("Kitchen task is not in progress for chef " + chef + ": " + taskId);
+            }
+            return new Completed(task, orderItemRepository.countOpenKitchenItems(task.orderId, OrderItem.KitchenStatus.DONE));
+        });
+        KitchenTask task = completed.task();
+        synchronized (this) {
+            forget(task);
+            changes++;
+        }
+
+        if (completed.openItems() == 0) {
+            moveToReady(task.orderId);
+        }
+        return task.toResponse();
+    }
+
+    // Повар приготовил партию блюда. Порции раздаются ожидающим позициям от самого старого заказа;
+    // позиции, которые уже взял другой повар, пропускаются - их готовят отдельно.
+    public KitchenDTO.BatchResult completePortions(Long dishId, int portions, String chef) {
+        if (portions < 1) {
+            throw new RuntimeException("Portions must be at least 1");
+        }
+        KitchenDTO.BatchResult result = allocatePortions(dishId, portions, chef);
+
+        Set<Long> finishedOrders = new LinkedHashSet<>();
+        for (KitchenDTO.Allocation allocation : result.getAllocations()) {
+            if (allocation.isItemDone()) {
+                finishedOrders.add(allocation.getOrderId());
+            }
+        }
+        for (Long orderId : finishedOrders) {
+            Long openItems = transactionTemplate.execute(status ->
+                    orderItemRepository.countOpenKitchenItems(orderId, OrderItem.KitchenStatus.DONE));
+            if (openItems != null && openItems == 0) {
+                moveToReady(orderId);
+            }
+        }
+        return result;
+    }
+
+    public List<KitchenDTO.DishBatch> getDishes(String station) {
+        List<KitchenDTO.DishBatch> result = new ArrayList<>();
+        for (DishTotal total : dishes.values()) {
+            if (total.outstanding > 0 && (station == null || station.equals(total.station))) {
+                result.add(total.toResponse());
+            }
+        }
+        result.sort(Comparator.comparingInt(KitchenDTO.DishBatch::getOutstanding).reversed()
+                .thenComparing(KitchenDTO.DishBatch::getDishName));
+        return result;
+    }
+
+    public KitchenDTO.DishBatch getDish(Long dishId) {
+        DishTotal total = dishes.get(dishId);
+        if (total == null || total.outstanding == 0) {
+            throw new RuntimeException("No open kitchen items for dish: " + dishId);
+        }
+        return total.toResponse();
+    }
+
+    public List<KitchenDTO.TaskResponse> getQueue(String station, int limit) {
+        ConcurrentSkipListSet<KitchenTask> queue = stations.get(station);
+        if (queue == null) {
+            throw new RuntimeException("Unknown kitchen station: " + station);
+        }
+        List<KitchenDTO.TaskResponse> result = new ArrayList<>(Math.min(limit, queue.size()));
+        for (KitchenTask task : queue) {
+            if (result.size() >= limit) {
+                break;
+            }
+            result.add(task.toResponse());
+        }
+        return result;
+    }
+
+    public List<KitchenDTO.StationSummary> getStations() {
+        Map<String, int[]> inProgress = new TreeMap<>();
+        for (KitchenTask task : tasks.values()) {
+            if (task.inProgress()) {
+                inProgress.computeIfAbsent(task.station, s -> new int[1])[0]++;
+            }
+        }
+        Map<String, KitchenDTO.StationSummary> result = new TreeMap<>();
+        stations.forEach((station, queue) -> {
+            KitchenTask next = queue.isEmpty() ? null : queue.first();
+            result.put(station, new KitchenDTO.StationSummary(station, queue.size(),
+                    inProgress.getOrDefault(station, new int[1])[0], next != null ? next.promisedAt : null));
+        });
+        return new ArrayList<>(result.values());
+    }
+
+    // План раздачи и применение - под монитором, запись порций в БД - вне его.
+    // Параллельную партию того же блюда отсечёт условие в UPDATE, её позиции будут сверены заново.
+    private KitchenDTO.BatchResult allocatePortions(Long dishId, int portions, String chef) {
+        DishTotal total;
+        List<KitchenTask> planned = new ArrayList<>();
+        List<Integer> shares = new ArrayList<>();
+        synchronized (this) {
+            total = dishes.get(dishId);
+            if (total == null || total.outstanding == 0) {
+                throw new RuntimeException("No open kitchen items for dish: " + dishId);
+            }
+            int left = portions;
+            for (KitchenTask task : total.tasks) {
+                if (left == 0) {
+                    break;
+                }
+                if (task.inProgress() && !Objects.equals(task.chef, chef)) {
+                    continue;
+                }
+                int share = Math.min(left, task.remaining());
+                if (share > 0) {
+                    planned.add(task);
+                    shares.add(share);
+                    left -= share;
+                }
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        boolean[] applied = transactionTemplate.execute(status -> {
+            boolean[] ok = new boolean[planned.size()];
+            for (int i = 0; i < planned.size(); i++) {
+                ok[i] = orderItemRepository.addKitchenPortions(planned.get(i).orderItemId, shares.get(i),
+                        chef, now, OrderItem.KitchenStatus.DONE) == 1;
+            }
+            return ok;
+        });
+
+        List<KitchenDTO.Allocation> allocations = new ArrayList<>();
+        Set<Long> resync = new LinkedHashSet<>();
+        int allocated = 0;
+        synchronized (this) {
+            for (int i = 0; i < planned.size(); i++) {
+                KitchenTask task = planned.get(i);
+                boolean ok = applied != null && applied[i];
+                if (ok) {
+                    allocations.add(new KitchenDTO.Allocation(task.orderItemId, task.orderId, task.orderNumber,
+                            shares.get(i), task.remaining() <= shares.get(i)));
+                    allocated += shares.get(i);
+                }
+                // Позицию изменили или закрыли на другом узле, либо задачу уже заменила сверка -
+                // её состояние берётся из БД
+                if (!ok || tasks.get(task.orderItemId) != task) {
+                    resync.add(task.orderId);
+                    continue;
+                }
+                total.allocate(task, shares.get(i));
+                if (task.remaining() == 0) {
+                    remove(task);
+                }
+            }
+            changes++;
+        }
+        resync.forEach(orderId -> scheduleSync(orderId, true));
+        return new KitchenDTO.BatchResult(dishId, total.dishName, portions, allocated, allocations);
+    }
+
+    // Все позиции готовы - заказ переходит в статус app.kitchen.ready-status
+    private void moveToReady(Long orderId) {
+        // Статус могут добавить позже - реестр перечитается сам, поэтому проверка на каждом заказе
+        if (!readyStatusExists()) {
+            logger.warn("Order {} is cooked, ready status '{}' is missing - status change skipped", orderId, readyStatus);
+            return;
+        }
+        try {
+            orderService.updateOrderStatus(orderId, readyStatus);
+        } catch (RuntimeException e) {
+            logger.warn("Order {} is cooked but was not moved to ready: {}", orderId, e.getMessage());
+        }
+    }
+
+    private boolean readyStatusExists() {
+        try {
+            orderStatusRegistry.getByName(readyStatus);
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private void add(KitchenTask task) {
+        tasks.put(task.orderItemId, task);
+        dishes.computeIfAbsent(task.dishId, id -> new DishTotal(task.dishId, task.dishName, task.station)).add(task);
+        tasksByOrder.computeIfAbsent(task.orderId, id -> ConcurrentHashMap.newKeySet()).add(task.orderItemId);
+        if (!task.inProgress()) {
+            stations.computeIfAbsent(task.station, s -> new ConcurrentSkipListSet<>(PRIORITY)).add(task);
+        } else {
+            stations.computeIfAbsent(task.station, s -> new ConcurrentSkipListSet<>(PRIORITY));
+        }
+    }
+
+    private void remove(KitchenTask task) {
+        ConcurrentSkipListSet<KitchenTask> queue = stations.get(task.station);
+        if (queue != null) {
+            queue.remove(task);
+        }
+        forget(task);
+    }
+
+    private void forget(KitchenTask task) {
+        if (tasks.remove(task.orderItemId, task)) {
+            DishTotal total = dishes.get(task.dishId);
+            if (total != null) {
+                total.remove(task);
+            }
+        }
+        tasksByOrder.computeIfPresent(task.orderId, (id, itemIds) -> {
+            itemIds.remove(task.orderItemId);
+            return itemIds.isEmpty() ? null : itemIds;
+        });
+    }
+
+    private KitchenTask toTask(OrderItem item) {
+        MenuCategory category = item.getDish().getCategory();
+        String station = category.getKitchenStation() != null && !category.getKitchenStation().isBlank()
+                ? category.getKitchenStation() : category.getCategoryName();
+        int prepMinutes = item.getDish().getPrepMinutes() != null ? item.getDish().getPrepMinutes() : defaultPrepMinutes;
+        LocalDateTime createdAt = item.getOrder().getCreatedAt() != null ? item.getOrder().getCreatedAt() : LocalDateTime.now();
+
+        KitchenTask task = new KitchenTask(item.getId(), item.getOrder().getId(), item.getOrder().getOrderNumber(),
+                item.getOrder().getTable().getTableNumber(), station, item.getDish().getId(), item.getDish().getDishName(),
+                item.getQuantity(), item.getNotes(), prepMinutes, createdAt, createdAt.plusMinutes(promiseMinutes));
+        if (item.getKitchenDoneQuantity() != null) {
+            task.doneQuantity = item.getKitchenDoneQuantity();
+        }
+        if (item.getKitchenStatus() == OrderItem.KitchenStatus.IN_PROGRESS) {
+            task.start(item.getKitchenChef(), item.getKitchenStartedAt());
+        }
+        return task;
+    }
+
+    private record Completed(KitchenTask task, long openItems) {
+    }
+
+    // Поля, по которым идёт сортировка, не меняются, пока задача в очереди
+    private static final class KitchenTask {
+        private final Long orderItemId;
+        private final Long orderId;
+        private final String orderNumber;
+        private final String tableNumber;
+        private final String station;
+        private final Long dishId;
+        private final String dishName;
+        private final Integer quantity;
+        private final String notes;
+        private final int prepMinutes;
+        private final LocalDateTime orderCreatedAt;
+        private final LocalDateTime promisedAt;
+        private volatile String chef;
+        private volatile LocalDateTime startedAt;
+        // Порции, уже приготовленные партией; меняется только под блокировкой сводки блюда
+        private volatile int doneQuantity;
+
+        private KitchenTask(Long orderItemId, Long orderId, String orderNumber, String tableNumber, String station,
+                            Long dishId, String dishName, Integer quantity, String notes, int prepMinutes,
+                            LocalDateTime orderCreatedAt, LocalDateTime promisedAt) {
+            this.orderItemId = orderItemId;
+            this.orderId = orderId;
+            this.orderNumber = orderNumber;
+            this.tableNumber = tableNumber;
+            this.station = station;
+            this.dishId = dishId;
+            this.dishName = dishName;
+            this.quantity = quantity;
+            this.notes = notes;
+            this.prepMinutes = prepMinutes;
+            this.orderCreatedAt = orderCreatedAt;
+            this.promisedAt = promisedAt;
+        }
+
+        private LocalDateTime latestStartAt() {
+            return promisedAt.minusMinutes(prepMinutes);
+        }
+
+        private void start(String chef, LocalDateTime startedAt) {
+            this.chef = chef;
+            this.startedAt = startedAt;
+        }
+
+        private boolean inProgress() {
+            return startedAt != null;
+        }
+
+        private int remaining() {
+            return Math.max(quantity - doneQuantity, 0);
+        }
+
+        private KitchenDTO.TaskResponse toResponse() {
+            return new KitchenDTO.TaskResponse(orderItemId, orderId, orderNumber, tableNumber, station, dishName,
+                    quantity, doneQuantity, notes, prepMinutes, promisedAt, inProgress() ? "IN_PROGRESS" : "QUEUED", chef, startedAt);
+        }
+    }
+
+    // Сводка по одному блюду. Сумма порций меняется вместе с набором задач под блокировкой сводки.
+    private static final class DishTotal {
+        private final Long dishId;
+        private final String dishName;
+        private final String station;
+        private final ConcurrentSkipListSet<KitchenTask> tasks = new ConcurrentSkipListSet<>(FIFO);
+        private volatile int outstanding;
+
+        private DishTotal(Long dishId, String dishName, String station) {
+            this.dishId = dishId;
+            this.dishName = dishName;
+            this.station = station;
+        }
+
+        private synchronized void add(KitchenTask task) {
+            if (tasks.add(task)) {
+                outstanding += task.remaining();
+            }
+        }
+
+        private synchronized void remove(KitchenTask task) {
+            if (tasks.remove(task)) {
+                outstanding -= task.remaining();
+            }
+        }
+
+        private synchronized void allocate(KitchenTask task, int portions) {
+            task.doneQuantity += portions;
+            if (tasks.contains(task)) {
+                outstanding -= portions;
+            }
+        }
+
+        private synchronized KitchenDTO.DishBatch toResponse() {
+            List<KitchenDTO.BatchItem> items = new ArrayList<>(tasks.size());
+            for (KitchenTask task : tasks) {
+                items.add(new KitchenDTO.BatchItem(task.orderItemId, task.orderId, task.orderNumber, task.tableNumber,
+                        task.remaining(), task.inProgress() ? "IN_PROGRESS" : "QUEUED"));
+            }
+            return new KitchenDTO.DishBatch(dishId, dishName, station, outstanding, items);
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package com.restaurant.service;
+
+import com.restaurant.dto.KitchenDTO;
+import com.restaurant.dto.OrderDTO;
+import com.restaurant.entity.OrderStatus;
+import com.restaurant.event.OrderEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Поток заказов для кухонных экранов (Server-Sent Events).
+// Экран получает снимок, затем только изменения с порядковыми номерами.
+// Состояние ведётся по событиям OrderService, без повторных запросов к БД.
+// Под блокировкой только меняется состояние и события раскладываются по очередям экранов;
+// отправкой занимается отдельный пул, у каждого экрана не больше одного отправляющего потока.
+// Поэтому медленный или зависший планшет не задерживает ни запись заказов, ни другие экраны.
+// События после коммита приходят из разных потоков и могут опоздать: снимок заказа с версией не новее
+// уже применённой отбрасывается, иначе старое состояние перезаписало бы новое.
+// Нумерация и история событий - свои на каждом узле, и узел видит только заказы, изменённые на нём.
+// При нескольких узлах экраны должны подключаться к одному узлу (sticky-сессия или отдельный узел кухни);
+// после переключения на другой узел экран получает новый снимок, а не продолжает с Last-Event-ID.
+@Service
+public class KitchenTicketStream {
+
+    private static final Logger logger = LoggerFactory.getLogger(KitchenTicketStream.class);
+
+    private static final int HISTORY_SIZE = 1000;
+    // Экран, отставший больше чем на столько событий, отключается и переподключится со снимком
+    private static final int MAX_PENDING_EVENTS = HISTORY_SIZE;
+    // Версии помнятся и для ушедших с кухни заказов: опоздавшее событие не должно вернуть заказ на экран
+    private static final int MAX_TRACKED_VERSIONS = 10_000;
+    private static final Object PING = new Object();
+
+    private final OrderService orderService;
+    private final long emitterTimeoutMs;
+    private final ExecutorService sender;
+
+    // Идентификатор потока меняется при перезапуске, чтобы не продолжать чужую нумерацию
+    private final String streamId = Long.toString(System.currentTimeMillis(), 36);
+
+    private final Map<Long, OrderDTO.OrderResponse> tickets = new LinkedHashMap<>();
+    private final Map<Long, Long> versions = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+            return size() > MAX_TRACKED_VERSIONS;
+        }
+    };
+    private final Deque<KitchenDTO.Delta> history = new ArrayDeque<>();
+    private final List<Screen> screens = new CopyOnWriteArrayList<>();
+    private long sequence;
+
+    public KitchenTicketStream(OrderService orderService,
+                               @Value("${app.kitchen.stream-timeout-ms:1800000}") long emitterTimeoutMs) {
+        this.orderService = orderService;
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        // Потоков не больше, чем экранов, которым сейчас есть что отправить
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.sender = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "kitchen-stream-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void loadSnapshot() {
+        tickets.clear();
+        for (OrderDTO.OrderResponse order : orderService.getOrdersByStatus(OrderStatus.COOKING)) {
+            if (isNewer(order)) {
+                tickets.put(order.getId(), order);
+            }
+        }
+        logger.debug("Kitchen stream loaded {} orders", tickets.size());
+    }
+
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Screen screen = new Screen(emitter);
+        emitter.onCompletion(() -> screens.remove(screen));
+        emitter.onTimeout(() -> screens.remove(screen));
+        emitter.onError(e -> screens.remove(screen));
+
+        synchronized (this) {
+            Long resumeFrom = parseLastEventId(lastEventId);
+            if (resumeFrom != null && canResumeFrom(resumeFrom)) {
+                for (KitchenDTO.Delta delta : history) {
+                    if (delta.getSequence() > resumeFrom) {
+                        screen.enqueue(delta);
+                    }
+                }
+            } else {
+                screen.enqueue(new KitchenDTO.Snapshot(streamId, sequence, new ArrayList<>(tickets.values())));
+            }
+            // Регистрация под той же блокировкой: между снимком и первым изменением ничего не теряется
+            screens.add(screen);
+        }
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onOrderEvent(OrderEvent event) {
+        OrderDTO.OrderResponse order = event.getOrder();
+        if (!isNewer(order)) {
+            logger.debug("Stale event for order {} (version {}) ignored", order.getId(), order.getVersion());
+            return;
+        }
+        boolean cooking = OrderStatus.COOKING.equals(order.getStatus());
+
+        KitchenDTO.Delta.Type type;
+        if (cooking) {
+            boolean known = tickets.put(order.getId(), order) != null;
+            type = known ? KitchenDTO.Delta.Type.ITEMS_CHANGED : KitchenDTO.Delta.Type.ORDER_ADDED;
+        } else if (tickets.remove(order.getId()) != null) {
+            type = KitchenDTO.Delta.Type.STATUS_CHANGED;
+        } else {
+            // Заказ не относится к кухне
+            return;
+        }
+
+        sequence++;
+        KitchenDTO.Delta delta = new KitchenDTO.Delta(sequence, type, order.getId(), order.getStatus(),
+                cooking ? order : null);
+        history.addLast(delta);
+        if (history.size() > HISTORY_SIZE) {
+            history.removeFirst();
+        }
+
+        for (Screen screen : screens) {
+            screen.enqueue(delta);
+        }
+    }
+
+    // Периодический комментарий держит соединение открытым через прокси и выявляет отвалившиеся экраны
+    @Scheduled(fixedDelayString = "${app.kitchen.stream-heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Screen screen : screens) {
+            screen.enqueue(PING);
+        }
+    }
+
+    // Отправка одного события экрану; вызывается только из потоков отправки
+    void deliver(SseEmitter emitter, Object event) throws IOException {
+        if (event == PING) {
+            emitter.send(SseEmitter.event().comment("ping"));
+        } else if (event instanceof KitchenDTO.Snapshot) {
+            KitchenDTO.Snapshot snapshot = (KitchenDTO.Snapshot) event;
+            emitter.send(SseEmitter.event()
+                    .id(eventId(snapshot.getSequence()))
+                    .name("snapshot")
+                    .data(snapshot));
+        } else {
+            KitchenDTO.Delta delta = (KitchenDTO.Delta) event;
+            emitter.send(SseEmitter.event()
+                    .id(eventId(delta.getSequence()))
+                    .name("delta")
+                    .data(delta));
+        }
+    }
+
+    // Запоминает версию, если она новее применённой; вызывается под блокировкой потока
+    private boolean isNewer(OrderDTO.OrderResponse order) {
+        if (order.getVersion() == null) {
+            return true;
+        }
+        Long applied = versions.get(order.getId());
+        if (applied != null && applied >= order.getVersion()) {
+            return false;
+        }
+        versions.put(order.getId(), order.getVersion());
+        return true;
+    }
+
+    private boolean canResumeFrom(long resumeFrom) {
+        if (resumeFrom > sequence) {
+            return false;
+        }
+        if (resumeFrom == sequence) {
+            return true;
+        }
+        return !history.isEmpty() && history.peekFirst().getSequence() <= resumeFrom + 1;
+    }
+
+    private String eventId(long seq) {
+        return streamId + ":" + seq;
+    }
+
+    private Long parseLastEventId(String lastEventId) {
+        if (lastEventId == null) {
+            return null;
+        }
+        int separator = lastEventId.indexOf(':');
+        if (separator < 0 || !streamId.equals(lastEventId.substring(0, separator))) {
+            return null;
+        }
+        try {
+            return Long.parseLong(lastEventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // Очередь событий одного экрана. События отправляются по порядку одним потоком пула за раз.
+    private final class Screen implements Runnable {
+        private final SseEmitter emitter;
+        private final Deque<Object> pending = new ArrayDeque<>();
+        private boolean draining;
+        private boolean closed;
+
+        private Screen(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        private void enqueue(Object event) {
+            boolean overflow = false;
+            boolean start = false;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (pending.size() >= MAX_PENDING_EVENTS) {
+                    overflow = true;
+                } else {
+                    pending.addLast(event);
+                    start = !draining;
+                    draining = true;
+                }
+            }
+            if (overflow) {
+                logger.warn("Kitchen screen is {} events behind, disconnecting it", MAX_PENDING_EVENTS);
+                close(null);
+            } else if (start) {
+                try {
+                    sender.execute(this);
+                } catch (RejectedExecutionException e) {
+                    close(e);
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Object event;
+                synchronized (this) {
+                    event = pending.pollFirst();
+                    if (event == null || closed) {
+                        draining = false;
+                        return;
+                    }
+                }
+                try {
+                    deliver(emitter, event);
+                } catch (IOException | IllegalStateException e) {
+                    close(e);
+                    return;
+                }
+            }
+        }
+
+        private void close(Exception error) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                pending.clear();
+            }
+            screens.remove(this);
+            if (error != null) {
+                emitter.completeWithError(error);
+            } else {
+                emitter.complete();
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.restaurant.service;
+
+import com.restaurant.dto.MenuDTO;
+import com.restaurant.entity.Allergen;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Битовые индексы активных блюд снимка меню; номер бита - позиция блюда в списке снимка.
+// Фильтр "без орехов и глютена, только акции, из категории 3" - несколько AND / AND NOT над BitSet.
+final class MenuFilterIndex {
+
+    private final int size;
+    private final BitSet promotional = new BitSet();
+    private final Map<Long, BitSet> byCategory = new HashMap<>();
+    private final BitSet[] byAllergen = new BitSet[Allergen.values().length];
+
+    MenuFilterIndex(List<MenuDTO.DishResponse> dishes) {
+        this.size = dishes.size();
+        for (int a = 0; a < byAllergen.length; a++) {
+            byAllergen[a] = new BitSet(size);
+        }
+        for (int i = 0; i < size; i++) {
+            MenuDTO.DishResponse dish = dishes.get(i);
+            if (Boolean.TRUE.equals(dish.getIsOnPromotion())) {
+                promotional.set(i);
+            }
+            if (dish.getCategoryId() != null) {
+                byCategory.computeIfAbsent(dish.getCategoryId(), id -> new BitSet(size)).set(i);
+            }
+            long mask = Allergen.maskOfCodes(dish.getAllergenCodes());
+            for (int a = 0; a < byAllergen.length; a++) {
+                if ((mask & (1L << a)) != 0) {
+                    byAllergen[a].set(i);
+                }
+            }
+        }
+    }
+
+    // includeMask - все эти аллергены должны быть в блюде, excludeMask - ни одного из них
+    BitSet filter(Long categoryId, Boolean onPromotion, long includeMask, long excludeMask) {
+        BitSet result = new BitSet(size);
+        result.set(0, size);
+        if (categoryId != null) {
+            BitSet category = byCategory.get(categoryId);
+            if (category == null) {
+                return new BitSet();
+            }
+            result.and(category);
+        }
+        if (onPromotion != null) {
+            if (onPromotion) {
+                result.and(promotional);
+            } else {
+                result.andNot(promotional);
+            }
+        }
+        for (int a = 0; a < byAllergen.length; a++) {
+            long bit = 1L << a;
+            if ((includeMask & bit) != 0) {
+                result.and(byAllergen[a]);
+            }
+            if ((excludeMask & bit) != 0) {
+                result.andNot(byAllergen[a]);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,710 @@
+package com.restaurant.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.restaurant.dto.MenuDTO;
+import com.restaurant.entity.DishPriceHistory;
+import com.restaurant.entity.MenuCategory;
+import com.restaurant.event.MenuEvent;
+import com.restaurant.repository.DishRepository;
+import com.restaurant.repository.MenuCategoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+// Массовый импорт и экспорт меню. Импорт читает строки по одной, категории и ключи блюд загружаются
+// один раз, запись идёт JDBC-пачками по app.menu.import.batch-size строк, каждая пачка - своя транзакция.
+// Ошибочная строка попадает в отчёт и не останавливает импорт. Экспорт читает БД потоком (MySQL streaming)
+// и пишет строку за строкой - память не зависит от размера меню.
+@Service
+public class MenuImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MenuImportService.class);
+
+    public static final String CSV = "csv";
+    public static final String JSON = "json";
+
+    // Отчёт не растёт бесконечно на полностью битом файле; счётчик failed при этом точный
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    static final List<String> COLUMNS = List.of("id", "dish_name", "category", "price", "description",
+            "weight_grams", "image_url", "composition", "allergens", "is_on_promotion", "promotion_price",
+            "is_active", "prep_minutes");
+    // Те же поля в JSON
+    private static final List<String> JSON_FIELDS = List.of("id", "dishName", "category", "price", "description",
+            "weightGrams", "imageUrl", "composition", "allergens", "isOnPromotion", "promotionPrice",
+            "isActive", "prepMinutes");
+    // Набор столбцов строки - битовая маска по индексам COLUMNS
+    private static final int PROMOTION_COLUMNS = column("is_on_promotion") | column("promotion_price");
+
+    private static final String INSERT_SQL = "INSERT INTO dishes (dish_name, category_id, price, description, " +
+            "weight_grams, image_url, composition, allergens, is_on_promotion, promotion_price, is_active, " +
+            "prep_minutes, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+
+    private static final String EXPORT_SQL = "SELECT d.id, d.dish_name, c.category_name, d.price, d.description, " +
+            "d.weight_grams, d.image_url, d.composition, d.allergens, d.is_on_promotion, d.promotion_price, " +
+            "d.is_active, d.prep_minutes FROM dishes d JOIN menu_categories c ON c.id = d.category_id ORDER BY d.id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DishRepository dishRepository;
+    private final MenuCategoryRepository categoryRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final DataVersionService dataVersionService;
+    private final PriceHistoryService priceHistoryService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+
+    public MenuImportService(JdbcTemplate jdbcTemplate,
+                             DishRepository dishRepository,
+                             MenuCategoryRepository categoryRepository,
+                             ObjectMapper objectMapper,
+                             PlatformTransactionManager transactionManager,
+                             DataVersionService dataVersionService,
+                             PriceHistoryService priceHistoryService,
+                             ApplicationEventPublisher eventPublisher,
+                             @Value("${app.menu.import.batch-size:200}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dishRepository = dishRepository;
+        this.categoryRepository = categoryRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.dataVersionService = dataVersionService;
+        this.priceHistoryService = priceHistoryService;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+    }
+
+    // Формат из параметра запроса, иначе по Content-Type; по умолчанию CSV
+    public static String resolveFormat(String format, String contentType) {
+        if (format != null && !format.isBlank()) {
+            String normalized = format.trim().toLowerCase(Locale.ROOT);
+            if (!normalized.equals(CSV) && !normalized.equals(JSON)) {
+                throw new RuntimeException("Unsupported format: " + format + " (expected csv or json)");
+            }
+            return normalized;
+        }
+        return contentType != null && contentType.toLowerCase(Locale.ROOT).contains("json") ? JSON : CSV;
+    }
+
+    public MenuDTO.ImportResult importDishes(InputStream in, String format) {
+        Map<String, Long> categories = loadCategories();
+        DishKeys keys = loadDishKeys();
+        MenuDTO.ImportResult result = new MenuDTO.ImportResult();
+        Batch batch = new Batch();
+
+        try {
+            RowSource rows = JSON.equals(format) ? jsonRows(in) : csvRows(in);
+            while (true) {
+                SourceRow row;
+                try {
+                    row = rows.next();
+                } catch (RowFormatException e) {
+                    result.setTotal(result.getTotal() + 1);
+                    reject(result, e.row, e.getMessage());
+                    continue;
+                }
+                if (row == null) {
+                    break;
+                }
+                result.setTotal(result.getTotal() + 1);
+                int rowNumber = result.getTotal();
+                String error = classify(rowNumber, row, categories, keys, batch);
+                if (error != null) {
+                    reject(result, rowNumber, error);
+                } else if (batch.size() >= batchSize) {
+                    flush(batch, result);
+                    batch = new Batch();
+                }
+            }
+        } catch (IOException e) {
+            // Дальше файл не читается; уже разобранные строки сохраняем
+            reject(result, result.getTotal() + 1, "Cannot read input: " + e.getMessage());
+        }
+        flush(batch, result);
+
+        if (result.getInserted() + result.getUpdated() > 0) {
+            // Снимок пересобирается один раз на весь импорт
+            eventPublisher.publishEvent(new MenuEvent(null));
+        }
+        logger.info("Menu import ({}): {} rows, {} inserted, {} updated, {} failed", format,
+                result.getTotal(), result.getInserted(), result.getUpdated(), result.getFailed());
+        return result;
+    }
+
+    public void exportDishes(OutputStream out, String format) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        JsonGenerator generator = null;
+        if (JSON.equals(format)) {
+            generator = objectMapper.getFactory().createGenerator(writer);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartArray();
+        } else {
+            CsvFormat.writeRecord(writer, COLUMNS);
+        }
+        JsonGenerator json = generator;
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(EXPORT_SQL,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                // Для MySQL Connector/J это построчное чтение без загрузки всего результата
+                statement.setFetchSize(Integer.MIN_VALUE);
+                return statement;
+            }, rs -> {
+                MenuDTO.DishRow row = mapRow(rs);
+                try {
+                    if (json != null) {
+                        json.writeObject(row);
+                    } else {
+                        CsvFormat.writeRecord(writer, toFields(row));
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (json != null) {
+            json.writeEndArray();
+            json.flush();
+        }
+        writer.flush();
+    }
+
+    // Проверяет строку и ставит её в пачку; возвращает текст ошибки или null
+    private String classify(int rowNumber, SourceRow source, Map<String, Long> categories,
+                            DishKeys keys, Batch batch) {
+        MenuDTO.DishRow row = source.row;
+        String error = validate(row);
+        if (error != null) {
+            return error;
+        }
+        String category = row.getCategory().trim();
+        Long categoryId = categories.get(category.toLowerCase(Locale.ROOT));
+        if (categoryId == null) {
+            return "Unknown category: " + category;
+        }
+        String key = key(categoryId, row.getDishName());
+        Long existingId = row.getId() != null ? row.getId() : keys.byName.get(key);
+        if (row.getId() != null && !keys.ids.contains(row.getId())) {
+            return "Dish not found with id: " + row.getId();
+        }
+        if (existingId != null) {
+            // Цена акции без флага (или наоборот) не даёт понять, что делать с текущей акцией блюда
+            int promotion = source.columns & PROMOTION_COLUMNS;
+            if (promotion != 0 && promotion != PROMOTION_COLUMNS) {
+                return "is_on_promotion and promotion_price must be updated together";
+            }
+            batch.updates.computeIfAbsent(source.columns, columns -> new ArrayList<>())
+                    .add(new PendingRow(rowNumber, row, source.columns, categoryId, existingId));
+            return null;
+        }
+        if (!keys.newNames.add(key)) {
+            return "Duplicate dish in import: " + row.getDishName().trim() + " (" + category + ")";
+        }
+        batch.inserts.add(new PendingRow(rowNumber, row, source.columns, categoryId, null));
+        return null;
+    }
+
+    private static String validate(MenuDTO.DishRow row) {
+        if (row.getDishName() == null || row.getDishName().isBlank()) {
+            return "Dish name is required";
+        }
+        if (row.getCategory() == null || row.getCategory().isBlank()) {
+            return "Category is required";
+        }
+        if (row.getPrice() == null || row.getPrice().signum() <= 0) {
+            return "Price must be greater than 0";
+        }
+        if (row.getPromotionPrice() != null && row.getPromotionPrice().signum() < 0) {
+            return "Promotion price must not be negative";
+        }
+        if (Boolean.TRUE.equals(row.getIsOnPromotion()) && row.getPromotionPrice() == null) {
+            return "Promotion price is required for promoted dishes";
+        }
+        if (row.getWeightGrams() != null && row.getWeightGrams() < 0) {
+            return "Weight must not be negative";
+        }
+        if (row.getPrepMinutes() != null && row.getPrepMinutes() < 0) {
+            return "Prep minutes must not be negative";
+        }
+        String tooLong = tooLong("dish_name", row.getDishName().trim(), 255);
+        if (tooLong == null) tooLong = tooLong("description", row.getDescription(), 1000);
+        if (tooLong == null) tooLong = tooLong("image_url", row.getImageUrl(), 500);
+        if (tooLong == null) tooLong = tooLong("composition", row.getComposition(), 1000);
+        if (tooLong == null) tooLong = tooLong("allergens", row.getAllergens(), 500);
+        return tooLong;
+    }
+
+    private static String tooLong(String column, String value, int max) {
+        return value != null && value.length() > max ? column + " is longer than " + max + " characters" : null;
+    }
+
+    private void flush(Batch batch, MenuDTO.ImportResult result) {
+        if (batch.size() == 0) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                LocalDateTime now = batchTime();
+                if (!batch.inserts.isEmpty()) {
+                    jdbcTemplate.batchUpdate(INSERT_SQL, batch.inserts, batch.inserts.size(),
+                            (ps, pending) -> bindInsert(ps, pending, now));
+                }
+                // Строки с одинаковым набором столбцов - одна пачка со своим UPDATE
+                for (Map.Entry<Integer, List<PendingRow>> group : batch.updates.entrySet()) {
+                    jdbcTemplate.batchUpdate(updateSql(group.getKey()), group.getValue(), group.getValue().size(),
+                            (ps, pending) -> bindUpdate(ps, pending, now));
+                }
+                priceHistoryService.recordChangedSince(now, DishPriceHistory.Reason.IMPORT);
+                dataVersionService.bump(DataVersionService.MENU);
+            });
+            result.setInserted(result.getInserted() + batch.inserts.size());
+            result.setUpdated(result.getUpdated() + batch.updateCount());
+        } catch (DataAccessException e) {
+            // Пачка откатилась целиком - сохраняем её строки по одной, чтобы найти виноватые
+            logger.debug("Import batch failed, retrying row by row: {}", e.getMessage());
+            for (PendingRow pending : batch.inserts) {
+                if (saveOne(pending, true, result)) {
+                    result.setInserted(result.getInserted() + 1);
+                }
+            }
+            for (PendingRow pending : batch.updateRows()) {
+                if (saveOne(pending, false, result)) {
+                    result.setUpdated(result.getUpdated() + 1);
+                }
+            }
+        }
+    }
+
+    private boolean saveOne(PendingRow pending, boolean insert, MenuDTO.ImportResult result) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                LocalDateTime now = batchTime();
+                if (insert) {
+                    jdbcTemplate.update(INSERT_SQL, ps -> bindInsert(ps, pending, now));
+                } else {
+                    jdbcTemplate.update(updateSql(pending.columns), ps -> bindUpdate(ps, pending, now));
+                }
+                priceHistoryService.recordChangedSince(now, DishPriceHistory.Reason.IMPORT);
+                dataVersionService.bump(DataVersionService.MENU);
+            });
+            return true;
+        } catch (DataAccessException e) {
+            reject(result, pending.rowNumber, "Cannot save row: " + e.getMostSpecificCause().getMessage());
+            return false;
+        }
+    }
+
+    // updated_at записанных строк - метка для журнала цен; точность как у DATETIME(6)
+    private static LocalDateTime batchTime() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    private static void bindInsert(PreparedStatement ps, PendingRow pending, LocalDateTime now) throws SQLException {
+        MenuDTO.DishRow row = pending.row;
+        ps.setString(1, row.getDishName().trim());
+        ps.setLong(2, pending.categoryId);
+        ps.setBigDecimal(3, row.getPrice());
+        ps.setString(4, row.getDescription());
+        setInteger(ps, 5, row.getWeightGrams());
+        ps.setString(6, row.getImageUrl());
+        ps.setString(7, row.getComposition());
+        ps.setString(8, row.getAllergens());
+        ps.setBoolean(9, Boolean.TRUE.equals(row.getIsOnPromotion()));
+        ps.setBigDecimal(10, row.getPromotionPrice());
+        ps.setBoolean(11, !Boolean.FALSE.equals(row.getIsActive()));
+        setInteger(ps, 12, row.getPrepMinutes());
+        ps.setTimestamp(13, Timestamp.valueOf(now));
+        ps.setTimestamp(14, Timestamp.valueOf(now));
+    }
+
+    // Обновляются только столбцы, пришедшие в строке; остальные поля блюда остаются прежними.
+    // MySQL выполняет присваивания слева направо: миниатюра сбрасывается до замены image_url,
+    // привязка к акции по расписанию - до замены полей акции (и только если они меняются).
+    // Пустые is_active и prep_minutes не меняют значение.
+    private static String updateSql(int columns) {
+        StringBuilder sql = new StringBuilder("UPDATE dishes SET ");
+        if (has(columns, "image_url")) {
+            sql.append("thumbnail_url = CASE WHEN image_url <=> ? THEN thumbnail_url ELSE NULL END, ");
+        }
+        if (has(columns, "is_on_promotion")) {
+            sql.append("applied_promotion_id = CASE WHEN is_on_promotion <=> ? AND promotion_price <=> ? ")
+                    .append("THEN applied_promotion_id ELSE NULL END, ");
+        }
+        sql.append("dish_name = ?, category_id = ?, price = ?, ");
+        for (String column : List.of("description", "weight_grams", "image_url", "composition", "allergens",
+                "is_on_promotion", "promotion_price")) {
+            if (has(columns, column)) {
+                sql.append(column).append(" = ?, ");
+            }
+        }
+        if (has(columns, "is_active")) {
+            sql.append("is_active = COALESCE(?, is_active), ");
+        }
+        if (has(columns, "prep_minutes")) {
+            sql.append("prep_minutes = COALESCE(?, prep_minutes), ");
+        }
+        return sql.append("updated_at = ? WHERE id = ?").toString();
+    }
+
+    // Параметры в порядке updateSql
+    private static void bindUpdate(PreparedStatement ps, PendingRow pending, LocalDateTime now) throws SQLException {
+        MenuDTO.DishRow row = pending.row;
+        int columns = pending.columns;
+        boolean onPromotion = Boolean.TRUE.equals(row.getIsOnPromotion());
+        int i = 0;
+        if (has(columns, "image_url")) {
+            ps.setString(++i, row.getImageUrl());
+        }
+        if (has(columns, "is_on_promotion")) {
+            ps.setBoolean(++i, onPromotion);
+            ps.setBigDecimal(++i, row.getPromotionPrice());
+        }
+        ps.setString(++i, row.getDishName().trim());
+        ps.setLong(++i, pending.categoryId);
+        ps.setBigDecimal(++i, row.getPrice());
+        if (has(columns, "description")) {
+            ps.setString(++i, row.getDescription());
+        }
+        if (has(columns, "weight_grams")) {
+            setInteger(ps, ++i, row.getWeightGrams());
+        }
+        if (has(columns, "image_url")) {
+            ps.setString(++i, row.getImageUrl());
+        }
+        if (has(columns, "composition")) {
+            ps.setString(++i, row.getComposition());
+        }
+        if (has(columns, "allergens")) {
+            ps.setString(++i, row.getAllergens());
+        }
+        if (has(columns, "is_on_promotion")) {
+            ps.setBoolean(++i, onPromotion);
+        }
+        if (has(columns, "promotion_price")) {
+            ps.setBigDecimal(++i, row.getPromotionPrice());
+        }
+        if (has(columns, "is_active")) {
+            if (row.getIsActive() != null) {
+                ps.setBoolean(++i, row.getIsActive());
+            } else {
+                ps.setNull(++i, Types.BOOLEAN);
+            }
+        }
+        if (has(columns, "prep_minutes")) {
+            setInteger(ps, ++i, row.getPrepMinutes());
+        }
+        ps.setTimestamp(++i, Timestamp.valueOf(now));
+        ps.setLong(++i, pending.dishId);
+    }
+
+    private static int column(String name) {
+        return 1 << COLUMNS.indexOf(name);
+    }
+
+    private static boolean has(int columns, String name) {
+        return (columns & column(name)) != 0;
+    }
+
+    private static void setInteger(PreparedStatement ps, int index, Integer value) throws SQLException {
+        if (value != null) {
+            ps.setInt(index, value);
+        } else {
+            ps.setNull(index, Types.INTEGER);
+        }
+    }
+
+    private static void reject(MenuDTO.ImportResult result, int rowNumber, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+            result.getErrors().add(new MenuDTO.RowError(rowNumber, message));
+        }
+    }
+
+    // Категория ищется по названию без учёта регистра или по id
+    private Map<String, Long> loadCategories() {
+        Map<String, Long> categories = new HashMap<>();
+        for (MenuCategory category : categoryRepository.findAll()) {
+            categories.put(category.getCategoryName().trim().toLowerCase(Locale.ROOT), category.getId());
+            categories.putIfAbsent(category.getId().toString(), category.getId());
+        }
+        return categories;
+    }
+
+    private DishKeys loadDishKeys() {
+        DishKeys keys = new DishKeys();
+        for (Object[] row : dishRepository.findAllKeys()) {
+            Long id = (Long) row[0];
+            keys.ids.add(id);
+            // Одноимённые блюда в категории: обновляется первое по id
+            keys.byName.putIfAbsent(key((Long) row[2], (String) row[1]), id);
+        }
+        return keys;
+    }
+
+    private static String key(Long categoryId, String dishName) {
+        return categoryId + "\u0000" + dishName.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private RowSource csvRows(InputStream in) throws IOException {
+        CsvFormat.RecordReader reader = new CsvFormat.RecordReader(
+                new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+        List<String> header = reader.next();
+        if (header == null) {
+            return () -> null;
+        }
+        int[] columns = new int[header.size()];
+        int present = 0;
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).trim().toLowerCase(Locale.ROOT);
+            if (i == 0 && name.startsWith("\uFEFF")) {
+                name = name.substring(1);
+            }
+            columns[i] = COLUMNS.indexOf(name);
+            if (columns[i] < 0) {
+                throw new IOException("Unknown column: " + header.get(i) + " (expected " + COLUMNS + ")");
+            }
+            present |= 1 << columns[i];
+        }
+        int headerColumns = present;
+        int[] rowNumber = {0};
+        return () -> {
+            List<String> record = reader.next();
+            if (record == null) {
+                return null;
+            }
+            rowNumber[0]++;
+            String[] values = new String[COLUMNS.size()];
+            for (int i = 0; i < record.size() && i < columns.length; i++) {
+                String value = record.get(i).trim();
+                values[columns[i]] = value.isEmpty() ? null : value;
+            }
+            try {
+                return new SourceRow(fromFields(values), headerColumns);
+            } catch (RuntimeException e) {
+                throw new RowFormatException(rowNumber[0], e.getMessage());
+            }
+        };
+    }
+
+    // Элемент читается деревом: набор его полей - набор столбцов строки
+    private RowSource jsonRows(InputStream in) throws IOException {
+        MappingIterator<JsonNode> iterator = objectMapper.readerFor(JsonNode.class).readValues(in);
+        int[] rowNumber = {0};
+        return () -> {
+            if (!iterator.hasNextValue()) {
+                return null;
+            }
+            rowNumber[0]++;
+            JsonNode node = iterator.nextValue();
+            if (node == null || node.isNull()) {
+                return new SourceRow(new MenuDTO.DishRow(), 0);
+            }
+            try {
+                return new SourceRow(objectMapper.treeToValue(node, MenuDTO.DishRow.class), jsonColumns(node));
+            } catch (JsonProcessingException e) {
+                throw new RowFormatException(rowNumber[0], e.getOriginalMessage());
+            }
+        };
+    }
+
+    private static int jsonColumns(JsonNode node) {
+        int columns = 0;
+        for (Iterator<String> names = node.fieldNames(); names.hasNext(); ) {
+            int index = JSON_FIELDS.indexOf(names.next());
+            if (index >= 0) {
+                columns |= 1 << index;
+            }
+        }
+        return columns;
+    }
+
+    static MenuDTO.DishRow fromFields(String[] values) {
+        MenuDTO.DishRow row = new MenuDTO.DishRow();
+        row.setId(parse(values[0], "id", Long::valueOf));
+        row.setDishName(values[1]);
+        row.setCategory(values[2]);
+        row.setPrice(parse(values[3], "price", BigDecimal::new));
+        row.setDescription(values[4]);
+        row.setWeightGrams(parse(values[5], "weight_grams", Integer::valueOf));
+        row.setImageUrl(values[6]);
+        row.setComposition(values[7]);
+        row.setAllergens(values[8]);
+        row.setIsOnPromotion(parseBoolean(values[9], "is_on_promotion"));
+        row.setPromotionPrice(parse(values[10], "promotion_price", BigDecimal::new));
+        row.setIsActive(parseBoolean(values[11], "is_active"));
+        row.setPrepMinutes(parse(values[12], "prep_minutes", Integer::valueOf));
+        return row;
+    }
+
+    static List<String> toFields(MenuDTO.DishRow row) {
+        return Arrays.asList(
+                Objects.toString(row.getId(), null),
+                row.getDishName(),
+                row.getCategory(),
+                row.getPrice() != null ? row.getPrice().toPlainString() : null,
+                row.getDescription(),
+                Objects.toString(row.getWeightGrams(), null),
+                row.getImageUrl(),
+                row.getComposition(),
+                row.getAllergens(),
+                Objects.toString(row.getIsOnPromotion(), null),
+                row.getPromotionPrice() != null ? row.getPromotionPrice().toPlainString() : null,
+                Objects.toString(row.getIsActive(), null),
+                Objects.toString(row.getPrepMinutes(), null));
+    }
+
+    private static MenuDTO.DishRow mapRow(ResultSet rs) throws SQLException {
+        MenuDTO.DishRow row = new MenuDTO.DishRow();
+        row.setId(rs.getLong(1));
+        row.setDishName(rs.getString(2));
+        row.setCategory(rs.getString(3));
+        row.setPrice(rs.getBigDecimal(4));
+        row.setDescription(rs.getString(5));
+        row.setWeightGrams(rs.getObject(6, Integer.class));
+        row.setImageUrl(rs.getString(7));
+        row.setComposition(rs.getString(8));
+        row.setAllergens(rs.getString(9));
+        row.setIsOnPromotion(rs.getObject(10, Boolean.class));
+        row.setPromotionPrice(rs.getBigDecimal(11));
+        row.setIsActive(rs.getObject(12, Boolean.class));
+        row.setPrepMinutes(rs.getObject(13, Integer.class));
+        return row;
+    }
+
+    private static <T> T parse(String value, String column, Function<String, T> parser) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return parser.apply(value);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Invalid " + column + ": " + value);
+        }
+    }
+
+    private static Boolean parseBoolean(String value, String column) {
+        if (value == null) {
+            return null;
+        }
+        switch (value.toLowerCase(Locale.ROOT)) {
+            case "true", "1", "yes", "да":
+                return true;
+            case "false", "0", "no", "нет":
+                return false;
+            default:
+                throw new RuntimeException("Invalid " + column + ": " + value);
+        }
+    }
+
+    // Источник строк: null - конец данных, RowFormatException - битая строка, IOException - дальше читать нельзя
+    private interface RowSource {
+        SourceRow next() throws IOException;
+    }
+
+    private static final class SourceRow {
+        private final MenuDTO.DishRow row;
+        private final int columns;
+
+        private SourceRow(MenuDTO.DishRow row, int columns) {
+            this.row = row;
+            this.columns = columns;
+        }
+    }
+
+    private static final class RowFormatException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final int row;
+
+        private RowFormatException(int row, String message) {
+            super(message);
+            this.row = row;
+        }
+    }
+
+    private static final class PendingRow {
+        private final int rowNumber;
+        private final MenuDTO.DishRow row;
+        private final int columns;
+        private final Long categoryId;
+        private final Long dishId;
+
+        private PendingRow(int rowNumber, MenuDTO.DishRow row, int columns, Long categoryId, Long dishId) {
+            this.rowNumber = rowNumber;
+            this.row = row;
+            this.columns = columns;
+            this.categoryId = categoryId;
+            this.dishId = dishId;
+        }
+    }
+
+    private static final class Batch {
+        private final List<PendingRow> inserts = new ArrayList<>();
+        // Обновления по набору столбцов
+        private final Map<Integer, List<PendingRow>> updates = new LinkedHashMap<>();
+
+        private int updateCount() {
+            return updates.values().stream().mapToInt(List::size).sum();
+        }
+
+        private List<PendingRow> updateRows() {
+            List<PendingRow> rows = new ArrayList<>();
+            updates.values().forEach(rows::addAll);
+            return rows;
+        }
+
+        private int size() {
+            return inserts.size() + updateCount();
+        }
+    }
+
+    private static final class DishKeys {
+        private final Set<Long> ids = new HashSet<>();
+        private final Map<String, Long> byName = new HashMap<>();
+        private final Set<String> newNames = new HashSet<>();
+    }
+}
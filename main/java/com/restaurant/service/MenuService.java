@@ -1,14 +1,21 @@
 package com.restaurant.service;
 
 import com.restaurant.dto.MenuDTO;
+import com.restaurant.entity.Allergen;
 import com.restaurant.entity.Dish;
+import com.restaurant.entity.DishPriceHistory;
 import com.restaurant.entity.MenuCategory;
+import com.restaurant.event.MenuEvent;
 import com.restaurant.repository.DishRepository;
 import com.restaurant.repository.MenuCategoryRepository;
 import jakarta.transaction.Transactional;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
@@ -17,10 +24,23 @@ public class MenuService {
 
     private final DishRepository dishRepository;
     private final MenuCategoryRepository categoryRepository;
-
-    public MenuService(DishRepository dishRepository, MenuCategoryRepository categoryRepository) {
+    private final MenuSnapshotService menuSnapshotService;
+    private final DishSearchIndex dishSearchIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DataVersionService dataVersionService;
+    private final PriceHistoryService priceHistoryService;
+
+    public MenuService(DishRepository dishRepository, MenuCategoryRepository categoryRepository,
+                       MenuSnapshotService menuSnapshotService, DishSearchIndex dishSearchIndex,
+                       ApplicationEventPublisher eventPublisher, DataVersionService dataVersionService,
+                       PriceHistoryService priceHistoryService) {
         this.dishRepository = dishRepository;
         this.categoryRepository = categoryRepository;
+        this.menuSnapshotService = menuSnapshotService;
+        this.dishSearchIndex = dishSearchIndex;
+        this.eventPublisher = eventPublisher;
+        this.dataVersionService = dataVersionService;
+        this.priceHistoryService = priceHistoryService;
     }
 
     @Transactional
@@ -42,6 +62,9 @@ public class MenuService {
         dish.setIsActive(true);
 
         Dish savedDish = dishRepository.save(dish);
+        priceHistoryService.record(savedDish, DishPriceHistory.Reason.MANUAL, LocalDateTime.now());
+        dataVersionService.bump(DataVersionService.MENU);
+        eventPublisher.publishEvent(new MenuEvent(savedDish.getId()));
         return new MenuDTO.DishResponse(savedDish);
     }
 
@@ -51,29 +74,46 @@ public class MenuService {
                 .collect(Collectors.toList());
     }
 
+    // Публичное меню читается из снимка, без транзакции и запросов к БД
+    @Transactional(Transactional.TxType.SUPPORTS)
     public List<MenuDTO.DishResponse> getActiveDishes() {
-        return dishRepository.findByIsActiveTrue().stream()
-                .map(MenuDTO.DishResponse::new)
-                .collect(Collectors.toList());
+        return menuSnapshotService.current().getActiveDishes();
     }
 
+    // Один запрос с категорией; существование категории проверяется, только если блюд нет
     public List<MenuDTO.DishResponse> getDishesByCategory(Long categoryId) {
-        MenuCategory category = categoryRepository.findById(categoryId)
-                .orElseThrow(() -> new RuntimeException("Category not found"));
+        List<Dish> dishes = dishRepository.findByCategoryIdWithCategory(categoryId);
+        if (dishes.isEmpty() && !categoryRepository.existsById(categoryId)) {
+            throw new RuntimeException("Category not found");
+        }
 
-        return dishRepository.findByCategory(category).stream()
+        return dishes.stream()
                 .map(MenuDTO.DishResponse::new)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(Transactional.TxType.SUPPORTS)
     public List<MenuDTO.DishResponse> getPromotionalDishes() {
-        return dishRepository.findByIsOnPromotionTrueAndIsActiveTrue().stream()
-                .map(MenuDTO.DishResponse::new)
-                .collect(Collectors.toList());
+        return menuSnapshotService.current().getPromotionalDishes();
     }
 
+    // Фильтр меню по категории, акции и аллергенам: битовые операции над снимком, без БД
+    @Transactional(Transactional.TxType.SUPPORTS)
+    public List<MenuDTO.DishResponse> filterDishes(Long categoryId, Boolean onPromotion,
+                                                   List<String> includeAllergens, List<String> excludeAllergens) {
+        return menuSnapshotService.current().filterActiveDishes(categoryId, onPromotion,
+                Allergen.maskOfCodes(includeAllergens), Allergen.maskOfCodes(excludeAllergens));
+    }
+
+    // Активное блюдо берётся из снимка, неактивное - из БД
+    @Transactional(Transactional.TxType.SUPPORTS)
     public MenuDTO.DishResponse getDishById(Long id) {
-        Dish dish = dishRepository.findById(id)
+        MenuDTO.DishResponse cached = menuSnapshotService.current().getActiveDish(id);
+        if (cached != null) {
+            return cached;
+        }
+        // Без транзакции категория подгружается сразу же, в том же запросе
+        Dish dish = dishRepository.findAllByIdWithCategory(List.of(id)).stream().findFirst()
                 .orElseThrow(() -> new RuntimeException("Dish not found with id: " + id));
         return new MenuDTO.DishResponse(dish);
     }
@@ -90,23 +130,63 @@ public class MenuService {
         dish.setDescription(request.getDescription());
         dish.setPrice(request.getPrice());
         dish.setWeightGrams(request.getWeightGrams());
+        if (!Objects.equals(dish.getImageUrl(), request.getImageUrl())) {
+            // Миниатюра относилась к прежнему фото; варианты загрузки, ещё не готовые, ссылку не перепишут
+            dish.setThumbnailUrl(null);
+            dishRepository.forgetExpectedImage(id);
+        }
         dish.setImageUrl(request.getImageUrl());
         dish.setCategory(category);
         dish.setComposition(request.getComposition());
         dish.setAllergens(request.getAllergens());
+        if (!Objects.equals(dish.getIsOnPromotion(), request.getIsOnPromotion())
+                || !samePrice(dish.getPromotionPrice(), request.getPromotionPrice())) {
+            // Ручная правка акции отвязывает блюдо от расписания; пока окно акции открыто,
+            // планировщик при следующей сверке вернёт её цену
+            dish.setAppliedPromotionId(null);
+        }
         dish.setIsOnPromotion(request.getIsOnPromotion());
         dish.setPromotionPrice(request.getPromotionPrice());
 
         Dish updatedDish = dishRepository.save(dish);
+        priceHistoryService.record(updatedDish, DishPriceHistory.Reason.MANUAL, LocalDateTime.now());
+        dataVersionService.bump(DataVersionService.MENU);
+        eventPublisher.publishEvent(new MenuEvent(id));
         return new MenuDTO.DishResponse(updatedDish);
     }
 
+    // Загрузка фото: с этого момента блюдо ждёт варианты именно этой картинки
+    @Transactional
+    public void expectDishImage(Long id, String hash) {
+        if (dishRepository.expectImage(id, hash) == 0) {
+            throw new RuntimeException("Dish not found with id: " + id);
+        }
+    }
+
+    // Ждёт ли блюдо ещё эту загрузку: нет - фото загрузили заново или задали ссылку вручную
+    public boolean isDishImageExpected(Long id, String hash) {
+        return dishRepository.existsByIdAndImageHash(id, hash);
+    }
+
+    // Ссылки на готовые варианты загруженного фото; false - блюдо уже ждёт другую, более новую картинку
+    @Transactional
+    public boolean setDishImage(Long id, String hash, String imageUrl, String thumbnailUrl) {
+        if (dishRepository.setImageIfExpected(id, hash, imageUrl, thumbnailUrl, LocalDateTime.now()) == 0) {
+            return false;
+        }
+        dataVersionService.bump(DataVersionService.MENU);
+        eventPublisher.publishEvent(new MenuEvent(id));
+        return true;
+    }
+
     @Transactional
     public void activateDish(Long id) {
         Dish dish = dishRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Dish not found with id: " + id));
         dish.setIsActive(true);
         dishRepository.save(dish);
+        dataVersionService.bump(DataVersionService.MENU);
+        eventPublisher.publishEvent(new MenuEvent(id));
     }
 
     @Transactional
@@ -115,11 +195,17 @@ public class MenuService {
                 .orElseThrow(() -> new RuntimeException("Dish not found with id: " + id));
         dish.setIsActive(false);
         dishRepository.save(dish);
+        dataVersionService.bump(DataVersionService.MENU);
+        eventPublisher.publishEvent(new MenuEvent(id));
     }
 
-    public List<MenuDTO.DishResponse> searchDishes(String searchTerm) {
-        return dishRepository.findByDishNameContainingIgnoreCaseAndIsActiveTrue(searchTerm).stream()
-                .map(MenuDTO.DishResponse::new)
-                .collect(Collectors.toList());
+    private static boolean samePrice(BigDecimal a, BigDecimal b) {
+        return a == null ? b == null : b != null && a.compareTo(b) == 0;
+    }
+
+    // Поиск по названию, категории, составу и описанию с учётом форм слов и опечаток
+    @Transactional(Transactional.TxType.SUPPORTS)
+    public List<MenuDTO.DishResponse> searchDishes(String searchTerm, int limit) {
+        return dishSearchIndex.search(searchTerm, limit);
     }
 }
\ No newline at end of file
@@ -0,0 +1,182 @@
+package com.restaurant.service;
+
+import com.restaurant.dto.MenuDTO;
+import com.restaurant.entity.MenuCategory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+// Неизменяемый снимок публичного меню. Собирается целиком и подменяется атомарно,
+// чтения не ходят в БД. Для горячих публичных ответов заранее готовы JSON и его gzip.
+// DTO внутри снимка общие для всех читателей - их нельзя менять.
+// dataVersion - счётчик data_versions, прочитанный в той же транзакции, что и блюда: ETag снимка
+// всегда соответствует его содержимому, на каком бы узле он ни был собран.
+public final class MenuSnapshot {
+
+    private final long version;
+    private final LocalDateTime builtAt;
+    private final long dataVersion;
+    private final LocalDateTime dataModifiedAt;
+    private final String etag;
+    private final List<MenuDTO.DishResponse> activeDishes;
+    private final List<MenuDTO.DishResponse> promotionalDishes;
+    private final Map<Long, MenuDTO.DishResponse> activeDishesById;
+    private final List<MenuCategory> categories;
+    private final Body activeDishesBody;
+    private final Body categoriesBody;
+    // Категории с активными блюдами одним ответом; производное от блюд и категорий, в ETag не входит
+    private final Body menuTreeBody;
+    private final MenuFilterIndex filterIndex;
+
+    MenuSnapshot(long version, LocalDateTime builtAt,
+                 List<MenuDTO.DishResponse> activeDishes,
+                 List<MenuDTO.DishResponse> promotionalDishes,
+                 Map<Long, MenuDTO.DishResponse> activeDishesById,
+                 List<MenuCategory> categories,
+                 Body activeDishesBody,
+                 Body categoriesBody) {
+        this(version, builtAt, activeDishes, promotionalDishes, activeDishesById, categories,
+                activeDishesBody, categoriesBody, null);
+    }
+
+    MenuSnapshot(long version, LocalDateTime builtAt,
+                 List<MenuDTO.DishResponse> activeDishes,
+                 List<MenuDTO.DishResponse> promotionalDishes,
+                 Map<Long, MenuDTO.DishResponse> activeDishesById,
+                 List<MenuCategory> categories,
+                 Body activeDishesBody,
+                 Body categoriesBody,
+                 Body menuTreeBody) {
+        this(version, builtAt, 0, null, activeDishes, promotionalDishes, activeDishesById, categories,
+                activeDishesBody, categoriesBody, menuTreeBody, null);
+    }
+
+    private MenuSnapshot(long version, LocalDateTime builtAt, long dataVersion, LocalDateTime dataModifiedAt,
+                         List<MenuDTO.DishResponse> activeDishes,
+                         List<MenuDTO.DishResponse> promotionalDishes,
+                         Map<Long, MenuDTO.DishResponse> activeDishesById,
+                         List<MenuCategory> categories,
+                         Body activeDishesBody,
+                         Body categoriesBody,
+                         Body menuTreeBody,
+                         MenuFilterIndex filterIndex) {
+        this.version = version;
+        this.builtAt = builtAt;
+        this.dataVersion = dataVersion;
+        this.dataModifiedAt = dataModifiedAt;
+        // Хэш содержимого покрывает правки в обход приложения, которые не двигают счётчик
+        this.etag = "\"menu-" + dataVersion + "-" + Body.digest(activeDishesBody, categoriesBody) + "\"";
+        this.activeDishes = List.copyOf(activeDishes);
+        this.promotionalDishes = List.copyOf(promotionalDishes);
+        this.activeDishesById = Map.copyOf(activeDishesById);
+        this.categories = List.copyOf(categories);
+        this.activeDishesBody = activeDishesBody;
+        this.categoriesBody = categoriesBody;
+        this.menuTreeBody = menuTreeBody;
+        this.filterIndex = filterIndex != null ? filterIndex : new MenuFilterIndex(this.activeDishes);
+    }
+
+    // Тот же снимок под новой версией: содержимое и готовые ответы переиспользуются
+    MenuSnapshot withVersion(long newVersion, LocalDateTime newBuiltAt) {
+        return new MenuSnapshot(newVersion, newBuiltAt, dataVersion, dataModifiedAt, activeDishes, promotionalDishes,
+                activeDishesById, categories, activeDishesBody, categoriesBody, menuTreeBody, filterIndex);
+    }
+
+    MenuSnapshot withDataVersion(long newDataVersion, LocalDateTime newDataModifiedAt) {
+        return new MenuSnapshot(version, builtAt, newDataVersion, newDataModifiedAt, activeDishes, promotionalDishes,
+                activeDishesById, categories, activeDishesBody, categoriesBody, menuTreeBody, filterIndex);
+    }
+
+    boolean sameContent(MenuSnapshot other) {
+        return other != null
+                && activeDishesBody.sameAs(other.activeDishesBody)
+                && categoriesBody.sameAs(other.categoriesBody);
+    }
+
+    // Геттеры
+    public long getVersion() { return version; }
+    public LocalDateTime getBuiltAt() { return builtAt; }
+    public long getDataVersion() { return dataVersion; }
+    // Время последнего изменения меню; до первой записи через приложение - время сборки снимка
+    public LocalDateTime getLastModified() { return dataModifiedAt != null ? dataModifiedAt : builtAt; }
+    public String getEtag() { return etag; }
+    // У gzip-варианта тела другие байты, значит и сильный ETag должен быть другим
+    public String getEtag(boolean gzip) { return gzip ? etag.substring(0, etag.length() - 1) + "-gz\"" : etag; }
+    public List<MenuDTO.DishResponse> getActiveDishes() { return activeDishes; }
+    public List<MenuDTO.DishResponse> getPromotionalDishes() { return promotionalDishes; }
+    public MenuDTO.DishResponse getActiveDish(Long id) { return activeDishesById.get(id); }
+    public List<MenuCategory> getCategories() { return categories; }
+    // Активные блюда по фильтрам; null - фильтр не задан. Маски - биты Allergen.
+    public List<MenuDTO.DishResponse> filterActiveDishes(Long categoryId, Boolean onPromotion,
+                                                         long includeAllergens, long excludeAllergens) {
+        BitSet matches = filterIndex.filter(categoryId, onPromotion, includeAllergens, excludeAllergens);
+        List<MenuDTO.DishResponse> result = new ArrayList<>(matches.cardinality());
+        for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+            result.add(activeDishes.get(i));
+        }
+        return result;
+    }
+
+    public Body getActiveDishesBody() { return activeDishesBody; }
+    public Body getCategoriesBody() { return categoriesBody; }
+    public Body getMenuTreeBody() { return menuTreeBody; }
+
+    // Готовое тело ответа: JSON и его gzip. Массивы отдаются как есть, без копирования.
+    public static final class Body {
+        private final byte[] json;
+        private final byte[] gzip;
+
+        Body(byte[] json) {
+            this.json = json;
+            this.gzip = gzip(json);
+        }
+
+        public byte[] getJson() { return json; }
+        public byte[] getGzip() { return gzip; }
+
+        boolean sameAs(Body other) {
+            return Arrays.equals(json, other.json);
+        }
+
+        static String digest(Body... bodies) {
+            try {
+                MessageDigest sha = MessageDigest.getInstance("SHA-256");
+                for (Body body : bodies) {
+                    if (body != null) {
+                        sha.update(body.json);
+                    }
+                }
+                return HexFormat.of().formatHex(sha.digest(), 0, 8);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private static byte[] gzip(byte[] data) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(data.length / 4, 64));
+            // Сжимается один раз на сборку снимка - берём максимальный уровень
+            try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+                {
+                    def.setLevel(Deflater.BEST_COMPRESSION);
+                }
+            }) {
+                gzip.write(data);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.restaurant.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.restaurant.dto.CommonDTO;
+import com.restaurant.dto.MenuDTO;
+import com.restaurant.entity.Dish;
+import com.restaurant.entity.MenuCategory;
+import com.restaurant.event.MenuEvent;
+import com.restaurant.repository.DishRepository;
+import com.restaurant.repository.MenuCategoryRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Держит текущий снимок меню. Снимок пересобирается после коммита любого изменения меню
+// и периодически (изменения, сделанные на других узлах). Версия растёт только при изменении содержимого
+// или счётчика data_versions. Новая версия публикуется как событие: производные индексы (поиск) сверяются с ней.
+// Счётчик в БД сверяется часто и дёшево: чужая правка меню доходит до снимка за app.menu.version-poll-ms.
+// Пересборки после изменений идут в одном фоновом потоке и сливаются: серия правок даёт одну-две сборки.
+@Service
+public class MenuSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MenuSnapshotService.class);
+
+    private final DishRepository dishRepository;
+    private final MenuCategoryRepository categoryRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DataVersionService dataVersionService;
+    private final AtomicReference<MenuSnapshot> snapshot = new AtomicReference<>();
+    private final CoalescingWorker rebuilder = new CoalescingWorker("menu-snapshot-rebuild", this::rebuild);
+
+    public MenuSnapshotService(DishRepository dishRepository,
+                               MenuCategoryRepository categoryRepository,
+                               ObjectMapper objectMapper,
+                               PlatformTransactionManager transactionManager,
+                               ApplicationEventPublisher eventPublisher,
+                               DataVersionService dataVersionService) {
+        this.dishRepository = dishRepository;
+        this.categoryRepository = categoryRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // current() может собрать снимок внутри чужой транзакции
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transactionTemplate.setReadOnly(true);
+        this.eventPublisher = eventPublisher;
+        this.dataVersionService = dataVersionService;
+    }
+
+    public MenuSnapshot current() {
+        MenuSnapshot current = snapshot.get();
+        // Запрос, пришедший до ApplicationReadyEvent, собирает снимок сам
+        return current != null ? current : rebuild();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        rebuild();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        rebuilder.shutdown();
+    }
+
+    // Поток запроса только отмечает, что снимок устарел. При ошибке сборки остаётся прежний снимок,
+    // следующая плановая сверка попробует снова
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMenuEvent(MenuEvent event) {
+        rebuilder.request();
+    }
+
+    @Scheduled(fixedDelayString = "${app.menu.snapshot-refresh-ms:60000}",
+            initialDelayString = "${app.menu.snapshot-refresh-ms:60000}")
+    public void refresh() {
+        rebuilder.request();
+    }
+
+    @Scheduled(fixedDelayString = "${app.menu.version-poll-ms:5000}",
+            initialDelayString = "${app.menu.version-poll-ms:5000}")
+    public void pollVersion() {
+        MenuSnapshot current = snapshot.get();
+        if (current == null) {
+            return;
+        }
+        long dataVersion = dataVersionService.current(DataVersionService.MENU).getVersion();
+        if (dataVersion != current.getDataVersion()) {
+            rebuilder.request();
+        }
+    }
+
+    public synchronized MenuSnapshot rebuild() {
+        MenuSnapshot built = transactionTemplate.execute(status -> build());
+        MenuSnapshot previous = snapshot.get();
+        if (built == null || (built.sameContent(previous) && built.getDataVersion() == previous.getDataVersion())) {
+            return previous;
+        }
+        MenuSnapshot next = built.withVersion(previous != null ? previous.getVersion() + 1 : 1, LocalDateTime.now());
+        snapshot.set(next);
+        logger.info("Menu snapshot v{} (data v{}): {} active dishes, {} categories, active dishes body {} bytes ({} gzipped)",
+                next.getVersion(), next.getDataVersion(), next.getActiveDishes().size(), next.getCategories().size(),
+                next.getActiveDishesBody().getJson().length, next.getActiveDishesBody().getGzip().length);
+        eventPublisher.publishEvent(next);
+        return next;
+    }
+
+    private MenuSnapshot build() {
+        // Первое чтение в транзакции фиксирует её снимок (REPEATABLE READ): версия и блюда согласованы
+        DataVersionService.Version dataVersion = dataVersionService.read(DataVersionService.MENU);
+        List<Dish> dishes = dishRepository.findActiveWithCategory();
+        List<MenuDTO.DishResponse> active = new ArrayList<>(dishes.size());
+        List<MenuDTO.DishResponse> promotional = new ArrayList<>();
+        Map<Long, MenuDTO.DishResponse> byId = new HashMap<>();
+        for (Dish dish : dishes) {
+            MenuDTO.DishResponse response = new MenuDTO.DishResponse(dish);
+            active.add(response);
+            byId.put(response.getId(), response);
+            if (Boolean.TRUE.equals(dish.getIsOnPromotion())) {
+                promotional.add(response);
+            }
+        }
+        List<MenuCategory> categories = categoryRepository.findAllByOrderByDisplayOrderAsc();
+
+        return new MenuSnapshot(0, null, active, promotional, byId, categories,
+                new MenuSnapshot.Body(toJson(CommonDTO.ApiResponse.success(active))),
+                new MenuSnapshot.Body(toJson(CommonDTO.ApiResponse.success(categories))),
+                new MenuSnapshot.Body(toJson(CommonDTO.ApiResponse.success(menuTree(categories, active)))))
+                .withDataVersion(dataVersion.getVersion(), dataVersion.getUpdatedAt());
+    }
+
+    // Категории в порядке displayOrder, в каждой - её активные блюда; пустые категории гостю не показываются
+    private static List<MenuDTO.CategoryTreeResponse> menuTree(List<MenuCategory> categories,
+                                                               List<MenuDTO.DishResponse> active) {
+        Map<Long, List<MenuDTO.DishResponse>> byCategory = new HashMap<>();
+        for (MenuDTO.DishResponse dish : active) {
+            byCategory.computeIfAbsent(dish.getCategoryId(), id -> new ArrayList<>()).add(dish);
+        }
+        List<MenuDTO.CategoryTreeResponse> tree = new ArrayList<>(byCategory.size());
+        for (MenuCategory category : categories) {
+            List<MenuDTO.DishResponse> dishes = byCategory.get(category.getId());
+            if (dishes != null) {
+                tree.add(new MenuDTO.CategoryTreeResponse(category, dishes));
+            }
+        }
+        return tree;
+    }
+
+    private byte[] toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Cannot serialize menu snapshot", e);
+        }
+    }
+}
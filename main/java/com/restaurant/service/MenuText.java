@@ -0,0 +1,84 @@
+package com.restaurant.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+// Нормализация текста меню для поиска: нижний регистр, ё -> е, разбиение на слова,
+// отсечение типичных окончаний (русских и английских) и триграммы для поиска с опечатками
+final class MenuText {
+
+    // Короче основа не становится: "суп" не должен превратиться в "су"
+    private static final int MIN_STEM = 3;
+
+    // Сначала длинные окончания
+    private static final String[] RU_ENDINGS = {
+            "иями", "ями", "ами", "ого", "его", "ому", "ему", "ыми", "ими",
+            "ия", "ие", "ий", "ый", "ой", "ая", "яя", "ое", "ее", "ые", "ых", "их", "ую", "юю",
+            "ов", "ев", "ей", "ам", "ям", "ах", "ях", "ом", "ем", "ью",
+            "а", "я", "о", "е", "ы", "и", "у", "ю", "ь", "й"
+    };
+    private static final String[] EN_ENDINGS = {"ing", "ed", "es", "s"};
+
+    private MenuText() {}
+
+    static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT).replace('ё', 'е');
+    }
+
+    static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        String normalized = normalize(text);
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean letter = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                words.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    // Основы слов текста без повторов, в порядке появления
+    static List<String> terms(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String word : words(text)) {
+            terms.add(stem(word));
+        }
+        return new ArrayList<>(terms);
+    }
+
+    static String stem(String word) {
+        char last = word.charAt(word.length() - 1);
+        String[] endings = Character.UnicodeBlock.of(last) == Character.UnicodeBlock.CYRILLIC ? RU_ENDINGS
+                : last >= 'a' && last <= 'z' ? EN_ENDINGS : null;
+        if (endings == null) {
+            return word;
+        }
+        for (String ending : endings) {
+            if (word.endsWith(ending) && word.length() - ending.length() >= MIN_STEM) {
+                return word.substring(0, word.length() - ending.length());
+            }
+        }
+        return word;
+    }
+
+    // Триграммы с метками начала и конца слова ("$$б", "$бо", "бор", ..., "рщ$"), как в pg_trgm:
+    // двойная метка в начале даёт коротким словам больше общих триграмм при опечатке
+    static Set<String> trigrams(String term) {
+        String padded = "$$" + term + "$";
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+}
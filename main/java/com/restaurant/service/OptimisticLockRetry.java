@@ -0,0 +1,78 @@
+package com.restaurant.service;
+
+import com.restaurant.exception.ConflictException;
+import jakarta.persistence.OptimisticLockException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+// Выполняет изменение в отдельной транзакции и переводит конфликт версий в ConflictException.
+// Коммутативные операции (например, добавление позиции) повторяются на свежих данных.
+@Component
+public class OptimisticLockRetry {
+
+    private static final Logger logger = LoggerFactory.getLogger(OptimisticLockRetry.class);
+
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+
+    public OptimisticLockRetry(PlatformTransactionManager transactionManager,
+                               @Value("${app.concurrency.max-attempts:5}") int maxAttempts) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxAttempts = Math.max(1, maxAttempts);
+    }
+
+    // Одна попытка: конфликт сразу возвращается клиенту
+    public <T> T execute(String resource, Supplier<T> action) {
+        return run(resource, action, 1);
+    }
+
+    public <T> T executeWithRetry(String resource, Supplier<T> action) {
+        return run(resource, action, maxAttempts);
+    }
+
+    private <T> T run(String resource, Supplier<T> action, int attempts) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // Внутри чужой транзакции повторять нельзя: откат затронет вызывающий код
+            try {
+                return action.get();
+            } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                throw conflict(resource, e);
+            }
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> action.get());
+            } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                if (attempt >= attempts) {
+                    throw conflict(resource, e);
+                }
+                logger.debug("Optimistic lock conflict on {}, attempt {} of {}", resource, attempt, attempts);
+                backOff(attempt);
+            }
+        }
+    }
+
+    private ConflictException conflict(String resource, Exception cause) {
+        return new ConflictException(resource + " was modified by another user, please reload and try again", cause);
+    }
+
+    // Случайная пауза разводит одновременные повторы
+    private void backOff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(1, 10L * attempt + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("Interrupted while retrying update", e);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.restaurant.service;
+
+import com.restaurant.entity.OrderStatus;
+import com.restaurant.repository.ArchivedOrderRepository;
+import com.restaurant.repository.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Перенос оплаченных заказов старше заданного срока в архивные таблицы.
+// Каждая пачка переносится в своей транзакции: заказ целиком либо в рабочих таблицах, либо в архиве.
+@Service
+public class OrderArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderArchiveService.class);
+
+    private final OrderRepository orderRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final OrderStatusRegistry orderStatusRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final int orderAgeDays;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public OrderArchiveService(OrderRepository orderRepository,
+                               ArchivedOrderRepository archivedOrderRepository,
+                               OrderStatusRegistry orderStatusRegistry,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${app.archive.order-age-days:30}") int orderAgeDays,
+                               @Value("${app.archive.batch-size:500}") int batchSize,
+                               @Value("${app.archive.max-batches-per-run:200}") int maxBatchesPerRun) {
+        this.orderRepository = orderRepository;
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.orderStatusRegistry = orderStatusRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.orderAgeDays = orderAgeDays;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+    }
+
+    @Scheduled(cron = "${app.archive.cron:0 30 4 * * *}")
+    public void scheduledArchive() {
+        archivePaidOrders(LocalDateTime.now().minusDays(orderAgeDays));
+    }
+
+    // Возвращает число перенесённых заказов
+    public int archivePaidOrders(LocalDateTime before) {
+        if (!running.compareAndSet(false, true)) {
+            logger.debug("Order archiving is already running");
+            return 0;
+        }
+        try {
+            Long paidStatusId = orderStatusRegistry.idOf(OrderStatus.PAID);
+            int archived = 0;
+            for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                Integer moved = transactionTemplate.execute(status -> archiveBatch(paidStatusId, before));
+                if (moved == null || moved == 0) {
+                    break;
+                }
+                archived += moved;
+                if (moved < batchSize) {
+                    break;
+                }
+            }
+            if (archived > 0) {
+                logger.info("Archived {} paid orders created before {}", archived, before);
+            }
+            return archived;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private int archiveBatch(Long paidStatusId, LocalDateTime before) {
+        List<Long> ids = orderRepository.lockArchivableIds(paidStatusId, before, batchSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        archivedOrderRepository.copyOrders(ids, now);
+        archivedOrderRepository.copyOrderItems(ids);
+        archivedOrderRepository.copyPayments(ids);
+        archivedOrderRepository.deletePayments(ids);
+        archivedOrderRepository.deleteOrderItems(ids);
+        return archivedOrderRepository.deleteOrders(ids);
+    }
+}
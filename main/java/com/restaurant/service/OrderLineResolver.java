@@ -0,0 +1,74 @@
+package com.restaurant.service;
+
+import com.restaurant.dto.OrderDTO;
+import com.restaurant.entity.Dish;
+import com.restaurant.entity.OrderItem;
+import com.restaurant.repository.DishRepository;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class OrderLineResolver {
+
+    private final DishRepository dishRepository;
+
+    public OrderLineResolver(DishRepository dishRepository) {
+        this.dishRepository = dishRepository;
+    }
+
+    // Загружает все блюда заказа одним запросом (вместе с категориями)
+    // и собирает позиции. Недоступные блюда попадают в одну общую ошибку.
+    public List<OrderItem> resolve(List<OrderDTO.OrderItemRequest> itemRequests) {
+        if (itemRequests == null || itemRequests.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Set<Long> dishIds = itemRequests.stream()
+                .map(OrderDTO.OrderItemRequest::getDishId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+
+        Map<Long, Dish> dishes = dishRepository.findAllByIdWithCategory(dishIds).stream()
+                .collect(Collectors.toMap(Dish::getId, Function.identity()));
+
+        List<String> problems = new ArrayList<>();
+        for (Long dishId : dishIds) {
+            Dish dish = dishes.get(dishId);
+            if (dish == null) {
+                problems.add("Dish not found with id: " + dishId);
+            } else if (!Boolean.TRUE.equals(dish.getIsActive())) {
+                problems.add("Dish is not available: " + dish.getDishName());
+            } else if (!hasValidPrice(dish)) {
+                problems.add("Dish has no valid price: " + dish.getDishName());
+            }
+        }
+        if (!problems.isEmpty()) {
+            throw new RuntimeException(String.join("; ", problems));
+        }
+
+        List<OrderItem> orderItems = new ArrayList<>(itemRequests.size());
+        for (OrderDTO.OrderItemRequest itemRequest : itemRequests) {
+            Dish dish = dishes.get(itemRequest.getDishId());
+
+            OrderItem orderItem = new OrderItem();
+            orderItem.setDish(dish);
+            orderItem.setQuantity(itemRequest.getQuantity());
+            orderItem.setNotes(itemRequest.getNotes());
+            orderItem.setUnitPrice(dish.getCurrentPrice());
+            orderItems.add(orderItem);
+        }
+        return orderItems;
+    }
+
+    private boolean hasValidPrice(Dish dish) {
+        BigDecimal price = dish.getCurrentPrice();
+        return price != null && price.signum() > 0;
+    }
+}
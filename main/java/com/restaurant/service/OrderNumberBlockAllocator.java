@@ -0,0 +1,46 @@
+package com.restaurant.service;
+
+import com.restaurant.entity.OrderNumberBlock;
+import com.restaurant.repository.OrderNumberBlockRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Выдаёт узлам приложения непересекающиеся диапазоны номеров заказов.
+// Одно обращение к БД на весь диапазон, а не на каждый заказ.
+@Service
+public class OrderNumberBlockAllocator {
+
+    static final String ORDERS_BLOCK = "orders";
+
+    private final OrderNumberBlockRepository blockRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public OrderNumberBlockAllocator(OrderNumberBlockRepository blockRepository,
+                                     PlatformTransactionManager transactionManager) {
+        this.blockRepository = blockRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Диапазон фиксируется сразу, независимо от транзакции заказа
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // Резервирует диапазон [start, start + size) и возвращает start
+    public long reserve(int size) {
+        try {
+            return transactionTemplate.execute(status -> reserveInTransaction(size));
+        } catch (DataIntegrityViolationException e) {
+            // Строку счётчика одновременно создал другой узел - повторяем уже с блокировкой
+            return transactionTemplate.execute(status -> reserveInTransaction(size));
+        }
+    }
+
+    private long reserveInTransaction(int size) {
+        OrderNumberBlock block = blockRepository.findForUpdate(ORDERS_BLOCK)
+                .orElseGet(() -> blockRepository.saveAndFlush(new OrderNumberBlock(ORDERS_BLOCK, 1L)));
+        long start = block.getNextValue();
+        block.setNextValue(start + size);
+        return start;
+    }
+}
@@ -0,0 +1,7 @@
+package com.restaurant.service;
+
+// Источник номеров заказов. Номер должен быть уникален между потоками и узлами приложения.
+public interface OrderNumberGenerator {
+
+    String nextOrderNumber();
+}
@@ -1,43 +1,89 @@
 package com.restaurant.service;
 
+import com.restaurant.dto.CommonDTO;
 import com.restaurant.dto.OrderDTO;
+import com.restaurant.dto.PageCursor;
 import com.restaurant.entity.*;
+import com.restaurant.event.OrderCreated;
+import com.restaurant.event.OrderEvent;
+import com.restaurant.event.OrderStatusChanged;
 import com.restaurant.repository.*;
 import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class OrderService {
 
+    private static final Logger logger = LoggerFactory.getLogger(OrderService.class);
+
     private final OrderRepository orderRepository;
     private final OrderItemRepository orderItemRepository;
     private final RestaurantTableRepository tableRepository;
     private final ReservationRepository reservationRepository;
-    private final DishRepository dishRepository;
-    private final OrderStatusRepository orderStatusRepository;
+    private final OrderLineResolver orderLineResolver;
+    private final OrderStatusRegistry orderStatusRegistry;
     private final UserRepository userRepository;
+    private final OrderNumberGenerator orderNumberGenerator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OptimisticLockRetry optimisticLockRetry;
+    private final IdempotencyService idempotencyService;
+    private final DomainEventBus domainEventBus;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final OrderStatusTransitionRepository statusTransitionRepository;
 
     public OrderService(OrderRepository orderRepository,
                         OrderItemRepository orderItemRepository,
                         RestaurantTableRepository tableRepository,
                         ReservationRepository reservationRepository,
-                        DishRepository dishRepository,
-                        OrderStatusRepository orderStatusRepository,
-                        UserRepository userRepository) {
+                        OrderLineResolver orderLineResolver,
+                        OrderStatusRegistry orderStatusRegistry,
+                        UserRepository userRepository,
+                        OrderNumberGenerator orderNumberGenerator,
+                        ApplicationEventPublisher eventPublisher,
+                        OptimisticLockRetry optimisticLockRetry,
+                        IdempotencyService idempotencyService,
+                        DomainEventBus domainEventBus,
+                        ArchivedOrderRepository archivedOrderRepository,
+                        OrderStatusTransitionRepository statusTransitionRepository) {
         this.orderRepository = orderRepository;
         this.orderItemRepository = orderItemRepository;
         this.tableRepository = tableRepository;
         this.reservationRepository = reservationRepository;
-        this.dishRepository = dishRepository;
-        this.orderStatusRepository = orderStatusRepository;
+        this.orderLineResolver = orderLineResolver;
+        this.orderStatusRegistry = orderStatusRegistry;
         this.userRepository = userRepository;
+        this.orderNumberGenerator = orderNumberGenerator;
+        this.eventPublisher = eventPublisher;
+        this.optimisticLockRetry = optimisticLockRetry;
+        this.idempotencyService = idempotencyService;
+        this.domainEventBus = domainEventBus;
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.statusTransitionRepository = statusTransitionRepository;
+    }
+
+    // Повтор запроса с тем же Idempotency-Key возвращает уже созданный заказ
+    @Transactional(Transactional.TxType.SUPPORTS)
+    public OrderDTO.OrderResponse createOrder(OrderDTO.CreateOrderRequest request, String waiterUsername,
+                                              String idempotencyKey) {
+        return idempotencyService.execute(IdempotencyService.ORDER_CREATE, idempotencyKey, waiterUsername, request,
+                () -> createOrder(request, waiterUsername),
+                OrderDTO.OrderResponse::getId,
+                this::getOrderById);
     }
 
     @Transactional
@@ -54,54 +100,113 @@ public class OrderService {
         User waiter = userRepository.findByUsername(waiterUsername)
                 .orElseThrow(() -> new RuntimeException("Waiter not found"));
 
-        OrderStatus initialStatus = orderStatusRepository.findByStatusName("принят")
-                .orElseThrow(() -> new RuntimeException("Order status not found"));
+        OrderStatus initialStatus = orderStatusRegistry.getByName(OrderStatus.ACCEPTED);
 
         Order order = new Order();
+        order.setOrderNumber(orderNumberGenerator.nextOrderNumber());
         order.setTable(table);
         order.setReservation(reservation);
         order.setWaiter(waiter);
         order.setStatus(initialStatus);
+        order.setStatusChangedAt(LocalDateTime.now());
         order.setNotes(request.getNotes());
 
-        // Добавление элементов заказа
-        for (OrderDTO.OrderItemRequest itemRequest : request.getOrderItems()) {
-            Dish dish = dishRepository.findById(itemRequest.getDishId())
-                    .orElseThrow(() -> new RuntimeException("Dish not found with id: " + itemRequest.getDishId()));
-
-            if (!dish.getIsActive()) {
-                throw new RuntimeException("Dish is not available: " + dish.getDishName());
-            }
-
-            OrderItem orderItem = new OrderItem();
-            orderItem.setDish(dish);
-            orderItem.setQuantity(itemRequest.getQuantity());
-            orderItem.setNotes(itemRequest.getNotes());
-            orderItem.setUnitPrice(dish.getCurrentPrice());
-
+        // Добавление элементов заказа (все блюда загружаются одним запросом)
+        for (OrderItem orderItem : orderLineResolver.resolve(request.getOrderItems())) {
             order.addOrderItem(orderItem);
         }
 
-        order.recalculateTotalAmount();
         Order savedOrder = orderRepository.save(order);
-        return new OrderDTO.OrderResponse(savedOrder);
+        statusTransitionRepository.save(new OrderStatusTransition(savedOrder.getId(), null, initialStatus.getId(),
+                waiter.getId(), savedOrder.getStatusChangedAt(), null));
+        OrderDTO.OrderResponse response = new OrderDTO.OrderResponse(savedOrder);
+        // OrderEvent - для памяти этого узла, доменное событие - для остальных модулей (см. OrderEvent)
+        eventPublisher.publishEvent(OrderEvent.created(response));
+        domainEventBus.publish(new OrderCreated(savedOrder.getId(), savedOrder.getOrderNumber(),
+                savedOrder.getTotalAmount()));
+        return response;
     }
 
-    @Transactional
+    // Смена статуса не коммутативна: при конфликте клиент получает 409 и решает сам
+    @Transactional(Transactional.TxType.SUPPORTS)
     public OrderDTO.OrderResponse updateOrderStatus(Long orderId, String statusName) {
+        return optimisticLockRetry.execute("Order " + orderId, () -> changeOrderStatus(orderId, statusName));
+    }
+
+    private OrderDTO.OrderResponse changeOrderStatus(Long orderId, String statusName) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
 
-        OrderStatus newStatus = orderStatusRepository.findByStatusName(statusName)
-                .orElseThrow(() -> new RuntimeException("Status not found"));
+        OrderStatus newStatus = orderStatusRegistry.getByName(statusName);
+        Long previousStatusId = order.getStatus().getId();
+        orderStatusRegistry.checkTransition(previousStatusId, newStatus);
+
+        // Запись в журнал уходит одной пачкой с обновлением заказа при flush
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime enteredAt = order.getStatusChangedAt() != null ? order.getStatusChangedAt() : order.getCreatedAt();
+        Long durationMs = enteredAt != null ? Duration.between(enteredAt, now).toMillis() : null;
+        statusTransitionRepository.save(new OrderStatusTransition(orderId, previousStatusId, newStatus.getId(),
+                order.getWaiter() != null ? order.getWaiter().getId() : null, now, durationMs));
 
         order.setStatus(newStatus);
-        Order updatedOrder = orderRepository.save(order);
-        return new OrderDTO.OrderResponse(updatedOrder);
+        order.setStatusChangedAt(now);
+        // После flush у заказа уже новая версия - она уходит в событие
+        Order updatedOrder = orderRepository.saveAndFlush(order);
+        OrderDTO.OrderResponse response = new OrderDTO.OrderResponse(updatedOrder);
+        String previousStatus = orderStatusRegistry.getById(previousStatusId).getStatusName();
+        eventPublisher.publishEvent(OrderEvent.statusChanged(response, previousStatus));
+        domainEventBus.publish(new OrderStatusChanged(orderId, previousStatus, newStatus.getStatusName()));
+        return response;
     }
 
-    @Transactional
+    // Вызывается обработчиком PaymentPaid: повторная доставка события не должна ничего менять
+    @Transactional(Transactional.TxType.SUPPORTS)
+    public void markOrderPaid(Long orderId) {
+        optimisticLockRetry.executeWithRetry("Order " + orderId, () -> {
+            Order order = orderRepository.findById(orderId)
+                    .orElseThrow(() -> new RuntimeException("Order not found"));
+            String currentStatus = orderStatusRegistry.getById(order.getStatus().getId()).getStatusName();
+            if (OrderStatus.PAID.equals(currentStatus)) {
+                return null;
+            }
+            if (OrderStatus.CANCELLED.equals(currentStatus)) {
+                logger.warn("Payment received for cancelled order {}", orderId);
+                return null;
+            }
+            return changeOrderStatus(orderId, OrderStatus.PAID);
+        });
+    }
+
+    @Transactional(Transactional.TxType.SUPPORTS)
     public OrderDTO.OrderResponse addOrderItem(Long orderId, OrderDTO.OrderItemRequest itemRequest) {
+        OrderDTO.UpdateOrderItemsRequest request = new OrderDTO.UpdateOrderItemsRequest();
+        request.setAdd(List.of(itemRequest));
+        return updateOrderItems(orderId, request);
+    }
+
+    // Добавление, удаление и изменение количества позиций одним вызовом.
+    // Сумма заказа меняется на разницу по каждой затронутой позиции.
+    @Transactional(Transactional.TxType.SUPPORTS)
+    public OrderDTO.OrderResponse updateOrderItems(Long orderId, OrderDTO.UpdateOrderItemsRequest request) {
+        List<Long> remove = request.getRemove() != null ? request.getRemove() : List.of();
+        List<OrderDTO.OrderItemQuantityRequest> change = request.getChange() != null ? request.getChange() : List.of();
+        List<OrderDTO.OrderItemRequest> add = request.getAdd() != null ? request.getAdd() : List.of();
+        if (remove.isEmpty() && change.isEmpty() && add.isEmpty()) {
+            throw new RuntimeException("No order item changes provided");
+        }
+
+        String resource = "Order " + orderId;
+        if (remove.isEmpty() && change.isEmpty()) {
+            // Только добавление позиций - коммутативно, повтор на свежей версии заказа безопасен
+            return optimisticLockRetry.executeWithRetry(resource, () -> applyItemChanges(orderId, remove, change, add));
+        }
+        // Изменения и удаления опираются на прочитанное клиентом состояние - без повтора
+        return optimisticLockRetry.execute(resource, () -> applyItemChanges(orderId, remove, change, add));
+    }
+
+    private OrderDTO.OrderResponse applyItemChanges(Long orderId, List<Long> remove,
+                                                    List<OrderDTO.OrderItemQuantityRequest> change,
+                                                    List<OrderDTO.OrderItemRequest> add) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
 
@@ -109,60 +214,143 @@ public class OrderService {
             throw new RuntimeException("Cannot modify paid order");
         }
 
-        Dish dish = dishRepository.findById(itemRequest.getDishId())
-                .orElseThrow(() -> new RuntimeException("Dish not found"));
+        Map<Long, OrderItem> existingItems = new HashMap<>();
+        if (!remove.isEmpty() || !change.isEmpty()) {
+            for (OrderItem item : order.getOrderItems()) {
+                existingItems.put(item.getId(), item);
+            }
+        }
 
-        if (!dish.getIsActive()) {
-            throw new RuntimeException("Dish is not available");
+        List<String> problems = new ArrayList<>();
+        Set<Long> removeIds = new HashSet<>(remove);
+        for (Long itemId : removeIds) {
+            if (!existingItems.containsKey(itemId)) {
+                problems.add("Order item not found with id: " + itemId);
+            } else if (existingItems.get(itemId).isInKitchen()) {
+                problems.add("Order item is already being cooked: " + itemId);
+            }
+        }
+        // Взятую кухней позицию не меняют: иначе готовое количество разойдётся с заказанным.
+        // Добавка оформляется новой позицией
+        for (OrderDTO.OrderItemQuantityRequest itemChange : change) {
+            if (!existingItems.containsKey(itemChange.getOrderItemId())) {
+                problems.add("Order item not found with id: " + itemChange.getOrderItemId());
+            } else if (removeIds.contains(itemChange.getOrderItemId())) {
+                problems.add("Order item is both changed and removed: " + itemChange.getOrderItemId());
+            } else if (existingItems.get(itemChange.getOrderItemId()).isInKitchen()) {
+                problems.add("Order item is already being cooked, add a new item instead: "
+                        + itemChange.getOrderItemId());
+            }
+        }
+        if (!problems.isEmpty()) {
+            throw new RuntimeException(String.join("; ", problems));
         }
 
-        OrderItem orderItem = new OrderItem();
-        orderItem.setDish(dish);
-        orderItem.setQuantity(itemRequest.getQuantity());
-        orderItem.setNotes(itemRequest.getNotes());
-        orderItem.setUnitPrice(dish.getCurrentPrice());
+        // Новые позиции разрешаются до любых изменений, чтобы ошибка не оставила заказ наполовину изменённым
+        List<OrderItem> newItems = orderLineResolver.resolve(add);
 
-        order.addOrderItem(orderItem);
-        Order updatedOrder = orderRepository.save(order);
-        return new OrderDTO.OrderResponse(updatedOrder);
+        for (Long itemId : removeIds) {
+            order.removeOrderItem(existingItems.get(itemId));
+        }
+        for (OrderDTO.OrderItemQuantityRequest itemChange : change) {
+            existingItems.get(itemChange.getOrderItemId()).updateQuantity(itemChange.getQuantity());
+        }
+        for (OrderItem orderItem : newItems) {
+            order.addOrderItem(orderItem);
+        }
+
+        Order updatedOrder = orderRepository.saveAndFlush(order);
+        OrderDTO.OrderResponse response = new OrderDTO.OrderResponse(updatedOrder);
+        eventPublisher.publishEvent(OrderEvent.itemsChanged(response));
+        return response;
     }
 
+    // Полный список заказов в статусе - для кухни, где набор заказов ограничен рабочей сменой
     public List<OrderDTO.OrderResponse> getOrdersByStatus(String statusName) {
-        return orderRepository.findByStatusName(statusName).stream()
+        return orderRepository.findByStatusId(orderStatusRegistry.idOf(statusName)).stream()
                 .map(OrderDTO.OrderResponse::new)
                 .collect(Collectors.toList());
     }
 
-    public List<OrderDTO.OrderResponse> getOrdersByTable(String tableNumber) {
-        return orderRepository.findByTableNumber(tableNumber).stream()
-                .map(OrderDTO.OrderResponse::new)
-                .collect(Collectors.toList());
+    public CommonDTO.CursorPageResponse<OrderDTO.OrderResponse> getOrdersByStatus(String statusName,
+                                                                                 String cursor, Integer size) {
+        PageCursor pageCursor = PageCursor.decode(cursor);
+        int pageSize = PageCursor.pageSize(size);
+        List<Long> ids = orderRepository.findPageIdsByStatusId(orderStatusRegistry.idOf(statusName),
+                pageCursor.getCreatedAt(), pageCursor.getId(), PageRequest.ofSize(pageSize + 1));
+        return orderPage(ids, pageSize);
     }
 
-    public List<OrderDTO.OrderResponse> getOrdersByWaiter(String waiterUsername) {
-        User waiter = userRepository.findByUsername(waiterUsername)
-                .orElseThrow(() -> new RuntimeException("Waiter not found"));
+    public CommonDTO.CursorPageResponse<OrderDTO.OrderResponse> getOrdersByTable(String tableNumber,
+                                                                                String cursor, Integer size) {
+        PageCursor pageCursor = PageCursor.decode(cursor);
+        int pageSize = PageCursor.pageSize(size);
+        List<Long> ids = orderRepository.findPageIdsByTableNumber(tableNumber,
+                pageCursor.getCreatedAt(), pageCursor.getId(), PageRequest.ofSize(pageSize + 1));
+        return orderPage(ids, pageSize);
+    }
 
-        return orderRepository.findByWaiter(waiter).stream()
-                .map(OrderDTO.OrderResponse::new)
-                .collect(Collectors.toList());
+    public CommonDTO.CursorPageResponse<OrderDTO.OrderResponse> getOrdersByWaiter(String waiterUsername,
+                                                                                 String cursor, Integer size) {
+        PageCursor pageCursor = PageCursor.decode(cursor);
+        int pageSize = PageCursor.pageSize(size);
+        List<Long> ids = orderRepository.findPageIdsByWaiterUsername(waiterUsername,
+                pageCursor.getCreatedAt(), pageCursor.getId(), PageRequest.ofSize(pageSize + 1));
+        return orderPage(ids, pageSize);
+    }
+
+    // Догружает заказы страницы одним запросом и восстанавливает порядок выборки
+    private CommonDTO.CursorPageResponse<OrderDTO.OrderResponse> orderPage(List<Long> ids, int pageSize) {
+        List<Order> orders = new ArrayList<>(ids.size());
+        if (!ids.isEmpty()) {
+            Map<Long, Order> byId = new HashMap<>();
+            for (Order order : orderRepository.findAllWithDetailsByIdIn(ids)) {
+                byId.put(order.getId(), order);
+            }
+            for (Long id : ids) {
+                Order order = byId.get(id);
+                if (order != null) {
+                    orders.add(order);
+                }
+            }
+        }
+        return PageCursor.page(orders, pageSize, Order::getCreatedAt, Order::getId, OrderDTO.OrderResponse::new);
     }
 
+    // Старые оплаченные заказы перенесены в архив - ищем там, если в рабочей таблице нет
     public OrderDTO.OrderResponse getOrderById(Long orderId) {
-        Order order = orderRepository.findById(orderId)
+        return orderRepository.findById(orderId)
+                .map(OrderDTO.OrderResponse::new)
+                .or(() -> archivedOrderRepository.findWithDetailsById(orderId).map(OrderDTO.OrderResponse::new))
                 .orElseThrow(() -> new RuntimeException("Order not found"));
-        return new OrderDTO.OrderResponse(order);
     }
 
     public OrderDTO.OrderResponse getOrderByNumber(String orderNumber) {
-        Order order = orderRepository.findByOrderNumber(orderNumber)
+        return orderRepository.findByOrderNumber(orderNumber)
+                .map(OrderDTO.OrderResponse::new)
+                .or(() -> archivedOrderRepository.findWithDetailsByOrderNumber(orderNumber)
+                        .map(OrderDTO.OrderResponse::new))
                 .orElseThrow(() -> new RuntimeException("Order not found"));
-        return new OrderDTO.OrderResponse(order);
+    }
+
+    public List<OrderDTO.StatusTransitionResponse> getStatusHistory(Long orderId) {
+        return statusTransitionRepository.findByOrderIdOrderByChangedAtAscIdAsc(orderId).stream()
+                .map(transition -> new OrderDTO.StatusTransitionResponse(
+                        transition.getFromStatusId() != null
+                                ? orderStatusRegistry.getById(transition.getFromStatusId()).getStatusName() : null,
+                        orderStatusRegistry.getById(transition.getToStatusId()).getStatusName(),
+                        transition.getChangedAt(),
+                        transition.getDurationMs()))
+                .collect(Collectors.toList());
     }
 
     public Map<String, Object> getOrderStatistics(LocalDateTime startDate, LocalDateTime endDate) {
-        Long totalOrders = orderRepository.countPaidOrdersBetween(startDate, endDate);
-        List<Object[]> popularDishes = orderItemRepository.findPopularDishesBetweenDates(startDate, endDate);
+        Long totalOrders = orderRepository.countByStatusIdBetween(
+                orderStatusRegistry.idOf(OrderStatus.PAID), startDate, endDate)
+                + archivedOrderRepository.countBetween(startDate, endDate);
+        List<Object[]> popularDishes = ArchiveTotals.mergeDishQuantities(
+                orderItemRepository.findPopularDishesBetweenDates(startDate, endDate),
+                archivedOrderRepository.findPopularDishesBetweenDates(startDate, endDate));
 
         Map<String, Object> statistics = new HashMap<>();
         statistics.put("totalOrders", totalOrders);
@@ -0,0 +1,192 @@
+package com.restaurant.service;
+
+import com.restaurant.entity.OrderStatus;
+import com.restaurant.repository.OrderStatusRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Справочник статусов заказа в памяти: имена и id разрешаются без обращения к БД.
+// Загружается при старте, перечитывается по расписанию и при промахе (не чаще раза в интервал).
+@Service
+public class OrderStatusRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderStatusRegistry.class);
+
+    // Разрешённые переходы между известными статусами. Действуют только статусы, которые есть в order_statuses;
+    // переходы из статуса или в статус, которого нет в таблице, не ограничиваются.
+    private static final Map<String, Set<String>> ALLOWED_TRANSITIONS = Map.of(
+            OrderStatus.ACCEPTED, Set.of(OrderStatus.COOKING, OrderStatus.PAID, OrderStatus.CANCELLED),
+            OrderStatus.COOKING, Set.of(OrderStatus.READY, OrderStatus.PAID, OrderStatus.CANCELLED),
+            OrderStatus.READY, Set.of(OrderStatus.SERVED, OrderStatus.PAID),
+            OrderStatus.SERVED, Set.of(OrderStatus.PAID),
+            OrderStatus.PAID, Set.of(),
+            OrderStatus.CANCELLED, Set.of()
+    );
+
+    // Без этих статусов заказ нельзя ни создать, ни отправить на кухню, ни оплатить
+    private static final List<String> REQUIRED_STATUSES = List.of(OrderStatus.ACCEPTED, OrderStatus.COOKING, OrderStatus.PAID);
+
+    private final OrderStatusRepository orderStatusRepository;
+    private final long missRefreshIntervalNanos;
+
+    private volatile Statuses statuses = new Statuses(Map.of(), Map.of(), Map.of());
+    private volatile long refreshedAt;
+    private Set<String> missingStatuses = Set.of();
+
+    public OrderStatusRegistry(OrderStatusRepository orderStatusRepository,
+                               @Value("${app.order-statuses.miss-refresh-interval-ms:5000}") long missRefreshIntervalMs) {
+        this.orderStatusRepository = orderStatusRepository;
+        this.missRefreshIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, missRefreshIntervalMs));
+        this.refreshedAt = System.nanoTime() - missRefreshIntervalNanos;
+    }
+
+    // Схема создаётся ddl-auto без начальных данных: недостающие обязательные статусы добавляются при старте.
+    // Если добавить не удалось, приложение всё равно стартует - ошибку получат только операции с заказами.
+    @PostConstruct
+    public void init() {
+        refresh();
+        List<String> missing = REQUIRED_STATUSES.stream()
+                .filter(name -> !statuses.byName.containsKey(name))
+                .collect(Collectors.toList());
+        if (missing.isEmpty()) {
+            return;
+        }
+        for (String name : missing) {
+            try {
+                orderStatusRepository.save(new OrderStatus(name));
+                logger.info("Order status '{}' was missing in order_statuses and has been created", name);
+            } catch (DataIntegrityViolationException e) {
+                // Статус одновременно добавил другой узел
+                logger.debug("Order status '{}' was created concurrently", name);
+            } catch (RuntimeException e) {
+                logger.error("Cannot create order status '{}', order operations will fail: {}", name, e.getMessage());
+            }
+        }
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${app.order-statuses.refresh-interval-ms:600000}",
+            initialDelayString = "${app.order-statuses.refresh-interval-ms:600000}")
+    public void scheduledRefresh() {
+        refresh();
+    }
+
+    public synchronized void refresh() {
+        List<OrderStatus> all = orderStatusRepository.findAll();
+        Map<String, OrderStatus> byName = new HashMap<>();
+        Map<Long, OrderStatus> byId = new HashMap<>();
+        for (OrderStatus status : all) {
+            byName.put(status.getStatusName(), status);
+            byId.put(status.getId(), status);
+        }
+
+        // Правила только для статусов из БД
+        Map<String, Set<String>> transitions = new HashMap<>();
+        Set<String> missing = new TreeSet<>();
+        ALLOWED_TRANSITIONS.forEach((from, targets) -> {
+            if (!byName.containsKey(from)) {
+                missing.add(from);
+                return;
+            }
+            transitions.put(from, targets.stream().filter(byName::containsKey).collect(Collectors.toUnmodifiableSet()));
+        });
+        if (!missing.equals(missingStatuses)) {
+            if (!missing.isEmpty()) {
+                logger.warn("Order statuses {} are not in order_statuses, their transition rules are ignored", missing);
+            }
+            missingStatuses = Set.copyOf(missing);
+        }
+
+        statuses = new Statuses(Map.copyOf(byName), Map.copyOf(byId), Map.copyOf(transitions));
+        refreshedAt = System.nanoTime();
+        logger.debug("Order status registry loaded: {}", byName.keySet());
+    }
+
+    public OrderStatus getByName(String statusName) {
+        OrderStatus status = lookup(current -> current.byName.get(statusName));
+        if (status == null) {
+            throw new RuntimeException("Status not found: " + statusName);
+        }
+        return status;
+    }
+
+    public OrderStatus getById(Long statusId) {
+        OrderStatus status = lookup(current -> current.byId.get(statusId));
+        if (status == null) {
+            throw new RuntimeException("Status not found with id: " + statusId);
+        }
+        return status;
+    }
+
+    public Long idOf(String statusName) {
+        return getByName(statusName).getId();
+    }
+
+    public boolean canTransition(String fromStatus, String toStatus) {
+        if (fromStatus.equals(toStatus)) {
+            return true;
+        }
+        Map<String, Set<String>> transitions = statuses.transitions;
+        Set<String> allowed = transitions.get(fromStatus);
+        if (allowed == null || !transitions.containsKey(toStatus)) {
+            // Статус вне таблицы правил (добавлен в справочник вручную) - переход не ограничиваем
+            return true;
+        }
+        return allowed.contains(toStatus);
+    }
+
+    // Проверка перехода по id текущего статуса, чтобы не инициализировать lazy-прокси
+    public void checkTransition(Long fromStatusId, OrderStatus toStatus) {
+        String fromStatus = getById(fromStatusId).getStatusName();
+        if (!canTransition(fromStatus, toStatus.getStatusName())) {
+            throw new RuntimeException("Illegal order status transition: "
+                    + fromStatus + " -> " + toStatus.getStatusName());
+        }
+    }
+
+    // Справочник мог измениться - при промахе перечитываем, но не чаще раза в интервал:
+    // запросы с несуществующими статусами не должны каждый раз ходить в БД
+    private OrderStatus lookup(Function<Statuses, OrderStatus> finder) {
+        OrderStatus status = finder.apply(statuses);
+        if (status == null && refreshAllowed()) {
+            synchronized (this) {
+                if (refreshAllowed()) {
+                    refresh();
+                }
+            }
+            status = finder.apply(statuses);
+        }
+        return status;
+    }
+
+    private boolean refreshAllowed() {
+        return System.nanoTime() - refreshedAt >= missRefreshIntervalNanos;
+    }
+
+    private static final class Statuses {
+        private final Map<String, OrderStatus> byName;
+        private final Map<Long, OrderStatus> byId;
+        private final Map<String, Set<String>> transitions;
+
+        private Statuses(Map<String, OrderStatus> byName, Map<Long, OrderStatus> byId,
+                         Map<String, Set<String>> transitions) {
+            this.byName = byName;
+            this.byId = byId;
+            this.transitions = transitions;
+        }
+    }
+}
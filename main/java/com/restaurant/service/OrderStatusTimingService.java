@@ -0,0 +1,267 @@
+package com.restaurant.service;
+
+import com.restaurant.dto.OrderDTO;
+import com.restaurant.entity.OrderStatusTransition;
+import com.restaurant.entity.StatusDurationHistogram;
+import com.restaurant.entity.StatusDurationHistogram.Dimension;
+import com.restaurant.entity.User;
+import com.restaurant.repository.OrderItemRepository;
+import com.restaurant.repository.OrderStatusTransitionRepository;
+import com.restaurant.repository.StatusDurationHistogramRepository;
+import com.restaurant.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+// Время в статусах заказа по журналу order_status_transitions.
+// Закрытые часы сворачиваются в гистограммы (по статусу, категории, официанту, часу суток),
+// отчёт за любой период складывает готовые гистограммы и досчитывает только последние часы из журнала.
+@Service
+public class OrderStatusTimingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderStatusTimingService.class);
+
+    private static final int CATEGORY_LOOKUP_CHUNK = 1000;
+    private static final String NO_WAITER = "-";
+
+    private final OrderStatusTransitionRepository transitionRepository;
+    private final StatusDurationHistogramRepository histogramRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final OrderStatusRegistry orderStatusRegistry;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long graceMinutes;
+    private final int maxHoursPerRun;
+
+    // Граница (не включая) уже свёрнутых часов
+    private volatile LocalDateTime aggregatedUntil;
+
+    public OrderStatusTimingService(OrderStatusTransitionRepository transitionRepository,
+                                    StatusDurationHistogramRepository histogramRepository,
+                                    OrderItemRepository orderItemRepository,
+                                    OrderStatusRegistry orderStatusRegistry,
+                                    UserRepository userRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${app.status-timing.grace-minutes:2}") long graceMinutes,
+                                    @Value("${app.status-timing.max-hours-per-run:168}") int maxHoursPerRun) {
+        this.transitionRepository = transitionRepository;
+        this.histogramRepository = histogramRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.orderStatusRegistry = orderStatusRegistry;
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.graceMinutes = graceMinutes;
+        this.maxHoursPerRun = maxHoursPerRun;
+    }
+
+    // Час сворачивается после небольшой паузы: переходы, закоммиченные на границе часа, успевают попасть в журнал
+    @Scheduled(fixedDelayString = "${app.status-timing.aggregate-interval-ms:300000}",
+            initialDelayString = "${app.status-timing.aggregate-initial-delay-ms:60000}")
+    public void aggregateClosedHours() {
+        LocalDateTime closedUntil = LocalDateTime.now().minusMinutes(graceMinutes).truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime hour = aggregationStart();
+        for (int i = 0; hour != null && hour.isBefore(closedUntil) && i < maxHoursPerRun; i++) {
+            LocalDateTime periodStart = hour;
+            try {
+                Integer rows = transactionTemplate.execute(status -> aggregateHour(periodStart));
+                logger.debug("Aggregated status timings for {}: {} histograms", periodStart, rows);
+            } catch (DataIntegrityViolationException e) {
+                // Этот час уже свернул другой узел
+                logger.debug("Status timings for {} are already aggregated", periodStart);
+            }
+            hour = hour.plusHours(1);
+            aggregatedUntil = hour;
+        }
+    }
+
+    public List<OrderDTO.StatusTimeStats> getStatusTimes(LocalDate startDate, LocalDate endDate, String groupBy) {
+        Dimension dimension = parseDimension(groupBy);
+        LocalDateTime start = startDate.atStartOfDay();
+        LocalDateTime end = endDate.plusDays(1).atStartOfDay();
+
+        Map<HistogramKey, LatencyHistogram> merged = new HashMap<>();
+        LocalDateTime boundary = aggregationStart();
+        if (boundary == null) {
+            return List.of();
+        }
+
+        // Свёрнутые часы - из гистограмм
+        LocalDateTime aggregatedEnd = boundary.isBefore(end) ? boundary : end;
+        if (start.isBefore(aggregatedEnd)) {
+            for (StatusDurationHistogram row : histogramRepository.findByDimensionBetween(dimension, start, aggregatedEnd)) {
+                merged.computeIfAbsent(new HistogramKey(dimension, row.getStatusId(), row.getDimensionKey()),
+                        key -> new LatencyHistogram()).add(LatencyHistogram.fromBytes(row.getCounts()));
+            }
+        }
+        // Ещё не свёрнутый хвост - из журнала
+        LocalDateTime liveStart = boundary.isAfter(start) ? boundary : start;
+        if (liveStart.isBefore(end)) {
+            build(transitionRepository.findTimedBetween(liveStart, end), Set.of(dimension))
+                    .forEach((key, histogram) -> merged.computeIfAbsent(key, k -> new LatencyHistogram()).add(histogram));
+        }
+
+        Map<String, String> labels = dimension == Dimension.WAITER ? waiterNames(merged.keySet()) : Map.of();
+        List<Map.Entry<HistogramKey, LatencyHistogram>> entries = new ArrayList<>(merged.entrySet());
+        entries.sort(Comparator.comparing((Map.Entry<HistogramKey, LatencyHistogram> e) -> e.getKey().statusId)
+                .thenComparing(e -> e.getKey().dimensionKey));
+
+        List<OrderDTO.StatusTimeStats> result = new ArrayList<>(entries.size());
+        for (Map.Entry<HistogramKey, LatencyHistogram> entry : entries) {
+            HistogramKey key = entry.getKey();
+            LatencyHistogram histogram = entry.getValue();
+            result.add(new OrderDTO.StatusTimeStats(
+                    orderStatusRegistry.getById(key.statusId).getStatusName(),
+                    dimension.name().toLowerCase(),
+                    dimension == Dimension.STATUS ? null : labels.getOrDefault(key.dimensionKey, key.dimensionKey),
+                    histogram.getTotalCount(),
+                    histogram.percentile(50),
+                    histogram.percentile(95),
+                    histogram.percentile(99),
+                    histogram.getMaxValue()));
+        }
+        return result;
+    }
+
+    private Integer aggregateHour(LocalDateTime periodStart) {
+        List<OrderStatusTransition> transitions =
+                transitionRepository.findTimedBetween(periodStart, periodStart.plusHours(1));
+        if (transitions.isEmpty()) {
+            return 0;
+        }
+        List<StatusDurationHistogram> rows = new ArrayList<>();
+        build(transitions, Set.of(Dimension.values())).forEach((key, histogram) ->
+                rows.add(new StatusDurationHistogram(periodStart, key.dimension, key.statusId, key.dimensionKey,
+                        histogram.getTotalCount(), histogram.toBytes())));
+        histogramRepository.saveAll(rows);
+        histogramRepository.flush();
+        return rows.size();
+    }
+
+    private Map<HistogramKey, LatencyHistogram> build(List<OrderStatusTransition> transitions, Set<Dimension> dimensions) {
+        Map<Long, List<String>> categories = dimensions.contains(Dimension.CATEGORY)
+                ? categoriesByOrder(transitions) : Map.of();
+
+        Map<HistogramKey, LatencyHistogram> histograms = new HashMap<>();
+        for (OrderStatusTransition transition : transitions) {
+            Long statusId = transition.getFromStatusId();
+            long durationMs = transition.getDurationMs();
+            if (dimensions.contains(Dimension.STATUS)) {
+                record(histograms, new HistogramKey(Dimension.STATUS, statusId, ""), durationMs);
+            }
+            if (dimensions.contains(Dimension.WAITER)) {
+                String waiter = transition.getWaiterId() != null ? transition.getWaiterId().toString() : NO_WAITER;
+                record(histograms, new HistogramKey(Dimension.WAITER, statusId, waiter), durationMs);
+            }
+            if (dimensions.contains(Dimension.HOUR)) {
+                // Час суток, когда заказ вошёл в статус
+                int hour = transition.getChangedAt().minus(durationMs, ChronoUnit.MILLIS).getHour();
+                record(histograms, new HistogramKey(Dimension.HOUR, statusId, String.format("%02d", hour)), durationMs);
+            }
+            if (dimensions.contains(Dimension.CATEGORY)) {
+                for (String category : categories.getOrDefault(transition.getOrderId(), List.of())) {
+                    record(histograms, new HistogramKey(Dimension.CATEGORY, statusId, category), durationMs);
+                }
+            }
+        }
+        return histograms;
+    }
+
+    private static void record(Map<HistogramKey, LatencyHistogram> histograms, HistogramKey key, long durationMs) {
+        histograms.computeIfAbsent(key, k -> new LatencyHistogram()).record(durationMs);
+    }
+
+    private Map<Long, List<String>> categoriesByOrder(List<OrderStatusTransition> transitions) {
+        List<Long> orderIds = new ArrayList<>(new HashSet<>(transitions.stream()
+                .map(OrderStatusTransition::getOrderId).toList()));
+        Map<Long, List<String>> categories = new HashMap<>();
+        for (int from = 0; from < orderIds.size(); from += CATEGORY_LOOKUP_CHUNK) {
+            List<Long> chunk = orderIds.subList(from, Math.min(from + CATEGORY_LOOKUP_CHUNK, orderIds.size()));
+            for (Object[] row : orderItemRepository.findCategoryNamesByOrderIds(chunk)) {
+                categories.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((String) row[1]);
+            }
+        }
+        return categories;
+    }
+
+    private Map<String, String> waiterNames(Set<HistogramKey> keys) {
+        List<Long> ids = keys.stream()
+                .map(key -> key.dimensionKey)
+                .filter(key -> !NO_WAITER.equals(key))
+                .map(Long::valueOf)
+                .distinct()
+                .toList();
+        Map<String, String> names = new HashMap<>();
+        for (User user : userRepository.findAllById(ids)) {
+            names.put(user.getId().toString(), user.getFullName());
+        }
+        return names;
+    }
+
+    private LocalDateTime aggregationStart() {
+        LocalDateTime until = aggregatedUntil;
+        if (until != null) {
+            return until;
+        }
+        LocalDateTime last = histogramRepository.findLastPeriodStart();
+        if (last != null) {
+            return last.plusHours(1);
+        }
+        LocalDateTime first = transitionRepository.findFirstChangedAt();
+        return first != null ? first.truncatedTo(ChronoUnit.HOURS) : null;
+    }
+
+    private static Dimension parseDimension(String groupBy) {
+        if (groupBy == null || groupBy.isBlank()) {
+            return Dimension.STATUS;
+        }
+        try {
+            return Dimension.valueOf(groupBy.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Unknown groupBy: " + groupBy + " (expected status, category, waiter or hour)");
+        }
+    }
+
+    private static final class HistogramKey {
+        private final Dimension dimension;
+        private final Long statusId;
+        private final String dimensionKey;
+
+        private HistogramKey(Dimension dimension, Long statusId, String dimensionKey) {
+            this.dimension = dimension;
+            this.statusId = statusId;
+            this.dimensionKey = dimensionKey;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof HistogramKey)) return false;
+            HistogramKey that = (HistogramKey) o;
+            return dimension == that.dimension &&
+                    Objects.equals(statusId, that.statusId) &&
+                    Objects.equals(dimensionKey, that.dimensionKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(dimension, statusId, dimensionKey);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.restaurant.service;
+
+import com.restaurant.event.DomainEventHandler;
+import com.restaurant.event.PaymentPaid;
+import org.springframework.stereotype.Component;
+
+// После оплаты заказ переводится в статус "оплачен" - вне пути запроса на оплату
+@Component
+public class PaymentPaidHandler implements DomainEventHandler<PaymentPaid> {
+
+    private final OrderService orderService;
+
+    public PaymentPaidHandler(OrderService orderService) {
+        this.orderService = orderService;
+    }
+
+    @Override
+    public Class<PaymentPaid> eventType() {
+        return PaymentPaid.class;
+    }
+
+    @Override
+    public void handle(PaymentPaid event) {
+        orderService.markOrderPaid(event.getOrderId());
+    }
+}
@@ -1,15 +1,22 @@
 package com.restaurant.service;
 
+import com.restaurant.dto.CommonDTO;
+import com.restaurant.dto.PageCursor;
 import com.restaurant.dto.PaymentDTO;
 import com.restaurant.entity.Order;
 import com.restaurant.entity.Payment;
+import com.restaurant.event.PaymentPaid;
+import com.restaurant.repository.ArchivedPaymentRepository;
 import com.restaurant.repository.OrderRepository;
 import com.restaurant.repository.PaymentRepository;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -20,10 +27,30 @@ public class PaymentService {
 
     private final PaymentRepository paymentRepository;
     private final OrderRepository orderRepository;
-
-    public PaymentService(PaymentRepository paymentRepository, OrderRepository orderRepository) {
+    private final OptimisticLockRetry optimisticLockRetry;
+    private final IdempotencyService idempotencyService;
+    private final DomainEventBus domainEventBus;
+    private final ArchivedPaymentRepository archivedPaymentRepository;
+
+    public PaymentService(PaymentRepository paymentRepository, OrderRepository orderRepository,
+                          OptimisticLockRetry optimisticLockRetry, IdempotencyService idempotencyService,
+                          DomainEventBus domainEventBus, ArchivedPaymentRepository archivedPaymentRepository) {
         this.paymentRepository = paymentRepository;
         this.orderRepository = orderRepository;
+        this.optimisticLockRetry = optimisticLockRetry;
+        this.idempotencyService = idempotencyService;
+        this.domainEventBus = domainEventBus;
+        this.archivedPaymentRepository = archivedPaymentRepository;
+    }
+
+    // Повтор запроса с тем же Idempotency-Key возвращает уже созданный платёж
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public PaymentDTO.PaymentResponse createPayment(PaymentDTO.CreatePaymentRequest request, String username,
+                                                    String idempotencyKey) {
+        return idempotencyService.execute(IdempotencyService.PAYMENT_CREATE, idempotencyKey, username, request,
+                () -> createPayment(request),
+                PaymentDTO.PaymentResponse::getId,
+                this::getPaymentById);
     }
 
     @Transactional
@@ -41,18 +68,39 @@ public class PaymentService {
         return new PaymentDTO.PaymentResponse(savedPayment);
     }
 
-    @Transactional
+    // При одновременной обработке одного платежа второй запрос получает конфликт
+    @Transactional(propagation = Propagation.SUPPORTS)
     public PaymentDTO.PaymentResponse processPayment(Long paymentId, String transactionId) {
+        return optimisticLockRetry.execute("Payment " + paymentId, () -> markPaid(paymentId, transactionId));
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public PaymentDTO.PaymentResponse processPayment(Long paymentId, String transactionId, String username,
+                                                     String idempotencyKey) {
+        // Отпечаток включает id платежа: тот же ключ для другого платежа - конфликт, а не чужой ответ
+        return idempotencyService.execute(IdempotencyService.PAYMENT_PROCESS, idempotencyKey, username,
+                Arrays.asList(paymentId, transactionId),
+                () -> processPayment(paymentId, transactionId),
+                PaymentDTO.PaymentResponse::getId,
+                this::getPaymentById);
+    }
+
+    public PaymentDTO.PaymentResponse getPaymentById(Long paymentId) {
+        Payment payment = paymentRepository.findById(paymentId)
+                .orElseThrow(() -> new RuntimeException("Payment not found"));
+        return new PaymentDTO.PaymentResponse(payment);
+    }
+
+    private PaymentDTO.PaymentResponse markPaid(Long paymentId, String transactionId) {
         Payment payment = paymentRepository.findById(paymentId)
                 .orElseThrow(() -> new RuntimeException("Payment not found"));
 
         payment.markAsPaid(transactionId);
         Payment updatedPayment = paymentRepository.save(payment);
 
-        // TODO: Обновляем статус заказа на "оплачен"
-        // Order order = payment.getOrder();
-        // order.setStatus(...);
-        // orderRepository.save(order);
+        // Статус заказа меняет обработчик события после коммита, вне пути запроса
+        domainEventBus.publish(new PaymentPaid(updatedPayment.getId(), updatedPayment.getOrder().getId(),
+                updatedPayment.getAmount(), updatedPayment.getPaymentMethod().name()));
 
         return new PaymentDTO.PaymentResponse(updatedPayment);
     }
@@ -67,33 +115,36 @@ public class PaymentService {
     }
 
     public PaymentDTO.RevenueStatistics getRevenueStatistics(LocalDateTime startDate, LocalDateTime endDate) {
-        BigDecimal totalRevenue = paymentRepository.getTotalRevenueBetween(startDate, endDate);
-        if (totalRevenue == null) {
-            totalRevenue = BigDecimal.ZERO;
-        }
+        // Платежи архивных заказов учитываются наравне с рабочими
+        BigDecimal totalRevenue = ArchiveTotals.sum(
+                paymentRepository.getTotalRevenueBetween(startDate, endDate),
+                archivedPaymentRepository.getTotalRevenueBetween(startDate, endDate));
 
-        List<Object[]> revenueByMethod = paymentRepository.getRevenueByPaymentMethodBetween(startDate, endDate);
-        Map<String, BigDecimal> revenueMap = revenueByMethod.stream()
-                .collect(Collectors.toMap(
-                        obj -> (String) obj[0],
-                        obj -> (BigDecimal) obj[1]
-                ));
+        Map<String, BigDecimal> revenueMap = ArchiveTotals.mergeRevenueByMethod(
+                paymentRepository.getRevenueByPaymentMethodBetween(startDate, endDate),
+                archivedPaymentRepository.getRevenueByPaymentMethodBetween(startDate, endDate));
 
-        // Теперь метод доступен
-        Long totalTransactions = paymentRepository.countSuccessfulPaymentsBetween(startDate, endDate);
+        Long totalTransactions = paymentRepository.countSuccessfulPaymentsBetween(startDate, endDate)
+                + archivedPaymentRepository.countSuccessfulPaymentsBetween(startDate, endDate);
 
         return new PaymentDTO.RevenueStatistics(totalRevenue, revenueMap, totalTransactions, startDate, endDate);
     }
 
-    public List<PaymentDTO.PaymentResponse> getPaymentsByStatus(Payment.PaymentStatus status) {
-        return paymentRepository.findByPaymentStatus(status).stream()
-                .map(PaymentDTO.PaymentResponse::new)
-                .collect(Collectors.toList());
+    public CommonDTO.CursorPageResponse<PaymentDTO.PaymentResponse> getPaymentsByStatus(
+            Payment.PaymentStatus status, String cursor, Integer size) {
+        PageCursor pageCursor = PageCursor.decode(cursor);
+        int pageSize = PageCursor.pageSize(size);
+        List<Payment> payments = paymentRepository.findPageByPaymentStatus(status,
+                pageCursor.getCreatedAt(), pageCursor.getId(), PageRequest.ofSize(pageSize + 1));
+        return PageCursor.page(payments, pageSize, Payment::getCreatedAt, Payment::getId, PaymentDTO.PaymentResponse::new);
     }
 
-    public List<PaymentDTO.PaymentResponse> getPaymentsByMethod(Payment.PaymentMethod method) {
-        return paymentRepository.findByPaymentMethod(method).stream()
-                .map(PaymentDTO.PaymentResponse::new)
-                .collect(Collectors.toList());
+    public CommonDTO.CursorPageResponse<PaymentDTO.PaymentResponse> getPaymentsByMethod(
+            Payment.PaymentMethod method, String cursor, Integer size) {
+        PageCursor pageCursor = PageCursor.decode(cursor);
+        int pageSize = PageCursor.pageSize(size);
+        List<Payment> payments = paymentRepository.findPageByPaymentMethod(method,
+                pageCursor.getCreatedAt(), pageCursor.getId(), PageRequest.ofSize(pageSize + 1));
+        return PageCursor.page(payments, pageSize, Payment::getCreatedAt, Payment::getId, PaymentDTO.PaymentResponse::new);
     }
 }
\ No newline at end of file
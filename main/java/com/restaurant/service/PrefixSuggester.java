@@ -0,0 +1,115 @@
+package com.restaurant.service;
+
+import com.restaurant.dto.CommonDTO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+// Неизменяемый словарь для автодополнения: отсортированный массив ключей и бинарный поиск начала диапазона.
+// Ключи - нормализованное название и каждый его хвост с начала слова, поэтому "цез" находит "Салат Цезарь".
+// Новые данные - новый экземпляр; читатели работают со своей копией и никогда не ждут.
+public final class PrefixSuggester {
+
+    public static final PrefixSuggester EMPTY = new PrefixSuggester(new String[0], new int[0], new Entry[0]);
+
+    private static final Comparator<Entry> RANK = Comparator
+            .comparingLong((Entry entry) -> entry.popularity).reversed()
+            .thenComparing(entry -> entry.name)
+            .thenComparing(entry -> entry.id);
+
+    private final String[] keys;
+    private final int[] entryIndexes;
+    private final Entry[] entries;
+
+    private PrefixSuggester(String[] keys, int[] entryIndexes, Entry[] entries) {
+        this.keys = keys;
+        this.entryIndexes = entryIndexes;
+        this.entries = entries;
+    }
+
+    public static PrefixSuggester build(List<Entry> source) {
+        Entry[] entries = source.toArray(new Entry[0]);
+        List<Object[]> pairs = new ArrayList<>();
+        for (int i = 0; i < entries.length; i++) {
+            List<String> words = MenuText.words(entries[i].name);
+            for (int from = 0; from < words.size(); from++) {
+                pairs.add(new Object[]{String.join(" ", words.subList(from, words.size())), i});
+            }
+        }
+        pairs.sort(Comparator.comparing(pair -> (String) pair[0]));
+        String[] keys = new String[pairs.size()];
+        int[] indexes = new int[pairs.size()];
+        for (int i = 0; i < pairs.size(); i++) {
+            keys[i] = (String) pairs.get(i)[0];
+            indexes[i] = (Integer) pairs.get(i)[1];
+        }
+        return new PrefixSuggester(keys, indexes, entries);
+    }
+
+    public List<CommonDTO.Suggestion> suggest(String prefix, int limit) {
+        String normalized = prefix != null ? String.join(" ", MenuText.words(prefix)) : "";
+        if (normalized.isEmpty() || limit < 1) {
+            return List.of();
+        }
+        if (Character.isWhitespace(prefix.charAt(prefix.length() - 1))) {
+            // "салат " - ждём следующее слово
+            normalized += " ";
+        }
+
+        // Top-K по популярности: в куче худший из лучших на вершине
+        PriorityQueue<Entry> top = new PriorityQueue<>(limit + 1, RANK.reversed());
+        Set<Integer> seen = new HashSet<>();
+        for (int i = lowerBound(normalized); i < keys.length && keys[i].startsWith(normalized); i++) {
+            int index = entryIndexes[i];
+            if (!seen.add(index)) {
+                continue;
+            }
+            top.add(entries[index]);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        Entry[] best = top.toArray(new Entry[0]);
+        Arrays.sort(best, RANK);
+        List<CommonDTO.Suggestion> result = new ArrayList<>(best.length);
+        for (Entry entry : best) {
+            result.add(new CommonDTO.Suggestion(entry.id, entry.name, entry.popularity));
+        }
+        return result;
+    }
+
+    public int size() {
+        return entries.length;
+    }
+
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    public static final class Entry {
+        private final Long id;
+        private final String name;
+        private final long popularity;
+
+        public Entry(Long id, String name, long popularity) {
+            this.id = id;
+            this.name = name;
+            this.popularity = popularity;
+        }
+    }
+}
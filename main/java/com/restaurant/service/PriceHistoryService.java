@@ -0,0 +1,73 @@
+package com.restaurant.service;
+
+import com.restaurant.dto.MenuDTO;
+import com.restaurant.entity.Dish;
+import com.restaurant.entity.DishPriceHistory;
+import com.restaurant.repository.DishPriceHistoryRepository;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Журнал цен блюд. Пишется в транзакции изменения блюда и только если цена отличается от последней записи,
+// поэтому повторные сохранения без смены цены журнал не растят. Текущая цена для заказа по-прежнему
+// берётся из самого блюда; журнал нужен отчётам, которые соединяют продажи с ценой на момент заказа.
+@Service
+public class PriceHistoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PriceHistoryService.class);
+
+    private final DishPriceHistoryRepository historyRepository;
+
+    public PriceHistoryService(DishPriceHistoryRepository historyRepository) {
+        this.historyRepository = historyRepository;
+    }
+
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void record(Dish dish, DishPriceHistory.Reason reason, LocalDateTime at) {
+        boolean unchanged = historyRepository.findFirstByDishIdOrderByIdDesc(dish.getId())
+                .map(last -> last.matches(dish))
+                .orElse(false);
+        if (!unchanged) {
+            historyRepository.save(new DishPriceHistory(dish, reason, at));
+        }
+    }
+
+    // Для записей в обход JPA: блюда с updated_at >= since сверяются с журналом одним запросом
+    @Transactional(Transactional.TxType.MANDATORY)
+    public int recordChangedSince(LocalDateTime since, DishPriceHistory.Reason reason) {
+        return historyRepository.appendChangedSince(since, reason.name(), since);
+    }
+
+    // Блюда, которых ещё нет в журнале (появились до него или записаны в обход сервиса)
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void recordMissing() {
+        int added = historyRepository.appendChangedSince(LocalDateTime.of(1970, 1, 1, 0, 0),
+                DishPriceHistory.Reason.INITIAL.name(), LocalDateTime.now());
+        if (added > 0) {
+            logger.info("Price history: recorded current price of {} dishes", added);
+        }
+    }
+
+    @Transactional(Transactional.TxType.SUPPORTS)
+    public List<MenuDTO.PriceHistoryResponse> getHistory(Long dishId) {
+        return historyRepository.findByDishIdOrderByValidFromAscIdAsc(dishId).stream()
+                .map(MenuDTO.PriceHistoryResponse::new)
+                .collect(Collectors.toList());
+    }
+
+    // Цена для гостя, действовавшая в момент at; null - блюда тогда ещё не было в журнале
+    @Transactional(Transactional.TxType.SUPPORTS)
+    public MenuDTO.PriceHistoryResponse getPriceAt(Long dishId, LocalDateTime at) {
+        return historyRepository.findFirstByDishIdAndValidFromLessThanEqualOrderByValidFromDescIdDesc(dishId, at)
+                .map(MenuDTO.PriceHistoryResponse::new)
+                .orElse(null);
+    }
+}
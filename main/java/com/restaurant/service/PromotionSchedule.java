@@ -0,0 +1,119 @@
+package com.restaurant.service;
+
+import com.restaurant.entity.Promotion;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
+// Правила расписания акций. Окно часов без конца или с концом не позже начала переходит через полночь
+// (одинаковые начало и конец - сутки), день недели проверяется по дню начала окна.
+final class PromotionSchedule {
+
+    private PromotionSchedule() {}
+
+    static boolean isActive(Promotion promotion, LocalDateTime at) {
+        if (!Boolean.TRUE.equals(promotion.getIsEnabled())) {
+            return false;
+        }
+        if (promotion.getStartsAt() != null && at.isBefore(promotion.getStartsAt())) {
+            return false;
+        }
+        if (promotion.getEndsAt() != null && !at.isBefore(promotion.getEndsAt())) {
+            return false;
+        }
+        LocalTime start = startTime(promotion);
+        LocalTime end = endTime(promotion);
+        LocalTime time = at.toLocalTime();
+        if (start.isBefore(end)) {
+            return onDay(promotion, at.toLocalDate()) && !time.isBefore(start) && time.isBefore(end);
+        }
+        return (onDay(promotion, at.toLocalDate()) && !time.isBefore(start))
+                || (onDay(promotion, at.toLocalDate().minusDays(1)) && time.isBefore(end));
+    }
+
+    // Ближайший момент после after, когда акция может включиться или выключиться; null - таких больше нет.
+    // Лишняя граница безвредна: планировщик просто ничего не поменяет.
+    static LocalDateTime nextBoundary(Promotion promotion, LocalDateTime after) {
+        if (!Boolean.TRUE.equals(promotion.getIsEnabled())
+                || (promotion.getEndsAt() != null && !promotion.getEndsAt().isAfter(after))) {
+            return null;
+        }
+        LocalDateTime next = null;
+        if (promotion.getStartsAt() != null && promotion.getStartsAt().isAfter(after)) {
+            next = promotion.getStartsAt();
+        }
+        if (promotion.getEndsAt() != null) {
+            next = earliest(next, promotion.getEndsAt());
+        }
+        LocalTime start = startTime(promotion);
+        LocalTime end = endTime(promotion);
+        int endDayOffset = start.isBefore(end) ? 0 : 1;
+        // Неделя вперёд покрывает любой набор дней; день назад - окно, начатое вчера
+        LocalDate from = after.toLocalDate().minusDays(1);
+        for (int i = 0; i <= 8; i++) {
+            LocalDate day = from.plusDays(i);
+            if (!onDay(promotion, day)) {
+                continue;
+            }
+            LocalDateTime opens = day.atTime(start);
+            LocalDateTime closes = day.plusDays(endDayOffset).atTime(end);
+            if (opens.isAfter(after)) {
+                next = earliest(next, opens);
+            }
+            if (closes.isAfter(after)) {
+                next = earliest(next, closes);
+            }
+            if (next != null && next.isBefore(day.atStartOfDay())) {
+                break;
+            }
+        }
+        if (next != null && promotion.getStartsAt() != null && next.isBefore(promotion.getStartsAt())) {
+            // До начала акции дневные окна ничего не меняют
+            next = promotion.getStartsAt();
+        }
+        return next;
+    }
+
+    static int daysMask(Collection<DayOfWeek> days) {
+        if (days == null || days.isEmpty()) {
+            return Promotion.ALL_DAYS;
+        }
+        int mask = 0;
+        for (DayOfWeek day : days) {
+            mask |= 1 << (day.getValue() - 1);
+        }
+        return mask;
+    }
+
+    static Set<DayOfWeek> days(int mask) {
+        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        for (DayOfWeek day : DayOfWeek.values()) {
+            if ((mask & (1 << (day.getValue() - 1))) != 0) {
+                days.add(day);
+            }
+        }
+        return days;
+    }
+
+    private static boolean onDay(Promotion promotion, LocalDate day) {
+        int mask = promotion.getDaysOfWeek() != null ? promotion.getDaysOfWeek() : Promotion.ALL_DAYS;
+        return (mask & (1 << (day.getDayOfWeek().getValue() - 1))) != 0;
+    }
+
+    private static LocalTime startTime(Promotion promotion) {
+        return promotion.getStartTime() != null ? promotion.getStartTime() : LocalTime.MIDNIGHT;
+    }
+
+    private static LocalTime endTime(Promotion promotion) {
+        return promotion.getEndTime() != null ? promotion.getEndTime() : LocalTime.MIDNIGHT;
+    }
+
+    private static LocalDateTime earliest(LocalDateTime current, LocalDateTime candidate) {
+        return current == null || candidate.isBefore(current) ? candidate : current;
+    }
+}
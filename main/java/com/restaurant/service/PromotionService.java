@@ -0,0 +1,250 @@
+package com.restaurant.service;
+
+import com.restaurant.dto.MenuDTO;
+import com.restaurant.entity.Dish;
+import com.restaurant.entity.DishPriceHistory;
+import com.restaurant.entity.Promotion;
+import com.restaurant.event.MenuEvent;
+import com.restaurant.repository.DishRepository;
+import com.restaurant.repository.PromotionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.stream.Collectors;
+
+// Акции по расписанию. Действующая цена хранится в самом блюде (isOnPromotion/promotionPrice),
+// поэтому заказ по-прежнему берёт цену из блюда без вычисления правил. Планировщик переключает цены
+// таймером ровно на ближайшей границе окон и сверяет всё раз в app.promotions.resync-ms
+// (акции, изменённые на другом узле, сдвиг часов). Запись условная: узел, опоздавший к той же границе,
+// ничего не меняет. Каждое переключение - новая версия меню и строка в журнале цен.
+@Service
+public class PromotionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PromotionService.class);
+
+    // Из нескольких действующих акций блюда выигрывает самая низкая цена
+    private static final Comparator<Promotion> BEST = Comparator
+            .comparing(Promotion::getPromotionPrice)
+            .thenComparing(Promotion::getId);
+
+    private final PromotionRepository promotionRepository;
+    private final DishRepository dishRepository;
+    private final PriceHistoryService priceHistoryService;
+    private final DataVersionService dataVersionService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TaskScheduler taskScheduler;
+    private final TransactionTemplate transactionTemplate;
+
+    private ScheduledFuture<?> nextRun;
+
+    public PromotionService(PromotionRepository promotionRepository,
+                            DishRepository dishRepository,
+                            PriceHistoryService priceHistoryService,
+                            DataVersionService dataVersionService,
+                            ApplicationEventPublisher eventPublisher,
+                            TaskScheduler taskScheduler,
+                            PlatformTransactionManager transactionManager) {
+        this.promotionRepository = promotionRepository;
+        this.dishRepository = dishRepository;
+        this.priceHistoryService = priceHistoryService;
+        this.dataVersionService = dataVersionService;
+        this.eventPublisher = eventPublisher;
+        this.taskScheduler = taskScheduler;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public MenuDTO.PromotionResponse createPromotion(Long dishId, MenuDTO.PromotionRequest request) {
+        validate(request);
+        Promotion saved = transactionTemplate.execute(status -> {
+            Dish dish = dishRepository.findById(dishId)
+                    .orElseThrow(() -> new RuntimeException("Dish not found with id: " + dishId));
+            Promotion promotion = new Promotion();
+            promotion.setDish(dish);
+            copy(request, promotion);
+            return promotionRepository.save(promotion);
+        });
+        applySafely();
+        return toResponse(saved, LocalDateTime.now());
+    }
+
+    public MenuDTO.PromotionResponse updatePromotion(Long id, MenuDTO.PromotionRequest request) {
+        validate(request);
+        Promotion saved = transactionTemplate.execute(status -> {
+            Promotion promotion = promotionRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Promotion not found with id: " + id));
+            copy(request, promotion);
+            return promotionRepository.save(promotion);
+        });
+        applySafely();
+        return toResponse(saved, LocalDateTime.now());
+    }
+
+    // Акция выключается, а не удаляется: на неё ссылается журнал цен
+    public void disablePromotion(Long id) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Promotion promotion = promotionRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Promotion not found with id: " + id));
+            promotion.setIsEnabled(false);
+            promotionRepository.save(promotion);
+        });
+        applySafely();
+    }
+
+    public List<MenuDTO.PromotionResponse> getPromotions(Long dishId) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Promotion> promotions = transactionTemplate.execute(status ->
+                promotionRepository.findByDishIdOrderByIdAsc(dishId));
+        return promotions.stream()
+                .map(promotion -> toResponse(promotion, now))
+                .collect(Collectors.toList());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        applySafely();
+    }
+
+    @Scheduled(fixedDelayString = "${app.promotions.resync-ms:60000}",
+            initialDelayString = "${app.promotions.resync-ms:60000}")
+    public void resync() {
+        applySafely();
+    }
+
+    // Приводит цены блюд к расписанию на текущий момент и ставит таймер на следующую границу
+    public synchronized void apply() {
+        LocalDateTime now = LocalDateTime.now();
+        Outcome outcome = transactionTemplate.execute(status -> applyAt(now));
+        if (outcome.changed > 0) {
+            logger.info("Promotions: prices switched for {} dishes", outcome.changed);
+            // Вне транзакции: снимок меню пересобирается сразу
+            eventPublisher.publishEvent(new MenuEvent(null));
+        }
+        scheduleNext(outcome.next);
+    }
+
+    // Акция уже сохранена; если переключить цены сейчас не вышло, это сделает следующая сверка
+    private void applySafely() {
+        try {
+            apply();
+        } catch (RuntimeException e) {
+            logger.error("Failed to apply promotion schedule", e);
+        }
+    }
+
+    private Outcome applyAt(LocalDateTime now) {
+        List<Promotion> promotions = promotionRepository.findSchedulable(now);
+        Map<Long, Promotion> best = new HashMap<>();
+        LocalDateTime next = null;
+        for (Promotion promotion : promotions) {
+            if (PromotionSchedule.isActive(promotion, now)) {
+                best.merge(promotion.getDish().getId(), promotion,
+                        (a, b) -> BEST.compare(a, b) <= 0 ? a : b);
+            }
+            LocalDateTime boundary = PromotionSchedule.nextBoundary(promotion, now);
+            if (boundary != null && (next == null || boundary.isBefore(next))) {
+                next = boundary;
+            }
+        }
+
+        // Кроме блюд с действующими акциями - блюда, чья акция только что закончилась или выключена
+        Set<Long> dishIds = new HashSet<>(best.keySet());
+        dishIds.addAll(dishRepository.findIdsWithAppliedPromotion());
+        Map<Long, DishPriceHistory.Reason> changed = new HashMap<>();
+        for (Dish dish : dishRepository.findAllById(dishIds)) {
+            Promotion promotion = best.get(dish.getId());
+            if (promotion != null && !applied(dish, promotion)) {
+                if (dishRepository.applyScheduledPromotion(dish.getId(), promotion.getId(),
+                        promotion.getPromotionPrice(), now) > 0) {
+                    changed.put(dish.getId(), DishPriceHistory.Reason.PROMOTION_START);
+                }
+            } else if (promotion == null && dish.getAppliedPromotionId() != null) {
+                if (dishRepository.clearScheduledPromotion(dish.getId(), now) > 0) {
+                    changed.put(dish.getId(), DishPriceHistory.Reason.PROMOTION_END);
+                }
+            }
+        }
+        if (!changed.isEmpty()) {
+            // Условные UPDATE очистили контекст: блюда читаются заново, уже с новыми ценами
+            for (Dish dish : dishRepository.findAllById(changed.keySet())) {
+                priceHistoryService.record(dish, changed.get(dish.getId()), now);
+            }
+            dataVersionService.bump(DataVersionService.MENU);
+        }
+        return new Outcome(changed.size(), next);
+    }
+
+    private static boolean applied(Dish dish, Promotion promotion) {
+        return Objects.equals(dish.getAppliedPromotionId(), promotion.getId())
+                && Boolean.TRUE.equals(dish.getIsOnPromotion())
+                && dish.getPromotionPrice() != null
+                && dish.getPromotionPrice().compareTo(promotion.getPromotionPrice()) == 0;
+    }
+
+    private void scheduleNext(LocalDateTime next) {
+        if (nextRun != null) {
+            nextRun.cancel(false);
+        }
+        nextRun = next != null
+                ? taskScheduler.schedule(this::applySafely, next.atZone(ZoneId.systemDefault()).toInstant())
+                : null;
+        if (next != null) {
+            logger.debug("Next promotion boundary at {}", next);
+        }
+    }
+
+    private static void validate(MenuDTO.PromotionRequest request) {
+        if (request.getStartsAt() != null && request.getEndsAt() != null
+                && !request.getEndsAt().isAfter(request.getStartsAt())) {
+            throw new RuntimeException("Promotion must end after it starts");
+        }
+        if (request.getDaysOfWeek() != null && request.getDaysOfWeek().isEmpty()) {
+            throw new RuntimeException("At least one day of week is required");
+        }
+    }
+
+    private static void copy(MenuDTO.PromotionRequest request, Promotion promotion) {
+        promotion.setPromotionName(request.getPromotionName());
+        promotion.setPromotionPrice(request.getPromotionPrice());
+        promotion.setStartsAt(request.getStartsAt());
+        promotion.setEndsAt(request.getEndsAt());
+        promotion.setDaysOfWeek(PromotionSchedule.daysMask(request.getDaysOfWeek()));
+        promotion.setStartTime(request.getStartTime());
+        promotion.setEndTime(request.getEndTime());
+        promotion.setIsEnabled(!Boolean.FALSE.equals(request.getIsEnabled()));
+    }
+
+    private static MenuDTO.PromotionResponse toResponse(Promotion promotion, LocalDateTime now) {
+        return new MenuDTO.PromotionResponse(promotion, PromotionSchedule.days(promotion.getDaysOfWeek()),
+                PromotionSchedule.isActive(promotion, now));
+    }
+
+    private static final class Outcome {
+        private final int changed;
+        private final LocalDateTime next;
+
+        private Outcome(int changed, LocalDateTime next) {
+            this.changed = changed;
+            this.next = next;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.restaurant.service;
 
+import com.restaurant.entity.OrderStatus;
 import com.restaurant.repository.*;
 import org.springframework.stereotype.Service;
 
@@ -21,6 +22,10 @@ public class ReportService {
     private final RestaurantTableRepository restaurantTableRepository;
     private final UserRepository userRepository;
     private final IngredientRepository ingredientRepository;
+    private final OrderStatusRegistry orderStatusRegistry;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final ArchivedPaymentRepository archivedPaymentRepository;
+    private final DishPriceHistoryRepository dishPriceHistoryRepository;
 
     public ReportService(OrderRepository orderRepository,
                          OrderItemRepository orderItemRepository,
@@ -28,7 +33,11 @@ public class ReportService {
                          ReservationRepository reservationRepository,
                          RestaurantTableRepository restaurantTableRepository,
                          UserRepository userRepository,
-                         IngredientRepository ingredientRepository) {
+                         IngredientRepository ingredientRepository,
+                         OrderStatusRegistry orderStatusRegistry,
+                         ArchivedOrderRepository archivedOrderRepository,
+                         ArchivedPaymentRepository archivedPaymentRepository,
+                         DishPriceHistoryRepository dishPriceHistoryRepository) {
         this.orderRepository = orderRepository;
         this.orderItemRepository = orderItemRepository;
         this.paymentRepository = paymentRepository;
@@ -36,16 +45,22 @@ public class ReportService {
         this.restaurantTableRepository = restaurantTableRepository;
         this.userRepository = userRepository;
         this.ingredientRepository = ingredientRepository;
+        this.orderStatusRegistry = orderStatusRegistry;
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.archivedPaymentRepository = archivedPaymentRepository;
+        this.dishPriceHistoryRepository = dishPriceHistoryRepository;
     }
 
     public Map<String, Object> getDailyRevenueReport(LocalDate date) {
         LocalDateTime startDateTime = date.atStartOfDay();
         LocalDateTime endDateTime = date.atTime(23, 59, 59);
 
-        BigDecimal totalRevenue = paymentRepository.getTotalRevenueBetween(startDateTime, endDateTime);
-        if (totalRevenue == null) totalRevenue = BigDecimal.ZERO;
+        // Отчёты считаются по рабочим и архивным таблицам вместе
+        BigDecimal totalRevenue = ArchiveTotals.sum(
+                paymentRepository.getTotalRevenueBetween(startDateTime, endDateTime),
+                archivedPaymentRepository.getTotalRevenueBetween(startDateTime, endDateTime));
 
-        Long totalOrders = orderRepository.countPaidOrdersBetween(startDateTime, endDateTime);
+        Long totalOrders = countPaidOrders(startDateTime, endDateTime);
         Long totalReservations = reservationRepository.countConfirmedReservationsByDate(date);
 
         Map<String, Object> report = new HashMap<>();
@@ -63,17 +78,14 @@ public class ReportService {
         LocalDateTime startDateTime = startDate.atStartOfDay();
         LocalDateTime endDateTime = endDate.atTime(23, 59, 59);
 
-        BigDecimal totalRevenue = paymentRepository.getTotalRevenueBetween(startDateTime, endDateTime);
-        if (totalRevenue == null) totalRevenue = BigDecimal.ZERO;
+        BigDecimal totalRevenue = ArchiveTotals.sum(
+                paymentRepository.getTotalRevenueBetween(startDateTime, endDateTime),
+                archivedPaymentRepository.getTotalRevenueBetween(startDateTime, endDateTime));
 
-        Long totalOrders = orderRepository.countPaidOrdersBetween(startDateTime, endDateTime);
-        List<Object[]> revenueByMethod = paymentRepository.getRevenueByPaymentMethodBetween(startDateTime, endDateTime);
-
-        Map<String, BigDecimal> revenueMap = revenueByMethod.stream()
-                .collect(Collectors.toMap(
-                        obj -> (String) obj[0],
-                        obj -> (BigDecimal) obj[1]
-                ));
+        Long totalOrders = countPaidOrders(startDateTime, endDateTime);
+        Map<String, BigDecimal> revenueMap = ArchiveTotals.mergeRevenueByMethod(
+                paymentRepository.getRevenueByPaymentMethodBetween(startDateTime, endDateTime),
+                archivedPaymentRepository.getRevenueByPaymentMethodBetween(startDateTime, endDateTime));
 
         Map<String, Object> report = new HashMap<>();
         report.put("period", Map.of("start", startDate, "end", endDate));
@@ -90,7 +102,9 @@ public class ReportService {
         LocalDateTime startDateTime = startDate.atStartOfDay();
         LocalDateTime endDateTime = endDate.atTime(23, 59, 59);
 
-        List<Object[]> popularDishes = orderItemRepository.findPopularDishesBetweenDates(startDateTime, endDateTime);
+        List<Object[]> popularDishes = ArchiveTotals.mergeDishQuantities(
+                orderItemRepository.findPopularDishesBetweenDates(startDateTime, endDateTime),
+                archivedOrderRepository.findPopularDishesBetweenDates(startDateTime, endDateTime));
 
         List<Map<String, Object>> popularDishesList = popularDishes.stream()
                 .limit(10)
@@ -110,6 +124,33 @@ public class ReportService {
         return report;
     }
 
+    // Продажи блюда по ценовым периодам из журнала цен: сколько продано и на какую сумму при каждой цене
+    public Map<String, Object> getDishPricePeriodsReport(Long dishId, LocalDate startDate, LocalDate endDate) {
+        LocalDateTime startDateTime = startDate.atStartOfDay();
+        LocalDateTime endDateTime = endDate.atTime(23, 59, 59);
+
+        List<Map<String, Object>> periods = dishPriceHistoryRepository
+                .sumSalesByPricePeriod(dishId, startDateTime, endDateTime).stream()
+                .map(obj -> {
+                    Map<String, Object> periodMap = new HashMap<>();
+                    periodMap.put("validFrom", obj[1]);
+                    periodMap.put("price", obj[2]);
+                    periodMap.put("effectivePrice", obj[3]);
+                    periodMap.put("promotionId", obj[4]);
+                    periodMap.put("quantity", obj[5]);
+                    periodMap.put("revenue", obj[6]);
+                    return periodMap;
+                })
+                .collect(Collectors.toList());
+
+        Map<String, Object> report = new HashMap<>();
+        report.put("period", Map.of("start", startDate, "end", endDate));
+        report.put("dishId", dishId);
+        report.put("pricePeriods", periods);
+
+        return report;
+    }
+
     public Map<String, Object> getTableOccupancyReport(LocalDate startDate, LocalDate endDate) {
         List<Object[]> popularTables = reservationRepository.getPopularTables(startDate, endDate);
         Long totalTables = restaurantTableRepository.countActiveTables();
@@ -145,10 +186,13 @@ public class ReportService {
                     List<com.restaurant.entity.Order> waiterOrders =
                             orderRepository.findByWaiterAndPeriod(waiter.getId(), startDateTime, endDateTime);
 
-                    Long totalOrders = (long) waiterOrders.size();
+                    Object[] archived = archivedOrderRepository
+                            .getWaiterTotalsBetween(waiter.getId(), startDateTime, endDateTime).get(0);
+
+                    Long totalOrders = waiterOrders.size() + (Long) archived[0];
                     BigDecimal totalSales = waiterOrders.stream()
                             .map(com.restaurant.entity.Order::getTotalAmount)
-                            .reduce(BigDecimal.ZERO, BigDecimal::add);
+                            .reduce((BigDecimal) archived[1], BigDecimal::add);
 
                     BigDecimal averageOrderValue = totalOrders > 0 ?
                             totalSales.divide(BigDecimal.valueOf(totalOrders), 2, BigDecimal.ROUND_HALF_UP) : BigDecimal.ZERO;
@@ -173,6 +217,11 @@ public class ReportService {
         return report;
     }
 
+    private Long countPaidOrders(LocalDateTime start, LocalDateTime end) {
+        return orderRepository.countByStatusIdBetween(orderStatusRegistry.idOf(OrderStatus.PAID), start, end)
+                + archivedOrderRepository.countBetween(start, end);
+    }
+
     public Map<String, Object> getInventoryReport() {
         List<com.restaurant.entity.Ingredient> lowStockIngredients = ingredientRepository.findLowStockIngredients();
         List<com.restaurant.entity.Ingredient> outOfStockIngredients = ingredientRepository.findOutOfStockIngredients();
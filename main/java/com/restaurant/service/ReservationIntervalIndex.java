@@ -0,0 +1,398 @@
+package com.restaurant.service;
+
+import com.restaurant.entity.Reservation;
+import com.restaurant.entity.RestaurantTable;
+import com.restaurant.event.ReservationEvent;
+import com.restaurant.repository.ReservationRepository;
+import com.restaurant.repository.RestaurantTableRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+// Занятость столиков в памяти. Для каждого столика и дня - активные (PENDING/CONFIRMED) брони,
+// отсортированные по началу, с максимумом концов на префиксе: пересечение с [start, end)
+// проверяется одним двоичным поиском, даже если брони в БД уже пересекаются между собой.
+// Бронь через полночь лежит в каждом дне, который задевает.
+// Индекс загружается при старте, записи ReservationService применяются после коммита фоновым потоком
+// (поток запроса только отмечает бронь), изменения с других узлов - сверкой по updated_at
+// раз в app.reservations.index.resync-ms.
+// Запросы о прошедших днях и запросы до загрузки выполняются в БД.
+@Service
+public class ReservationIntervalIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReservationIntervalIndex.class);
+
+    private static final List<Reservation.ReservationStatus> ACTIVE =
+            List.of(Reservation.ReservationStatus.PENDING, Reservation.ReservationStatus.CONFIRMED);
+    // Бронь не длиннее суток, начатая до вчерашнего дня, к сегодняшнему дню уже закончилась
+    private static final int DAY_MINUTES = 24 * 60;
+    // Сверка перечитывает с запасом: updated_at ставится до коммита, и длинная транзакция видна позже
+    private static final Duration RESYNC_OVERLAP = Duration.ofMinutes(1);
+
+    private final ReservationRepository reservationRepository;
+    private final RestaurantTableRepository tableRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<Long, Map<LocalDate, Slots>> tables = new ConcurrentHashMap<>();
+    // Последняя известная версия каждой брони, в том числе отменённой: устаревшее чтение её не вернёт
+    private final Map<Long, Interval> known = new ConcurrentHashMap<>();
+
+    // Начало периода, за который индекс полон; null - индекс ещё не загружен
+    private volatile LocalDateTime coveredFrom;
+    private LocalDateTime syncedFrom;
+
+    // Брони, изменённые на этом узле и ещё не перечитанные; за один проход перечитываются все
+    private final Set<Long> changed = ConcurrentHashMap.newKeySet();
+    private final CoalescingWorker refresher = new CoalescingWorker("reservation-index-refresh", this::refreshChanged);
+
+    public ReservationIntervalIndex(ReservationRepository reservationRepository,
+                                    RestaurantTableRepository tableRepository,
+                                    PlatformTransactionManager transactionManager) {
+        this.reservationRepository = reservationRepository;
+        this.tableRepository = tableRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Вызывается и из запросов, где может быть открыта своя транзакция
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        refresher.shutdown();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        LocalDateTime started = LocalDateTime.now();
+        LocalDate today = started.toLocalDate();
+        List<Interval> intervals = transactionTemplate.execute(status -> toIntervals(
+                reservationRepository.findActiveForIndex(ACTIVE, today.minusDays(1), DAY_MINUTES)));
+        coveredFrom = null;
+        tables.clear();
+        known.clear();
+        if (intervals != null) {
+            intervals.forEach(this::apply);
+        }
+        syncedFrom = started;
+        coveredFrom = today.atStartOfDay();
+        logger.info("Reservation index loaded {} active reservations", intervals != null ? intervals.size() : 0);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationEvent(ReservationEvent event) {
+        changed.add(event.getReservationId());
+        refresher.request();
+    }
+
+    // Чтение из БД - вне монитора; устаревшую версию брони apply отбросит сам
+    public void refresh(Long reservationId) {
+        Interval interval = transactionTemplate.execute(status -> reservationRepository.findById(reservationId)
+                .map(Interval::of)
+                .orElse(null));
+        synchronized (this) {
+            if (interval != null) {
+                apply(interval);
+            } else {
+                remove(reservationId);
+            }
+        }
+    }
+
+    private void refreshChanged() {
+        List<Long> ids = new ArrayList<>(changed);
+        if (ids.isEmpty()) {
+            return;
+        }
+        changed.removeAll(ids);
+        try {
+            List<Interval> intervals = transactionTemplate.execute(status ->
+                    toIntervals(reservationRepository.findAllById(ids)));
+            Set<Long> found = new HashSet<>();
+            synchronized (this) {
+                for (Interval interval : intervals != null ? intervals : List.<Interval>of()) {
+                    found.add(interval.id);
+                    apply(interval);
+                }
+                ids.stream().filter(id -> !found.contains(id)).forEach(this::remove);
+            }
+        } catch (RuntimeException e) {
+            // Брони уже сохранены; индекс догонит их при следующей сверке
+            logger.error("Failed to refresh reservations {} in the table index", ids, e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.reservations.index.resync-ms:30000}",
+            initialDelayString = "${app.reservations.index.resync-ms:30000}")
+    public synchronized void resync() {
+        if (coveredFrom == null) {
+            return;
+        }
+        LocalDateTime started = LocalDateTime.now();
+        LocalDateTime since = syncedFrom.minus(RESYNC_OVERLAP);
+        List<Interval> changed = transactionTemplate.execute(status ->
+                toIntervals(reservationRepository.findUpdatedSince(since)));
+        if (changed != null) {
+            changed.forEach(this::apply);
+        }
+        syncedFrom = started;
+        evictBefore(started.toLocalDate().atStartOfDay());
+    }
+
+    // Есть ли у столика активная бронь, пересекающая [start, end); excludeId - бронь, которую сейчас меняют
+    public boolean hasConflict(Long tableId, LocalDateTime start, LocalDateTime end, Long excludeId) {
+        if (!covers(start)) {
+            return reservationRepository.findConflictingReservations(tableId, start, end).stream()
+                    .anyMatch(reservation -> !reservation.getId().equals(excludeId));
+        }
+        Map<LocalDate, Slots> days = tables.get(tableId);
+        return days != null && overlaps(days, start, end, excludeId);
+    }
+
+    // Активные столики нужной вместимости без броней на [start, end); из БД читаются только столики
+    public List<RestaurantTable> findAvailableTables(LocalDateTime start, LocalDateTime end, Integer guestsCount) {
+        if (!covers(start)) {
+            return tableRepository.findAvailableTables(start, end, guestsCount);
+        }
+        return tableRepository.findAvailableTablesByCapacity(guestsCount).stream()
+                .filter(table -> {
+                    Map<LocalDate, Slots> days = tables.get(table.getId());
+                    return days == null || !overlaps(days, start, end, null);
+                })
+                .collect(Collectors.toList());
+    }
+
+    private boolean covers(LocalDateTime start) {
+        LocalDateTime from = coveredFrom;
+        return from != null && !start.isBefore(from);
+    }
+
+    private static boolean overlaps(Map<LocalDate, Slots> days, LocalDateTime start, LocalDateTime end, Long excludeId) {
+        long from = seconds(start);
+        long to = seconds(end);
+        LocalDate last = lastDay(start, end);
+        for (LocalDate day = start.toLocalDate(); !day.isAfter(last); day = day.plusDays(1)) {
+            Slots slots = days.get(day);
+            if (slots != null && slots.overlaps(from, to, excludeId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void apply(Interval interval) {
+        Interval previous = known.get(interval.id);
+        if (previous != null && previous.version >= interval.version) {
+            // Та же или более старая версия строки
+            return;
+        }
+        known.put(interval.id, interval);
+        // Сначала новое положение брони, потом старое убирается: читатель не увидит её пропавшей
+        if (interval.active) {
+            Map<LocalDate, Slots> days = tables.computeIfAbsent(interval.tableId, id -> new ConcurrentHashMap<>());
+            for (LocalDate day : interval.days()) {
+                days.merge(day, Slots.of(interval), (slots, added) -> slots.with(interval));
+            }
+        }
+        if (previous != null && previous.active) {
+            boolean sameTable = interval.active && previous.tableId.equals(interval.tableId);
+            for (LocalDate day : previous.days()) {
+                if (!sameTable || !interval.touches(day)) {
+                    unindex(previous, day);
+                }
+            }
+        }
+    }
+
+    private void remove(Long reservationId) {
+        Interval previous = known.remove(reservationId);
+        if (previous != null && previous.active) {
+            previous.days().forEach(day -> unindex(previous, day));
+        }
+    }
+
+    private void unindex(Interval interval, LocalDate day) {
+        Map<LocalDate, Slots> days = tables.get(interval.tableId);
+        if (days != null) {
+            days.computeIfPresent(day, (key, slots) -> slots.without(interval.id));
+        }
+    }
+
+    // Прошедшие дни из индекса больше не запрашиваются
+    private void evictBefore(LocalDateTime from) {
+        if (!from.isAfter(coveredFrom)) {
+            return;
+        }
+        // Граница сдвигается первой: читатели уходят в БД раньше, чем дни пропадут
+        coveredFrom = from;
+        LocalDate day = from.toLocalDate();
+        long fromSeconds = seconds(from);
+        tables.values().forEach(days -> days.keySet().removeIf(key -> key.isBefore(day)));
+        known.values().removeIf(interval -> interval.end <= fromSeconds);
+    }
+
+    private static List<Interval> toIntervals(List<Reservation> reservations) {
+        return reservations.stream().map(Interval::of).collect(Collectors.toList());
+    }
+
+    // Последний день, который задевает [start, end); пустой интервал относится ко дню начала
+    private static LocalDate lastDay(LocalDateTime start, LocalDateTime end) {
+        return end.isAfter(start) ? end.minusNanos(1).toLocalDate() : start.toLocalDate();
+    }
+
+    // Время брони - время зала без часового пояса, как и в БД
+    private static long seconds(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    // Бронь в том виде, в каком она нужна индексу
+    static final class Interval {
+        private final Long id;
+        private final long version;
+        private final Long tableId;
+        private final LocalDateTime startTime;
+        private final LocalDateTime endTime;
+        private final long start;
+        private final long end;
+        private final boolean active;
+
+        private Interval(Long id, long version, Long tableId, LocalDateTime startTime, LocalDateTime endTime,
+                         boolean active) {
+            this.id = id;
+            this.version = version;
+            this.tableId = tableId;
+            this.startTime = startTime;
+            this.endTime = endTime;
+            this.start = seconds(startTime);
+            this.end = seconds(endTime);
+            this.active = active;
+        }
+
+        static Interval of(Reservation reservation) {
+            LocalDateTime startTime = reservation.getReservationDateTime();
+            // Без длительности бронь ни с чем не пересекается - так же считает запрос в БД
+            Integer duration = reservation.getDurationMinutes();
+            return new Interval(reservation.getId(),
+                    reservation.getVersion() != null ? reservation.getVersion() : 0L,
+                    reservation.getTable().getId(),
+                    startTime,
+                    startTime.plusMinutes(duration != null ? duration : 0),
+                    reservation.isActive() && duration != null);
+        }
+
+        List<LocalDate> days() {
+            List<LocalDate> days = new ArrayList<>();
+            LocalDate last = lastDay(startTime, endTime);
+            for (LocalDate day = startTime.toLocalDate(); !day.isAfter(last); day = day.plusDays(1)) {
+                days.add(day);
+            }
+            return days;
+        }
+
+        boolean touches(LocalDate day) {
+            return !day.isBefore(startTime.toLocalDate()) && !day.isAfter(lastDay(startTime, endTime));
+        }
+    }
+
+    // Брони столика за день, неизменяемые: запись подменяет набор целиком, чтение идёт без блокировок.
+    // Отсортированы по началу; maxEnds[i] - самый поздний конец среди первых i + 1 броней.
+    static final class Slots {
+        private static final Comparator<Interval> ORDER = Comparator
+                .comparingLong((Interval interval) -> interval.start)
+                .thenComparing(interval -> interval.id);
+
+        private final Interval[] intervals;
+        private final long[] maxEnds;
+
+        private Slots(Interval[] intervals) {
+            Arrays.sort(intervals, ORDER);
+            this.intervals = intervals;
+            this.maxEnds = new long[intervals.length];
+            long max = Long.MIN_VALUE;
+            for (int i = 0; i < intervals.length; i++) {
+                max = Math.max(max, intervals[i].end);
+                maxEnds[i] = max;
+            }
+        }
+
+        static Slots of(Interval interval) {
+            return new Slots(new Interval[]{interval});
+        }
+
+        // Набор с этой бронью (прежнее её положение в дне заменяется)
+        Slots with(Interval interval) {
+            List<Interval> result = new ArrayList<>(intervals.length + 1);
+            for (Interval current : intervals) {
+                if (!current.id.equals(interval.id)) {
+                    result.add(current);
+                }
+            }
+            result.add(interval);
+            return new Slots(result.toArray(new Interval[0]));
+        }
+
+        // null - броней за день не осталось, день удаляется из карты
+        Slots without(Long reservationId) {
+            Interval[] rest = Arrays.stream(intervals)
+                    .filter(interval -> !interval.id.equals(reservationId))
+                    .toArray(Interval[]::new);
+            if (rest.length == intervals.length) {
+                return this;
+            }
+            return rest.length > 0 ? new Slots(rest) : null;
+        }
+
+        boolean overlaps(long from, long to, Long excludeId) {
+            // Пересекаться могут только брони, начатые раньше to; среди них нужна та, что кончается позже from
+            int last = lastStartBefore(to);
+            if (last < 0 || maxEnds[last] <= from) {
+                return false;
+            }
+            if (excludeId == null) {
+                return true;
+            }
+            for (int i = last; i >= 0 && maxEnds[i] > from; i--) {
+                if (intervals[i].end > from && !intervals[i].id.equals(excludeId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private int lastStartBefore(long time) {
+            int low = 0;
+            int high = intervals.length - 1;
+            int result = -1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (intervals[mid].start < time) {
+                    result = mid;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -1,13 +1,18 @@
 package com.restaurant.service;
 
+import com.restaurant.dto.CommonDTO;
+import com.restaurant.dto.PageCursor;
 import com.restaurant.dto.ReservationDTO;
 import com.restaurant.entity.Reservation;
 import com.restaurant.entity.RestaurantTable;
 import com.restaurant.entity.User;
+import com.restaurant.event.ReservationEvent;
 import com.restaurant.repository.ReservationRepository;
 import com.restaurant.repository.RestaurantTableRepository;
 import com.restaurant.repository.UserRepository;
 import jakarta.transaction.Transactional;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
@@ -16,7 +21,6 @@ import java.time.LocalTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -25,13 +29,22 @@ public class ReservationService {
     private final ReservationRepository reservationRepository;
     private final RestaurantTableRepository tableRepository;
     private final UserRepository userRepository;
+    private final OptimisticLockRetry optimisticLockRetry;
+    private final ReservationIntervalIndex intervalIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
     public ReservationService(ReservationRepository reservationRepository,
                               RestaurantTableRepository tableRepository,
-                              UserRepository userRepository) {
+                              UserRepository userRepository,
+                              OptimisticLockRetry optimisticLockRetry,
+                              ReservationIntervalIndex intervalIndex,
+                              ApplicationEventPublisher eventPublisher) {
         this.reservationRepository = reservationRepository;
         this.tableRepository = tableRepository;
         this.userRepository = userRepository;
+        this.optimisticLockRetry = optimisticLockRetry;
+        this.intervalIndex = intervalIndex;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
@@ -39,8 +52,8 @@ public class ReservationService {
         RestaurantTable table = tableRepository.findById(request.getTableId())
                 .orElseThrow(() -> new RuntimeException("Table not found"));
 
-        // Проверка доступности столика
-        if (!isTableAvailable(table.getId(), request.getReservationDate(), request.getReservationTime(), request.getDurationMinutes())) {
+        // Проверка доступности столика по БД: индекс может не знать о брони, только что созданной на другом узле
+        if (!isTableFree(table.getId(), null, request.getReservationDate(), request.getReservationTime(), request.getDurationMinutes())) {
             throw new RuntimeException("Table is not available at the requested time");
         }
 
@@ -66,6 +79,7 @@ public class ReservationService {
         reservation.setCreatedBy(createdBy);
 
         Reservation savedReservation = reservationRepository.save(reservation);
+        eventPublisher.publishEvent(new ReservationEvent(savedReservation.getId()));
         return new ReservationDTO.ReservationResponse(savedReservation);
     }
 
@@ -73,41 +87,46 @@ public class ReservationService {
         LocalDateTime reservationStart = LocalDateTime.of(date, time);
         LocalDateTime reservationEnd = reservationStart.plusMinutes(duration);
 
-        List<Reservation> conflictingReservations = reservationRepository
-                .findConflictingReservations(tableId, reservationStart, reservationEnd);
-
-        return conflictingReservations.isEmpty();
+        return !intervalIndex.hasConflict(tableId, reservationStart, reservationEnd, null);
     }
 
-    public List<ReservationDTO.ReservationResponse> getReservationsByDate(LocalDate date) {
-        return reservationRepository.findByReservationDate(date).stream()
-                .map(ReservationDTO.ReservationResponse::new)
-                .collect(Collectors.toList());
+    public CommonDTO.CursorPageResponse<ReservationDTO.ReservationResponse> getReservationsByDate(
+            LocalDate date, String cursor, Integer size) {
+        PageCursor pageCursor = PageCursor.decode(cursor);
+        int pageSize = PageCursor.pageSize(size);
+        List<Reservation> reservations = reservationRepository.findPageByReservationDate(date,
+                pageCursor.getCreatedAt(), pageCursor.getId(), PageRequest.ofSize(pageSize + 1));
+        return reservationPage(reservations, pageSize);
     }
 
-    public List<ReservationDTO.ReservationResponse> getReservationsByStatus(Reservation.ReservationStatus status) {
-        return reservationRepository.findByStatus(status).stream()
-                .map(ReservationDTO.ReservationResponse::new)
-                .collect(Collectors.toList());
+    public CommonDTO.CursorPageResponse<ReservationDTO.ReservationResponse> getReservationsByStatus(
+            Reservation.ReservationStatus status, String cursor, Integer size) {
+        PageCursor pageCursor = PageCursor.decode(cursor);
+        int pageSize = PageCursor.pageSize(size);
+        List<Reservation> reservations = reservationRepository.findPageByStatus(status,
+                pageCursor.getCreatedAt(), pageCursor.getId(), PageRequest.ofSize(pageSize + 1));
+        return reservationPage(reservations, pageSize);
     }
 
-    @Transactional
+    @Transactional(Transactional.TxType.SUPPORTS)
     public ReservationDTO.ReservationResponse confirmReservation(Long id) {
-        Reservation reservation = reservationRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Reservation not found"));
-
-        reservation.setStatus(Reservation.ReservationStatus.CONFIRMED);
-        Reservation updatedReservation = reservationRepository.save(reservation);
-        return new ReservationDTO.ReservationResponse(updatedReservation);
+        return optimisticLockRetry.execute("Reservation " + id,
+                () -> changeStatus(id, Reservation.ReservationStatus.CONFIRMED));
     }
 
-    @Transactional
+    @Transactional(Transactional.TxType.SUPPORTS)
     public ReservationDTO.ReservationResponse cancelReservation(Long id) {
+        return optimisticLockRetry.execute("Reservation " + id,
+                () -> changeStatus(id, Reservation.ReservationStatus.CANCELLED));
+    }
+
+    private ReservationDTO.ReservationResponse changeStatus(Long id, Reservation.ReservationStatus status) {
         Reservation reservation = reservationRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Reservation not found"));
 
-        reservation.setStatus(Reservation.ReservationStatus.CANCELLED);
+        reservation.setStatus(status);
         Reservation updatedReservation = reservationRepository.save(reservation);
+        eventPublisher.publishEvent(new ReservationEvent(updatedReservation.getId()));
         return new ReservationDTO.ReservationResponse(updatedReservation);
     }
 
@@ -115,7 +134,7 @@ public class ReservationService {
         LocalDateTime startTime = LocalDateTime.of(date, time);
         LocalDateTime endTime = startTime.plusMinutes(duration);
 
-        return tableRepository.findAvailableTables(startTime, endTime, guestsCount);
+        return intervalIndex.findAvailableTables(startTime, endTime, guestsCount);
     }
 
     public ReservationDTO.ReservationResponse getReservationById(Long id) {
@@ -124,20 +143,36 @@ public class ReservationService {
         return new ReservationDTO.ReservationResponse(reservation);
     }
 
-    public List<ReservationDTO.ReservationResponse> getReservationsByGuestPhone(String phone) {
-        return reservationRepository.findByGuestPhone(phone).stream()
-                .map(ReservationDTO.ReservationResponse::new)
-                .collect(Collectors.toList());
+    public CommonDTO.CursorPageResponse<ReservationDTO.ReservationResponse> getReservationsByGuestPhone(
+            String phone, String cursor, Integer size) {
+        PageCursor pageCursor = PageCursor.decode(cursor);
+        int pageSize = PageCursor.pageSize(size);
+        List<Reservation> reservations = reservationRepository.findPageByGuestPhone(phone,
+                pageCursor.getCreatedAt(), pageCursor.getId(), PageRequest.ofSize(pageSize + 1));
+        return reservationPage(reservations, pageSize);
     }
 
-    public List<ReservationDTO.ReservationResponse> getReservationsByGuestName(String guestName) {
-        return reservationRepository.findByGuestNameContainingIgnoreCase(guestName).stream()
-                .map(ReservationDTO.ReservationResponse::new)
-                .collect(Collectors.toList());
+    private CommonDTO.CursorPageResponse<ReservationDTO.ReservationResponse> reservationPage(
+            List<Reservation> reservations, int pageSize) {
+        return PageCursor.page(reservations, pageSize, Reservation::getCreatedAt, Reservation::getId,
+                ReservationDTO.ReservationResponse::new);
     }
 
-    @Transactional
+    public CommonDTO.CursorPageResponse<ReservationDTO.ReservationResponse> getReservationsByGuestName(
+            String guestName, String cursor, Integer size) {
+        PageCursor pageCursor = PageCursor.decode(cursor);
+        int pageSize = PageCursor.pageSize(size);
+        List<Reservation> reservations = reservationRepository.findPageByGuestName(guestName,
+                pageCursor.getCreatedAt(), pageCursor.getId(), PageRequest.ofSize(pageSize + 1));
+        return reservationPage(reservations, pageSize);
+    }
+
+    @Transactional(Transactional.TxType.SUPPORTS)
     public ReservationDTO.ReservationResponse updateReservation(Long id, ReservationDTO.CreateReservationRequest request) {
+        return optimisticLockRetry.execute("Reservation " + id, () -> applyUpdate(id, request));
+    }
+
+    private ReservationDTO.ReservationResponse applyUpdate(Long id, ReservationDTO.CreateReservationRequest request) {
         Reservation reservation = reservationRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Reservation not found"));
 
@@ -145,7 +180,7 @@ public class ReservationService {
                 .orElseThrow(() -> new RuntimeException("Table not found"));
 
         // Проверка доступности столика (исключая текущее бронирование)
-        if (!isTableAvailableForUpdate(table.getId(), reservation.getId(), request.getReservationDate(), request.getReservationTime(), request.getDurationMinutes())) {
+        if (!isTableFree(table.getId(), reservation.getId(), request.getReservationDate(), request.getReservationTime(), request.getDurationMinutes())) {
             throw new RuntimeException("Table is not available at the requested time");
         }
 
@@ -160,10 +195,12 @@ public class ReservationService {
         reservation.setSpecialRequests(request.getSpecialRequests());
 
         Reservation updatedReservation = reservationRepository.save(reservation);
+        eventPublisher.publishEvent(new ReservationEvent(updatedReservation.getId()));
         return new ReservationDTO.ReservationResponse(updatedReservation);
     }
 
-    private boolean isTableAvailableForUpdate(Long tableId, Long reservationId, LocalDate date, LocalTime time, Integer duration) {
+    // Проверка перед записью идёт в БД в транзакции записи; reservationId - изменяемая бронь или null
+    private boolean isTableFree(Long tableId, Long reservationId, LocalDate date, LocalTime time, Integer duration) {
         LocalDateTime reservationStart = LocalDateTime.of(date, time);
         LocalDateTime reservationEnd = reservationStart.plusMinutes(duration);
 
@@ -0,0 +1,119 @@
+package com.restaurant.service;
+
+import com.restaurant.dto.CommonDTO;
+import com.restaurant.dto.MenuDTO;
+import com.restaurant.entity.Ingredient;
+import com.restaurant.repository.DishRecipeRepository;
+import com.restaurant.repository.IngredientRepository;
+import com.restaurant.repository.OrderItemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Автодополнение названий блюд и ингредиентов. Словари неизменяемые и подменяются целиком (copy-on-write),
+// поиск по префиксу не ходит в БД и не берёт блокировок.
+// Популярность: порции блюда в заказах за последние дни; для ингредиента - порции блюд, в рецепт которых он входит.
+@Service
+public class SuggestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SuggestService.class);
+
+    private final OrderItemRepository orderItemRepository;
+    private final DishRecipeRepository dishRecipeRepository;
+    private final IngredientRepository ingredientRepository;
+    private final MenuSnapshotService menuSnapshotService;
+    private final TransactionTemplate transactionTemplate;
+    private final int popularityDays;
+
+    private final AtomicReference<PrefixSuggester> dishes = new AtomicReference<>(PrefixSuggester.EMPTY);
+    private final AtomicReference<PrefixSuggester> ingredients = new AtomicReference<>(PrefixSuggester.EMPTY);
+    private volatile Map<Long, Long> dishPopularity = Map.of();
+
+    public SuggestService(OrderItemRepository orderItemRepository,
+                          DishRecipeRepository dishRecipeRepository,
+                          IngredientRepository ingredientRepository,
+                          MenuSnapshotService menuSnapshotService,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${app.suggest.popularity-days:14}") int popularityDays) {
+        this.orderItemRepository = orderItemRepository;
+        this.dishRecipeRepository = dishRecipeRepository;
+        this.ingredientRepository = ingredientRepository;
+        this.menuSnapshotService = menuSnapshotService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.popularityDays = popularityDays;
+    }
+
+    public List<CommonDTO.Suggestion> suggestDishes(String prefix, int limit) {
+        return dishes.get().suggest(prefix, limit);
+    }
+
+    public List<CommonDTO.Suggestion> suggestIngredients(String prefix, int limit) {
+        return ingredients.get().suggest(prefix, limit);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        refresh();
+    }
+
+    // Блюда меняются вместе со снимком меню, популярность берётся последняя посчитанная
+    @EventListener
+    public synchronized void onMenuSnapshot(MenuSnapshot snapshot) {
+        dishes.set(buildDishes(snapshot, dishPopularity));
+    }
+
+    // Популярность и ингредиенты пересчитываются по расписанию: ингредиенты меняются только на складе
+    @Scheduled(fixedDelayString = "${app.suggest.refresh-ms:600000}",
+            initialDelayString = "${app.suggest.refresh-ms:600000}")
+    public void refresh() {
+        // Снимок собирается до входа в блокировку: его сборка сама вызывает onMenuSnapshot
+        menuSnapshotService.current();
+        LocalDateTime since = LocalDateTime.now().minusDays(popularityDays);
+        Map<Long, Long> popularity = new HashMap<>();
+        List<PrefixSuggester.Entry> ingredientEntries = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Object[] row : orderItemRepository.sumQuantityByDishSince(since)) {
+                popularity.put((Long) row[0], ((Number) row[1]).longValue());
+            }
+            Map<Long, Long> ingredientPopularity = new HashMap<>();
+            for (Object[] row : dishRecipeRepository.findDishIngredientIds()) {
+                ingredientPopularity.merge((Long) row[1], popularity.getOrDefault((Long) row[0], 0L), Long::sum);
+            }
+            for (Ingredient ingredient : ingredientRepository.findAll()) {
+                ingredientEntries.add(new PrefixSuggester.Entry(ingredient.getId(), ingredient.getIngredientName(),
+                        ingredientPopularity.getOrDefault(ingredient.getId(), 0L)));
+            }
+        });
+
+        PrefixSuggester builtIngredients = PrefixSuggester.build(ingredientEntries);
+        synchronized (this) {
+            dishPopularity = Map.copyOf(popularity);
+            ingredients.set(builtIngredients);
+            dishes.set(buildDishes(menuSnapshotService.current(), dishPopularity));
+        }
+        logger.debug("Suggestions rebuilt: {} dishes, {} ingredients", dishes.get().size(), builtIngredients.size());
+    }
+
+    private static PrefixSuggester buildDishes(MenuSnapshot snapshot, Map<Long, Long> popularity) {
+        List<PrefixSuggester.Entry> entries = new ArrayList<>(snapshot.getActiveDishes().size());
+        for (MenuDTO.DishResponse dish : snapshot.getActiveDishes()) {
+            entries.add(new PrefixSuggester.Entry(dish.getId(), dish.getDishName(),
+                    popularity.getOrDefault(dish.getId(), 0L)));
+        }
+        return PrefixSuggester.build(entries);
+    }
+}
@@ -1,8 +1,6 @@
 package com.restaurant.service;
 
-import com.restaurant.entity.Reservation;
 import com.restaurant.entity.RestaurantTable;
-import com.restaurant.repository.ReservationRepository;
 import com.restaurant.repository.RestaurantTableRepository;
 import jakarta.transaction.Transactional;
 import org.springframework.stereotype.Service;
@@ -18,12 +16,15 @@ import java.util.Optional;
 public class TableService {
 
     private final RestaurantTableRepository tableRepository;
-    private final ReservationRepository reservationRepository;
+    private final ReservationIntervalIndex intervalIndex;
+    private final DataVersionService dataVersionService;
 
     public TableService(RestaurantTableRepository tableRepository,
-                        ReservationRepository reservationRepository) {
+                        ReservationIntervalIndex intervalIndex,
+                        DataVersionService dataVersionService) {
         this.tableRepository = tableRepository;
-        this.reservationRepository = reservationRepository;
+        this.intervalIndex = intervalIndex;
+        this.dataVersionService = dataVersionService;
     }
 
     @Transactional
@@ -31,7 +32,9 @@ public class TableService {
         if (tableRepository.existsByTableNumber(table.getTableNumber())) {
             throw new RuntimeException("Table with number " + table.getTableNumber() + " already exists");
         }
-        return tableRepository.save(table);
+        RestaurantTable saved = tableRepository.save(table);
+        dataVersionService.bump(DataVersionService.TABLES);
+        return saved;
     }
 
     public List<RestaurantTable> getAllTables() {
@@ -51,12 +54,11 @@ public class TableService {
     }
 
     public List<RestaurantTable> getAvailableTables(LocalDateTime startTime, LocalDateTime endTime, Integer guestsCount) {
-        return tableRepository.findAvailableTables(startTime, endTime, guestsCount);
+        return intervalIndex.findAvailableTables(startTime, endTime, guestsCount);
     }
 
     public boolean isTableAvailable(Long tableId, LocalDateTime startTime, LocalDateTime endTime) {
-        List<Reservation> conflicts = reservationRepository.findConflictingReservations(tableId, startTime, endTime);
-        return conflicts.isEmpty();
+        return !intervalIndex.hasConflict(tableId, startTime, endTime, null);
     }
 
     @Transactional
@@ -75,7 +77,9 @@ public class TableService {
         table.setDescription(tableDetails.getDescription());
         table.setIsActive(tableDetails.getIsActive());
 
-        return tableRepository.save(table);
+        RestaurantTable saved = tableRepository.save(table);
+        dataVersionService.bump(DataVersionService.TABLES);
+        return saved;
     }
 
     @Transactional
@@ -84,6 +88,7 @@ public class TableService {
                 .orElseThrow(() -> new RuntimeException("Table not found with id: " + id));
         table.setIsActive(false);
         tableRepository.save(table);
+        dataVersionService.bump(DataVersionService.TABLES);
     }
 
     @Transactional
@@ -92,6 +97,7 @@ public class TableService {
                 .orElseThrow(() -> new RuntimeException("Table not found with id: " + id));
         table.setIsActive(true);
         tableRepository.save(table);
+        dataVersionService.bump(DataVersionService.TABLES);
     }
 
     public Map<String, Object> getTableStatistics() {
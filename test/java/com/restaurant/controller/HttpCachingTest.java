@@ -0,0 +1,42 @@
+package com.restaurant.controller;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpCachingTest {
+
+    private static final String ETAG = "\"tables-5\"";
+    private static final LocalDateTime MODIFIED = LocalDateTime.of(2024, 3, 1, 12, 0, 30);
+
+    @Test
+    void ifNoneMatchComparesTagsWeakly() {
+        assertTrue(HttpCaching.isNotModified("\"tables-5\"", null, ETAG, MODIFIED));
+        assertTrue(HttpCaching.isNotModified("W/\"tables-5\"", null, ETAG, MODIFIED));
+        assertTrue(HttpCaching.isNotModified("\"tables-4\", \"tables-5\"", null, ETAG, MODIFIED));
+        assertTrue(HttpCaching.isNotModified("*", null, ETAG, MODIFIED));
+        assertFalse(HttpCaching.isNotModified("\"tables-4\"", null, ETAG, MODIFIED));
+    }
+
+    @Test
+    void ifNoneMatchTakesPrecedenceOverDate() {
+        String future = httpDate(MODIFIED.plusDays(1));
+        assertFalse(HttpCaching.isNotModified("\"tables-4\"", future, ETAG, MODIFIED));
+    }
+
+    @Test
+    void ifModifiedSinceUsesSecondPrecision() {
+        assertTrue(HttpCaching.isNotModified(null, httpDate(MODIFIED), ETAG, MODIFIED.plusNanos(500_000_000)));
+        assertFalse(HttpCaching.isNotModified(null, httpDate(MODIFIED.minusSeconds(1)), ETAG, MODIFIED));
+        assertFalse(HttpCaching.isNotModified(null, "yesterday", ETAG, MODIFIED));
+        assertFalse(HttpCaching.isNotModified(null, httpDate(MODIFIED), ETAG, null));
+    }
+
+    private static String httpDate(LocalDateTime time) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(time.atZone(ZoneId.systemDefault()));
+    }
+}
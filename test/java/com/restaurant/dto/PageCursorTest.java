@@ -0,0 +1,64 @@
+package com.restaurant.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageCursorTest {
+
+    @Test
+    void cursorRoundTrip() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 3, 15, 19, 30, 12, 345_000_000);
+
+        PageCursor cursor = PageCursor.decode(PageCursor.encode(createdAt, 42L));
+
+        assertEquals(createdAt, cursor.getCreatedAt());
+        assertEquals(42L, cursor.getId());
+    }
+
+    @Test
+    void emptyCursorStartsFromTheNewestRow() {
+        PageCursor cursor = PageCursor.decode(null);
+
+        assertTrue(cursor.getCreatedAt().isAfter(LocalDateTime.of(3000, 1, 1, 0, 0)));
+        assertEquals(Long.MAX_VALUE, cursor.getId());
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        assertThrows(RuntimeException.class, () -> PageCursor.decode("not a cursor"));
+        assertThrows(RuntimeException.class, () -> PageCursor.decode(PageCursor.encode(LocalDateTime.now(), 1L) + "x!"));
+    }
+
+    @Test
+    void pageSizeIsCappedByServer() {
+        assertEquals(PageCursor.DEFAULT_PAGE_SIZE, PageCursor.pageSize(null));
+        assertEquals(PageCursor.DEFAULT_PAGE_SIZE, PageCursor.pageSize(0));
+        assertEquals(35, PageCursor.pageSize(35));
+        assertEquals(PageCursor.MAX_PAGE_SIZE, PageCursor.pageSize(100_000));
+    }
+
+    @Test
+    void extraRowMeansNextPage() {
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 12, 0);
+        List<Long> rows = List.of(5L, 4L, 3L);
+
+        CommonDTO.CursorPageResponse<Long> page = PageCursor.page(rows, 2,
+                id -> base.plusMinutes(id), id -> id, Function.identity());
+
+        assertEquals(List.of(5L, 4L), page.getContent());
+        assertTrue(page.isHasNext());
+        PageCursor next = PageCursor.decode(page.getNextCursor());
+        assertEquals(base.plusMinutes(4), next.getCreatedAt());
+        assertEquals(4L, next.getId());
+
+        CommonDTO.CursorPageResponse<Long> last = PageCursor.page(List.of(3L), 2,
+                id -> base.plusMinutes(id), id -> id, Function.identity());
+        assertFalse(last.isHasNext());
+        assertNull(last.getNextCursor());
+    }
+}
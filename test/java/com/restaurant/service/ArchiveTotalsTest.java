@@ -0,0 +1,51 @@
+package com.restaurant.service;
+
+import com.restaurant.entity.Dish;
+import com.restaurant.entity.MenuCategory;
+import com.restaurant.entity.Payment;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArchiveTotalsTest {
+
+    @Test
+    void revenueFromBothSidesIsAdded() {
+        assertEquals(0, new BigDecimal("150").compareTo(ArchiveTotals.sum(new BigDecimal("100"), new BigDecimal("50"))));
+        assertEquals(0, new BigDecimal("50").compareTo(ArchiveTotals.sum(null, new BigDecimal("50"))));
+        assertEquals(0, BigDecimal.ZERO.compareTo(ArchiveTotals.sum(null, null)));
+
+        Map<String, BigDecimal> byMethod = ArchiveTotals.mergeRevenueByMethod(
+                List.<Object[]>of(new Object[]{Payment.PaymentMethod.CASH, new BigDecimal("10")}),
+                List.<Object[]>of(new Object[]{Payment.PaymentMethod.CASH, new BigDecimal("5")},
+                        new Object[]{Payment.PaymentMethod.CARD, new BigDecimal("7")}));
+
+        assertEquals(0, new BigDecimal("15").compareTo(byMethod.get("CASH")));
+        assertEquals(0, new BigDecimal("7").compareTo(byMethod.get("CARD")));
+    }
+
+    @Test
+    void dishQuantitiesAreMergedAndResorted() {
+        Dish soup = dish(1L, "Soup");
+        Dish salad = dish(2L, "Salad");
+
+        List<Object[]> merged = ArchiveTotals.mergeDishQuantities(
+                List.<Object[]>of(new Object[]{soup, 5L}, new Object[]{salad, 3L}),
+                List.<Object[]>of(new Object[]{salad, 4L}));
+
+        assertEquals(2, merged.size());
+        assertSame(salad, merged.get(0)[0]);
+        assertEquals(7L, merged.get(0)[1]);
+        assertEquals(5L, merged.get(1)[1]);
+    }
+
+    private static Dish dish(Long id, String name) {
+        Dish dish = new Dish(name, BigDecimal.TEN, new MenuCategory("Archive"));
+        dish.setId(id);
+        return dish;
+    }
+}
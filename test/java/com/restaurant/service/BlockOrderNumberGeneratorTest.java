@@ -0,0 +1,77 @@
+package com.restaurant.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class BlockOrderNumberGeneratorTest {
+
+    private static final int THREADS = 64;
+    private static final int ALLOCATIONS = 100_000;
+
+    @Test
+    void allocatesUniqueNumbersAcrossThreadsAndNodes() throws Exception {
+        // Общий счётчик диапазонов имитирует таблицу order_number_blocks
+        AtomicLong sharedCounter = new AtomicLong(1);
+        OrderNumberBlockAllocator allocator = mock(OrderNumberBlockAllocator.class);
+        when(allocator.reserve(anyInt()))
+                .thenAnswer(invocation -> sharedCounter.getAndAdd(invocation.<Integer>getArgument(0)));
+
+        // Два узла приложения с общим хранилищем диапазонов
+        BlockOrderNumberGenerator nodeA = new BlockOrderNumberGenerator(allocator, 100);
+        BlockOrderNumberGenerator nodeB = new BlockOrderNumberGenerator(allocator, 100);
+
+        Set<String> numbers = ConcurrentHashMap.newKeySet(ALLOCATIONS * 2);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                BlockOrderNumberGenerator generator = t % 2 == 0 ? nodeA : nodeB;
+                // Остаток от деления раздаётся первым потокам, чтобы всего было ровно ALLOCATIONS
+                int perThread = ALLOCATIONS / THREADS + (t < ALLOCATIONS % THREADS ? 1 : 0);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        String number = generator.nextOrderNumber();
+                        assertTrue(number.length() <= 20, number);
+                        assertTrue(numbers.add(number), "Duplicate order number " + number);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+            nodeA.shutdown();
+            nodeB.shutdown();
+        }
+
+        assertEquals(ALLOCATIONS, numbers.size());
+        // Не больше одного обращения к хранилищу на диапазон
+        // (плюс недобранные хвосты и заготовленные впрок диапазоны обоих узлов)
+        verify(allocator, atMost(ALLOCATIONS / 100 + 4)).reserve(100);
+    }
+
+    @Test
+    void formatsShortReadableNumbers() {
+        assertEquals("ORD-000001", BlockOrderNumberGenerator.format(1));
+        assertEquals("ORD-1234567", BlockOrderNumberGenerator.format(1_234_567));
+    }
+}
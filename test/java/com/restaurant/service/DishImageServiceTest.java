@@ -0,0 +1,117 @@
+package com.restaurant.service;
+
+import com.restaurant.dto.MenuDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class DishImageServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private MenuService menuService;
+    private DishImageService service;
+
+    @BeforeEach
+    void setUp() {
+        menuService = mock(MenuService.class);
+        when(menuService.isDishImageExpected(anyLong(), anyString())).thenReturn(true);
+        service = new DishImageService(menuService, "/api", dir.toString(), new int[]{960, 320}, 0.8f, 40_000_000L, 1, 10);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        service.shutdown();
+    }
+
+    @Test
+    void variantsAreWrittenBeforeDishIsUpdated() throws IOException, InterruptedException {
+        MockMultipartFile file = new MockMultipartFile("file", "soup.png", "image/png", png(2000, 1000));
+
+        MenuDTO.ImageUploadResponse upload = service.upload(7L, file);
+        assertEquals(64, upload.getHash().length());
+        // Путь контроллера под context-path приложения
+        assertEquals("/api/api/public/images/" + upload.getHash() + "-320.jpg", upload.getThumbnailUrl());
+        verify(menuService).expectDishImage(7L, upload.getHash());
+        assertTrue(Files.exists(dir.resolve("originals").resolve(upload.getHash())));
+
+        // Дожидаемся фоновой задачи
+        service.shutdown();
+
+        BufferedImage large = ImageIO.read(service.resolveVariant(upload.getHash() + "-960.jpg", false).toFile());
+        assertEquals(960, large.getWidth());
+        assertEquals(480, large.getHeight());
+        BufferedImage thumbnail = ImageIO.read(service.resolveVariant(upload.getHash() + "-320.jpg", false).toFile());
+        assertEquals(320, thumbnail.getWidth());
+        verify(menuService, atLeastOnce()).setDishImage(7L, upload.getHash(), upload.getImageUrl(), upload.getThumbnailUrl());
+
+        // Повторная загрузка того же файла не пересчитывает варианты
+        assertEquals("READY", service.upload(8L, file).getStatus());
+        verify(menuService).setDishImage(8L, upload.getHash(), upload.getImageUrl(), upload.getThumbnailUrl());
+    }
+
+    @Test
+    void rejectsNonImagesAndForeignPaths() {
+        MockMultipartFile text = new MockMultipartFile("file", "menu.txt", "text/plain", new byte[]{1, 2, 3});
+        assertThrows(RuntimeException.class, () -> service.upload(1L, text));
+
+        assertNull(service.resolveVariant("../originals/abc", false));
+        assertNull(service.resolveVariant("a".repeat(64) + "-320.jpg", false));
+    }
+
+    @Test
+    void corruptImageIsRejectedBeforeAccepting() throws IOException {
+        byte[] broken = Arrays.copyOf(png(2000, 1000), 200);
+        MockMultipartFile file = new MockMultipartFile("file", "broken.png", "image/png", broken);
+
+        assertThrows(RuntimeException.class, () -> service.upload(7L, file));
+        verify(menuService, never()).expectDishImage(anyLong(), anyString());
+        assertEquals(0, dir.resolve("originals").toFile().list().length);
+    }
+
+    @Test
+    void jobIsSkippedWhenDishNoLongerExpectsImage() {
+        when(menuService.isDishImageExpected(7L, "a".repeat(64))).thenReturn(false);
+
+        service.process(7L, "a".repeat(64), new BufferedImage(960, 480, BufferedImage.TYPE_INT_RGB));
+
+        verify(menuService, never()).setDishImage(anyLong(), anyString(), anyString(), anyString());
+        assertNull(service.resolveVariant("a".repeat(64) + "-960.jpg", false));
+    }
+
+    @Test
+    void smallImagesAreNotUpscaled() {
+        BufferedImage scaled = DishImageService.scale(new BufferedImage(200, 100, BufferedImage.TYPE_INT_ARGB), 320);
+        assertEquals(200, scaled.getWidth());
+        assertEquals(BufferedImage.TYPE_INT_RGB, scaled.getType());
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.ORANGE);
+        g.fillRect(0, 0, width / 2, height);
+        g.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
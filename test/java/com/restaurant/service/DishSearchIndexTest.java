@@ -0,0 +1,93 @@
+package com.restaurant.service;
+
+import com.restaurant.dto.MenuDTO;
+import com.restaurant.entity.Dish;
+import com.restaurant.entity.MenuCategory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DishSearchIndexTest {
+
+    private MenuSnapshotService menuSnapshotService;
+    private DishSearchIndex index;
+    private long version;
+
+    @BeforeEach
+    void setUp() {
+        menuSnapshotService = mock(MenuSnapshotService.class);
+        index = new DishSearchIndex(menuSnapshotService);
+    }
+
+    @Test
+    void matchesWordFormsYoAndTypos() {
+        publish(List.of(
+                dish(1L, "Борщ украинский", "Супы", "свёкла, капуста, говядина", null),
+                dish(2L, "Салат Цезарь", "Салаты", "курица, салат ромэн, пармезан", null),
+                dish(3L, "Винегрет", "Салаты", "свекла, картофель, огурцы", null)));
+
+        assertEquals(List.of(1L), ids("борща"));
+        // ё и е не различаются
+        assertEquals(List.of(1L, 3L), ids("свекла"));
+        assertEquals(List.of(1L, 3L), ids("свёклой"));
+        // Опечатка в названии
+        assertEquals(List.of(2L), ids("цезорь"));
+        assertEquals(List.of(2L), ids("caesar цезарь"));
+        assertTrue(ids("пицца").isEmpty());
+    }
+
+    @Test
+    void nameMatchesRankAboveCompositionAndDescription() {
+        publish(List.of(
+                dish(1L, "Паста карбонара", "Паста", "спагетти, бекон, грибы", null),
+                dish(2L, "Жульен", "Горячее", "курица, сливки", "с грибами и сыром"),
+                dish(3L, "Грибной суп", "Супы", "шампиньоны, грибы, картофель", null)));
+
+        List<Long> found = ids("грибы");
+        assertEquals(3L, found.get(0));
+        assertEquals(List.of(3L, 1L, 2L), found);
+    }
+
+    @Test
+    void reindexesOnlyChangedDishesAndDropsInactive() {
+        MenuDTO.DishResponse pelmeni = dish(1L, "Пельмени", "Горячее", "говядина, свинина", null);
+        publish(List.of(pelmeni, dish(2L, "Вареники", "Горячее", "картофель", null)));
+        assertEquals(List.of(2L), ids("вареники"));
+
+        // Вареники сняты с меню, пельмени переименованы
+        MenuDTO.DishResponse renamed = dish(1L, "Пельмени сибирские", "Горячее", "говядина, свинина", null);
+        publish(List.of(renamed));
+
+        assertTrue(ids("вареники").isEmpty());
+        assertTrue(ids("картофель").isEmpty());
+        assertEquals(List.of(1L), ids("сибирские пельмени"));
+        assertSame(renamed, index.search("пельмени", 10).get(0));
+    }
+
+    private void publish(List<MenuDTO.DishResponse> dishes) {
+        MenuSnapshot snapshot = new MenuSnapshot(++version, LocalDateTime.now(), dishes, List.of(), Map.of(),
+                List.of(), new MenuSnapshot.Body(new byte[0]), new MenuSnapshot.Body(new byte[0]));
+        when(menuSnapshotService.current()).thenReturn(snapshot);
+        index.onMenuSnapshot(snapshot);
+    }
+
+    private List<Long> ids(String query) {
+        return index.search(query, 10).stream().map(MenuDTO.DishResponse::getId).toList();
+    }
+
+    private static MenuDTO.DishResponse dish(Long id, String name, String category, String composition,
+                                             String description) {
+        Dish dish = new Dish(name, BigDecimal.TEN, new MenuCategory(category));
+        dish.setId(id);
+        dish.setComposition(composition);
+        dish.setDescription(description);
+        return new MenuDTO.DishResponse(dish);
+    }
+}
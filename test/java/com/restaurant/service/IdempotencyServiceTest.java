@@ -0,0 +1,174 @@
+package com.restaurant.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.restaurant.entity.IdempotencyRecord;
+import com.restaurant.exception.ConflictException;
+import com.restaurant.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class IdempotencyServiceTest {
+
+    private IdempotencyRecordRepository recordRepository;
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        recordRepository = mock(IdempotencyRecordRepository.class);
+        when(recordRepository.findByScopeAndIdempotencyKey(anyString(), anyString())).thenReturn(Optional.empty());
+        when(recordRepository.saveAndFlush(any(IdempotencyRecord.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        idempotencyService = new IdempotencyService(recordRepository, new ObjectMapper(), mock(PlatformTransactionManager.class),
+                100, 5_000, 24);
+    }
+
+    @Test
+    void replayReturnsOriginalResourceWithoutRunningWriteAgain() {
+        AtomicInteger writes = new AtomicInteger();
+
+        Long first = idempotencyService.execute(IdempotencyService.ORDER_CREATE, "key-1", "waiter", "body",
+                () -> 40L + writes.incrementAndGet(), id -> id, id -> -id);
+        Long second = idempotencyService.execute(IdempotencyService.ORDER_CREATE, "key-1", "waiter", "body",
+                () -> 40L + writes.incrementAndGet(), id -> id, id -> -id);
+
+        assertEquals(41L, first);
+        assertEquals(-41L, second);
+        assertEquals(1, writes.get());
+        verify(recordRepository, times(1)).saveAndFlush(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    void replayAfterCacheMissUsesStoredRecord() {
+        IdempotencyRecord stored = new IdempotencyRecord(IdempotencyService.PAYMENT_CREATE, "key-2", "waiter", hash("body"));
+        stored.setResourceId(77L);
+        when(recordRepository.findByScopeAndIdempotencyKey(IdempotencyService.PAYMENT_CREATE, "key-2"))
+                .thenReturn(Optional.of(stored));
+
+        Long result = idempotencyService.execute(IdempotencyService.PAYMENT_CREATE, "key-2", "waiter", "body",
+                () -> fail("write must not run"), id -> id, id -> id);
+
+        assertEquals(77L, result);
+        verify(recordRepository, never()).saveAndFlush(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    void concurrentDuplicatesWaitForFirstRequest() throws Exception {
+        int threads = 8;
+        AtomicInteger writes = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Long>> results = new ArrayList<>();
+
+        for (int i = 0; i < threads; i++) {
+            results.add(executor.submit(() -> idempotencyService.execute(IdempotencyService.ORDER_CREATE, "key-3",
+                    "waiter", "body",
+                    () -> {
+                        writes.incrementAndGet();
+                        await(release);
+                        return 5L;
+                    },
+                    id -> id, id -> id)));
+        }
+        Thread.sleep(100);
+        release.countDown();
+
+        for (Future<Long> result : results) {
+            assertEquals(5L, result.get(5, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+        assertEquals(1, writes.get());
+    }
+
+    @Test
+    void failedRequestDoesNotConsumeKey() {
+        assertThrows(RuntimeException.class, () -> idempotencyService.execute(IdempotencyService.ORDER_CREATE, "key-4",
+                "waiter", "body",
+                () -> {
+                    throw new RuntimeException("Table not found");
+                }, (Long id) -> id, id -> id));
+
+        Long result = idempotencyService.execute(IdempotencyService.ORDER_CREATE, "key-4", "waiter", "body",
+                () -> 9L, id -> id, id -> id);
+
+        assertEquals(9L, result);
+    }
+
+    @Test
+    void keyReusedWithDifferentRequestIsRejected() {
+        AtomicInteger writes = new AtomicInteger();
+        idempotencyService.execute(IdempotencyService.PAYMENT_PROCESS, "key-5", "waiter", List.of(1L, "tx-1"),
+                () -> (long) writes.incrementAndGet(), id -> id, id -> id);
+
+        // Тот же ключ для другого платежа: второй платёж не должен молча получить ответ первого
+        assertThrows(ConflictException.class, () -> idempotencyService.execute(IdempotencyService.PAYMENT_PROCESS,
+                "key-5", "waiter", List.of(2L, "tx-1"), () -> (long) writes.incrementAndGet(), id -> id, id -> id));
+        assertEquals(1, writes.get());
+    }
+
+    @Test
+    void keyOfAnotherUserIsNotReplayed() {
+        IdempotencyRecord stored = new IdempotencyRecord(IdempotencyService.ORDER_CREATE, "key-6", "alice", hash("body"));
+        stored.setResourceId(12L);
+        when(recordRepository.findByScopeAndIdempotencyKey(IdempotencyService.ORDER_CREATE, "key-6"))
+                .thenReturn(Optional.of(stored));
+
+        assertThrows(ConflictException.class, () -> idempotencyService.execute(IdempotencyService.ORDER_CREATE,
+                "key-6", "bob", "body", () -> fail("write must not run"), (Long id) -> id, id -> id));
+    }
+
+    @Test
+    void recordWithoutBindingIsNotReplayed() {
+        IdempotencyRecord stored = new IdempotencyRecord(IdempotencyService.ORDER_CREATE, "key-7", null, null);
+        stored.setResourceId(13L);
+        when(recordRepository.findByScopeAndIdempotencyKey(IdempotencyService.ORDER_CREATE, "key-7"))
+                .thenReturn(Optional.of(stored));
+
+        assertThrows(ConflictException.class, () -> idempotencyService.execute(IdempotencyService.ORDER_CREATE,
+                "key-7", "waiter", "body", () -> fail("write must not run"), (Long id) -> id, id -> id));
+    }
+
+    @Test
+    void requestsWithoutKeyAlwaysRun() {
+        AtomicInteger writes = new AtomicInteger();
+
+        idempotencyService.execute(IdempotencyService.ORDER_CREATE, null, "waiter", "body",
+                () -> (long) writes.incrementAndGet(), id -> id, id -> id);
+        idempotencyService.execute(IdempotencyService.ORDER_CREATE, null, "waiter", "body",
+                () -> (long) writes.incrementAndGet(), id -> id, id -> id);
+
+        assertEquals(2, writes.get());
+        verifyNoInteractions(recordRepository);
+    }
+
+    // Тот же отпечаток, что считает сервис: SHA-256 от JSON запроса
+    private static String hash(Object request) {
+        try {
+            byte[] json = new ObjectMapper().writeValueAsBytes(request);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.restaurant.service;
+
+import com.restaurant.dto.KitchenDTO;
+import com.restaurant.entity.*;
+import com.restaurant.repository.OrderItemRepository;
+import com.restaurant.repository.OrderStatusRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class KitchenSchedulerTest {
+
+    private OrderItemRepository orderItemRepository;
+    private OrderService orderService;
+    private OrderStatusRegistry orderStatusRegistry;
+    private KitchenScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        orderItemRepository = mock(OrderItemRepository.class);
+        orderService = mock(OrderService.class);
+        OrderStatusRepository orderStatusRepository = mock(OrderStatusRepository.class);
+        when(orderStatusRepository.findAll()).thenReturn(List.of(
+                new OrderStatus(2L, OrderStatus.COOKING), new OrderStatus(4L, OrderStatus.READY)));
+        orderStatusRegistry = new OrderStatusRegistry(orderStatusRepository, 0);
+        orderStatusRegistry.refresh();
+
+        scheduler = new KitchenScheduler(orderItemRepository, orderStatusRegistry, orderService,
+                mock(PlatformTransactionManager.class), 10, 30, OrderStatus.READY);
+        scheduler.checkReadyStatus();
+        when(orderItemRepository.markKitchenStarted(anyLong(), anyString(), any(), any())).thenReturn(1);
+        when(orderItemRepository.markKitchenDone(anyLong(), eq("chef"), any(), any(), any())).thenReturn(1);
+        when(orderItemRepository.addKitchenPortions(anyLong(), anyInt(), anyString(), any(), any())).thenReturn(1);
+    }
+
+    @Test
+    void tasksAreOrderedByLatestStartThenAge() {
+        LocalDateTime now = LocalDateTime.of(2024, 5, 1, 19, 0);
+        MenuCategory hot = new MenuCategory("Горячее");
+        hot.setKitchenStation("grill");
+        // Стейк: заказ позже, но готовится дольше - начинать его нужно раньше
+        OrderItem soup = item(1L, order(10L, now), dish(1L, "Soup", hot, 5));
+        OrderItem steak = item(2L, order(11L, now.plusMinutes(5)), dish(2L, "Steak", hot, 20));
+        OrderItem fries = item(3L, order(12L, now.plusMinutes(1)), dish(3L, "Fries", hot, 5));
+        when(orderItemRepository.findOpenKitchenItems(eq(2L), any())).thenReturn(List.of(soup, steak, fries));
+
+        scheduler.rebuild();
+
+        List<KitchenDTO.TaskResponse> queue = scheduler.getQueue("grill", 10);
+        assertEquals(List.of("Steak", "Soup", "Fries"), queue.stream().map(KitchenDTO.TaskResponse::getDishName).toList());
+        assertEquals(1, scheduler.getStations().size());
+        assertEquals(3, scheduler.getStations().get(0).getQueued());
+    }
+
+    @Test
+    void completingLastTaskMovesOrderToReady() {
+        MenuCategory salads = new MenuCategory("Салаты");
+        Order order = order(20L, LocalDateTime.now());
+        when(orderItemRepository.findOpenKitchenItems(eq(2L), any())).thenReturn(List.of(
+                item(5L, order, dish(4L, "Caesar", salads, 7))));
+        when(orderItemRepository.countOpenKitchenItems(eq(20L), any())).thenReturn(0L);
+        scheduler.rebuild();
+
+        KitchenDTO.TaskResponse task = scheduler.takeNext("Салаты", "chef");
+        assertEquals("IN_PROGRESS", task.getState());
+        assertNull(scheduler.takeNext("Салаты", "chef"));
+        assertThrows(RuntimeException.class, () -> scheduler.complete(5L, "other-chef"));
+
+        scheduler.complete(5L, "chef");
+
+        verify(orderService).updateOrderStatus(20L, OrderStatus.READY);
+        assertEquals(0, scheduler.getStations().get(0).getInProgress());
+    }
+
+    @Test
+    void taskTakenOnAnotherNodeCanBeCompleted() {
+        MenuCategory salads = new MenuCategory("Салаты");
+        OrderItem item = item(81L, order(80L, LocalDateTime.now()), dish(9L, "Nicoise", salads, 6));
+        item.setKitchenStatus(OrderItem.KitchenStatus.IN_PROGRESS);
+        item.setKitchenChef("chef");
+        when(orderItemRepository.findById(81L)).thenReturn(Optional.of(item));
+        when(orderItemRepository.countOpenKitchenItems(eq(80L), any())).thenReturn(0L);
+
+        assertThrows(RuntimeException.class, () -> scheduler.complete(81L, "other-chef"));
+        KitchenDTO.TaskResponse task = scheduler.complete(81L, "chef");
+
+        assertEquals("chef", task.getChef());
+        verify(orderService).updateOrderStatus(80L, OrderStatus.READY);
+    }
+
+    @Test
+    void syncDuringTakeDoesNotRequeueTakenTask() {
+        MenuCategory salads = new MenuCategory("Салаты");
+        Order order = order(60L, LocalDateTime.now());
+        OrderItem salad = item(61L, order, dish(5L, "Greek", salads, 5));
+        when(orderItemRepository.findOpenKitchenItems(eq(2L), any())).thenReturn(List.of(salad));
+        // Сверка читает позицию ещё не взятой - пока повар записывает отметку в БД
+        when(orderItemRepository.findOpenKitchenItemsByOrderId(eq(60L), any())).thenReturn(List.of(salad));
+        when(orderItemRepository.markKitchenStarted(eq(61L), anyString(), any(), any())).thenAnswer(invocation -> {
+            scheduler.syncOrder(60L, true);
+            return 1;
+        });
+        scheduler.rebuild();
+
+        assertEquals("IN_PROGRESS", scheduler.takeNext("Салаты", "chef").getState());
+
+        assertTrue(scheduler.getQueue("Салаты", 10).isEmpty());
+        assertNull(scheduler.takeNext("Салаты", "other-chef"));
+    }
+
+    @Test
+    void batchPortionsAreAllocatedFifoAcrossOrders() {
+        LocalDateTime now = LocalDateTime.now();
+        MenuCategory soups = new MenuCategory("Супы");
+        Dish borscht = dish(7L, "Borscht", soups, 10);
+        OrderItem first = item(31L, order(30L, now.minusMinutes(10)), borscht, 3);
+        OrderItem second = item(41L, order(40L, now.minusMinutes(5)), borscht, 4);
+        second.setKitchenDoneQuantity(1);
+        OrderItem third = item(51L, order(50L, now), borscht, 2);
+        when(orderItemRepository.findOpenKitchenItems(eq(2L), any())).thenReturn(List.of(third, first, second));
+        when(orderItemRepository.countOpenKitchenItems(anyLong(), any())).thenReturn(0L);
+        scheduler.rebuild();
+
+        KitchenDTO.DishBatch batch = scheduler.getDish(7L);
+        assertEquals(8, batch.getOutstanding());
+        assertEquals(List.of(31L, 41L, 51L), batch.getItems().stream().map(KitchenDTO.BatchItem::getTaskId).toList());
+
+        KitchenDTO.BatchResult result = scheduler.completePortions(7L, 5, "chef");
+
+        assertEquals(5, result.getAllocated());
+        assertEquals(2, result.getAllocations().size());
+        assertTrue(result.getAllocations().get(0).isItemDone());
+        assertFalse(result.getAllocations().get(1).isItemDone());
+        verify(orderItemRepository).addKitchenPortions(eq(31L), eq(3), eq("chef"), any(), any());
+        verify(orderItemRepository).addKitchenPortions(eq(41L), eq(2), eq("chef"), any(), any());
+        verify(orderService).updateOrderStatus(30L, OrderStatus.READY);
+        verify(orderService, never()).updateOrderStatus(40L, OrderStatus.READY);
+
+        // Осталось: 1 порция во втором заказе и 2 в третьем
+        assertEquals(3, scheduler.getDish(7L).getOutstanding());
+        assertEquals(2, scheduler.getQueue("Супы", 10).size());
+    }
+
+    @Test
+    void unknownReadyStatusLeavesOrderCooking() {
+        KitchenScheduler misconfigured = new KitchenScheduler(orderItemRepository, orderStatusRegistry, orderService,
+                mock(PlatformTransactionManager.class), 10, 30, "выдан");
+        misconfigured.checkReadyStatus();
+        MenuCategory salads = new MenuCategory("Салаты");
+        when(orderItemRepository.findOpenKitchenItems(eq(2L), any())).thenReturn(List.of(
+                item(71L, order(70L, LocalDateTime.now()), dish(8L, "Olivier", salads, 5))));
+        when(orderItemRepository.countOpenKitchenItems(eq(70L), any())).thenReturn(0L);
+        misconfigured.rebuild();
+        misconfigured.takeNext("Салаты", "chef");
+
+        misconfigured.complete(71L, "chef");
+
+        assertEquals(0, misconfigured.getStations().get(0).getInProgress());
+        verify(orderService, never()).updateOrderStatus(anyLong(), anyString());
+    }
+
+    private static Order order(Long id, LocalDateTime createdAt) {
+        Order order = new Order("ORD-" + id, new RestaurantTable("T" + id, 2), new OrderStatus(2L, OrderStatus.COOKING));
+        order.setId(id);
+        order.setCreatedAt(createdAt);
+        return order;
+    }
+
+    private static Dish dish(Long id, String name, MenuCategory category, int prepMinutes) {
+        Dish dish = new Dish(name, BigDecimal.TEN, category);
+        dish.setId(id);
+        dish.setPrepMinutes(prepMinutes);
+        return dish;
+    }
+
+    private static OrderItem item(Long id, Order order, Dish dish) {
+        return item(id, order, dish, 1);
+    }
+
+    private static OrderItem item(Long id, Order order, Dish dish, int quantity) {
+        OrderItem item = new OrderItem(order, dish, quantity, null);
+        item.setId(id);
+        return item;
+    }
+}
@@ -0,0 +1,169 @@
+package com.restaurant.service;
+
+import com.restaurant.dto.KitchenDTO;
+import com.restaurant.dto.OrderDTO;
+import com.restaurant.entity.Order;
+import com.restaurant.entity.OrderStatus;
+import com.restaurant.entity.RestaurantTable;
+import com.restaurant.event.OrderEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class KitchenTicketStreamTest {
+
+    private final Map<SseEmitter, BlockingQueue<Object>> delivered = new ConcurrentHashMap<>();
+    // Первый экран, получивший событие, "зависает" до снятия защёлки
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicReference<SseEmitter> stalledScreen = new AtomicReference<>();
+    private volatile boolean stallFirstScreen;
+    private KitchenTicketStream stream;
+
+    @BeforeEach
+    void setUp() {
+        OrderService orderService = mock(OrderService.class);
+        when(orderService.getOrdersByStatus(OrderStatus.COOKING)).thenReturn(List.of(order(1L, OrderStatus.COOKING)));
+
+        // Вместо записи в сокет события складываются в очередь экрана
+        stream = new KitchenTicketStream(orderService, 60_000) {
+            @Override
+            void deliver(SseEmitter emitter, Object event) throws IOException {
+                if (stallFirstScreen && (stalledScreen.compareAndSet(null, emitter) || stalledScreen.get() == emitter)) {
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                delivered.computeIfAbsent(emitter, e -> new LinkedBlockingQueue<>()).add(event);
+            }
+        };
+        stream.loadSnapshot();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        stream.shutdown();
+    }
+
+    @Test
+    void newScreenGetsSnapshotThenDeltas() throws Exception {
+        SseEmitter screen = stream.subscribe(null);
+
+        KitchenDTO.Snapshot snapshot = (KitchenDTO.Snapshot) next(screen);
+        assertEquals(0, snapshot.getSequence());
+        assertEquals(1, snapshot.getOrders().size());
+
+        stream.onOrderEvent(OrderEvent.created(order(2L, OrderStatus.COOKING)));
+        stream.onOrderEvent(OrderEvent.statusChanged(order(1L, OrderStatus.PAID), OrderStatus.COOKING));
+        // Заказ не на кухне - событие не порождает изменения
+        stream.onOrderEvent(OrderEvent.created(order(3L, OrderStatus.ACCEPTED)));
+
+        KitchenDTO.Delta added = (KitchenDTO.Delta) next(screen);
+        KitchenDTO.Delta removed = (KitchenDTO.Delta) next(screen);
+        assertEquals(KitchenDTO.Delta.Type.ORDER_ADDED, added.getType());
+        assertEquals(1, added.getSequence());
+        assertEquals(KitchenDTO.Delta.Type.STATUS_CHANGED, removed.getType());
+        assertEquals(2, removed.getSequence());
+        assertNull(delivered.get(screen).poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void reconnectingScreenResumesFromLastEventId() throws Exception {
+        SseEmitter first = stream.subscribe(null);
+        KitchenDTO.Snapshot snapshot = (KitchenDTO.Snapshot) next(first);
+        stream.onOrderEvent(OrderEvent.created(order(2L, OrderStatus.COOKING)));
+        stream.onOrderEvent(OrderEvent.created(order(3L, OrderStatus.COOKING)));
+        next(first);
+        next(first);
+
+        SseEmitter resumed = stream.subscribe(snapshot.getStreamId() + ":1");
+        KitchenDTO.Delta missed = (KitchenDTO.Delta) next(resumed);
+        assertEquals(2, missed.getSequence());
+        assertEquals(3L, missed.getOrderId());
+
+        // Номер чужого потока (другой узел или перезапуск) - экран получает новый снимок
+        SseEmitter foreign = stream.subscribe("other:1");
+        assertInstanceOf(KitchenDTO.Snapshot.class, next(foreign));
+    }
+
+    @Test
+    void stalledScreenDoesNotBlockOrderEventsOrOtherScreens() throws Exception {
+        stallFirstScreen = true;
+        SseEmitter slow = stream.subscribe(null);
+        while (stalledScreen.get() == null) {
+            Thread.sleep(1);
+        }
+        assertSame(slow, stalledScreen.get());
+        SseEmitter fast = stream.subscribe(null);
+        next(fast);
+
+        long start = System.nanoTime();
+        for (long id = 10; id < 20; id++) {
+            stream.onOrderEvent(OrderEvent.created(order(id, OrderStatus.COOKING)));
+        }
+        stream.heartbeat();
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1_000);
+
+        for (int i = 0; i < 10; i++) {
+            assertInstanceOf(KitchenDTO.Delta.class, next(fast));
+        }
+
+        release.countDown();
+        assertInstanceOf(KitchenDTO.Snapshot.class, next(slow));
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i + 1, ((KitchenDTO.Delta) next(slow)).getSequence());
+        }
+    }
+
+    @Test
+    void lateOlderEventDoesNotOverwriteNewerTicket() throws Exception {
+        SseEmitter screen = stream.subscribe(null);
+        next(screen);
+
+        stream.onOrderEvent(OrderEvent.created(order(2L, OrderStatus.COOKING, 3L)));
+        // Снимок версии 2 закоммичен раньше, но событие о нём пришло позже
+        stream.onOrderEvent(OrderEvent.statusChanged(order(2L, OrderStatus.ACCEPTED, 2L), OrderStatus.COOKING));
+
+        assertEquals(KitchenDTO.Delta.Type.ORDER_ADDED, ((KitchenDTO.Delta) next(screen)).getType());
+        assertNull(delivered.get(screen).poll(100, TimeUnit.MILLISECONDS));
+
+        SseEmitter other = stream.subscribe(null);
+        KitchenDTO.Snapshot snapshot = (KitchenDTO.Snapshot) next(other);
+        assertEquals(2, snapshot.getOrders().size());
+    }
+
+    private Object next(SseEmitter emitter) throws InterruptedException {
+        Object event = delivered.computeIfAbsent(emitter, e -> new LinkedBlockingQueue<>()).poll(5, TimeUnit.SECONDS);
+        assertNotNull(event, "No event delivered to the screen");
+        return event;
+    }
+
+    private static OrderDTO.OrderResponse order(Long id, String status) {
+        return order(id, status, null);
+    }
+
+    private static OrderDTO.OrderResponse order(Long id, String status, Long version) {
+        Order order = new Order("ORD-" + id, new RestaurantTable("T" + id, 2), new OrderStatus(1L, status));
+        order.setId(id);
+        order.setVersion(version);
+        order.setCreatedAt(LocalDateTime.now());
+        return new OrderDTO.OrderResponse(order);
+    }
+}
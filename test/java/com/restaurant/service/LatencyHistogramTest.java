@@ -0,0 +1,45 @@
+package com.restaurant.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void bucketsCoverEveryValueWithBoundedError() {
+        for (long value = 0; value < 2_000_000; value++) {
+            int index = LatencyHistogram.indexOf(value);
+            long upper = LatencyHistogram.upperBoundOf(index);
+            assertTrue(value <= upper);
+            assertTrue(upper - value <= value / 16 + 1, "error too large for " + value);
+        }
+        assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.indexOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    void percentilesSurviveSerializationAndMerge() {
+        LatencyHistogram first = new LatencyHistogram();
+        LatencyHistogram second = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            (i % 2 == 0 ? first : second).record(i * 1000L);
+        }
+
+        LatencyHistogram merged = LatencyHistogram.fromBytes(first.toBytes());
+        merged.add(LatencyHistogram.fromBytes(second.toBytes()));
+
+        assertEquals(1000, merged.getTotalCount());
+        assertEquals(1_000_000, merged.getMaxValue());
+        assertEquals(500_000, merged.percentile(50), 500_000 / 16.0);
+        assertEquals(950_000, merged.percentile(95), 950_000 / 16.0);
+        assertEquals(990_000, merged.percentile(99), 990_000 / 16.0);
+    }
+
+    @Test
+    void emptyHistogramReportsZero() {
+        LatencyHistogram histogram = LatencyHistogram.fromBytes(new LatencyHistogram().toBytes());
+
+        assertEquals(0, histogram.getTotalCount());
+        assertEquals(0, histogram.percentile(99));
+    }
+}
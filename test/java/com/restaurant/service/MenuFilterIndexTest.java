@@ -0,0 +1,86 @@
+package com.restaurant.service;
+
+import com.restaurant.dto.MenuDTO;
+import com.restaurant.entity.Allergen;
+import com.restaurant.entity.Dish;
+import com.restaurant.entity.MenuCategory;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MenuFilterIndexTest {
+
+    private final MenuCategory salads = category(1L, "Салаты");
+    private final MenuCategory desserts = category(2L, "Десерты");
+
+    private final MenuSnapshot snapshot = snapshot(
+            dish(1L, salads, "Орехи грецкие, сыр", false),
+            dish(2L, salads, "Пшеничные гренки, яйцо", true),
+            dish(3L, desserts, "Миндальная мука, молоко", true),
+            dish(4L, desserts, "без орехов и глютена", false),
+            dish(5L, salads, null, false));
+
+    @Test
+    void parsesFreeTextIntoVocabulary() {
+        assertEquals(List.of("MILK", "NUTS"), Allergen.codesOf(Allergen.parseMask("Орехи грецкие, сыр")));
+        assertEquals(List.of("GLUTEN", "EGGS"), Allergen.codesOf(Allergen.parseMask("Wheat; eggs")));
+        assertEquals(0L, Allergen.parseMask("без орехов, без глютена"));
+        assertEquals(Allergen.MILK.bit(), Allergen.parseMask("без орехов и глютена, сливки"));
+        assertEquals(Allergen.PEANUTS.bit(), Allergen.parseMask("арахисовая паста"));
+        assertThrows(RuntimeException.class, () -> Allergen.maskOfCodes(List.of("NUTS", "PIZZA")));
+    }
+
+    @Test
+    void keywordsDoNotMatchUnrelatedWords() {
+        assertEquals(0L, Allergen.parseMask("eggplant, nutmeg"));
+        assertEquals(0L, Allergen.parseMask("сырой лук, сыровяленая ветчина"));
+        assertEquals(List.of("EGGS", "NUTS"), Allergen.codesOf(Allergen.parseMask("egg, nuts")));
+        assertEquals(List.of("FISH"), Allergen.codesOf(Allergen.parseMask("anchovies")));
+        assertEquals(List.of("MILK"), Allergen.codesOf(Allergen.parseMask("с сыром, сырный соус")));
+    }
+
+    @Test
+    void excludesAndIncludesAllergens() {
+        assertEquals(List.of(2L, 4L, 5L), ids(null, null, List.of(), List.of("nuts")));
+        assertEquals(List.of(4L, 5L), ids(null, null, List.of(), List.of("NUTS", "GLUTEN")));
+        assertEquals(List.of(1L, 3L), ids(null, null, List.of("NUTS", "MILK"), List.of("GLUTEN")));
+        assertEquals(List.of(3L), ids(null, true, List.of("NUTS"), List.of()));
+    }
+
+    @Test
+    void combinesWithCategoryAndPromotion() {
+        assertEquals(List.of(2L), ids(1L, true, List.of(), List.of("NUTS")));
+        assertEquals(List.of(5L), ids(1L, false, List.of(), List.of("NUTS", "MILK")));
+        assertEquals(List.of(4L), ids(2L, false, List.of(), List.of()));
+        assertTrue(ids(99L, null, List.of(), List.of()).isEmpty());
+    }
+
+    private List<Long> ids(Long categoryId, Boolean promotional, List<String> include, List<String> exclude) {
+        return snapshot.filterActiveDishes(categoryId, promotional, Allergen.maskOfCodes(include),
+                Allergen.maskOfCodes(exclude)).stream().map(MenuDTO.DishResponse::getId).toList();
+    }
+
+    private static MenuSnapshot snapshot(MenuDTO.DishResponse... dishes) {
+        return new MenuSnapshot(1, LocalDateTime.now(), List.of(dishes), List.of(), Map.of(), List.of(),
+                new MenuSnapshot.Body(new byte[0]), new MenuSnapshot.Body(new byte[0]));
+    }
+
+    private static MenuCategory category(Long id, String name) {
+        MenuCategory category = new MenuCategory(name);
+        category.setId(id);
+        return category;
+    }
+
+    private static MenuDTO.DishResponse dish(Long id, MenuCategory category, String allergens, boolean promotional) {
+        Dish dish = new Dish("Dish " + id, BigDecimal.TEN, category);
+        dish.setId(id);
+        dish.setAllergens(allergens);
+        dish.setIsOnPromotion(promotional);
+        return new MenuDTO.DishResponse(dish);
+    }
+}
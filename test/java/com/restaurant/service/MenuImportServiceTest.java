@@ -0,0 +1,185 @@
+package com.restaurant.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.restaurant.dto.MenuDTO;
+import com.restaurant.entity.MenuCategory;
+import com.restaurant.event.MenuEvent;
+import com.restaurant.repository.DishRepository;
+import com.restaurant.repository.MenuCategoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class MenuImportServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private DataVersionService dataVersionService;
+    private ApplicationEventPublisher eventPublisher;
+    private MenuImportService service;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        DishRepository dishRepository = mock(DishRepository.class);
+        MenuCategoryRepository categoryRepository = mock(MenuCategoryRepository.class);
+        dataVersionService = mock(DataVersionService.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+
+        MenuCategory soups = new MenuCategory();
+        soups.setId(1L);
+        soups.setCategoryName("Супы");
+        when(categoryRepository.findAll()).thenReturn(List.of(soups));
+        List<Object[]> keys = new ArrayList<>();
+        keys.add(new Object[]{10L, "Борщ", 1L});
+        when(dishRepository.findAllKeys()).thenReturn(keys);
+
+        service = new MenuImportService(jdbcTemplate, dishRepository, categoryRepository, new ObjectMapper(),
+                mock(PlatformTransactionManager.class), dataVersionService, mock(PriceHistoryService.class),
+                eventPublisher, 2);
+    }
+
+    @Test
+    void csvRowsAreUpsertedInBatchesAndBadRowsReported() {
+        String csv = "\uFEFFdish_name,category,price,composition\r\n" +
+                "борщ,супы,350.00,\"свёкла, капуста\"\r\n" +
+                "Солянка,Супы,420,\"мясо\nоливки\"\r\n" +
+                "Уха,Десерты,300,\r\n" +
+                "Щи,Супы,abc,\r\n" +
+                "Солянка,Супы,420,\r\n" +
+                "Окрошка,1,280,\r\n";
+
+        MenuDTO.ImportResult result = service.importDishes(stream(csv), MenuImportService.CSV);
+
+        assertEquals(6, result.getTotal());
+        assertEquals(2, result.getInserted());
+        assertEquals(1, result.getUpdated());
+        assertEquals(3, result.getFailed());
+        assertEquals(List.of(3, 4, 5), result.getErrors().stream().map(MenuDTO.RowError::getRow).toList());
+        assertEquals("Unknown category: Десерты", result.getErrors().get(0).getMessage());
+        assertEquals("Invalid price: abc", result.getErrors().get(1).getMessage());
+
+        // Пачка из двух строк, затем остаток; версия меню растёт в каждой пачке, событие - одно
+        verify(jdbcTemplate, times(2)).batchUpdate(startsWith("INSERT"), anyCollection(), eq(1), any());
+        verify(jdbcTemplate).batchUpdate(startsWith("UPDATE"), anyCollection(), eq(1), any());
+        verify(dataVersionService, times(2)).bump(DataVersionService.MENU);
+        verify(eventPublisher).publishEvent(any(MenuEvent.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void updateTouchesOnlyColumnsPresentInInput() throws SQLException {
+        MenuDTO.ImportResult result = service.importDishes(
+                stream("id,dish_name,category,price\n10,Борщ,Супы,390\n"), MenuImportService.CSV);
+
+        assertEquals(1, result.getUpdated());
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Collection<Object>> rows = ArgumentCaptor.forClass(Collection.class);
+        ArgumentCaptor<ParameterizedPreparedStatementSetter<Object>> setter =
+                ArgumentCaptor.forClass(ParameterizedPreparedStatementSetter.class);
+        verify(jdbcTemplate).batchUpdate(sql.capture(), rows.capture(), eq(1), setter.capture());
+        // Описание, состав, картинка и акция блюда не затираются
+        for (String column : List.of("description", "composition", "image_url", "thumbnail_url",
+                "is_on_promotion", "promotion_price", "applied_promotion_id", "is_active")) {
+            assertFalse(sql.getValue().contains(column), column);
+        }
+
+        // Параметров столько же, сколько мест в запросе
+        PreparedStatement ps = mock(PreparedStatement.class);
+        setter.getValue().setValues(ps, rows.getValue().iterator().next());
+        long placeholders = sql.getValue().chars().filter(c -> c == '?').count();
+        verify(ps).setLong((int) placeholders, 10L);
+        verify(ps).setBigDecimal(3, new BigDecimal("390"));
+    }
+
+    @Test
+    void jsonUpdateWithoutPromotionPairIsRejected() {
+        String json = "[{\"id\":10,\"dishName\":\"Борщ\",\"category\":\"Супы\",\"price\":390,\"promotionPrice\":300}]";
+
+        MenuDTO.ImportResult result = service.importDishes(stream(json), MenuImportService.JSON);
+
+        assertEquals(0, result.getUpdated());
+        assertEquals("is_on_promotion and promotion_price must be updated together",
+                result.getErrors().get(0).getMessage());
+    }
+
+    @Test
+    void jsonMappingErrorSkipsOnlyThatElement() {
+        String json = "[{\"dishName\":\"Борщ\",\"category\":\"Супы\",\"price\":\"дорого\"}," +
+                "{\"id\":10,\"dishName\":\"Борщ\",\"category\":\"Супы\",\"price\":390,\"isActive\":false}]";
+
+        MenuDTO.ImportResult result = service.importDishes(stream(json), MenuImportService.JSON);
+
+        assertEquals(2, result.getTotal());
+        assertEquals(1, result.getUpdated());
+        assertEquals(1, result.getErrors().get(0).getRow());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failedBatchIsRetriedRowByRow() {
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT"), anyCollection(), anyInt(), any()))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry"));
+        when(jdbcTemplate.update(startsWith("INSERT"), any(PreparedStatementSetter.class)))
+                .thenThrow(new DataIntegrityViolationException("Data too long"))
+                .thenReturn(1);
+
+        MenuDTO.ImportResult result = service.importDishes(
+                stream("dish_name,category,price\nЩи,Супы,300\nУха,Супы,320\n"), MenuImportService.CSV);
+
+        assertEquals(1, result.getInserted());
+        assertEquals(1, result.getFailed());
+        assertEquals(1, result.getErrors().get(0).getRow());
+        ArgumentCaptor<Collection<?>> batch = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), batch.capture(), anyInt(), any());
+        assertEquals(2, batch.getValue().size());
+    }
+
+    @Test
+    void exportedFieldsReadBackUnchanged() throws IOException {
+        MenuDTO.DishRow row = new MenuDTO.DishRow();
+        row.setId(5L);
+        row.setDishName("Салат \"Цезарь\"");
+        row.setCategory("Салаты");
+        row.setPrice(new BigDecimal("450.00"));
+        row.setComposition("курица,\r\nсалат");
+        row.setIsActive(true);
+
+        StringWriter out = new StringWriter();
+        CsvFormat.writeRecord(out, MenuImportService.COLUMNS);
+        CsvFormat.writeRecord(out, MenuImportService.toFields(row));
+
+        CsvFormat.RecordReader reader = new CsvFormat.RecordReader(new StringReader(out.toString()));
+        assertEquals(MenuImportService.COLUMNS, reader.next());
+        List<String> fields = reader.next();
+        assertNull(reader.next());
+        String[] values = fields.stream().map(v -> v.isEmpty() ? null : v).toArray(String[]::new);
+        MenuDTO.DishRow parsed = MenuImportService.fromFields(values);
+        assertEquals(MenuImportService.toFields(row), MenuImportService.toFields(parsed));
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,171 @@
+package com.restaurant.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.restaurant.entity.Dish;
+import com.restaurant.entity.MenuCategory;
+import com.restaurant.event.MenuEvent;
+import com.restaurant.repository.DishRepository;
+import com.restaurant.repository.MenuCategoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class MenuSnapshotServiceTest {
+
+    private DishRepository dishRepository;
+    private MenuCategoryRepository categoryRepository;
+    private DataVersionService dataVersionService;
+    private MenuSnapshotService service;
+    private MenuCategory soups;
+
+    @BeforeEach
+    void setUp() {
+        dishRepository = mock(DishRepository.class);
+        categoryRepository = mock(MenuCategoryRepository.class);
+        dataVersionService = mock(DataVersionService.class);
+        when(dataVersionService.read(DataVersionService.MENU)).thenReturn(new DataVersionService.Version(0, null));
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        service = new MenuSnapshotService(dishRepository, categoryRepository, objectMapper,
+                mock(PlatformTransactionManager.class), mock(ApplicationEventPublisher.class), dataVersionService);
+        soups = new MenuCategory("Супы");
+        soups.setId(1L);
+        when(categoryRepository.findAllByOrderByDisplayOrderAsc()).thenReturn(List.of(soups));
+    }
+
+    @Test
+    void versionChangesOnlyWithContent() {
+        Dish borscht = dish(10L, "Борщ", "350.00");
+        when(dishRepository.findActiveWithCategory()).thenReturn(List.of(borscht));
+
+        MenuSnapshot first = service.current();
+        assertEquals(1, first.getVersion());
+        assertSame(first, service.rebuild());
+
+        borscht.setPrice(new BigDecimal("390.00"));
+        MenuSnapshot second = service.rebuild();
+        assertEquals(2, second.getVersion());
+        assertEquals(new BigDecimal("390.00"), second.getActiveDish(10L).getPrice());
+        assertSame(second, service.current());
+    }
+
+    @Test
+    void etagFollowsDataVersion() {
+        when(dishRepository.findActiveWithCategory()).thenReturn(List.of(dish(10L, "Борщ", "350.00")));
+        MenuSnapshot first = service.current();
+
+        // Изменение неактивного блюда: содержимое то же, но счётчик вырос
+        LocalDateTime modifiedAt = LocalDateTime.of(2024, 3, 1, 12, 0);
+        when(dataVersionService.read(DataVersionService.MENU)).thenReturn(new DataVersionService.Version(7, modifiedAt));
+        MenuSnapshot second = service.rebuild();
+
+        assertNotSame(first, second);
+        assertEquals(7, second.getDataVersion());
+        assertEquals(modifiedAt, second.getLastModified());
+        assertTrue(second.getEtag().startsWith("\"menu-7-"));
+        assertNotEquals(first.getEtag(), second.getEtag());
+        assertNotEquals(second.getEtag(), second.getEtag(true));
+
+        // Тот же снимок на другом узле даёт тот же ETag
+        assertEquals(second.getEtag(), second.withVersion(42, LocalDateTime.now()).getEtag());
+    }
+
+    @Test
+    void gzipBodyMatchesJson() throws IOException {
+        Dish borscht = dish(10L, "Борщ", "350.00");
+        borscht.setIsOnPromotion(true);
+        borscht.setPromotionPrice(new BigDecimal("300.00"));
+        when(dishRepository.findActiveWithCategory()).thenReturn(List.of(borscht, dish(11L, "Солянка", "420.00")));
+
+        MenuSnapshot snapshot = service.current();
+
+        MenuSnapshot.Body body = snapshot.getActiveDishesBody();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body.getGzip()))) {
+            assertArrayEquals(body.getJson(), in.readAllBytes());
+        }
+        String json = new String(body.getJson(), StandardCharsets.UTF_8);
+        assertTrue(json.startsWith("{\"success\":true"));
+        assertTrue(json.contains("Солянка"));
+        assertEquals(2, snapshot.getActiveDishes().size());
+        assertEquals(1, snapshot.getPromotionalDishes().size());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.getActiveDishes().clear());
+    }
+
+    @Test
+    void menuTreeGroupsActiveDishesByCategoryOrder() {
+        MenuCategory salads = new MenuCategory("Салаты");
+        salads.setId(2L);
+        MenuCategory desserts = new MenuCategory("Десерты");
+        desserts.setId(3L);
+        when(categoryRepository.findAllByOrderByDisplayOrderAsc()).thenReturn(List.of(salads, soups, desserts));
+        Dish caesar = new Dish("Цезарь", new BigDecimal("450.00"), salads);
+        caesar.setId(12L);
+        when(dishRepository.findActiveWithCategory())
+                .thenReturn(List.of(dish(10L, "Борщ", "350.00"), caesar, dish(11L, "Солянка", "420.00")));
+
+        String json = new String(service.current().getMenuTreeBody().getJson(), StandardCharsets.UTF_8);
+
+        // Порядок категорий - как в displayOrder, блюда внутри - как в снимке; пустые категории пропущены
+        assertTrue(json.indexOf("Салаты") < json.indexOf("Цезарь"));
+        assertTrue(json.indexOf("Цезарь") < json.indexOf("Супы"));
+        assertTrue(json.indexOf("Супы") < json.indexOf("Борщ"));
+        assertTrue(json.indexOf("Борщ") < json.indexOf("Солянка"));
+        assertFalse(json.contains("Десерты"));
+    }
+
+    @Test
+    void menuEventsAreRebuiltInBackgroundAndCoalesced() throws Exception {
+        Dish borscht = dish(10L, "Борщ", "350.00");
+        when(dishRepository.findActiveWithCategory()).thenReturn(List.of(borscht));
+        service.current();
+
+        CountDownLatch building = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(dishRepository.findActiveWithCategory()).thenAnswer(invocation -> {
+            building.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of(borscht);
+        });
+        try {
+            borscht.setPrice(new BigDecimal("390.00"));
+            service.onMenuEvent(new MenuEvent(10L));
+            assertTrue(building.await(5, TimeUnit.SECONDS));
+            // Сборка идёт, правки продолжаются: поток запроса не ждёт, все они дают одну следующую сборку
+            for (int i = 0; i < 20; i++) {
+                service.onMenuEvent(new MenuEvent(10L));
+            }
+            release.countDown();
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (service.current().getVersion() < 2 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertEquals(new BigDecimal("390.00"), service.current().getActiveDish(10L).getPrice());
+        } finally {
+            release.countDown();
+            service.shutdown();
+        }
+        verify(dishRepository, times(3)).findActiveWithCategory();
+    }
+
+    private Dish dish(Long id, String name, String price) {
+        Dish dish = new Dish(name, new BigDecimal(price), soups);
+        dish.setId(id);
+        return dish;
+    }
+}
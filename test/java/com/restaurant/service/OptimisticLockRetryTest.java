@@ -0,0 +1,69 @@
+package com.restaurant.service;
+
+import com.restaurant.exception.ConflictException;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class OptimisticLockRetryTest {
+
+    private final OptimisticLockRetry retry = new OptimisticLockRetry(mock(PlatformTransactionManager.class), 3);
+
+    @Test
+    void retriesUntilUpdateSucceeds() {
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = retry.executeWithRetry("Order 1", () -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException("Order", 1L);
+            }
+            return "ok";
+        });
+
+        assertEquals("ok", result);
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void reportsConflictWhenAttemptsAreExhausted() {
+        AtomicInteger calls = new AtomicInteger();
+
+        ConflictException ex = assertThrows(ConflictException.class, () -> retry.executeWithRetry("Order 1", () -> {
+            calls.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException("Order", 1L);
+        }));
+
+        assertEquals(3, calls.get());
+        assertTrue(ex.getMessage().startsWith("Order 1"));
+    }
+
+    @Test
+    void singleAttemptDoesNotRetry() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(ConflictException.class, () -> retry.execute("Payment 7", () -> {
+            calls.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException("Payment", 7L);
+        }));
+
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void otherErrorsAreNotRetried() {
+        AtomicInteger calls = new AtomicInteger();
+
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> retry.executeWithRetry("Order 1", () -> {
+            calls.incrementAndGet();
+            throw new RuntimeException("Order not found");
+        }));
+
+        assertEquals("Order not found", ex.getMessage());
+        assertEquals(1, calls.get());
+    }
+}
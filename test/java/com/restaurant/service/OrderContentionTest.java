@@ -0,0 +1,127 @@
+package com.restaurant.service;
+
+import com.restaurant.dto.OrderDTO;
+import com.restaurant.entity.*;
+import com.restaurant.exception.ConflictException;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Много официантов одновременно добавляют позиции в один заказ:
+// ни одно успешное добавление не должно потеряться, сумма заказа должна сходиться с позициями
+@SpringBootTest(properties = "app.concurrency.max-attempts=20")
+@ActiveProfiles("embedded")
+class OrderContentionTest {
+
+    private static final int THREADS = 16;
+    private static final int ADDS_PER_THREAD = 5;
+    private static final BigDecimal PRICE = BigDecimal.valueOf(150);
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private final List<Object> fixture = new ArrayList<>();
+    private Long orderId;
+    private Long dishId;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> {
+            String suffix = Long.toString(System.nanoTime() % 100_000_000L, 36);
+            UserRole role = new UserRole("RACE_" + suffix);
+            User waiter = new User("race_" + suffix, "hash", "Race Waiter", role);
+            RestaurantTable table = new RestaurantTable("R" + suffix, 4);
+            OrderStatus orderStatus = new OrderStatus("race-" + suffix);
+            MenuCategory category = new MenuCategory("Race " + suffix);
+            Dish dish = new Dish("Race dish " + suffix, PRICE, category);
+            List.of(role, waiter, table, orderStatus, category, dish).forEach(entity -> {
+                entityManager.persist(entity);
+                fixture.add(0, entity);
+            });
+
+            Order order = new Order("R" + suffix, null, table, waiter, orderStatus);
+            entityManager.persist(order);
+            entityManager.flush();
+            orderId = order.getId();
+            dishId = dish.getId();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Order order = entityManager.find(Order.class, orderId);
+            if (order != null) {
+                entityManager.remove(order);
+            }
+            entityManager.flush();
+            for (Object entity : fixture) {
+                entityManager.remove(entityManager.merge(entity));
+            }
+        });
+    }
+
+    @Test
+    void concurrentItemAdditionsAreNotLost() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ADDS_PER_THREAD; i++) {
+                    OrderDTO.OrderItemRequest item = new OrderDTO.OrderItemRequest();
+                    item.setDishId(dishId);
+                    item.setQuantity(1);
+                    try {
+                        orderService.addOrderItem(orderId, item);
+                        succeeded.incrementAndGet();
+                    } catch (ConflictException e) {
+                        conflicts.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        assertTrue(succeeded.get() > 0);
+        assertEquals(THREADS * ADDS_PER_THREAD, succeeded.get() + conflicts.get());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Order order = entityManager.find(Order.class, orderId);
+            assertEquals(succeeded.get(), order.getOrderItems().size());
+            BigDecimal expected = PRICE.multiply(BigDecimal.valueOf(succeeded.get()));
+            assertEquals(0, expected.compareTo(order.getTotalAmount()));
+        });
+    }
+}
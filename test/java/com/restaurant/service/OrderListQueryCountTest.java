@@ -0,0 +1,146 @@
+package com.restaurant.service;
+
+import com.restaurant.dto.OrderDTO;
+import com.restaurant.entity.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Количество SQL-запросов для списков заказов не должно зависеть от числа заказов и позиций,
+// а для создания заказа - от числа позиций в нём
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.restaurant.service.OrderListQueryCountTest$ReadCounter"})
+@ActiveProfiles("embedded")
+@Transactional
+class OrderListQueryCountTest {
+
+    private static final int ITEMS_PER_ORDER = 3;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderStatusRegistry orderStatusRegistry;
+
+    private Statistics statistics;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 25})
+    void orderListsUseFixedNumberOfQueries(int orders) {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        String suffix = Long.toString(System.nanoTime() % 100_000_000L, 36);
+        UserRole role = new UserRole("LIST_" + suffix);
+        User waiter = new User("list_" + suffix, "hash", "List Waiter", role);
+        RestaurantTable table = new RestaurantTable("L" + suffix, 4);
+        OrderStatus orderStatus = new OrderStatus("list-" + suffix);
+        MenuCategory category = new MenuCategory("List " + suffix);
+        entityManager.persist(role);
+        entityManager.persist(waiter);
+        entityManager.persist(table);
+        entityManager.persist(orderStatus);
+        entityManager.persist(category);
+
+        for (int i = 0; i < orders; i++) {
+            Order order = new Order("L" + suffix + "-" + i, null, table, waiter, orderStatus);
+            for (int j = 0; j < ITEMS_PER_ORDER; j++) {
+                Dish dish = new Dish("List dish " + suffix + "-" + i + "-" + j, BigDecimal.valueOf(200), category);
+                entityManager.persist(dish);
+                order.addOrderItem(new OrderItem(dish, 1));
+            }
+            entityManager.persist(order);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        orderStatusRegistry.refresh();
+
+        assertQueries(1, orders, () -> orderService.getOrdersByStatus(orderStatus.getStatusName()));
+        // Постраничные списки: id страницы + сами заказы
+        assertQueries(2, orders, () -> orderService.getOrdersByStatus(orderStatus.getStatusName(), null, 100).getContent());
+        assertQueries(2, orders, () -> orderService.getOrdersByTable(table.getTableNumber(), null, 100).getContent());
+        assertQueries(2, orders, () -> orderService.getOrdersByWaiter(waiter.getUsername(), null, 100).getContent());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 40, 120})
+    void createOrderReadsFixedNumberOfRows(int lines) {
+        String suffix = Long.toString(System.nanoTime() % 100_000_000L, 36);
+        UserRole role = new UserRole("CREATE_" + suffix);
+        User waiter = new User("create_" + suffix, "hash", "Create Waiter", role);
+        RestaurantTable table = new RestaurantTable("C" + suffix, 4);
+        MenuCategory category = new MenuCategory("Create " + suffix);
+        List.of(role, waiter, table, category).forEach(entityManager::persist);
+        List<OrderDTO.OrderItemRequest> items = new ArrayList<>();
+        for (int i = 0; i < lines; i++) {
+            Dish dish = new Dish("Create dish " + suffix + "-" + i, BigDecimal.valueOf(200), category);
+            entityManager.persist(dish);
+            OrderDTO.OrderItemRequest item = new OrderDTO.OrderItemRequest();
+            item.setDishId(dish.getId());
+            item.setQuantity(1);
+            items.add(item);
+        }
+        OrderDTO.CreateOrderRequest request = new OrderDTO.CreateOrderRequest();
+        request.setTableId(table.getId());
+        request.setOrderItems(items);
+        entityManager.flush();
+        entityManager.clear();
+
+        ReadCounter.reads.set(0);
+        OrderDTO.OrderResponse response = orderService.createOrder(request, waiter.getUsername());
+
+        assertEquals(lines, response.getOrderItems().size());
+        // Стол, официант и все блюда одним запросом; статусы берутся из памяти
+        assertEquals(3, ReadCounter.reads.get());
+    }
+
+    private void assertQueries(long expected, int orders, Supplier<List<OrderDTO.OrderResponse>> call) {
+        entityManager.clear();
+        statistics.clear();
+
+        List<OrderDTO.OrderResponse> result = call.get();
+
+        assertEquals(orders, result.size());
+        result.forEach(order -> assertEquals(ITEMS_PER_ORDER, order.getOrderItems().size()));
+        assertEquals(expected, statistics.getPrepareStatementCount());
+    }
+
+    // Считает чтения данных; выборки из таблиц-последовательностей (выдача id) не учитываются
+    public static class ReadCounter implements StatementInspector {
+
+        static final AtomicInteger reads = new AtomicInteger();
+
+        @Override
+        public String inspect(String sql) {
+            String statement = sql.trim().toLowerCase(Locale.ROOT);
+            if (statement.startsWith("select") && !statement.contains("_seq")) {
+                reads.incrementAndGet();
+            }
+            return sql;
+        }
+    }
+}
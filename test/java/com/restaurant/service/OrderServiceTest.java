@@ -0,0 +1,231 @@
+package com.restaurant.service;
+
+import com.restaurant.dto.OrderDTO;
+import com.restaurant.entity.*;
+import com.restaurant.event.OrderStatusChanged;
+import com.restaurant.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class OrderServiceTest {
+
+    private OrderRepository orderRepository;
+    private RestaurantTableRepository tableRepository;
+    private DishRepository dishRepository;
+    private OrderStatusRepository orderStatusRepository;
+    private UserRepository userRepository;
+    private DomainEventBus domainEventBus;
+    private OrderService orderService;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository = mock(OrderRepository.class);
+        tableRepository = mock(RestaurantTableRepository.class);
+        dishRepository = mock(DishRepository.class);
+        orderStatusRepository = mock(OrderStatusRepository.class);
+        userRepository = mock(UserRepository.class);
+        domainEventBus = mock(DomainEventBus.class);
+
+        when(orderStatusRepository.findAll()).thenReturn(List.of(
+                new OrderStatus(1L, OrderStatus.ACCEPTED),
+                new OrderStatus(2L, OrderStatus.COOKING),
+                new OrderStatus(3L, OrderStatus.PAID)));
+        OrderStatusRegistry orderStatusRegistry = new OrderStatusRegistry(orderStatusRepository, 0);
+        orderStatusRegistry.refresh();
+        clearInvocations(orderStatusRepository);
+
+        orderService = new OrderService(orderRepository,
+                mock(OrderItemRepository.class),
+                tableRepository,
+                mock(ReservationRepository.class),
+                new OrderLineResolver(dishRepository),
+                orderStatusRegistry,
+                userRepository,
+                () -> "ORD-000001",
+                mock(ApplicationEventPublisher.class),
+                new OptimisticLockRetry(mock(PlatformTransactionManager.class), 5),
+                mock(IdempotencyService.class),
+                domainEventBus,
+                mock(ArchivedOrderRepository.class),
+                mock(OrderStatusTransitionRepository.class));
+
+        RestaurantTable table = new RestaurantTable("T1", 4);
+        table.setId(1L);
+        when(tableRepository.findById(1L)).thenReturn(Optional.of(table));
+
+        User waiter = new User("waiter", "hash", "Waiter", new UserRole("WAITER"));
+        when(userRepository.findByUsername("waiter")).thenReturn(Optional.of(waiter));
+
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(orderRepository.saveAndFlush(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        when(dishRepository.findAllByIdWithCategory(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().map(OrderServiceTest::dish).collect(Collectors.toList());
+        });
+    }
+
+    // Число SQL-запросов на заказ проверяет OrderListQueryCountTest на настоящей базе
+    @ParameterizedTest
+    @ValueSource(ints = {1, 5, 40, 120})
+    void createOrderResolvesEveryLine(int lines) {
+        OrderDTO.OrderResponse response = orderService.createOrder(request(lines), "waiter");
+
+        assertEquals(lines, response.getOrderItems().size());
+        for (int i = 0; i < lines; i++) {
+            OrderDTO.OrderItemResponse item = response.getOrderItems().get(i);
+            assertEquals("Dish " + (i + 1), item.getDishName());
+            assertEquals(0, BigDecimal.valueOf(100).compareTo(item.getUnitPrice()));
+        }
+        assertEquals(0, BigDecimal.valueOf(100L * lines).compareTo(response.getTotalAmount()));
+        assertEquals(OrderStatus.ACCEPTED, response.getStatus());
+    }
+
+    @Test
+    void createOrderReportsEveryUnavailableDish() {
+        when(dishRepository.findAllByIdWithCategory(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream()
+                    .filter(id -> id != 3L)
+                    .map(id -> {
+                        Dish dish = dish(id);
+                        dish.setIsActive(id != 2L);
+                        return dish;
+                    })
+                    .collect(Collectors.toList());
+        });
+
+        RuntimeException ex = assertThrows(RuntimeException.class,
+                () -> orderService.createOrder(request(4), "waiter"));
+
+        assertTrue(ex.getMessage().contains("Dish is not available: Dish 2"));
+        assertTrue(ex.getMessage().contains("Dish not found with id: 3"));
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
+    @Test
+    void updateOrderItemsKeepsTotalInSyncWithLines() {
+        Order order = new Order("ORD-000002", new RestaurantTable("T2", 2), new OrderStatus(2L, OrderStatus.COOKING));
+        for (long i = 1; i <= 3; i++) {
+            OrderItem item = new OrderItem(dish(i), 2);
+            item.setId(10 + i);
+            order.addOrderItem(item);
+        }
+        when(orderRepository.findById(7L)).thenReturn(Optional.of(order));
+
+        OrderDTO.OrderItemQuantityRequest change = new OrderDTO.OrderItemQuantityRequest();
+        change.setOrderItemId(12L);
+        change.setQuantity(5);
+        OrderDTO.UpdateOrderItemsRequest request = new OrderDTO.UpdateOrderItemsRequest();
+        request.setRemove(List.of(11L));
+        request.setChange(List.of(change));
+        request.setAdd(request(2).getOrderItems());
+
+        OrderDTO.OrderResponse response = orderService.updateOrderItems(7L, request);
+
+        assertEquals(4, response.getOrderItems().size());
+        assertEquals(0, new BigDecimal("900").compareTo(response.getTotalAmount()));
+        BigDecimal beforeRecalculation = order.getTotalAmount();
+        order.recalculateTotalAmount();
+        assertEquals(0, beforeRecalculation.compareTo(order.getTotalAmount()));
+    }
+
+    @Test
+    void updateOrderItemsRejectsUnknownLinesWithoutChangingOrder() {
+        Order order = new Order("ORD-000003", new RestaurantTable("T3", 2), new OrderStatus(2L, OrderStatus.COOKING));
+        OrderItem item = new OrderItem(dish(1L), 1);
+        item.setId(21L);
+        order.addOrderItem(item);
+        when(orderRepository.findById(8L)).thenReturn(Optional.of(order));
+
+        OrderDTO.UpdateOrderItemsRequest request = new OrderDTO.UpdateOrderItemsRequest();
+        request.setRemove(List.of(21L, 99L));
+        request.setAdd(request(1).getOrderItems());
+
+        RuntimeException ex = assertThrows(RuntimeException.class,
+                () -> orderService.updateOrderItems(8L, request));
+
+        assertTrue(ex.getMessage().contains("Order item not found with id: 99"));
+        assertEquals(1, order.getOrderItems().size());
+        assertEquals(0, new BigDecimal("100").compareTo(order.getTotalAmount()));
+    }
+
+    @Test
+    void updateOrderItemsRejectsItemsAlreadyInKitchen() {
+        Order order = new Order("ORD-000005", new RestaurantTable("T5", 2), new OrderStatus(2L, OrderStatus.COOKING));
+        OrderItem done = new OrderItem(dish(1L), 2);
+        done.setId(31L);
+        done.setKitchenStatus(OrderItem.KitchenStatus.DONE);
+        order.addOrderItem(done);
+        OrderItem partlyCooked = new OrderItem(dish(2L), 3);
+        partlyCooked.setId(32L);
+        partlyCooked.setKitchenDoneQuantity(1);
+        order.addOrderItem(partlyCooked);
+        when(orderRepository.findById(10L)).thenReturn(Optional.of(order));
+
+        OrderDTO.OrderItemQuantityRequest change = new OrderDTO.OrderItemQuantityRequest();
+        change.setOrderItemId(31L);
+        change.setQuantity(4);
+        OrderDTO.UpdateOrderItemsRequest request = new OrderDTO.UpdateOrderItemsRequest();
+        request.setRemove(List.of(32L));
+        request.setChange(List.of(change));
+
+        RuntimeException ex = assertThrows(RuntimeException.class,
+                () -> orderService.updateOrderItems(10L, request));
+
+        assertTrue(ex.getMessage().contains("already being cooked, add a new item instead: 31"));
+        assertTrue(ex.getMessage().contains("already being cooked: 32"));
+        assertEquals(2, done.getQuantity());
+        assertEquals(2, order.getOrderItems().size());
+        verify(orderRepository, never()).saveAndFlush(any(Order.class));
+    }
+
+    @Test
+    void markOrderPaidIsIdempotent() {
+        Order order = new Order("ORD-000004", new RestaurantTable("T4", 2), new OrderStatus(2L, OrderStatus.COOKING));
+        when(orderRepository.findById(9L)).thenReturn(Optional.of(order));
+
+        orderService.markOrderPaid(9L);
+        orderService.markOrderPaid(9L);
+
+        assertEquals(3L, order.getStatus().getId());
+        verify(orderRepository, times(1)).saveAndFlush(order);
+        verify(domainEventBus, times(1)).publish(any(OrderStatusChanged.class));
+    }
+
+    private static OrderDTO.CreateOrderRequest request(int lines) {
+        List<OrderDTO.OrderItemRequest> items = new ArrayList<>();
+        for (long i = 1; i <= lines; i++) {
+            OrderDTO.OrderItemRequest item = new OrderDTO.OrderItemRequest();
+            item.setDishId(i);
+            item.setQuantity(1);
+            items.add(item);
+        }
+        OrderDTO.CreateOrderRequest request = new OrderDTO.CreateOrderRequest();
+        request.setTableId(1L);
+        request.setOrderItems(items);
+        return request;
+    }
+
+    private static Dish dish(Long id) {
+        Dish dish = new Dish("Dish " + id, BigDecimal.valueOf(100), new MenuCategory("Супы"));
+        dish.setId(id);
+        return dish;
+    }
+}
@@ -0,0 +1,126 @@
+package com.restaurant.service;
+
+import com.restaurant.entity.OrderStatus;
+import com.restaurant.repository.OrderStatusRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class OrderStatusRegistryTest {
+
+    // Содержимое order_statuses: тесты меняют его так же, как это сделал бы администратор
+    private List<OrderStatus> table;
+    private OrderStatusRepository orderStatusRepository;
+    private OrderStatusRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        table = new ArrayList<>(List.of(
+                new OrderStatus(1L, OrderStatus.ACCEPTED),
+                new OrderStatus(2L, OrderStatus.COOKING),
+                new OrderStatus(3L, OrderStatus.PAID)));
+        orderStatusRepository = mock(OrderStatusRepository.class);
+        when(orderStatusRepository.findAll()).thenAnswer(invocation -> List.copyOf(table));
+        registry = new OrderStatusRegistry(orderStatusRepository, 0);
+        registry.refresh();
+    }
+
+    @Test
+    void resolvesNamesAndIdsFromLoadedStatuses() {
+        // Переименование в таблице без перечитывания не видно: имена отдаются из памяти
+        table.set(1, new OrderStatus(2L, "варится"));
+
+        assertEquals(2L, registry.idOf(OrderStatus.COOKING));
+        assertEquals(OrderStatus.COOKING, registry.getById(2L).getStatusName());
+        assertEquals(OrderStatus.PAID, registry.getById(3L).getStatusName());
+    }
+
+    @Test
+    void rejectsIllegalTransitions() {
+        registry.checkTransition(1L, registry.getByName(OrderStatus.COOKING));
+        registry.checkTransition(2L, registry.getByName(OrderStatus.PAID));
+
+        assertThrows(RuntimeException.class,
+                () -> registry.checkTransition(3L, registry.getByName(OrderStatus.ACCEPTED)));
+        assertThrows(RuntimeException.class,
+                () -> registry.checkTransition(2L, registry.getByName(OrderStatus.ACCEPTED)));
+    }
+
+    @Test
+    void statusAddedLaterIsFoundOnMiss() {
+        assertThrows(RuntimeException.class, () -> registry.getByName(OrderStatus.READY));
+
+        table.add(new OrderStatus(4L, OrderStatus.READY));
+
+        assertEquals(4L, registry.idOf(OrderStatus.READY));
+        assertEquals(OrderStatus.READY, registry.getById(4L).getStatusName());
+        // С появлением статуса начинают действовать и его правила
+        registry.checkTransition(2L, registry.getByName(OrderStatus.READY));
+        assertThrows(RuntimeException.class,
+                () -> registry.checkTransition(4L, registry.getByName(OrderStatus.COOKING)));
+    }
+
+    @Test
+    void missesDoNotReloadWithinInterval() {
+        OrderStatusRegistry throttled = new OrderStatusRegistry(orderStatusRepository, 60_000);
+        throttled.refresh();
+
+        table.add(new OrderStatus(4L, OrderStatus.READY));
+
+        // Промах внутри интервала не перечитывает справочник: новый статус появится только после обновления
+        for (int i = 0; i < 5; i++) {
+            assertThrows(RuntimeException.class, () -> throttled.getByName(OrderStatus.READY));
+            assertThrows(RuntimeException.class, () -> throttled.getById(4L));
+        }
+        throttled.refresh();
+        assertEquals(4L, throttled.idOf(OrderStatus.READY));
+    }
+
+    @Test
+    void statusesOutsideRulesAreNotDeadEnds() {
+        table.add(new OrderStatus(4L, "на доставке"));
+        registry.refresh();
+
+        registry.checkTransition(2L, registry.getByName("на доставке"));
+        registry.checkTransition(4L, registry.getByName(OrderStatus.PAID));
+        // "готов" нет в справочнике - правило готовится -> готов не действует, остальные правила на месте
+        assertThrows(RuntimeException.class,
+                () -> registry.checkTransition(3L, registry.getByName(OrderStatus.COOKING)));
+    }
+
+    @Test
+    void initCreatesMissingRequiredStatuses() {
+        table.subList(1, table.size()).clear();
+        when(orderStatusRepository.save(any(OrderStatus.class))).thenAnswer(invocation -> {
+            OrderStatus status = invocation.getArgument(0);
+            table.add(new OrderStatus((long) table.size() + 1, status.getStatusName()));
+            return status;
+        });
+        OrderStatusRegistry incomplete = new OrderStatusRegistry(orderStatusRepository, 0);
+
+        incomplete.init();
+
+        assertEquals(1L, incomplete.idOf(OrderStatus.ACCEPTED));
+        assertNotNull(incomplete.idOf(OrderStatus.COOKING));
+        assertNotNull(incomplete.idOf(OrderStatus.PAID));
+    }
+
+    @Test
+    void initSurvivesReadOnlyDatabase() {
+        table.subList(1, table.size()).clear();
+        when(orderStatusRepository.save(any(OrderStatus.class))).thenThrow(new IllegalStateException("read-only"));
+        OrderStatusRegistry incomplete = new OrderStatusRegistry(orderStatusRepository, 0);
+
+        incomplete.init();
+
+        assertEquals(1L, incomplete.idOf(OrderStatus.ACCEPTED));
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> incomplete.idOf(OrderStatus.PAID));
+        assertTrue(ex.getMessage().contains(OrderStatus.PAID));
+    }
+}
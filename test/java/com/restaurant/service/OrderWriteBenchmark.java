@@ -0,0 +1,106 @@
+package com.restaurant.service;
+
+import com.restaurant.dto.OrderDTO;
+import com.restaurant.entity.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+// Запуск: mvn test -Dtest=OrderWriteBenchmark -Dbenchmark=true
+// Меряет настоящую запись заказа: OrderService.createOrder -> EntityManager.persist с pooled-последовательностями
+// (allocationSize = 50) и hibernate.jdbc.batch_size из application.properties.
+// По умолчанию - H2 в памяти (профиль embedded); для MySQL - отдельная пустая база:
+//   -Dspring.datasource.url=jdbc:mysql://localhost:3306/restaurant_bench?rewriteBatchedStatements=true
+//   -Dspring.datasource.username=... -Dspring.datasource.password=...
+// Для сравнения без пакетной вставки - тот же запуск с -Dspring.jpa.properties.hibernate.jdbc.batch_size=1.
+// Заказы бенчмарка остаются в базе.
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("embedded")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class OrderWriteBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderWriteBenchmark.class);
+
+    private static final int ORDERS = 2_000;
+    private static final int ITEMS_PER_ORDER = 20;
+    private static final int WARMUP_ORDERS = 500;
+    private static final BigDecimal PRICE = BigDecimal.valueOf(350);
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:1}")
+    private int batchSize;
+
+    @Test
+    void createOrdersThroughOrderService() {
+        String suffix = Long.toString(System.nanoTime() % 100_000_000L, 36);
+        List<OrderDTO.OrderItemRequest> items = new ArrayList<>();
+        OrderDTO.CreateOrderRequest request = new OrderDTO.CreateOrderRequest();
+        String waiterUsername = "bench_" + suffix;
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            UserRole role = new UserRole("BENCH_" + suffix);
+            User waiter = new User(waiterUsername, "hash", "Bench Waiter", role);
+            RestaurantTable table = new RestaurantTable("B" + suffix, 4);
+            MenuCategory category = new MenuCategory("Bench " + suffix);
+            List.of(role, waiter, table, category).forEach(entityManager::persist);
+            for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+                Dish dish = new Dish("Bench dish " + suffix + "-" + i, PRICE, category);
+                entityManager.persist(dish);
+                OrderDTO.OrderItemRequest item = new OrderDTO.OrderItemRequest();
+                item.setDishId(dish.getId());
+                item.setQuantity(1);
+                items.add(item);
+            }
+            request.setTableId(table.getId());
+        });
+        request.setOrderItems(items);
+
+        createOrders(request, waiterUsername, WARMUP_ORDERS);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        long start = System.nanoTime();
+        createOrders(request, waiterUsername, ORDERS);
+        double ordersPerSecond = ORDERS * 1_000_000_000.0 / (System.nanoTime() - start);
+
+        logger.info("createOrder with {} items, batch_size {}: {} orders/s, {} JDBC statements and {} rows inserted per order",
+                ITEMS_PER_ORDER,
+                batchSize,
+                String.format("%.1f", ordersPerSecond),
+                String.format("%.1f", (double) statistics.getPrepareStatementCount() / ORDERS),
+                String.format("%.1f", (double) statistics.getEntityInsertCount() / ORDERS));
+    }
+
+    // Каждый заказ - своя транзакция, как при вызове из контроллера
+    private void createOrders(OrderDTO.CreateOrderRequest request, String waiterUsername, int orders) {
+        for (int i = 0; i < orders; i++) {
+            orderService.createOrder(request, waiterUsername);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.restaurant.service;
+
+import com.restaurant.dto.CommonDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrefixSuggesterTest {
+
+    private final PrefixSuggester suggester = PrefixSuggester.build(List.of(
+            new PrefixSuggester.Entry(1L, "Салат Цезарь", 40),
+            new PrefixSuggester.Entry(2L, "Салат Оливье", 90),
+            new PrefixSuggester.Entry(3L, "Сёмга на гриле", 15),
+            new PrefixSuggester.Entry(4L, "Солянка", 60),
+            new PrefixSuggester.Entry(5L, "Цезарь с креветками", 70)));
+
+    @Test
+    void prefixMatchesAnyWordRankedByPopularity() {
+        assertEquals(List.of(5L, 1L), ids("цез"));
+        // "с" - ещё и предлог в "Цезарь с креветками"
+        assertEquals(List.of(2L, 5L, 4L, 1L, 3L), ids("С"));
+        // Каждое блюдо - один раз, даже если совпало по нескольким словам
+        assertEquals(List.of(5L, 1L), ids("Цезарь"));
+    }
+
+    @Test
+    void normalizesYoCaseAndSpaces() {
+        assertEquals(List.of(3L), ids("семга"));
+        assertEquals(List.of(1L), ids("  салат   ц"));
+        assertEquals(List.of(2L, 1L), ids("САЛАТ "));
+        assertEquals(List.of(3L), ids("грил"));
+    }
+
+    @Test
+    void returnsTopKOnly() {
+        List<CommonDTO.Suggestion> top = suggester.suggest("с", 2);
+        assertEquals(List.of(2L, 5L), top.stream().map(CommonDTO.Suggestion::getId).toList());
+        assertEquals(90, top.get(0).getPopularity());
+        assertTrue(suggester.suggest("пицца", 5).isEmpty());
+        assertTrue(suggester.suggest("", 5).isEmpty());
+        assertTrue(PrefixSuggester.EMPTY.suggest("с", 5).isEmpty());
+    }
+
+    private List<Long> ids(String prefix) {
+        return suggester.suggest(prefix, 10).stream().map(CommonDTO.Suggestion::getId).toList();
+    }
+}
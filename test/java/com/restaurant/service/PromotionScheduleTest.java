@@ -0,0 +1,77 @@
+package com.restaurant.service;
+
+import com.restaurant.entity.Promotion;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.EnumSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PromotionScheduleTest {
+
+    // 2026-10-16 - пятница
+    private static final LocalDateTime FRIDAY = LocalDateTime.of(2026, 10, 16, 0, 0);
+
+    @Test
+    void happyHourOnWeekdays() {
+        Promotion promotion = promotion(EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY),
+                LocalTime.of(17, 0), LocalTime.of(19, 0));
+
+        assertFalse(PromotionSchedule.isActive(promotion, FRIDAY.withHour(16).withMinute(59)));
+        assertTrue(PromotionSchedule.isActive(promotion, FRIDAY.withHour(17)));
+        assertFalse(PromotionSchedule.isActive(promotion, FRIDAY.withHour(19)));
+        assertFalse(PromotionSchedule.isActive(promotion, FRIDAY.plusDays(1).withHour(18)));
+
+        assertEquals(FRIDAY.withHour(17), PromotionSchedule.nextBoundary(promotion, FRIDAY.withHour(12)));
+        assertEquals(FRIDAY.withHour(19), PromotionSchedule.nextBoundary(promotion, FRIDAY.withHour(17)));
+        // Выходные пропускаются: следующее окно - в понедельник
+        assertEquals(FRIDAY.plusDays(3).withHour(17), PromotionSchedule.nextBoundary(promotion, FRIDAY.withHour(19)));
+    }
+
+    @Test
+    void windowAcrossMidnightBelongsToItsStartDay() {
+        Promotion promotion = promotion(EnumSet.of(DayOfWeek.FRIDAY), LocalTime.of(22, 0), LocalTime.of(2, 0));
+
+        assertTrue(PromotionSchedule.isActive(promotion, FRIDAY.withHour(23)));
+        assertTrue(PromotionSchedule.isActive(promotion, FRIDAY.plusDays(1).withHour(1)));
+        assertFalse(PromotionSchedule.isActive(promotion, FRIDAY.withHour(1)));
+        assertEquals(FRIDAY.plusDays(1).withHour(2), PromotionSchedule.nextBoundary(promotion, FRIDAY.withHour(23)));
+    }
+
+    @Test
+    void datesLimitTheSchedule() {
+        Promotion promotion = promotion(null, null, null);
+        promotion.setStartsAt(FRIDAY.withHour(10));
+        promotion.setEndsAt(FRIDAY.plusDays(2));
+
+        assertFalse(PromotionSchedule.isActive(promotion, FRIDAY.withHour(9)));
+        assertTrue(PromotionSchedule.isActive(promotion, FRIDAY.withHour(10)));
+        assertFalse(PromotionSchedule.isActive(promotion, FRIDAY.plusDays(2)));
+        assertEquals(FRIDAY.withHour(10), PromotionSchedule.nextBoundary(promotion, FRIDAY));
+        assertNull(PromotionSchedule.nextBoundary(promotion, FRIDAY.plusDays(2)));
+
+        promotion.setIsEnabled(false);
+        assertFalse(PromotionSchedule.isActive(promotion, FRIDAY.withHour(12)));
+    }
+
+    @Test
+    void daysMaskRoundTrip() {
+        Set<DayOfWeek> weekend = EnumSet.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY);
+        assertEquals(weekend, PromotionSchedule.days(PromotionSchedule.daysMask(weekend)));
+        assertEquals(Promotion.ALL_DAYS, PromotionSchedule.daysMask(null));
+    }
+
+    private static Promotion promotion(Set<DayOfWeek> days, LocalTime start, LocalTime end) {
+        Promotion promotion = new Promotion();
+        promotion.setPromotionPrice(new BigDecimal("199.00"));
+        promotion.setDaysOfWeek(PromotionSchedule.daysMask(days));
+        promotion.setStartTime(start);
+        promotion.setEndTime(end);
+        return promotion;
+    }
+}
@@ -0,0 +1,164 @@
+package com.restaurant.service;
+
+import com.restaurant.entity.Reservation;
+import com.restaurant.entity.RestaurantTable;
+import com.restaurant.event.ReservationEvent;
+import com.restaurant.repository.ReservationRepository;
+import com.restaurant.repository.RestaurantTableRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ReservationIntervalIndexTest {
+
+    // Индекс отвечает только о будущем, поэтому день берётся от текущей даты
+    private final LocalDate day = LocalDate.now().plusDays(10);
+
+    private ReservationRepository reservationRepository;
+    private RestaurantTableRepository tableRepository;
+    private ReservationIntervalIndex index;
+
+    @BeforeEach
+    void setUp() {
+        reservationRepository = mock(ReservationRepository.class);
+        tableRepository = mock(RestaurantTableRepository.class);
+        index = new ReservationIntervalIndex(reservationRepository, tableRepository,
+                mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    void conflictsAreFoundAcrossMidnightAndOverlappingReservations() {
+        when(reservationRepository.findActiveForIndex(anyList(), any(), anyInt())).thenReturn(List.of(
+                reservation(1L, 1L, day, "18:00", 120),
+                reservation(2L, 2L, day, "23:00", 120),
+                // Пересекающиеся брони одного столика: короткая начинается позже длинной
+                reservation(3L, 3L, day, "17:00", 300),
+                reservation(4L, 3L, day, "18:00", 30)));
+        index.rebuild();
+
+        assertTrue(index.hasConflict(1L, at(day, "19:30"), at(day, "20:30"), null));
+        assertFalse(index.hasConflict(1L, at(day, "20:00"), at(day, "21:00"), null));
+        assertFalse(index.hasConflict(1L, at(day, "19:30"), at(day, "20:30"), 1L));
+        assertTrue(index.hasConflict(2L, at(day.plusDays(1), "00:30"), at(day.plusDays(1), "01:30"), null));
+        assertFalse(index.hasConflict(2L, at(day.plusDays(1), "01:00"), at(day.plusDays(1), "02:00"), null));
+        assertTrue(index.hasConflict(3L, at(day, "21:00"), at(day, "21:30"), null));
+        assertTrue(index.hasConflict(3L, at(day, "18:10"), at(day, "18:20"), 3L));
+        assertFalse(index.hasConflict(3L, at(day, "22:00"), at(day, "23:00"), null));
+        verify(reservationRepository, never()).findConflictingReservations(any(), any(), any());
+    }
+
+    @Test
+    void cancelledReservationLeavesIndexAndStaleReadDoesNotRestoreIt() {
+        Reservation pending = reservation(1L, 1L, day, "19:00", 120);
+        when(reservationRepository.findActiveForIndex(anyList(), any(), anyInt())).thenReturn(List.of(pending));
+        index.rebuild();
+
+        Reservation cancelled = reservation(1L, 1L, day, "19:00", 120);
+        cancelled.setStatus(Reservation.ReservationStatus.CANCELLED);
+        cancelled.setVersion(1L);
+        when(reservationRepository.findById(1L)).thenReturn(Optional.of(cancelled));
+        index.refresh(1L);
+        assertFalse(index.hasConflict(1L, at(day, "19:00"), at(day, "20:00"), null));
+
+        // Сверка прочитала строку до отмены
+        when(reservationRepository.findUpdatedSince(any())).thenReturn(List.of(pending));
+        index.resync();
+        assertFalse(index.hasConflict(1L, at(day, "19:00"), at(day, "20:00"), null));
+    }
+
+    @Test
+    void movedReservationFreesOldTableAndTime() {
+        when(reservationRepository.findActiveForIndex(anyList(), any(), anyInt()))
+                .thenReturn(List.of(reservation(1L, 1L, day, "19:00", 120)));
+        index.rebuild();
+
+        Reservation moved = reservation(1L, 2L, day, "12:00", 60);
+        moved.setVersion(1L);
+        when(reservationRepository.findById(1L)).thenReturn(Optional.of(moved));
+        index.refresh(1L);
+
+        assertFalse(index.hasConflict(1L, at(day, "19:00"), at(day, "20:00"), null));
+        assertTrue(index.hasConflict(2L, at(day, "12:30"), at(day, "13:30"), null));
+    }
+
+    @Test
+    void reservationEventsAreAppliedInBackground() throws Exception {
+        when(reservationRepository.findActiveForIndex(anyList(), any(), anyInt()))
+                .thenReturn(List.of(reservation(1L, 1L, day, "19:00", 120)));
+        index.rebuild();
+        // Бронь 1 удалена, бронь 2 создана
+        when(reservationRepository.findAllById(anyIterable()))
+                .thenReturn(List.of(reservation(2L, 2L, day, "12:00", 60)));
+
+        try {
+            index.onReservationEvent(new ReservationEvent(1L));
+            index.onReservationEvent(new ReservationEvent(2L));
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (!index.hasConflict(2L, at(day, "12:30"), at(day, "13:30"), null) && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+        } finally {
+            index.shutdown();
+        }
+
+        assertTrue(index.hasConflict(2L, at(day, "12:30"), at(day, "13:30"), null));
+        assertFalse(index.hasConflict(1L, at(day, "19:00"), at(day, "20:00"), null));
+        verify(reservationRepository, never()).findById(any());
+    }
+
+    @Test
+    void availableTablesSkipBusyOnes() {
+        when(reservationRepository.findActiveForIndex(anyList(), any(), anyInt()))
+                .thenReturn(List.of(reservation(1L, 1L, day, "19:00", 120)));
+        index.rebuild();
+        when(tableRepository.findAvailableTablesByCapacity(4)).thenReturn(List.of(table(1L), table(2L)));
+
+        List<RestaurantTable> available = index.findAvailableTables(at(day, "20:00"), at(day, "22:00"), 4);
+
+        assertEquals(List.of(2L), available.stream().map(RestaurantTable::getId).toList());
+        verify(tableRepository, never()).findAvailableTables(any(), any(), any());
+    }
+
+    @Test
+    void queriesGoToDatabaseUntilIndexIsLoaded() {
+        when(reservationRepository.findConflictingReservations(eq(1L), any(), any()))
+                .thenReturn(List.of(reservation(1L, 1L, day, "19:00", 120)));
+
+        assertTrue(index.hasConflict(1L, at(day, "19:00"), at(day, "20:00"), null));
+        assertFalse(index.hasConflict(1L, at(day, "19:00"), at(day, "20:00"), 1L));
+    }
+
+    private static Reservation reservation(Long id, Long tableId, LocalDate date, String time, int minutes) {
+        Reservation reservation = new Reservation();
+        reservation.setId(id);
+        reservation.setVersion(0L);
+        reservation.setTable(table(tableId));
+        reservation.setReservationDate(date);
+        reservation.setReservationTime(LocalTime.parse(time));
+        reservation.setDurationMinutes(minutes);
+        reservation.setStatus(Reservation.ReservationStatus.PENDING);
+        return reservation;
+    }
+
+    private static RestaurantTable table(Long id) {
+        RestaurantTable table = new RestaurantTable("T" + id, 4);
+        table.setId(id);
+        return table;
+    }
+
+    private static LocalDateTime at(LocalDate date, String time) {
+        return LocalDateTime.of(date, LocalTime.parse(time));
+    }
+}